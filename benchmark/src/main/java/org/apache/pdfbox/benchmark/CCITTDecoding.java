@@ -0,0 +1,169 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.benchmark;
+
+import java.awt.image.Raster;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.filter.Filter;
+import org.apache.pdfbox.filter.FilterFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Decodes CCITT Group 4 images of the size of A4 pages scanned with 300 dpi: a page of text, a
+ * form with ruled lines and a page with a dithered photo, which has many short runs.
+ */
+@State(Scope.Benchmark)
+public class CCITTDecoding {
+
+    private static final int WIDTH = 2480;
+    private static final int HEIGHT = 3508;
+    private static final int MARGIN = 240;
+    private static final int ROW_LENGTH = (WIDTH + 7) / 8;
+
+    @Param({ "text", "form", "photo" })
+    private String page;
+
+    private Filter filter;
+    private byte[] encoded;
+    private COSDictionary parameters;
+
+    @Setup
+    public void createPage() throws IOException {
+        filter = FilterFactory.INSTANCE.getFilter(COSName.CCITTFAX_DECODE);
+        Random random = new Random(4711);
+        byte[] bitmap = new byte[ROW_LENGTH * HEIGHT];
+        switch (page) {
+            case "text":
+                drawText(bitmap, random, MARGIN, HEIGHT - MARGIN);
+                break;
+            case "form":
+                drawForm(bitmap, random);
+                break;
+            default:
+                drawText(bitmap, random, MARGIN, 900);
+                drawPhoto(bitmap, random, 1000, HEIGHT - MARGIN);
+                break;
+        }
+
+        COSDictionary encodeParameters = new COSDictionary();
+        encodeParameters.setInt(COSName.COLUMNS, WIDTH);
+        encodeParameters.setInt(COSName.ROWS, HEIGHT);
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        filter.encode(new ByteArrayInputStream(bitmap), baos, encodeParameters, 0);
+        encoded = baos.toByteArray();
+
+        COSDictionary decodeParms = new COSDictionary();
+        decodeParms.setInt(COSName.K, -1);
+        decodeParms.setInt(COSName.COLUMNS, WIDTH);
+        decodeParms.setInt(COSName.ROWS, HEIGHT);
+        parameters = new COSDictionary();
+        parameters.setItem(COSName.FILTER, COSName.CCITTFAX_DECODE);
+        parameters.setItem(COSName.DECODE_PARMS, decodeParms);
+        parameters.setInt(COSName.HEIGHT, HEIGHT);
+    }
+
+    // lines of 30 pixels high glyphs made of stems and bars, with gaps between words
+    private static void drawText(byte[] bitmap, Random random, int top, int bottom) {
+        for (int y = top; y + 30 < bottom; y += 52) {
+            int x = MARGIN;
+            while (x < WIDTH - MARGIN - 40) {
+                int glyphWidth = 14 + random.nextInt(16);
+                int shape = random.nextInt(4);
+                fill(bitmap, x, y, 4, 30);
+                if (shape != 0) {
+                    fill(bitmap, x + glyphWidth - 4, y + 8, 4, 22);
+                }
+                if (shape != 1) {
+                    fill(bitmap, x, y + 8, glyphWidth, 3);
+                }
+                if (shape == 2 || shape == 3) {
+                    fill(bitmap, x, y + 27, glyphWidth, 3);
+                }
+                x += glyphWidth + 4;
+                if (random.nextInt(6) == 0) {
+                    x += 20;
+                }
+            }
+        }
+    }
+
+    // boxes with ruled lines and some text in each box
+    private static void drawForm(byte[] bitmap, Random random) {
+        for (int y = MARGIN; y + 200 < HEIGHT - MARGIN; y += 200) {
+            fill(bitmap, MARGIN, y, WIDTH - 2 * MARGIN, 3);
+            for (int x = MARGIN; x < WIDTH - MARGIN; x += 500) {
+                fill(bitmap, x, y, 3, 200);
+            }
+            fill(bitmap, WIDTH - MARGIN, y, 3, 200);
+            drawText(bitmap, random, y + 20, y + 80);
+            for (int line = y + 120; line < y + 200; line += 40) {
+                fill(bitmap, MARGIN + 40, line, WIDTH - 2 * MARGIN - 80, 1);
+            }
+        }
+        fill(bitmap, MARGIN, HEIGHT - MARGIN - 1, WIDTH - 2 * MARGIN, 3);
+    }
+
+    // a photo which has been dithered for the 1 bit image
+    private static void drawPhoto(byte[] bitmap, Random random, int top, int bottom) {
+        for (int y = top; y < bottom; y++) {
+            for (int x = MARGIN; x < WIDTH - MARGIN; x++) {
+                double gray = 0.5 + 0.4 * Math.sin(x / 180.0) * Math.cos(y / 240.0);
+                if (random.nextDouble() < gray) {
+                    bitmap[y * ROW_LENGTH + x / 8] |= (byte) (0x80 >> (x & 7));
+                }
+            }
+        }
+    }
+
+    private static void fill(byte[] bitmap, int x, int y, int width, int height) {
+        for (int row = y; row < y + height; row++) {
+            for (int column = x; column < x + width; column++) {
+                bitmap[row * ROW_LENGTH + column / 8] |= (byte) (0x80 >> (column & 7));
+            }
+        }
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @BenchmarkMode(Mode.AverageTime)
+    public byte[] decode() throws IOException {
+        ByteArrayOutputStream decoded = new ByteArrayOutputStream(ROW_LENGTH * HEIGHT);
+        filter.decode(new ByteArrayInputStream(encoded), decoded, parameters, 0);
+        return decoded.toByteArray();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @BenchmarkMode(Mode.AverageTime)
+    public Raster decodeToRaster() throws IOException {
+        return filter.decodeToRaster(new ByteArrayInputStream(encoded), parameters, 0);
+    }
+}
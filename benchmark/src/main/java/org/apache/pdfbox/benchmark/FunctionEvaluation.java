@@ -0,0 +1,176 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.benchmark;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.pdfbox.cos.COSArray;
+import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.cos.COSFloat;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSStream;
+import org.apache.pdfbox.pdmodel.common.function.PDFunction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Evaluates functions the way shadings and tint transforms do, once per color: sampled functions
+ * with one input (a tint transform to CMYK) and two inputs (a function based shading), an
+ * exponential function, a stitching function made of three exponential functions and a PostScript
+ * calculator function.
+ */
+@State(Scope.Benchmark)
+public class FunctionEvaluation {
+
+    private static final int EVALUATIONS = 10000;
+
+    @Param({ "sampled1", "sampled2", "exponential", "stitching", "postscript" })
+    private String type;
+
+    private PDFunction function;
+    private float[][] inputs;
+
+    @Setup
+    public void createFunction() throws IOException {
+        Random random = new Random(4711);
+        int numberOfInputs;
+        switch (type) {
+            case "sampled1":
+                function = PDFunction.create(createSampledFunction(random, 1, 256, 4));
+                numberOfInputs = 1;
+                break;
+            case "sampled2":
+                function = PDFunction.create(createSampledFunction(random, 2, 32, 3));
+                numberOfInputs = 2;
+                break;
+            case "exponential":
+                function = PDFunction.create(createExponentialFunction(0, 1));
+                numberOfInputs = 1;
+                break;
+            case "stitching":
+                function = PDFunction.create(createStitchingFunction());
+                numberOfInputs = 1;
+                break;
+            default:
+                function = PDFunction.create(createPostScriptFunction());
+                numberOfInputs = 1;
+                break;
+        }
+        inputs = new float[EVALUATIONS][numberOfInputs];
+        for (float[] input : inputs) {
+            for (int i = 0; i < numberOfInputs; i++) {
+                input[i] = random.nextFloat();
+            }
+        }
+    }
+
+    private static COSArray createArray(float... values) {
+        COSArray array = new COSArray();
+        array.setFloatArray(values);
+        return array;
+    }
+
+    private static COSArray createUnitRanges(int count) {
+        COSArray array = new COSArray();
+        for (int i = 0; i < count; i++) {
+            array.add(new COSFloat(0));
+            array.add(new COSFloat(1));
+        }
+        return array;
+    }
+
+    private static COSStream createSampledFunction(Random random, int numberOfInputs, int size,
+            int numberOfOutputs) throws IOException {
+        COSStream stream = new COSStream();
+        stream.setInt(COSName.FUNCTION_TYPE, 0);
+        stream.setItem(COSName.DOMAIN, createUnitRanges(numberOfInputs));
+        stream.setItem(COSName.RANGE, createUnitRanges(numberOfOutputs));
+        COSArray sizes = new COSArray();
+        int numberOfSamples = 1;
+        for (int i = 0; i < numberOfInputs; i++) {
+            sizes.add(new COSFloat(size));
+            numberOfSamples *= size;
+        }
+        stream.setItem(COSName.SIZE, sizes);
+        stream.setInt(COSName.BITS_PER_SAMPLE, 8);
+        byte[] samples = new byte[numberOfSamples * numberOfOutputs];
+        random.nextBytes(samples);
+        try (OutputStream output = stream.createOutputStream()) {
+            output.write(samples);
+        }
+        return stream;
+    }
+
+    private static COSDictionary createExponentialFunction(float from, float to) {
+        COSDictionary dictionary = new COSDictionary();
+        dictionary.setInt(COSName.FUNCTION_TYPE, 2);
+        dictionary.setItem(COSName.DOMAIN, createUnitRanges(1));
+        dictionary.setItem(COSName.C0, createArray(from, 0, 1 - from));
+        dictionary.setItem(COSName.C1, createArray(to, 1, 1 - to));
+        dictionary.setInt(COSName.N, 1);
+        return dictionary;
+    }
+
+    private static COSDictionary createStitchingFunction() {
+        COSDictionary dictionary = new COSDictionary();
+        dictionary.setInt(COSName.FUNCTION_TYPE, 3);
+        dictionary.setItem(COSName.DOMAIN, createUnitRanges(1));
+        COSArray functions = new COSArray();
+        functions.add(createExponentialFunction(0, 0.3f));
+        functions.add(createExponentialFunction(0.3f, 0.7f));
+        functions.add(createExponentialFunction(0.7f, 1));
+        dictionary.setItem(COSName.FUNCTIONS, functions);
+        dictionary.setItem(COSName.BOUNDS, createArray(0.25f, 0.75f));
+        dictionary.setItem(COSName.ENCODE, createUnitRanges(3));
+        return dictionary;
+    }
+
+    // a tint transform from a spot color to CMYK
+    private static COSStream createPostScriptFunction() throws IOException {
+        COSStream stream = new COSStream();
+        stream.setInt(COSName.FUNCTION_TYPE, 4);
+        stream.setItem(COSName.DOMAIN, createUnitRanges(1));
+        stream.setItem(COSName.RANGE, createUnitRanges(4));
+        String program = "{ dup 0.05 mul exch dup 0.85 mul exch dup 0.3 mul exch dup 0.5 gt "
+                + "{ 0.5 sub 0.4 mul 0.1 add } { 0.2 mul } ifelse exch }";
+        try (OutputStream output = stream.createOutputStream()) {
+            output.write(program.getBytes(StandardCharsets.US_ASCII));
+        }
+        return stream;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @BenchmarkMode(Mode.AverageTime)
+    public float evaluate() throws IOException {
+        float sum = 0;
+        for (float[] input : inputs) {
+            sum += function.eval(input)[0];
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.fontbox.cff.CFFType1Font;
+import org.apache.fontbox.cff.Type2CharString;
+import org.apache.fontbox.cff.Type2CharStringParser;
+import org.apache.fontbox.ttf.OTFParser;
+import org.apache.fontbox.ttf.OpenTypeFont;
+import org.apache.pdfbox.io.RandomAccessReadBufferedFile;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares the glyph outline throughput of the direct Type 2 charstring interpreter with the conversion to a
+ * Type 1 sequence. The charstrings aren't cached, each operation renders all glyphs of the font.
+ */
+@State(Scope.Benchmark)
+public class GlyphOutlines {
+
+    static final String CFF_FONT = "target/pdfs/SourceSansProBold.otf";
+
+    private CFFType1Font font;
+    private List<byte[]> charStrings;
+    private byte[][] globalSubrs;
+    private byte[][] localSubrs;
+    private int defaultWidthX;
+    private int nominalWidthX;
+
+    @Setup
+    public void loadFont() throws IOException {
+        try (OpenTypeFont otf = new OTFParser().parse(new RandomAccessReadBufferedFile(new File(CFF_FONT)))) {
+            font = (CFFType1Font) otf.getCFF().getFont();
+        }
+        charStrings = font.getCharStringBytes();
+        globalSubrs = font.getGlobalSubrIndex().toArray(new byte[0][]);
+        Map<String, Object> privateDict = font.getPrivateDict();
+        localSubrs = (byte[][]) privateDict.get("Subrs");
+        Number defaultWidth = (Number) privateDict.get("defaultWidthX");
+        defaultWidthX = defaultWidth != null ? defaultWidth.intValue() : 1000;
+        Number nominalWidth = (Number) privateDict.get("nominalWidthX");
+        nominalWidthX = nominalWidth != null ? nominalWidth.intValue() : 0;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @BenchmarkMode(Mode.AverageTime)
+    public void directInterpreter(Blackhole blackhole) {
+        for (int gid = 0; gid < charStrings.size(); gid++) {
+            Type2CharString charString = new Type2CharString(font::getType1CharString, font.getName(),
+                    "GID+" + gid, gid, charStrings.get(gid), globalSubrs, localSubrs, defaultWidthX, nominalWidthX);
+            blackhole.consume(charString.getPath());
+        }
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @BenchmarkMode(Mode.AverageTime)
+    public void twoStageConversion(Blackhole blackhole) throws IOException {
+        Type2CharStringParser parser = new Type2CharStringParser(font.getName());
+        for (int gid = 0; gid < charStrings.size(); gid++) {
+            String name = "GID+" + gid;
+            List<Object> sequence = parser.parse(charStrings.get(gid), globalSubrs, localSubrs, name);
+            Type2CharString charString = new Type2CharString(font::getType1CharString, font.getName(),
+                    name, gid, sequence, defaultWidthX, nominalWidthX);
+            blackhole.consume(charString.getPath());
+        }
+    }
+}
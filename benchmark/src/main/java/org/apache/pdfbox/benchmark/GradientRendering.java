@@ -0,0 +1,178 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.benchmark;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.pdfbox.cos.COSArray;
+import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.cos.COSFloat;
+import org.apache.pdfbox.cos.COSInteger;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.PDResources;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.common.function.PDFunctionType3;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts.FontName;
+import org.apache.pdfbox.pdmodel.graphics.color.PDColor;
+import org.apache.pdfbox.pdmodel.graphics.color.PDDeviceRGB;
+import org.apache.pdfbox.pdmodel.graphics.color.PDPattern;
+import org.apache.pdfbox.pdmodel.graphics.pattern.PDShadingPattern;
+import org.apache.pdfbox.pdmodel.graphics.shading.PDShading;
+import org.apache.pdfbox.pdmodel.graphics.shading.PDShadingType2;
+import org.apache.pdfbox.pdmodel.graphics.shading.PDShadingType3;
+import org.apache.pdfbox.rendering.PDFRenderer;
+import org.apache.pdfbox.util.Matrix;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Renders the pages of a slide deck, with a gradient background, radial highlights, bars and a
+ * title filled with gradients, which use functions with several color stops.
+ */
+@State(Scope.Benchmark)
+public class GradientRendering {
+
+    private static final int PAGES = 5;
+    private static final int BARS = 12;
+
+    private PDDocument document;
+    private PDFRenderer renderer;
+
+    @Setup
+    public void createDocument() throws IOException {
+        document = new PDDocument();
+        PDRectangle slide = new PDRectangle(720, 405);
+        PDType1Font font = new PDType1Font(FontName.HELVETICA_BOLD);
+
+        PDShadingType2 background = new PDShadingType2(new COSDictionary());
+        background.setShadingType(PDShading.SHADING_TYPE2);
+        background.setColorSpace(PDDeviceRGB.INSTANCE);
+        background.setCoords(toArray(0, 405, 0, 0));
+        background.setFunction(createFunction(
+                new float[][] { { 0.1f, 0.2f, 0.4f }, { 0.2f, 0.4f, 0.7f }, { 0.9f, 0.9f, 1f } }));
+
+        PDShadingType3 highlight = new PDShadingType3(new COSDictionary());
+        highlight.setShadingType(PDShading.SHADING_TYPE3);
+        highlight.setColorSpace(PDDeviceRGB.INSTANCE);
+        highlight.setCoords(toArray(0, 0, 0, 0, 0, 120));
+        highlight.setFunction(createFunction(
+                new float[][] { { 1f, 1f, 0.8f }, { 1f, 0.7f, 0.3f }, { 0.6f, 0.2f, 0.1f } }));
+
+        PDShadingType2 bars = new PDShadingType2(new COSDictionary());
+        bars.setShadingType(PDShading.SHADING_TYPE2);
+        bars.setColorSpace(PDDeviceRGB.INSTANCE);
+        bars.setCoords(toArray(60, 0, 660, 0));
+        bars.setFunction(createFunction(
+                new float[][] { { 0.9f, 0.3f, 0.2f }, { 0.9f, 0.8f, 0.2f }, { 0.2f, 0.7f, 0.3f } }));
+        PDShadingPattern barPattern = new PDShadingPattern();
+        barPattern.setShading(bars);
+        PDPattern patternSpace = new PDPattern(null);
+
+        for (int p = 0; p < PAGES; p++) {
+            PDPage page = new PDPage(slide);
+            page.setResources(new PDResources());
+            document.addPage(page);
+            PDColor barColor = new PDColor(page.getResources().add(barPattern), patternSpace);
+            try (PDPageContentStream contents = new PDPageContentStream(document, page)) {
+                contents.shadingFill(background);
+                for (int i = 0; i < 3; i++) {
+                    contents.saveGraphicsState();
+                    contents.transform(Matrix.getTranslateInstance(140 + i * 220, 250 - i * 40));
+                    contents.addRect(-120, -120, 240, 240);
+                    contents.clip();
+                    contents.shadingFill(highlight);
+                    contents.restoreGraphicsState();
+                }
+                contents.setNonStrokingColor(barColor);
+                for (int i = 0; i < BARS; i++) {
+                    contents.addRect(60, 40 + i * 18, 120 + i * 45, 12);
+                    contents.fill();
+                }
+                contents.beginText();
+                contents.setFont(font, 36);
+                contents.newLineAtOffset(60, 340);
+                contents.showText("Quarterly results " + (p + 1));
+                contents.endText();
+            }
+        }
+        renderer = new PDFRenderer(document);
+    }
+
+    private static COSArray toArray(float... values) {
+        COSArray array = new COSArray();
+        for (float value : values) {
+            array.add(new COSFloat(value));
+        }
+        return array;
+    }
+
+    // a stitching function of exponential functions between the colors
+    private static PDFunctionType3 createFunction(float[][] colors) {
+        COSArray functions = new COSArray();
+        COSArray bounds = new COSArray();
+        COSArray encode = new COSArray();
+        for (int i = 0; i < colors.length - 1; i++) {
+            COSDictionary function = new COSDictionary();
+            function.setInt(COSName.FUNCTION_TYPE, 2);
+            function.setItem(COSName.DOMAIN, toArray(0, 1));
+            function.setItem(COSName.C0, toArray(colors[i]));
+            function.setItem(COSName.C1, toArray(colors[i + 1]));
+            function.setItem(COSName.N, COSInteger.ONE);
+            functions.add(function);
+            encode.add(COSInteger.ZERO);
+            encode.add(COSInteger.ONE);
+            if (i > 0) {
+                bounds.add(new COSFloat((float) i / (colors.length - 1)));
+            }
+        }
+        COSDictionary stitching = new COSDictionary();
+        stitching.setInt(COSName.FUNCTION_TYPE, 3);
+        stitching.setItem(COSName.DOMAIN, toArray(0, 1));
+        stitching.setItem(COSName.FUNCTIONS, functions);
+        stitching.setItem(COSName.BOUNDS, bounds);
+        stitching.setItem(COSName.ENCODE, encode);
+        return new PDFunctionType3(stitching);
+    }
+
+    @TearDown
+    public void closeDocument() throws IOException {
+        document.close();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @BenchmarkMode(Mode.AverageTime)
+    public BufferedImage[] render() throws IOException {
+        BufferedImage[] images = new BufferedImage[PAGES];
+        for (int p = 0; p < PAGES; p++) {
+            images[p] = renderer.renderImage(p, 2);
+        }
+        return images;
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.benchmark;
+
+import java.awt.Rectangle;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSStream;
+import org.apache.pdfbox.pdmodel.DefaultResourceCache;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDResources;
+import org.apache.pdfbox.pdmodel.graphics.PDXObject;
+import org.apache.pdfbox.pdmodel.graphics.form.PDFormXObject;
+import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Decodes all image XObjects of image heavy documents into RGB images, without rendering the pages.
+ * The decoded image cache of the document is disabled and the images are requested with a region, so
+ * that the SoftReference cache of PDImageXObject isn't used either.
+ */
+@State(Scope.Benchmark)
+public class ImageDecoding {
+
+    @Param({ "target/pdfs/849-42-94772-1-10-20210818.pdf",
+             "target/pdfs/506-42-86246-2-10-20190822.pdf",
+             "target/pdfs/eci_altona-test-suite-v2_technical2_x4.pdf" })
+    public String file;
+
+    private PDDocument document;
+    private final List<PDImageXObject> images = new ArrayList<>();
+
+    @Setup
+    public void collectImages() throws IOException {
+        document = Loader.loadPDF(new File(file));
+        ((DefaultResourceCache) document.getResourceCache()).setDecodedImageCache(null);
+        Set<COSStream> seen = new HashSet<>();
+        for (PDPage page : document.getPages()) {
+            collectImages(page.getResources(), seen);
+        }
+    }
+
+    private void collectImages(PDResources resources, Set<COSStream> seen) throws IOException {
+        if (resources == null) {
+            return;
+        }
+        for (COSName name : resources.getXObjectNames()) {
+            PDXObject xobject = resources.getXObject(name);
+            if (xobject == null || !seen.add(xobject.getCOSObject())) {
+                continue;
+            }
+            if (xobject instanceof PDImageXObject) {
+                images.add((PDImageXObject) xobject);
+            } else if (xobject instanceof PDFormXObject) {
+                collectImages(((PDFormXObject) xobject).getResources(), seen);
+            }
+        }
+    }
+
+    @TearDown
+    public void close() throws IOException {
+        document.close();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @BenchmarkMode(Mode.AverageTime)
+    public void decodeImages(Blackhole blackhole) throws IOException {
+        for (PDImageXObject image : images) {
+            blackhole.consume(image.getImage(new Rectangle(0, 0, image.getWidth(), image.getHeight()), 1));
+        }
+    }
+}
@@ -0,0 +1,247 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import javax.imageio.stream.MemoryCacheImageInputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+
+import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.filter.Filter;
+import org.apache.pdfbox.filter.FilterFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Compares the LZWDecode filter with the former implementation based on a list of byte arrays, which is
+ * copied below. The data is a synthetic 8 bit grayscale image with gradients and noise, similar to scanned pages.
+ */
+@State(Scope.Benchmark)
+public class LZW {
+
+    private static final int WIDTH = 2480;
+    private static final int HEIGHT = 800;
+
+    private Filter filter;
+    private byte[] raw;
+    private byte[] encoded;
+
+    @Setup
+    public void createData() throws IOException {
+        filter = FilterFactory.INSTANCE.getFilter(COSName.LZW_DECODE);
+        Random random = new Random(4711);
+        raw = new byte[WIDTH * HEIGHT];
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                int value = (x / 16 + y / 32) % 64 * 4;
+                if (random.nextInt(8) == 0) {
+                    value += random.nextInt(4);
+                }
+                raw[y * WIDTH + x] = (byte) value;
+            }
+        }
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        filter.encode(new ByteArrayInputStream(raw), baos, new COSDictionary(), 0);
+        encoded = baos.toByteArray();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @BenchmarkMode(Mode.AverageTime)
+    public byte[] decode() throws IOException {
+        ByteArrayOutputStream decoded = new ByteArrayOutputStream(raw.length);
+        filter.decode(new ByteArrayInputStream(encoded), decoded, new COSDictionary(), 0);
+        return decoded.toByteArray();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @BenchmarkMode(Mode.AverageTime)
+    public byte[] decodeListBased() throws IOException {
+        ByteArrayOutputStream decoded = new ByteArrayOutputStream(raw.length);
+        ListBasedLZW.decode(new ByteArrayInputStream(encoded), decoded);
+        return decoded.toByteArray();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @BenchmarkMode(Mode.AverageTime)
+    public byte[] encode() throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream(encoded.length);
+        filter.encode(new ByteArrayInputStream(raw), baos, new COSDictionary(), 0);
+        return baos.toByteArray();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @BenchmarkMode(Mode.AverageTime)
+    public byte[] encodeListBased() throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream(encoded.length);
+        ListBasedLZW.encode(new ByteArrayInputStream(raw), baos);
+        return baos.toByteArray();
+    }
+
+    /**
+     * The former implementation of the LZWDecode filter, with early change and without predictor.
+     */
+    static final class ListBasedLZW {
+
+        private static final long CLEAR_TABLE = 256;
+        private static final long EOD = 257;
+
+        private ListBasedLZW() {
+        }
+
+        static void decode(InputStream encoded, OutputStream decoded) throws IOException {
+            List<byte[]> codeTable = new ArrayList<>();
+            int chunk = 9;
+            final MemoryCacheImageInputStream in = new MemoryCacheImageInputStream(encoded);
+            long nextCommand;
+            long prevCommand = -1;
+
+            try {
+                while ((nextCommand = in.readBits(chunk)) != EOD) {
+                    if (nextCommand == CLEAR_TABLE) {
+                        chunk = 9;
+                        codeTable = createCodeTable();
+                        prevCommand = -1;
+                    } else {
+                        if (nextCommand < codeTable.size()) {
+                            byte[] data = codeTable.get((int) nextCommand);
+                            byte firstByte = data[0];
+                            decoded.write(data);
+                            if (prevCommand != -1) {
+                                data = codeTable.get((int) prevCommand);
+                                byte[] newData = Arrays.copyOf(data, data.length + 1);
+                                newData[data.length] = firstByte;
+                                codeTable.add(newData);
+                            }
+                        } else {
+                            byte[] data = codeTable.get((int) prevCommand);
+                            byte[] newData = Arrays.copyOf(data, data.length + 1);
+                            newData[data.length] = data[0];
+                            decoded.write(newData);
+                            codeTable.add(newData);
+                        }
+                        chunk = calculateChunk(codeTable.size());
+                        prevCommand = nextCommand;
+                    }
+                }
+            } catch (EOFException ex) {
+                // EOD code missing
+            }
+            decoded.flush();
+        }
+
+        static void encode(InputStream rawData, OutputStream encoded) throws IOException {
+            List<byte[]> codeTable = createCodeTable();
+            int chunk = 9;
+
+            byte[] inputPattern = null;
+            try (MemoryCacheImageOutputStream out = new MemoryCacheImageOutputStream(encoded)) {
+                out.writeBits(CLEAR_TABLE, chunk);
+                int foundCode = -1;
+                int r;
+                while ((r = rawData.read()) != -1) {
+                    byte by = (byte) r;
+                    if (inputPattern == null) {
+                        inputPattern = new byte[] { by };
+                        foundCode = by & 0xff;
+                    } else {
+                        inputPattern = Arrays.copyOf(inputPattern, inputPattern.length + 1);
+                        inputPattern[inputPattern.length - 1] = by;
+                        int newFoundCode = findPatternCode(codeTable, inputPattern);
+                        if (newFoundCode == -1) {
+                            chunk = calculateChunk(codeTable.size() - 1);
+                            out.writeBits(foundCode, chunk);
+                            codeTable.add(inputPattern);
+                            if (codeTable.size() == 4096) {
+                                out.writeBits(CLEAR_TABLE, chunk);
+                                codeTable = createCodeTable();
+                            }
+                            inputPattern = new byte[] { by };
+                            foundCode = by & 0xff;
+                        } else {
+                            foundCode = newFoundCode;
+                        }
+                    }
+                }
+                if (foundCode != -1) {
+                    chunk = calculateChunk(codeTable.size() - 1);
+                    out.writeBits(foundCode, chunk);
+                }
+                chunk = calculateChunk(codeTable.size());
+                out.writeBits(EOD, chunk);
+                out.writeBits(0, 7);
+                out.flush();
+            }
+        }
+
+        private static int findPatternCode(List<byte[]> codeTable, byte[] pattern) {
+            if (pattern.length == 1) {
+                return pattern[0];
+            }
+            for (int i = 257; i < codeTable.size(); i++) {
+                if (Arrays.equals(codeTable.get(i), pattern)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private static List<byte[]> createCodeTable() {
+            List<byte[]> codeTable = new ArrayList<>(4096);
+            for (int i = 0; i < 256; ++i) {
+                codeTable.add(new byte[] { (byte) (i & 0xFF) });
+            }
+            codeTable.add(null); // 256 EOD
+            codeTable.add(null); // 257 CLEAR_TABLE
+            return codeTable;
+        }
+
+        private static int calculateChunk(int tabSize) {
+            int i = tabSize + 1;
+            if (i >= 2048) {
+                return 12;
+            }
+            if (i >= 1024) {
+                return 11;
+            }
+            if (i >= 512) {
+                return 10;
+            }
+            return 9;
+        }
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.benchmark;
+
+import java.awt.image.BufferedImage;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.pdfbox.cos.COSArray;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSStream;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.graphics.shading.PDShading;
+import org.apache.pdfbox.rendering.PDFRenderer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Renders a page which is filled with a mesh shading: a free-form Gouraud-shaded triangle mesh
+ * (type 4) made of a grid of triangles with random colors or a Coons patch mesh (type 6) made of
+ * a grid of curved patches.
+ */
+@State(Scope.Benchmark)
+public class MeshShadingRendering {
+
+    private static final int CELLS = 12;
+    private static final int PAGE_SIZE = 600;
+
+    @Param({ "4", "6" })
+    private int shadingType;
+
+    @Param({ "150" })
+    private int dpi;
+
+    private PDDocument document;
+    private PDFRenderer renderer;
+
+    @Setup
+    public void createDocument() throws IOException {
+        document = new PDDocument();
+        PDPage page = new PDPage(new PDRectangle(PAGE_SIZE, PAGE_SIZE));
+        document.addPage(page);
+        COSStream stream = document.getDocument().createCOSStream();
+        stream.setInt(COSName.SHADING_TYPE, shadingType);
+        stream.setItem(COSName.COLORSPACE, COSName.DEVICERGB);
+        stream.setInt(COSName.BITS_PER_FLAG, 8);
+        stream.setInt(COSName.BITS_PER_COORDINATE, 16);
+        stream.setInt(COSName.BITS_PER_COMPONENT, 8);
+        COSArray decode = new COSArray();
+        decode.setFloatArray(new float[] { 0, 0xFFFF, 0, 0xFFFF, 0, 1, 0, 1, 0, 1 });
+        stream.setItem(COSName.DECODE, decode);
+        Random random = new Random(4711);
+        try (DataOutputStream output = new DataOutputStream(stream.createOutputStream())) {
+            if (shadingType == 4) {
+                writeTriangles(output, random);
+            } else {
+                writePatches(output, random);
+            }
+        }
+        try (PDPageContentStream contents = new PDPageContentStream(document, page)) {
+            contents.shadingFill(PDShading.create(stream));
+        }
+        renderer = new PDFRenderer(document);
+    }
+
+    // two triangles for each cell of the grid
+    private static void writeTriangles(DataOutputStream output, Random random)
+            throws IOException {
+        int step = PAGE_SIZE / CELLS;
+        for (int row = 0; row < CELLS; row++) {
+            for (int col = 0; col < CELLS; col++) {
+                int x = col * step;
+                int y = row * step;
+                writeVertex(output, random, x, y);
+                writeVertex(output, random, x + step, y);
+                writeVertex(output, random, x, y + step);
+                writeVertex(output, random, x + step, y);
+                writeVertex(output, random, x + step, y + step);
+                writeVertex(output, random, x, y + step);
+            }
+        }
+    }
+
+    private static void writeVertex(DataOutputStream output, Random random, int x, int y)
+            throws IOException {
+        output.writeByte(0);
+        output.writeShort(x);
+        output.writeShort(y);
+        writeColor(output, random);
+    }
+
+    // one patch for each cell of the grid, the inner control points bend the edges
+    private static void writePatches(DataOutputStream output, Random random) throws IOException {
+        int step = PAGE_SIZE / CELLS;
+        int bend = step / 4;
+        for (int row = 0; row < CELLS; row++) {
+            for (int col = 0; col < CELLS; col++) {
+                int x = col * step;
+                int y = row * step;
+                output.writeByte(0);
+                // the boundary starts at the lower left corner and goes up, right, down and left
+                int[] points = {
+                    x, y, x - bend, y + step / 3, x + bend, y + 2 * step / 3, x, y + step,
+                    x + step / 3, y + step + bend, x + 2 * step / 3, y + step - bend,
+                    x + step, y + step, x + step + bend, y + 2 * step / 3,
+                    x + step - bend, y + step / 3, x + step, y,
+                    x + 2 * step / 3, y + bend, x + step / 3, y - bend
+                };
+                for (int point : points) {
+                    output.writeShort(Math.max(0, Math.min(PAGE_SIZE, point)));
+                }
+                for (int i = 0; i < 4; i++) {
+                    writeColor(output, random);
+                }
+            }
+        }
+    }
+
+    private static void writeColor(DataOutputStream output, Random random) throws IOException {
+        output.writeByte(random.nextInt(256));
+        output.writeByte(random.nextInt(256));
+        output.writeByte(random.nextInt(256));
+    }
+
+    @TearDown
+    public void closeDocument() throws IOException {
+        document.close();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @BenchmarkMode(Mode.AverageTime)
+    public BufferedImage render() throws IOException {
+        return renderer.renderImageWithDPI(0, dpi);
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.benchmark;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.PDPatternContentStream;
+import org.apache.pdfbox.pdmodel.PDResources;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.graphics.color.PDColor;
+import org.apache.pdfbox.pdmodel.graphics.color.PDDeviceRGB;
+import org.apache.pdfbox.pdmodel.graphics.color.PDPattern;
+import org.apache.pdfbox.pdmodel.graphics.pattern.PDTilingPattern;
+import org.apache.pdfbox.rendering.PDFRenderer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Renders all pages of a document whose pages share an uncolored pattern of hatching and circles
+ * as background of a few boxes, like the forms of a report.
+ */
+@State(Scope.Benchmark)
+public class PatternRendering {
+
+    private static final int PAGES = 10;
+
+    private PDDocument document;
+    private PDFRenderer renderer;
+
+    @Setup
+    public void createDocument() throws IOException {
+        document = new PDDocument();
+        PDTilingPattern pattern = new PDTilingPattern();
+        pattern.setBBox(new PDRectangle(0, 0, 60, 60));
+        pattern.setPaintType(PDTilingPattern.PAINT_UNCOLORED);
+        pattern.setTilingType(PDTilingPattern.TILING_CONSTANT_SPACING);
+        pattern.setXStep(60);
+        pattern.setYStep(60);
+        try (PDPatternContentStream contents = new PDPatternContentStream(pattern)) {
+            contents.setLineWidth(0.3f);
+            for (int i = -60; i < 60; i += 3) {
+                contents.moveTo(i, 0);
+                contents.lineTo(i + 60, 60);
+            }
+            contents.stroke();
+            // concentric circles, each made of four curves
+            float k = 0.5523f;
+            for (float r = 1; r < 30; r += 0.5f) {
+                contents.moveTo(30 + r, 30);
+                contents.curveTo(30 + r, 30 + k * r, 30 + k * r, 30 + r, 30, 30 + r);
+                contents.curveTo(30 - k * r, 30 + r, 30 - r, 30 + k * r, 30 - r, 30);
+                contents.curveTo(30 - r, 30 - k * r, 30 - k * r, 30 - r, 30, 30 - r);
+                contents.curveTo(30 + k * r, 30 - r, 30 + r, 30 - k * r, 30 + r, 30);
+                contents.stroke();
+            }
+        }
+        PDPattern patternSpace = new PDPattern(null, PDDeviceRGB.INSTANCE);
+
+        for (int p = 0; p < PAGES; p++) {
+            PDPage page = new PDPage(PDRectangle.A4);
+            document.addPage(page);
+            page.setResources(new PDResources());
+            COSName name = page.getResources().add(pattern);
+            PDColor color = new PDColor(new float[] { 0.6f, 0.6f, 0.8f }, name, patternSpace);
+            try (PDPageContentStream contents = new PDPageContentStream(document, page)) {
+                contents.setNonStrokingColor(color);
+                for (int box = 0; box < 4; box++) {
+                    contents.addRect(40, 620 - box * 190, 515, 170);
+                    contents.fill();
+                }
+            }
+        }
+        renderer = new PDFRenderer(document);
+    }
+
+    @TearDown
+    public void closeDocument() throws IOException {
+        document.close();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @BenchmarkMode(Mode.AverageTime)
+    public BufferedImage[] render() throws IOException {
+        BufferedImage[] images = new BufferedImage[PAGES];
+        for (int p = 0; p < PAGES; p++) {
+            images[p] = renderer.renderImage(p, 1.5f);
+        }
+        return images;
+    }
+}
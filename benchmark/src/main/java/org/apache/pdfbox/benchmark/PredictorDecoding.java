@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.DeflaterOutputStream;
+
+import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.filter.Filter;
+import org.apache.pdfbox.filter.FilterFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Decodes FlateDecode streams with PNG predictors: a cross reference stream with short rows and the up
+ * predictor, and RGB images whose rows use all PNG predictors.
+ */
+@State(Scope.Benchmark)
+public class PredictorDecoding {
+
+    private static final int XREF_ENTRIES = 200000;
+    private static final int IMAGE_WIDTH = 2000;
+    private static final int IMAGE_HEIGHT = 1000;
+
+    private Filter filter;
+    private byte[] xrefStream;
+    private COSDictionary xrefParameters;
+    private byte[] rgbImageStream;
+    private COSDictionary rgbImageParameters;
+    private byte[] grayImageStream;
+    private COSDictionary grayImageParameters;
+
+    @Setup
+    public void createStreams() throws IOException {
+        filter = FilterFactory.INSTANCE.getFilter(COSName.FLATE_DECODE);
+        Random random = new Random(4711);
+
+        // /W [1 3 1], every row is predicted from the row above
+        xrefParameters = createParameters(12, 1, 5);
+        byte[] xref = new byte[XREF_ENTRIES * 6];
+        for (int i = 0; i < XREF_ENTRIES; i++) {
+            xref[i * 6] = 2;
+            xref[i * 6 + 3] = (byte) random.nextInt(4);
+            xref[i * 6 + 4] = (byte) random.nextInt(256);
+        }
+        xrefStream = deflate(xref);
+
+        rgbImageParameters = createParameters(15, 3, IMAGE_WIDTH);
+        rgbImageStream = deflate(createImageData(random, IMAGE_WIDTH * 3));
+        grayImageParameters = createParameters(15, 1, IMAGE_WIDTH);
+        grayImageStream = deflate(createImageData(random, IMAGE_WIDTH));
+    }
+
+    private static COSDictionary createParameters(int predictor, int colors, int columns) {
+        COSDictionary decodeParms = new COSDictionary();
+        decodeParms.setInt(COSName.PREDICTOR, predictor);
+        decodeParms.setInt(COSName.COLORS, colors);
+        decodeParms.setInt(COSName.BITS_PER_COMPONENT, 8);
+        decodeParms.setInt(COSName.COLUMNS, columns);
+        COSDictionary parameters = new COSDictionary();
+        parameters.setItem(COSName.FILTER, COSName.FLATE_DECODE);
+        parameters.setItem(COSName.DECODE_PARMS, decodeParms);
+        return parameters;
+    }
+
+    // rows with small residuals, the predictor of each row is chosen like an encoder would do it
+    private static byte[] createImageData(Random random, int rowLength) {
+        byte[] data = new byte[IMAGE_HEIGHT * (rowLength + 1)];
+        for (int y = 0; y < IMAGE_HEIGHT; y++) {
+            int offset = y * (rowLength + 1);
+            data[offset] = (byte) (y % 4 + 1);
+            for (int x = 1; x <= rowLength; x++) {
+                data[offset + x] = (byte) (random.nextInt(7) - 3);
+            }
+        }
+        return data;
+    }
+
+    private static byte[] deflate(byte[] data) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (DeflaterOutputStream out = new DeflaterOutputStream(baos)) {
+            out.write(data);
+        }
+        return baos.toByteArray();
+    }
+
+    private byte[] decode(byte[] encoded, COSDictionary parameters) throws IOException {
+        ByteArrayOutputStream decoded = new ByteArrayOutputStream();
+        filter.decode(new ByteArrayInputStream(encoded), decoded, parameters, 0);
+        return decoded.toByteArray();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @BenchmarkMode(Mode.AverageTime)
+    public byte[] decodeXRefStream() throws IOException {
+        return decode(xrefStream, xrefParameters);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @BenchmarkMode(Mode.AverageTime)
+    public byte[] decodeRGBImage() throws IOException {
+        return decode(rgbImageStream, rgbImageParameters);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @BenchmarkMode(Mode.AverageTime)
+    public byte[] decodeGrayImage() throws IOException {
+        return decode(grayImageStream, grayImageParameters);
+    }
+}
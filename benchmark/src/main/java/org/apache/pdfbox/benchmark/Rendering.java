@@ -33,6 +33,7 @@ import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.rendering.PDFRenderer;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
 import org.openjdk.jmh.annotations.Mode;
 import org.openjdk.jmh.annotations.OutputTimeUnit;
 import org.openjdk.jmh.infra.Blackhole;
@@ -71,6 +72,14 @@ public class Rendering {
         pdf.close();
     }
 
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @BenchmarkMode(Mode.AverageTime)
+    @Fork(jvmArgsAppend = "-Dorg.apache.pdfbox.rendering.UseCMYKLookupTable=true")
+    public void renderGhentCMYKLookupTableNoOutput(Blackhole blackhole) throws IOException {
+        renderGhentCMYKNoOutput(blackhole);
+    }
+
     @Benchmark
     @OutputTimeUnit(TimeUnit.MILLISECONDS)
     @BenchmarkMode(Mode.AverageTime)
@@ -129,6 +138,21 @@ public class Rendering {
         pdf.close();
     }
 
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @BenchmarkMode(Mode.AverageTime)
+    public void renderPDFSpecInTilesNoOutput(Blackhole blackhole) throws IOException {
+        PDDocument pdf = Loader.loadPDF(new File(PDF32000_2008));
+        PDFRenderer renderer = new PDFRenderer(pdf);
+        renderer.setRenderingThreads(Runtime.getRuntime().availableProcessors());
+        int numPages = pdf.getNumberOfPages();
+        for (int i = 0; i< numPages; i++)
+        {
+            blackhole.consume(renderer.renderImageWithDPI(i, 150));
+        }
+        pdf.close();
+    }
+
     @Benchmark
     @OutputTimeUnit(TimeUnit.MILLISECONDS)
     @BenchmarkMode(Mode.AverageTime)
@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.benchmark;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts.FontName;
+import org.apache.pdfbox.rendering.PDFRenderer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Renders a page of a report, a table whose rows and cells are clipped to their rectangles like
+ * report generators do, with a filled background in every second row.
+ */
+@State(Scope.Benchmark)
+public class TableRendering {
+
+    private static final int ROWS = 60;
+    private static final int COLUMNS = 8;
+
+    @Param({ "72", "150" })
+    private int dpi;
+
+    private PDDocument document;
+    private PDFRenderer renderer;
+
+    @Setup
+    public void createDocument() throws IOException {
+        document = new PDDocument();
+        PDPage page = new PDPage(PDRectangle.A4);
+        document.addPage(page);
+        PDType1Font font = new PDType1Font(FontName.HELVETICA);
+        float cellWidth = 520f / COLUMNS;
+        float cellHeight = 12;
+        try (PDPageContentStream contents = new PDPageContentStream(document, page)) {
+            contents.setLineWidth(0.5f);
+            // the table, each row and each cell are clipped
+            contents.saveGraphicsState();
+            contents.addRect(40, 790 - (ROWS - 1) * cellHeight, 520, ROWS * cellHeight);
+            contents.clip();
+            for (int row = 0; row < ROWS; row++) {
+                float y = 790 - row * cellHeight;
+                contents.saveGraphicsState();
+                contents.addRect(40, y, 520, cellHeight);
+                contents.clip();
+                for (int col = 0; col < COLUMNS; col++) {
+                    float x = 40 + col * cellWidth;
+                    contents.saveGraphicsState();
+                    contents.addRect(x, y, cellWidth, cellHeight);
+                    contents.clip();
+                    if (row % 2 == 1) {
+                        contents.setNonStrokingColor(0.9f, 0.9f, 0.95f);
+                        contents.addRect(x, y, cellWidth, cellHeight);
+                        contents.fill();
+                        contents.setNonStrokingColor(0f, 0f, 0f);
+                    }
+                    contents.beginText();
+                    contents.setFont(font, 8);
+                    contents.newLineAtOffset(x + 2, y + 3);
+                    contents.showText(Integer.toString(row * COLUMNS + col));
+                    contents.endText();
+                    contents.addRect(x, y, cellWidth, cellHeight);
+                    contents.stroke();
+                    contents.restoreGraphicsState();
+                }
+                contents.restoreGraphicsState();
+            }
+            contents.restoreGraphicsState();
+        }
+        renderer = new PDFRenderer(document);
+    }
+
+    @TearDown
+    public void closeDocument() throws IOException {
+        document.close();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @BenchmarkMode(Mode.AverageTime)
+    public BufferedImage render() throws IOException {
+        return renderer.renderImageWithDPI(0, dpi);
+    }
+}
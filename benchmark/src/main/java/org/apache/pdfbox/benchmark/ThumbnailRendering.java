@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.benchmark;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts.FontName;
+import org.apache.pdfbox.rendering.PDFRenderer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Renders thumbnails of pages full of small text, with and without drawing the glyphs from
+ * cached images.
+ */
+@State(Scope.Benchmark)
+public class ThumbnailRendering {
+
+    private static final int PAGES = 10;
+
+    @Param({ "0", "24" })
+    private float glyphRasterThreshold;
+
+    @Param({ "0.25", "0.5" })
+    private float scale;
+
+    private PDDocument document;
+    private PDFRenderer renderer;
+
+    @Setup
+    public void createDocument() throws IOException {
+        document = new PDDocument();
+        PDType1Font font = new PDType1Font(FontName.TIMES_ROMAN);
+        for (int p = 0; p < PAGES; p++) {
+            PDPage page = new PDPage(PDRectangle.A4);
+            document.addPage(page);
+            try (PDPageContentStream contents = new PDPageContentStream(document, page)) {
+                contents.beginText();
+                contents.setFont(font, 10);
+                contents.setLeading(12);
+                contents.newLineAtOffset(40, 800);
+                for (int i = 0; i < 64; i++) {
+                    contents.showText("Page " + p + ", line " + i
+                            + ": The quick brown fox jumps over the lazy dog again and again.");
+                    contents.newLine();
+                }
+                contents.endText();
+            }
+        }
+        renderer = new PDFRenderer(document);
+        renderer.setGlyphRasterThreshold(glyphRasterThreshold);
+    }
+
+    @TearDown
+    public void closeDocument() throws IOException {
+        document.close();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @BenchmarkMode(Mode.AverageTime)
+    public BufferedImage[] render() throws IOException {
+        BufferedImage[] thumbnails = new BufferedImage[PAGES];
+        for (int p = 0; p < PAGES; p++) {
+            thumbnails[p] = renderer.renderImage(p, scale);
+        }
+        return thumbnails;
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.benchmark;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDFormContentStream;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts.FontName;
+import org.apache.pdfbox.pdmodel.graphics.form.PDFormXObject;
+import org.apache.pdfbox.pdmodel.graphics.state.PDExtendedGraphicsState;
+import org.apache.pdfbox.rendering.PDFRenderer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Renders a page like those exported by design tools, where every object is wrapped in a
+ * transparency group, some of them drawn with alpha, and a paragraph of text is faded out by a
+ * luminosity soft mask.
+ */
+@State(Scope.Benchmark)
+public class TransparencyRendering {
+
+    private static final int OBJECTS = 200;
+
+    private PDDocument document;
+    private PDFRenderer renderer;
+
+    @Setup
+    public void createDocument() throws IOException {
+        document = new PDDocument();
+        PDPage page = new PDPage(PDRectangle.A4);
+        document.addPage(page);
+
+        PDExtendedGraphicsState halfAlpha = new PDExtendedGraphicsState();
+        halfAlpha.setNonStrokingAlphaConstant(0.5f);
+
+        // a gradient of gray stripes from white to black over the text
+        PDFormXObject maskGroup = createGroup(new PDRectangle(0, 0, 595, 842));
+        try (PDFormContentStream contents = new PDFormContentStream(maskGroup)) {
+            for (int i = 0; i < 20; i++) {
+                float gray = 1 - i / 20f;
+                contents.setNonStrokingColor(gray);
+                contents.addRect(40, 420 - i * 20, 515, 20);
+                contents.fill();
+            }
+        }
+        COSDictionary mask = new COSDictionary();
+        mask.setItem(COSName.TYPE, COSName.MASK);
+        mask.setItem(COSName.S, COSName.LUMINOSITY);
+        mask.setItem(COSName.G, maskGroup);
+        PDExtendedGraphicsState fade = new PDExtendedGraphicsState();
+        fade.getCOSObject().setItem(COSName.SMASK, mask);
+
+        try (PDPageContentStream contents = new PDPageContentStream(document, page)) {
+            for (int i = 0; i < OBJECTS; i++) {
+                float x = 40 + (i % 10) * 52;
+                float y = 800 - (i / 10) * 18;
+                PDFormXObject group = createGroup(new PDRectangle(x, y - 16, 48, 16));
+                try (PDFormContentStream groupContents = new PDFormContentStream(group)) {
+                    groupContents.setNonStrokingColor(0.2f, 0.4f, (i % 7) / 7f);
+                    groupContents.addRect(x, y - 16, 48, 16);
+                    groupContents.fill();
+                    groupContents.setNonStrokingColor(1f, 0.8f, 0.2f);
+                    groupContents.addRect(x + 16, y - 12, 16, 8);
+                    groupContents.fill();
+                }
+                contents.saveGraphicsState();
+                if (i % 4 == 3) {
+                    contents.setGraphicsStateParameters(halfAlpha);
+                }
+                contents.drawForm(group);
+                contents.restoreGraphicsState();
+            }
+
+            contents.saveGraphicsState();
+            contents.setGraphicsStateParameters(fade);
+            contents.beginText();
+            contents.setFont(new PDType1Font(FontName.HELVETICA), 10);
+            contents.setLeading(12);
+            contents.newLineAtOffset(40, 410);
+            for (int i = 0; i < 30; i++) {
+                contents.showText("Line " + i + " of a paragraph which fades out towards the end.");
+                contents.newLine();
+            }
+            contents.endText();
+            contents.restoreGraphicsState();
+        }
+        renderer = new PDFRenderer(document);
+    }
+
+    private PDFormXObject createGroup(PDRectangle bbox) {
+        PDFormXObject form = new PDFormXObject(document);
+        form.setBBox(bbox);
+        COSDictionary group = new COSDictionary();
+        group.setItem(COSName.S, COSName.TRANSPARENCY);
+        form.getCOSObject().setItem(COSName.GROUP, group);
+        return form;
+    }
+
+    @TearDown
+    public void closeDocument() throws IOException {
+        document.close();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @BenchmarkMode(Mode.AverageTime)
+    public BufferedImage render() throws IOException {
+        return renderer.renderImage(0, 1.5f);
+    }
+}
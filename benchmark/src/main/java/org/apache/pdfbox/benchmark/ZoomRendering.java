@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.benchmark;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts.FontName;
+import org.apache.pdfbox.rendering.PDFRenderer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Renders a page with many small paths and lines of text at a smaller zoom level after it has
+ * been rendered at a larger one, like a viewer showing a page and its thumbnail, with and without
+ * the display list cache of the renderer.
+ */
+@State(Scope.Benchmark)
+public class ZoomRendering {
+
+    @Param({ "0", "67108864" })
+    private long displayListCacheSize;
+
+    @Param({ "1", "0.25" })
+    private float scale;
+
+    private PDDocument document;
+    private PDFRenderer renderer;
+
+    @Setup
+    public void createDocument() throws IOException {
+        document = new PDDocument();
+        PDPage page = new PDPage(PDRectangle.A4);
+        document.addPage(page);
+        Random random = new Random(4711);
+        try (PDPageContentStream contents = new PDPageContentStream(document, page)) {
+            contents.setLineWidth(0.5f);
+            // short polylines, like the streets of a map
+            for (int i = 0; i < 5000; i++) {
+                float x = random.nextFloat() * 595;
+                float y = random.nextFloat() * 842;
+                contents.moveTo(x, y);
+                for (int j = 0; j < 10; j++) {
+                    x += random.nextFloat() * 10 - 5;
+                    y += random.nextFloat() * 10 - 5;
+                    contents.lineTo(x, y);
+                }
+                contents.setStrokingColor(random.nextFloat(), random.nextFloat(),
+                        random.nextFloat());
+                contents.stroke();
+            }
+            contents.beginText();
+            contents.setFont(new PDType1Font(FontName.TIMES_ROMAN), 8);
+            contents.setLeading(9);
+            contents.newLineAtOffset(20, 830);
+            for (int i = 0; i < 90; i++) {
+                contents.showText("The quick brown fox jumps over the lazy dog, line " + i
+                        + " of a page which is rendered at several zoom levels.");
+                contents.newLine();
+            }
+            contents.endText();
+        }
+        renderer = new PDFRenderer(document);
+        renderer.setDisplayListCacheSize(displayListCacheSize);
+        renderer.renderImage(0, 2);
+    }
+
+    @TearDown
+    public void closeDocument() throws IOException {
+        document.close();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @BenchmarkMode(Mode.AverageTime)
+    public BufferedImage render() throws IOException {
+        return renderer.renderImage(0, scale);
+    }
+}
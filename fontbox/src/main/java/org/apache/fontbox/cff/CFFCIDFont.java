@@ -21,7 +21,6 @@ import java.awt.geom.GeneralPath;
 import java.io.IOException;
 import java.util.Collections;
 import java.util.List;
-import java.util.Locale;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import org.apache.fontbox.type1.Type1CharStringReader;
@@ -44,7 +43,6 @@ public class CFFCIDFont extends CFFFont
 
     private final Map<Integer, CIDKeyedType2CharString> charStringCache =
             new ConcurrentHashMap<>();
-    private Type2CharStringParser charStringParser = null;
 
     private final PrivateType1CharStringReader reader = new PrivateType1CharStringReader();
 
@@ -235,24 +233,13 @@ public class CFFCIDFont extends CFFFont
             {
                 bytes = charStrings[0]; // .notdef
             }
-            List<Object> type2seq = getParser().parse(bytes, globalSubrIndex,
-                    getLocalSubrIndex(gid), String.format(Locale.US, "%04x", cid));
-            type2 = new CIDKeyedType2CharString(reader, getName(), cid, gid, type2seq,
-                                                getDefaultWidthX(gid), getNominalWidthX(gid));
+            type2 = new CIDKeyedType2CharString(reader, getName(), cid, gid, bytes, globalSubrIndex,
+                    getLocalSubrIndex(gid), getDefaultWidthX(gid), getNominalWidthX(gid));
             charStringCache.put(cid, type2);
         }
         return type2;
     }
 
-    private Type2CharStringParser getParser()
-    {
-        if (charStringParser == null)
-        {
-            charStringParser = new Type2CharStringParser(getName());
-        }
-        return charStringParser;
-    }
-
     @Override
     public GeneralPath getPath(String selector) throws IOException
     {
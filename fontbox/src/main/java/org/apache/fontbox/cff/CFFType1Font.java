@@ -19,7 +19,6 @@ package org.apache.fontbox.cff;
 import java.awt.geom.GeneralPath;
 import java.io.IOException;
 import java.util.LinkedHashMap;
-import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import org.apache.fontbox.EncodedFont;
@@ -40,7 +39,6 @@ public class CFFType1Font extends CFFFont implements EncodedFont
             new ConcurrentHashMap<>();
 
     private final PrivateType1CharStringReader reader = new PrivateType1CharStringReader();
-    private Type2CharStringParser charStringParser = null;
 
     private int defaultWidthX = Integer.MIN_VALUE;
     private int nominalWidthX = Integer.MIN_VALUE;
@@ -138,24 +136,13 @@ public class CFFType1Font extends CFFFont implements EncodedFont
                 // .notdef
                 bytes = charStrings[0];
             }
-            List<Object> type2seq = getParser().parse(bytes, globalSubrIndex, getLocalSubrIndex(),
-                    name);
-            type2 = new Type2CharString(reader, getName(), name, gid, type2seq, getDefaultWidthX(),
-                    getNominalWidthX());
+            type2 = new Type2CharString(reader, getName(), name, gid, bytes, globalSubrIndex,
+                    getLocalSubrIndex(), getDefaultWidthX(), getNominalWidthX());
             charStringCache.put(gid, type2);
         }
         return type2;
     }
 
-    private Type2CharStringParser getParser()
-    {
-        if (charStringParser == null)
-        {
-            charStringParser = new Type2CharStringParser(getName());
-        }
-        return charStringParser;
-    }
-
     /**
      * Returns the private dictionary.
      *
@@ -48,6 +48,28 @@ public class CIDKeyedType2CharString extends Type2CharString
         this.cid = cid;
     }
 
+    /**
+     * Constructor. The given charstring is rendered directly when the path is needed.
+     *
+     * @param font Parent CFF font
+     * @param fontName font name
+     * @param cid CID
+     * @param gid GID
+     * @param bytes Type 2 char string
+     * @param globalSubrIndex array containing all global subroutines
+     * @param localSubrIndex array containing all local subroutines
+     * @param defaultWidthX default width
+     * @param nomWidthX nominal width
+     */
+    public CIDKeyedType2CharString(Type1CharStringReader font, String fontName, int cid, int gid, byte[] bytes,
+            byte[][] globalSubrIndex, byte[][] localSubrIndex, int defaultWidthX, int nomWidthX)
+    {
+        // glyph name is for debugging only
+        super(font, fontName, String.format(Locale.US, "%04x", cid), gid, bytes, globalSubrIndex, localSubrIndex,
+                defaultWidthX, nomWidthX);
+        this.cid = cid;
+    }
+
     /**
      * Returns the CID (character id) of this charstring.
      * 
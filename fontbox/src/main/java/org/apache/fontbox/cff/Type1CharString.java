@@ -41,6 +41,9 @@ public class Type1CharString
 {
     private static final Log LOG = LogFactory.getLog(Type1CharString.class);
 
+    // lock used for rendering, shared with Type2CharString
+    static final Object RENDER_LOCK = new Object();
+
     private final Type1CharStringReader font;
     private final String fontName;
     private final String glyphName;
@@ -89,13 +92,33 @@ public class Type1CharString
         return glyphName;
     }
 
+    /**
+     * Returns the parent font of the glyph.
+     *
+     * @return the parent font
+     */
+    protected Type1CharStringReader getFont()
+    {
+        return font;
+    }
+
+    /**
+     * Returns the name of the parent font.
+     *
+     * @return the font name
+     */
+    protected String getFontName()
+    {
+        return fontName;
+    }
+
     /**
      * Returns the bounds of the renderer path.
      * @return the bounds as Rectangle2D
      */
     public Rectangle2D getBounds()
     {
-        synchronized(LOG)
+        synchronized(RENDER_LOCK)
         {
             if (path == null)
             {
@@ -111,7 +134,7 @@ public class Type1CharString
      */
     public int getWidth()
     {
-        synchronized(LOG)
+        synchronized(RENDER_LOCK)
         {
             if (path == null)
             {
@@ -127,7 +150,7 @@ public class Type1CharString
      */
     public GeneralPath getPath()
     {
-        synchronized(LOG)
+        synchronized(RENDER_LOCK)
         {
             if (path == null)
             {
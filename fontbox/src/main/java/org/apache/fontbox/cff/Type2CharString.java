@@ -16,11 +16,16 @@
  */
 package org.apache.fontbox.cff;
 
+import java.awt.geom.GeneralPath;
+import java.awt.geom.Rectangle2D;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
 import org.apache.fontbox.cff.CharStringCommand.Type1KeyWord;
 import org.apache.fontbox.cff.CharStringCommand.Type2KeyWord;
 import org.apache.fontbox.type1.Type1CharStringReader;
@@ -33,11 +38,20 @@ import org.apache.fontbox.type1.Type1CharStringReader;
  */
 public class Type2CharString extends Type1CharString
 {
+    private static final Log LOG = LogFactory.getLog(Type2CharString.class);
+
     private float defWidthX = 0;
     private float nominalWidthX = 0;
     private int pathCount = 0;
     private final int gid;
 
+    // the raw charstring, rendered directly if not null
+    private final byte[] bytes;
+    private final byte[][] globalSubrIndex;
+    private final byte[][] localSubrIndex;
+    private GeneralPath path = null;
+    private int width = 0;
+
     /**
      * Constructor.
      * @param font Parent CFF font
@@ -55,9 +69,38 @@ public class Type2CharString extends Type1CharString
         this.gid = gid;
         defWidthX = defaultWidthX;
         nominalWidthX = nomWidthX;
+        this.bytes = null;
+        this.globalSubrIndex = null;
+        this.localSubrIndex = null;
         convertType1ToType2(sequence);
     }
 
+    /**
+     * Constructor. The given charstring is rendered directly when the path is needed, without converting it to a
+     * Type 1 sequence first.
+     *
+     * @param font Parent CFF font
+     * @param fontName font name
+     * @param glyphName glyph name (or CID as hex string)
+     * @param gid GID
+     * @param bytes Type 2 char string
+     * @param globalSubrIndex array containing all global subroutines
+     * @param localSubrIndex array containing all local subroutines
+     * @param defaultWidthX default width
+     * @param nomWidthX nominal width
+     */
+    public Type2CharString(Type1CharStringReader font, String fontName, String glyphName, int gid, byte[] bytes,
+            byte[][] globalSubrIndex, byte[][] localSubrIndex, int defaultWidthX, int nomWidthX)
+    {
+        super(font, fontName, glyphName);
+        this.gid = gid;
+        defWidthX = defaultWidthX;
+        nominalWidthX = nomWidthX;
+        this.bytes = bytes;
+        this.globalSubrIndex = globalSubrIndex;
+        this.localSubrIndex = localSubrIndex;
+    }
+
     /**
      * Return the GID (glyph id) of this charstring.
      * 
@@ -68,6 +111,70 @@ public class Type2CharString extends Type1CharString
         return gid;
     }
 
+    @Override
+    public Rectangle2D getBounds()
+    {
+        if (bytes == null)
+        {
+            return super.getBounds();
+        }
+        return getPath().getBounds2D();
+    }
+
+    @Override
+    public int getWidth()
+    {
+        if (bytes == null)
+        {
+            return super.getWidth();
+        }
+        synchronized (RENDER_LOCK)
+        {
+            if (path == null)
+            {
+                render();
+            }
+        }
+        return width;
+    }
+
+    @Override
+    public GeneralPath getPath()
+    {
+        if (bytes == null)
+        {
+            return super.getPath();
+        }
+        synchronized (RENDER_LOCK)
+        {
+            if (path == null)
+            {
+                render();
+            }
+        }
+        return path;
+    }
+
+    /**
+     * Renders the Type 2 char string directly to a GeneralPath.
+     */
+    private void render()
+    {
+        path = new GeneralPath();
+        Type2CharStringInterpreter interpreter = new Type2CharStringInterpreter(getFont(),
+                getFontName(), getName(), globalSubrIndex, localSubrIndex, defWidthX,
+                nominalWidthX, path);
+        try
+        {
+            interpreter.render(bytes);
+        }
+        catch (IOException e)
+        {
+            LOG.warn("Invalid charstring in glyph " + getName() + " of font " + getFontName(), e);
+        }
+        width = interpreter.getWidth();
+    }
+
     /**
      * Converts a sequence of Type 2 commands into a sequence of Type 1 commands.
      * @param sequence the Type 2 char string sequence
@@ -0,0 +1,601 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.fontbox.cff;
+
+import java.awt.geom.AffineTransform;
+import java.awt.geom.GeneralPath;
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.fontbox.encoding.StandardEncoding;
+import org.apache.fontbox.type1.Type1CharStringReader;
+
+/**
+ * Renders a Type 2 charstring in a single pass. The charstring and its subroutines are decoded and executed
+ * directly into a path, without building the intermediate sequences of {@link Type2CharStringParser} and
+ * {@link Type1CharString}. The resulting path and width are the same as the ones of the two stage conversion.
+ *
+ * <p>An instance is used to render one glyph only.</p>
+ */
+final class Type2CharStringInterpreter
+{
+    private static final Log LOG = LogFactory.getLog(Type2CharStringInterpreter.class);
+
+    // the Type 2 spec limits the nesting of subroutines to 10, be lenient but avoid endless recursions
+    private static final int MAX_SUBR_DEPTH = 64;
+
+    private final Type1CharStringReader font;
+    private final String fontName;
+    private final String glyphName;
+    private final byte[][] globalSubrIndex;
+    private final byte[][] localSubrIndex;
+    private final float defaultWidthX;
+    private final float nominalWidthX;
+
+    private final GeneralPath path;
+    private float[] stack = new float[48];
+    private int stackSize = 0;
+    private int hintCount = 0;
+    private int pathCount = 0;
+    private boolean hasCommands = false;
+    private boolean lastCommandIsClosePath = false;
+    private boolean endChar = false;
+    private float currentX = 0;
+    private float currentY = 0;
+    private int width = 0;
+
+    /**
+     * Constructor.
+     *
+     * @param font Parent CFF font, used for the deprecated seac operator
+     * @param fontName font name
+     * @param glyphName glyph name (or CID as hex string)
+     * @param globalSubrIndex array containing all global subroutines
+     * @param localSubrIndex array containing all local subroutines
+     * @param defaultWidthX default width
+     * @param nominalWidthX nominal width
+     * @param path the path to render into
+     */
+    Type2CharStringInterpreter(Type1CharStringReader font, String fontName, String glyphName,
+            byte[][] globalSubrIndex, byte[][] localSubrIndex, float defaultWidthX, float nominalWidthX,
+            GeneralPath path)
+    {
+        this.font = font;
+        this.fontName = fontName;
+        this.glyphName = glyphName;
+        this.globalSubrIndex = globalSubrIndex;
+        this.localSubrIndex = localSubrIndex;
+        this.defaultWidthX = defaultWidthX;
+        this.nominalWidthX = nominalWidthX;
+        this.path = path;
+    }
+
+    /**
+     * Renders the given charstring into the path.
+     *
+     * @param bytes the charstring
+     * @throws IOException if the charstring is truncated or its subroutines are nested too deeply
+     */
+    void render(byte[] bytes) throws IOException
+    {
+        execute(bytes, 0);
+    }
+
+    /**
+     * Returns the advance width of the rendered glyph.
+     *
+     * @return the width
+     */
+    int getWidth()
+    {
+        return width;
+    }
+
+    private void execute(byte[] bytes, int depth) throws IOException
+    {
+        int pos = 0;
+        while (pos < bytes.length && !endChar)
+        {
+            int b0 = bytes[pos++] & 0xff;
+            if (b0 >= 32 && b0 <= 246)
+            {
+                push(b0 - 139);
+            }
+            else if (b0 >= 247 && b0 <= 250)
+            {
+                checkLength(bytes, pos, 1);
+                push((b0 - 247) * 256 + (bytes[pos++] & 0xff) + 108);
+            }
+            else if (b0 >= 251 && b0 <= 254)
+            {
+                checkLength(bytes, pos, 1);
+                push(-(b0 - 251) * 256 - (bytes[pos++] & 0xff) - 108);
+            }
+            else if (b0 == 28)
+            {
+                checkLength(bytes, pos, 2);
+                push((short) ((bytes[pos] & 0xff) << 8 | bytes[pos + 1] & 0xff));
+                pos += 2;
+            }
+            else if (b0 == 255)
+            {
+                checkLength(bytes, pos, 4);
+                short value = (short) ((bytes[pos] & 0xff) << 8 | bytes[pos + 1] & 0xff);
+                // The lower bytes are representing the digits after the decimal point
+                double fraction = ((bytes[pos + 2] & 0xff) << 8 | bytes[pos + 3] & 0xff) / 65535d;
+                push((float) (value + fraction));
+                pos += 4;
+            }
+            else if (b0 == 11)
+            {
+                // return
+                return;
+            }
+            else if (b0 == 10 && localSubrIndex != null && localSubrIndex.length > 0)
+            {
+                callSubr(localSubrIndex, depth);
+            }
+            else if (b0 == 29 && globalSubrIndex != null && globalSubrIndex.length > 0)
+            {
+                callSubr(globalSubrIndex, depth);
+            }
+            else if (b0 == 19 || b0 == 20)
+            {
+                // hintmask, cntrmask: implicit vstem hints followed by the mask
+                hintCount += stackSize / 2;
+                clearStack(stackSize % 2 != 0);
+                int maskLength = (hintCount + 7) / 8;
+                checkLength(bytes, pos, maskLength);
+                pos += maskLength;
+                stackSize = 0;
+            }
+            else if (b0 == 12)
+            {
+                checkLength(bytes, pos, 1);
+                executeEscapeCommand(bytes[pos++] & 0xff);
+                stackSize = 0;
+            }
+            else
+            {
+                executeCommand(b0);
+                stackSize = 0;
+            }
+        }
+    }
+
+    private void callSubr(byte[][] subrIndex, int depth) throws IOException
+    {
+        if (stackSize == 0)
+        {
+            LOG.warn("Missing subroutine number in glyph " + glyphName + " of font " + fontName);
+            return;
+        }
+        int subrNumber = calculateSubrNumber((int) stack[--stackSize], subrIndex.length);
+        if (subrNumber >= 0 && subrNumber < subrIndex.length)
+        {
+            if (depth >= MAX_SUBR_DEPTH)
+            {
+                throw new IOException("Subroutines nested too deeply in glyph " + glyphName
+                        + " of font " + fontName);
+            }
+            execute(subrIndex[subrNumber], depth + 1);
+        }
+    }
+
+    private static int calculateSubrNumber(int operand, int subrIndexlength)
+    {
+        if (subrIndexlength < 1240)
+        {
+            return 107 + operand;
+        }
+        if (subrIndexlength < 33900)
+        {
+            return 1131 + operand;
+        }
+        return 32768 + operand;
+    }
+
+    private void executeCommand(int b0)
+    {
+        int first;
+        switch (b0)
+        {
+        case 1: // hstem
+        case 3: // vstem
+        case 18: // hstemhm
+        case 23: // vstemhm
+            hintCount += stackSize / 2;
+            clearStack(stackSize % 2 != 0);
+            break;
+        case 21: // rmoveto
+            first = clearStack(stackSize > 2);
+            markPath();
+            if (stackSize - first >= 2)
+            {
+                rmoveTo(stack[first], stack[first + 1]);
+            }
+            break;
+        case 22: // hmoveto
+            first = clearStack(stackSize > 1);
+            markPath();
+            if (stackSize - first >= 1)
+            {
+                rmoveTo(stack[first], 0);
+            }
+            break;
+        case 4: // vmoveto
+            first = clearStack(stackSize > 1);
+            markPath();
+            if (stackSize - first >= 1)
+            {
+                rmoveTo(0, stack[first]);
+            }
+            break;
+        case 5: // rlineto
+            addLines(0, stackSize);
+            break;
+        case 6: // hlineto
+        case 7: // vlineto
+            addAlternatingLine(b0 == 6);
+            break;
+        case 8: // rrcurveto
+            addCurves(0, stackSize);
+            break;
+        case 24: // rcurveline
+            if (stackSize >= 2)
+            {
+                addCurves(0, stackSize - 2);
+                rlineTo(stack[stackSize - 2], stack[stackSize - 1]);
+            }
+            break;
+        case 25: // rlinecurve
+            if (stackSize >= 6)
+            {
+                addLines(0, stackSize - 6);
+                int i = stackSize - 6;
+                rrcurveTo(stack[i], stack[i + 1], stack[i + 2], stack[i + 3], stack[i + 4], stack[i + 5]);
+            }
+            break;
+        case 26: // vvcurveto
+        case 27: // hhcurveto
+            addCurve(b0 == 27);
+            break;
+        case 30: // vhcurveto
+        case 31: // hvcurveto
+            addAlternatingCurve(b0 == 31);
+            break;
+        case 14: // endchar
+            first = clearStack(stackSize == 5 || stackSize == 1);
+            closeCharString2Path();
+            if (stackSize - first == 4)
+            {
+                // deprecated "seac" operator
+                seac(0, stack[first], stack[first + 1], stack[first + 2], stack[first + 3]);
+            }
+            else
+            {
+                addCommand();
+            }
+            endChar = true;
+            break;
+        case 10: // callsubr
+        case 29: // callgsubr
+            LOG.warn("Unexpected charstring command: " + b0 + " in glyph " + glyphName + " of font "
+                    + fontName);
+            addCommand();
+            break;
+        default:
+            // reserved or unsupported operators
+            addCommand();
+            break;
+        }
+    }
+
+    private void executeEscapeCommand(int b1)
+    {
+        switch (b1)
+        {
+        case 34: // hflex
+            if (stackSize >= 7)
+            {
+                rrcurveTo(stack[0], 0, stack[1], stack[2], stack[3], 0);
+                rrcurveTo(stack[4], 0, stack[5], -stack[2], stack[6], 0);
+            }
+            break;
+        case 35: // flex
+            if (stackSize >= 12)
+            {
+                rrcurveTo(stack[0], stack[1], stack[2], stack[3], stack[4], stack[5]);
+                rrcurveTo(stack[6], stack[7], stack[8], stack[9], stack[10], stack[11]);
+            }
+            break;
+        case 36: // hflex1
+            if (stackSize >= 9)
+            {
+                rrcurveTo(stack[0], stack[1], stack[2], stack[3], stack[4], 0);
+                rrcurveTo(stack[5], 0, stack[6], stack[7], stack[8], 0);
+            }
+            break;
+        case 37: // flex1
+            if (stackSize >= 11)
+            {
+                int dx = 0;
+                int dy = 0;
+                for (int i = 0; i < 5; i++)
+                {
+                    dx += (int) stack[i * 2];
+                    dy += (int) stack[i * 2 + 1];
+                }
+                rrcurveTo(stack[0], stack[1], stack[2], stack[3], stack[4], stack[5]);
+                boolean dxIsBigger = Math.abs(dx) > Math.abs(dy);
+                rrcurveTo(stack[6], stack[7], stack[8], stack[9],
+                        dxIsBigger ? stack[10] : -dx,
+                        dxIsBigger ? -dy : stack[10]);
+            }
+            break;
+        default:
+            // arithmetic and other operators aren't supported
+            addCommand();
+            break;
+        }
+    }
+
+    private void push(float value)
+    {
+        if (stackSize == stack.length)
+        {
+            stack = Arrays.copyOf(stack, stack.length * 2);
+        }
+        stack[stackSize++] = value;
+    }
+
+    private static void checkLength(byte[] bytes, int pos, int length) throws IOException
+    {
+        if (pos + length > bytes.length)
+        {
+            throw new IOException("End off buffer reached");
+        }
+    }
+
+    /**
+     * Reads the width of the glyph if this is the first command.
+     *
+     * @return the index of the first argument on the stack
+     */
+    private int clearStack(boolean hasWidth)
+    {
+        if (!hasCommands)
+        {
+            hasCommands = true;
+            if (hasWidth)
+            {
+                width = (int) (stack[0] + nominalWidthX);
+                return 1;
+            }
+            width = (int) defaultWidthX;
+        }
+        return 0;
+    }
+
+    private void markPath()
+    {
+        if (pathCount > 0)
+        {
+            closeCharString2Path();
+        }
+        pathCount++;
+    }
+
+    private void closeCharString2Path()
+    {
+        if (pathCount > 0 && !lastCommandIsClosePath)
+        {
+            closePath();
+        }
+    }
+
+    private void addCommand()
+    {
+        hasCommands = true;
+        lastCommandIsClosePath = false;
+    }
+
+    private void addLines(int start, int end)
+    {
+        for (int i = start; i + 2 <= end; i += 2)
+        {
+            rlineTo(stack[i], stack[i + 1]);
+        }
+    }
+
+    private void addCurves(int start, int end)
+    {
+        for (int i = start; i + 6 <= end; i += 6)
+        {
+            rrcurveTo(stack[i], stack[i + 1], stack[i + 2], stack[i + 3], stack[i + 4], stack[i + 5]);
+        }
+    }
+
+    private void addAlternatingLine(boolean horizontal)
+    {
+        for (int i = 0; i < stackSize; i++)
+        {
+            if (horizontal)
+            {
+                rlineTo(stack[i], 0);
+            }
+            else
+            {
+                rlineTo(0, stack[i]);
+            }
+            horizontal = !horizontal;
+        }
+    }
+
+    private void addAlternatingCurve(boolean horizontal)
+    {
+        int i = 0;
+        while (stackSize - i >= 4)
+        {
+            boolean last = stackSize - i == 5;
+            if (horizontal)
+            {
+                rrcurveTo(stack[i], 0, stack[i + 1], stack[i + 2], last ? stack[i + 4] : 0, stack[i + 3]);
+            }
+            else
+            {
+                rrcurveTo(0, stack[i], stack[i + 1], stack[i + 2], stack[i + 3], last ? stack[i + 4] : 0);
+            }
+            i += last ? 5 : 4;
+            horizontal = !horizontal;
+        }
+    }
+
+    private void addCurve(boolean horizontal)
+    {
+        int i = 0;
+        while (stackSize - i >= 4)
+        {
+            boolean first = (stackSize - i) % 4 == 1;
+            int j = first ? i + 1 : i;
+            if (horizontal)
+            {
+                rrcurveTo(stack[j], first ? stack[i] : 0, stack[j + 1], stack[j + 2], stack[j + 3], 0);
+            }
+            else
+            {
+                rrcurveTo(first ? stack[i] : 0, stack[j], stack[j + 1], stack[j + 2], 0, stack[j + 3]);
+            }
+            i = j + 4;
+        }
+    }
+
+    /**
+     * Relative moveto.
+     */
+    private void rmoveTo(float dx, float dy)
+    {
+        addCommand();
+        currentX += dx;
+        currentY += dy;
+        path.moveTo(currentX, currentY);
+    }
+
+    /**
+     * Relative lineto.
+     */
+    private void rlineTo(float dx, float dy)
+    {
+        addCommand();
+        currentX += dx;
+        currentY += dy;
+        if (path.getCurrentPoint() == null)
+        {
+            LOG.warn("rlineTo without initial moveTo in font " + fontName + ", glyph " + glyphName);
+            path.moveTo(currentX, currentY);
+        }
+        else
+        {
+            path.lineTo(currentX, currentY);
+        }
+    }
+
+    /**
+     * Relative curveto.
+     */
+    private void rrcurveTo(float dx1, float dy1, float dx2, float dy2, float dx3, float dy3)
+    {
+        addCommand();
+        float x1 = currentX + dx1;
+        float y1 = currentY + dy1;
+        float x2 = x1 + dx2;
+        float y2 = y1 + dy2;
+        currentX = x2 + dx3;
+        currentY = y2 + dy3;
+        if (path.getCurrentPoint() == null)
+        {
+            LOG.warn("rrcurveTo without initial moveTo in font " + fontName + ", glyph " + glyphName);
+            path.moveTo(currentX, currentY);
+        }
+        else
+        {
+            path.curveTo(x1, y1, x2, y2, currentX, currentY);
+        }
+    }
+
+    /**
+     * Close path.
+     */
+    private void closePath()
+    {
+        addCommand();
+        lastCommandIsClosePath = true;
+        if (path.getCurrentPoint() == null)
+        {
+            LOG.warn("closepath without initial moveTo in font " + fontName + ", glyph " + glyphName);
+        }
+        else
+        {
+            path.closePath();
+        }
+        path.moveTo(currentX, currentY);
+    }
+
+    /**
+     * Standard Encoding Accented Character
+     *
+     * Makes an accented character from two other characters.
+     */
+    private void seac(float asb, float adx, float ady, float bchar, float achar)
+    {
+        addCommand();
+        // base character
+        String baseName = StandardEncoding.INSTANCE.getName((int) bchar);
+        try
+        {
+            GeneralPath basePath = font.getType1CharString(baseName).getPath();
+            if (basePath != path)
+            {
+                path.append(basePath.getPathIterator(null), false);
+            }
+        }
+        catch (IOException e)
+        {
+            LOG.warn("invalid seac character in glyph " + glyphName + " of font " + fontName, e);
+        }
+        // accent character
+        String accentName = StandardEncoding.INSTANCE.getName((int) achar);
+        try
+        {
+            GeneralPath accentPath = font.getType1CharString(accentName).getPath();
+            if (path == accentPath)
+            {
+                // PDFBOX-5339: avoid ArrayIndexOutOfBoundsException
+                LOG.warn("Path for " + baseName + " and for accent " + accentName + " are same, ignored");
+                return;
+            }
+            AffineTransform at = AffineTransform.getTranslateInstance(adx - asb, ady);
+            path.append(accentPath.getPathIterator(at), false);
+        }
+        catch (IOException e)
+        {
+            LOG.warn("invalid seac character in glyph " + glyphName + " of font " + fontName, e);
+        }
+    }
+}
@@ -25,7 +25,11 @@ import org.apache.fontbox.cff.CharStringCommand.Type2KeyWord;
 /**
  * This class represents a converter for a mapping into a Type2-sequence.
  * @author Villu Ruusmann
+ *
+ * @deprecated The CFF fonts no longer use this parser, their charstrings are rendered directly by
+ * {@link Type2CharStringInterpreter}. Use {@link Type2CharString#getPath()} to get the outline of a glyph.
  */
+@Deprecated
 public class Type2CharStringParser
 {
     // 1-byte commands
@@ -0,0 +1,210 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.fontbox.ttf;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.SortedSet;
+
+/**
+ * Glyph data of a TrueType font which is needed to build subsets of it. The offsets of the glyphs and the components
+ * of the composite glyphs are computed once per font and shared by all subsets, and the glyph records are read
+ * directly from the font data into the new glyf table.
+ */
+final class GlyphSubsetIndex
+{
+    // composite glyph flags
+    private static final int ARG_1_AND_2_ARE_WORDS = 1;
+    private static final int WE_HAVE_A_SCALE = 1 << 3;
+    private static final int MORE_COMPONENTS = 1 << 5;
+    private static final int WE_HAVE_AN_X_AND_Y_SCALE = 1 << 6;
+    private static final int WE_HAVE_A_TWO_BY_TWO = 1 << 7;
+    private static final int WE_HAVE_INSTRUCTIONS = 1 << 8;
+
+    private static final int[] NO_COMPONENTS = new int[0];
+
+    private final TrueTypeFont ttf;
+    private final long glyfOffset;
+    private final long[] offsets;
+
+    // component GIDs of each glyph, null if not read yet
+    private final int[][] components;
+    // position of the GIDs within the glyph record, used to rewrite them
+    private final int[][] componentPositions;
+    // the number of bytes of the composite glyph records to be copied, without trailing data
+    private final int[] compositeLengths;
+
+    GlyphSubsetIndex(TrueTypeFont ttf) throws IOException
+    {
+        this.ttf = ttf;
+        this.glyfOffset = ttf.getGlyph().getOffset();
+        this.offsets = ttf.getIndexToLocation().getOffsets();
+        int numGlyphs = offsets.length - 1;
+        components = new int[numGlyphs][];
+        componentPositions = new int[numGlyphs][];
+        compositeLengths = new int[numGlyphs];
+    }
+
+    /**
+     * Adds the components of the composite glyphs in the given set, including nested components.
+     *
+     * @param glyphIds the set of glyph ids to be completed
+     * @throws IOException if the glyph data could not be read
+     */
+    void addCompositeClosure(SortedSet<Integer> glyphIds) throws IOException
+    {
+        Deque<Integer> pending = new ArrayDeque<>(glyphIds);
+        while (!pending.isEmpty())
+        {
+            for (int componentGid : getComponents(pending.pop()))
+            {
+                if (glyphIds.add(componentGid))
+                {
+                    pending.push(componentGid);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the number of bytes which are copied to the subset glyf table for the given glyph, without padding.
+     */
+    int getLength(int gid) throws IOException
+    {
+        if (getComponents(gid).length > 0)
+        {
+            return compositeLengths[gid];
+        }
+        return (int) (offsets[gid + 1] - offsets[gid]);
+    }
+
+    /**
+     * Copies the glyph record of the given glyph into the given buffer. The GIDs of the components of a composite
+     * glyph are rewritten using the given sorted array of the old GIDs in the subset.
+     *
+     * @param gid the glyph to be copied
+     * @param subsetGids the sorted old GIDs of the subset, the index of an old GID is its new GID
+     * @param buffer the buffer to copy to
+     * @param offset the position within the buffer
+     * @return the number of bytes copied
+     * @throws IOException if the glyph data could not be read
+     */
+    int copyGlyph(int gid, int[] subsetGids, byte[] buffer, int offset) throws IOException
+    {
+        int length = getLength(gid);
+        if (length > 0)
+        {
+            ttf.readBytes(glyfOffset + offsets[gid], buffer, offset, length);
+            int[] gids = components[gid];
+            int[] positions = componentPositions[gid];
+            for (int i = 0; i < gids.length; i++)
+            {
+                int newGid = Arrays.binarySearch(subsetGids, gids[i]);
+                buffer[offset + positions[i]] = (byte) (newGid >>> 8);
+                buffer[offset + positions[i] + 1] = (byte) newGid;
+            }
+        }
+        return length;
+    }
+
+    private synchronized int[] getComponents(int gid) throws IOException
+    {
+        if (gid < 0 || gid >= components.length)
+        {
+            return NO_COMPONENTS;
+        }
+        int[] gids = components[gid];
+        if (gids == null)
+        {
+            gids = readComponents(gid);
+            components[gid] = gids;
+        }
+        return gids;
+    }
+
+    private int[] readComponents(int gid) throws IOException
+    {
+        long length = offsets[gid + 1] - offsets[gid];
+        if (length < 2)
+        {
+            return NO_COMPONENTS;
+        }
+        byte[] header = new byte[2];
+        ttf.readBytes(glyfOffset + offsets[gid], header, 0, 2);
+        if (header[0] != -1 || header[1] != -1)
+        {
+            // simple glyph, numberOfContours >= 0
+            return NO_COMPONENTS;
+        }
+
+        byte[] buf = new byte[(int) length];
+        ttf.readBytes(glyfOffset + offsets[gid], buf, 0, buf.length);
+        int[] gids = new int[4];
+        int[] positions = new int[4];
+        int count = 0;
+        int off = 2 * 5;
+        int flags;
+        do
+        {
+            if (off + 4 > buf.length)
+            {
+                throw new IOException("Composite glyph " + gid + " is truncated");
+            }
+            flags = (buf[off] & 0xff) << 8 | buf[off + 1] & 0xff;
+            off += 2;
+            if (count == gids.length)
+            {
+                gids = Arrays.copyOf(gids, count * 2);
+                positions = Arrays.copyOf(positions, count * 2);
+            }
+            gids[count] = (buf[off] & 0xff) << 8 | buf[off + 1] & 0xff;
+            positions[count] = off;
+            count++;
+            off += 2;
+            off += (flags & ARG_1_AND_2_ARE_WORDS) != 0 ? 2 * 2 : 2;
+            if ((flags & WE_HAVE_A_TWO_BY_TWO) != 0)
+            {
+                off += 2 * 4;
+            }
+            else if ((flags & WE_HAVE_AN_X_AND_Y_SCALE) != 0)
+            {
+                off += 2 * 2;
+            }
+            else if ((flags & WE_HAVE_A_SCALE) != 0)
+            {
+                off += 2;
+            }
+        }
+        while ((flags & MORE_COMPONENTS) != 0);
+
+        if ((flags & WE_HAVE_INSTRUCTIONS) != 0)
+        {
+            if (off + 2 > buf.length)
+            {
+                throw new IOException("Composite glyph " + gid + " is truncated");
+            }
+            // USHORT numInstr, BYTE instr[numInstr]
+            off += 2 + ((buf[off] & 0xff) << 8 | buf[off + 1] & 0xff);
+        }
+
+        componentPositions[gid] = Arrays.copyOf(positions, count);
+        compositeLengths[gid] = Math.min(off, buf.length);
+        return Arrays.copyOf(gids, count);
+    }
+}
@@ -18,6 +18,7 @@ package org.apache.fontbox.ttf;
 
 import java.io.IOException;
 
+import org.apache.pdfbox.io.RandomAccessRead;
 import org.apache.pdfbox.io.RandomAccessReadBuffer;
 
 /**
@@ -78,9 +79,18 @@ public class GlyphTable extends TTFTable
         }
 
         // we don't actually read the complete table here because it can contain tens of thousands of glyphs
-        // cache the relevant part of the font data so that the data stream can be closed if it is no longer needed
-        byte[] dataBytes = data.read((int) getLength());
-        this.data = new RandomAccessReadDataStream(new RandomAccessReadBuffer(dataBytes));
+        // use a view of the font data if possible so that huge fonts aren't copied to the heap
+        RandomAccessRead subView = data.createSubView(getLength());
+        if (subView != null)
+        {
+            this.data = new RandomAccessReadUnbufferedDataStream(subView);
+        }
+        else
+        {
+            // cache the relevant part of the font data so that the data stream can be closed if it is no longer needed
+            byte[] dataBytes = data.read((int) getLength());
+            this.data = new RandomAccessReadDataStream(new RandomAccessReadBuffer(dataBytes));
+        }
 
         // PDFBOX-5460: read hmtx table early to avoid deadlock if getGlyph() locks "data"
         // and then locks TrueTypeFont to read this table, while another thread
@@ -50,6 +50,12 @@ public final class OTFParser extends TTFParser
         return (OpenTypeFont) super.parse(randomAccessRead);
     }
 
+    @Override
+    public OpenTypeFont parseUnbuffered(RandomAccessRead randomAccessRead) throws IOException
+    {
+        return (OpenTypeFont) super.parseUnbuffered(randomAccessRead);
+    }
+
     @Override
     OpenTypeFont parse(TTFDataStream raf) throws IOException
     {
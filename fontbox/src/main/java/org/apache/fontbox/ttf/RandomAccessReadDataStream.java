@@ -19,9 +19,11 @@ package org.apache.fontbox.ttf;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 
 import org.apache.pdfbox.io.IOUtils;
 import org.apache.pdfbox.io.RandomAccessRead;
+import org.apache.pdfbox.io.RandomAccessReadBuffer;
 
 /**
  * An implementation of the TTFDataStream using RandomAccessRead as source.
@@ -170,6 +172,17 @@ class RandomAccessReadDataStream extends TTFDataStream
         return bytesToRead;
     }
     
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public RandomAccessRead createSubView(long length)
+    {
+        int viewLength = (int) Math.min(length, this.length - currentPosition);
+        return new RandomAccessReadBuffer(
+                ByteBuffer.wrap(data, currentPosition, viewLength).slice());
+    }
+
     /**
      * {@inheritDoc}
      */
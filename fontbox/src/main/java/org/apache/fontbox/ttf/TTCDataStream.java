@@ -20,6 +20,8 @@ package org.apache.fontbox.ttf;
 import java.io.IOException;
 import java.io.InputStream;
 
+import org.apache.pdfbox.io.RandomAccessRead;
+
 /**
  * A wrapper for a TTF stream inside a TTC file, does not close the underlying shared stream.
  *
@@ -65,6 +67,12 @@ class TTCDataStream extends TTFDataStream
         return stream.read(b, off, len);
     }
 
+    @Override
+    public RandomAccessRead createSubView(long length)
+    {
+        return stream.createSubView(length);
+    }
+
     @Override
     public long getCurrentPosition() throws IOException
     {
@@ -25,6 +25,8 @@ import java.nio.charset.StandardCharsets;
 import java.util.Calendar;
 import java.util.TimeZone;
 
+import org.apache.pdfbox.io.RandomAccessRead;
+
 /**
  * An abstract class to read a data stream.
  * 
@@ -264,6 +266,19 @@ abstract class TTFDataStream implements Closeable
         }
     }
 
+    /**
+     * Creates a view of the data from the current position to {@code position + length}, without
+     * copying the data. Closing the view must not close this stream.
+     *
+     * @param length The length of the view.
+     * @return A view of the data or null if this stream doesn't support views, in which case the
+     * caller has to use {@link #read(int)} instead.
+     */
+    public RandomAccessRead createSubView(long length)
+    {
+        return null;
+    }
+
     /**
      * @see java.io.InputStream#read(byte[], int, int )
      * 
@@ -77,6 +77,32 @@ public class TTFParser
         }
     }
 
+    /**
+     * Parse a RandomAccessRead and return a TrueType font which reads its data directly from the given source
+     * instead of copying it to the heap first. This is useful for big fonts backed by a file or by a memory mapped
+     * buffer, as the glyphs are only read when needed.
+     *
+     * @param randomAccessRead The RandomAccessRead to be read from. It has to stay accessible as long as the font is in
+     * use and will be closed when the font is closed.
+     * @return A TrueType font.
+     * @throws IOException If there is an error parsing the TrueType font.
+     */
+    public TrueTypeFont parseUnbuffered(RandomAccessRead randomAccessRead) throws IOException
+    {
+        RandomAccessReadUnbufferedDataStream dataStream =
+                new RandomAccessReadUnbufferedDataStream(randomAccessRead);
+        try
+        {
+            return parse(dataStream);
+        }
+        catch (IOException ex)
+        {
+            // close only on error (source is still being accessed later)
+            dataStream.close();
+            throw ex;
+        }
+    }
+
     /**
      * Parse an input stream and return a TrueType font that is to be embedded.
      *
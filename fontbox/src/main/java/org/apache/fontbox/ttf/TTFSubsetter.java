@@ -24,6 +24,7 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.HashMap;
 import java.util.Iterator;
@@ -64,6 +65,7 @@ public final class TTFSubsetter
     private final SortedSet<Integer> glyphIds; // new glyph ids
     private String prefix;
     private boolean hasAddedCompoundReferences;
+    private int[] subsetGids; // sorted old glyph ids, the index is the new glyph id
 
     /**
      * Creates a subsetter for the given font.
@@ -479,235 +481,41 @@ public final class TTFSubsetter
         }
         hasAddedCompoundReferences = true;
 
-        boolean hasNested;
-        GlyphTable g = ttf.getGlyph();
-        long[] offsets = ttf.getIndexToLocation().getOffsets();
-        do
-        {
-            Set<Integer> glyphIdsToAdd = null;
-            try (InputStream is = ttf.getOriginalData())
-            {
-                long isResult = is.skip(g.getOffset());
-
-                if (Long.compare(isResult, g.getOffset()) != 0)
-                {
-                    LOG.debug("Tried skipping " + g.getOffset() + " bytes but skipped only " + isResult + " bytes");
-                }
-
-                long lastOff = 0L;
-                for (Integer glyphId : glyphIds)
-                {
-                    long offset = offsets[glyphId];
-                    long len = offsets[glyphId + 1] - offset;
-                    isResult = is.skip(offset - lastOff);
-                    
-                    if (Long.compare(isResult, offset - lastOff) != 0)
-                    {
-                        LOG.debug("Tried skipping " + (offset - lastOff) + " bytes but skipped only " + isResult + " bytes");
-                    }
-
-                    byte[] buf = new byte[(int)len];
-                    isResult = is.read(buf);
-
-                    if (Long.compare(isResult, len) != 0)
-                    {
-                        LOG.debug("Tried reading " + len + " bytes but only " + isResult + " bytes read");
-                    }
-                    
-                    // rewrite glyphIds for compound glyphs
-                    if (buf.length >= 2 && buf[0] == -1 && buf[1] == -1)
-                    {
-                        int off = 2*5;
-                        int flags;
-                        do
-                        {
-                            flags = (buf[off] & 0xff) << 8 | buf[off + 1] & 0xff;
-                            off +=2;
-                            int ogid = (buf[off] & 0xff) << 8 | buf[off + 1] & 0xff;
-                            if (!glyphIds.contains(ogid))
-                            {
-                                if (glyphIdsToAdd == null)
-                                {
-                                    glyphIdsToAdd = new TreeSet<>();
-                                }
-                                glyphIdsToAdd.add(ogid);
-                            }
-                            off += 2;
-                            // ARG_1_AND_2_ARE_WORDS
-                            if ((flags & 1 << 0) != 0)
-                            {
-                                off += 2 * 2;
-                            }
-                            else
-                            {
-                                off += 2;
-                            }
-                            // WE_HAVE_A_TWO_BY_TWO
-                            if ((flags & 1 << 7) != 0)
-                            {
-                                off += 2 * 4;
-                            }
-                            // WE_HAVE_AN_X_AND_Y_SCALE
-                            else if ((flags & 1 << 6) != 0)
-                            {
-                                off += 2 * 2;
-                            }
-                            // WE_HAVE_A_SCALE
-                            else if ((flags & 1 << 3) != 0)
-                            {
-                                off += 2;
-                            }
-                        }
-                        while ((flags & 1 << 5) != 0); // MORE_COMPONENTS
-
-                    }
-                    lastOff = offsets[glyphId + 1];
-                }
-            }
-            hasNested = glyphIdsToAdd != null;
-            if (hasNested)
-            {
-                glyphIds.addAll(glyphIdsToAdd);
-            }
-        }
-        while (hasNested);
+        ttf.getGlyphSubsetIndex().addCompositeClosure(glyphIds);
     }
 
     // never returns null
     private byte[] buildGlyfTable(long[] newOffsets) throws IOException
     {
-        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        GlyphSubsetIndex index = ttf.getGlyphSubsetIndex();
 
-        GlyphTable g = ttf.getGlyph();
-        long[] offsets = ttf.getIndexToLocation().getOffsets();
-        try (InputStream is = ttf.getOriginalData())
+        // compute the new offsets first, so that the glyphs can be copied into a single buffer
+        long newOffset = 0;  // new offset for the glyph in the subset font
+        for (int newGid = 0; newGid < subsetGids.length; newGid++)
         {
-            long isResult = is.skip(g.getOffset());
+            newOffsets[newGid] = newOffset;
+            newOffset += index.getLength(subsetGids[newGid]);
 
-            if (Long.compare(isResult, g.getOffset()) != 0)
+            // 4-byte alignment
+            if (newOffset % 4 != 0)
             {
-                LOG.debug("Tried skipping " + g.getOffset() + " bytes but skipped only " + isResult + " bytes");
+                newOffset += 4 - newOffset % 4;
             }
-
-            long prevEnd = 0;    // previously read glyph offset
-            long newOffset = 0;  // new offset for the glyph in the subset font
-            int newGid = 0;      // new GID in subset font
-
-            // for each glyph in the subset
-            for (Integer gid : glyphIds)
-            {
-                long offset = offsets[gid];
-                long length = offsets[gid + 1] - offset;
-
-                newOffsets[newGid++] = newOffset;
-                isResult = is.skip(offset - prevEnd);
-
-                if (Long.compare(isResult, offset - prevEnd) != 0)
-                {
-                    LOG.debug("Tried skipping " + (offset - prevEnd) + " bytes but skipped only " + isResult + " bytes");
-                }
-
-                byte[] buf = new byte[(int)length];
-                isResult = is.read(buf);
-
-                if (Long.compare(isResult, length) != 0)
-                {
-                    LOG.debug("Tried reading " + length + " bytes but only " + isResult + " bytes read");
-                }
-
-                // detect glyph type
-                if (buf.length >= 2 && buf[0] == -1 && buf[1] == -1)
-                {
-                    // compound glyph
-                    int off = 2*5;
-                    int flags;
-                    do
-                    {
-                        // flags
-                        flags = (buf[off] & 0xff) << 8 | buf[off + 1] & 0xff;
-                        off += 2;
-
-                        // glyphIndex
-                        int componentGid = (buf[off] & 0xff) << 8 | buf[off + 1] & 0xff;
-                        glyphIds.add(componentGid);
-
-                        int newComponentGid = getNewGlyphId(componentGid);
-                        buf[off]   = (byte)(newComponentGid >>> 8);
-                        buf[off + 1] = (byte)newComponentGid;
-                        off += 2;
-
-                        // ARG_1_AND_2_ARE_WORDS
-                        if ((flags & 1 << 0) != 0)
-                        {
-                            off += 2 * 2;
-                        }
-                        else
-                        {
-                            off += 2;
-                        }
-                        // WE_HAVE_A_TWO_BY_TWO
-                        if ((flags & 1 << 7) != 0)
-                        {
-                            off += 2 * 4;
-                        }
-                        // WE_HAVE_AN_X_AND_Y_SCALE
-                        else if ((flags & 1 << 6) != 0)
-                        {
-                            off += 2 * 2;
-                        }
-                        // WE_HAVE_A_SCALE
-                        else if ((flags & 1 << 3) != 0)
-                        {
-                            off += 2;
-                        }
-                    }
-                    while ((flags & 1 << 5) != 0); // MORE_COMPONENTS
-
-                    // WE_HAVE_INSTRUCTIONS
-                    if ((flags & 0x0100) == 0x0100)
-                    {
-                        // USHORT numInstr
-                        int numInstr = (buf[off] & 0xff) << 8 | buf[off + 1] & 0xff;
-                        off += 2;
-
-                        // BYTE instr[numInstr]
-                        off += numInstr;
-                    }
-
-                    // write the compound glyph
-                    bos.write(buf, 0, off);
-
-                    // offset to start next glyph
-                    newOffset += off;
-                }
-                else if (buf.length > 0)
-                {
-                    // copy the entire glyph
-                    bos.write(buf, 0, buf.length);
-
-                    // offset to start next glyph
-                    newOffset += buf.length;
-                }
-
-                // 4-byte alignment
-                if (newOffset % 4 != 0)
-                {
-                    int len = 4 - (int)(newOffset % 4);
-                    bos.write(PAD_BUF, 0, len);
-                    newOffset += len;
-                }
-
-                prevEnd = offset + length;
-            }
-            newOffsets[newGid++] = newOffset;
         }
+        newOffsets[subsetGids.length] = newOffset;
 
-        return bos.toByteArray();
+        // the padding bytes are already zero
+        byte[] glyf = new byte[(int) newOffset];
+        for (int newGid = 0; newGid < subsetGids.length; newGid++)
+        {
+            index.copyGlyph(subsetGids[newGid], subsetGids, glyf, (int) newOffsets[newGid]);
+        }
+        return glyf;
     }
 
-    private int getNewGlyphId(Integer oldGid)
+    private int getNewGlyphId(int oldGid)
     {
-        return glyphIds.headSet(oldGid).size();
+        return Arrays.binarySearch(subsetGids, oldGid);
     }
 
     private byte[] buildCmapTable() throws IOException
@@ -979,6 +787,7 @@ public final class TTFSubsetter
         }
         
         addCompoundReferences();
+        subsetGids = glyphIds.stream().mapToInt(Integer::intValue).toArray();
 
         try (DataOutputStream out = new DataOutputStream(os))
         {
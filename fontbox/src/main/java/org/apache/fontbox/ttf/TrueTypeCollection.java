@@ -68,31 +68,54 @@ public class TrueTypeCollection implements Closeable
      */
     TrueTypeCollection(RandomAccessRead randomAccessRead) throws IOException
     {
-        this.stream = new RandomAccessReadDataStream(randomAccessRead);
+        this(randomAccessRead, false);
+    }
 
-        // TTC header
-        String tag = stream.readTag();
-        if (!tag.equals("ttcf"))
-        {
-            throw new IOException("Missing TTC header");
-        }
-        float version = stream.read32Fixed();
-        numFonts = (int)stream.readUnsignedInt();
-        if (numFonts <= 0 || numFonts > 1024)
-        {
-            throw new IOException("Invalid number of fonts " + numFonts);
-        }
-        fontOffsets = new long[numFonts];
-        for (int i = 0; i < numFonts; i++)
+    /**
+     * Creates a new TrueTypeCollection from a RandomAccessRead.
+     *
+     * @param randomAccessRead the source of the collection, it will be closed when the collection is closed.
+     * @param unbuffered if true the fonts read their data directly from the given source instead of copying it to the
+     * heap first, see {@link TTFParser#parseUnbuffered(RandomAccessRead)}.
+     * @throws IOException If the font could not be parsed.
+     */
+    public TrueTypeCollection(RandomAccessRead randomAccessRead, boolean unbuffered)
+            throws IOException
+    {
+        this.stream = unbuffered ? new RandomAccessReadUnbufferedDataStream(randomAccessRead)
+                : new RandomAccessReadDataStream(randomAccessRead);
+
+        try
         {
-            fontOffsets[i] = stream.readUnsignedInt();
+            // TTC header
+            String tag = stream.readTag();
+            if (!tag.equals("ttcf"))
+            {
+                throw new IOException("Missing TTC header");
+            }
+            float version = stream.read32Fixed();
+            numFonts = (int)stream.readUnsignedInt();
+            if (numFonts <= 0 || numFonts > 1024)
+            {
+                throw new IOException("Invalid number of fonts " + numFonts);
+            }
+            fontOffsets = new long[numFonts];
+            for (int i = 0; i < numFonts; i++)
+            {
+                fontOffsets[i] = stream.readUnsignedInt();
+            }
+            if (version >= 2)
+            {
+                // not used at this time
+                int ulDsigTag = stream.readUnsignedShort();
+                int ulDsigLength = stream.readUnsignedShort();
+                int ulDsigOffset = stream.readUnsignedShort();
+            }
         }
-        if (version >= 2)
+        catch (IOException ex)
         {
-            // not used at this time
-            int ulDsigTag = stream.readUnsignedShort();
-            int ulDsigLength = stream.readUnsignedShort();
-            int ulDsigOffset = stream.readUnsignedShort();
+            stream.close();
+            throw ex;
         }
     }
     
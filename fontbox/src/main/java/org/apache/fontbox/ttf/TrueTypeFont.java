@@ -50,6 +50,7 @@ public class TrueTypeFont implements FontBoxFont, Closeable
     protected final Map<String,TTFTable> tables = new HashMap<>();
     private final TTFDataStream data;
     private volatile Map<String, Integer> postScriptNames;
+    private volatile GlyphSubsetIndex glyphSubsetIndex;
     
     private final Object lockReadtable = new Object();
     private final Object lockPSNames = new Object();
@@ -143,6 +144,59 @@ public class TrueTypeFont implements FontBoxFont, Closeable
         }
     }
 
+    /**
+     * Reads raw bytes of the font data. Package-private, used by the subsetter only.
+     *
+     * @param offset the offset within the font data
+     * @param b the buffer to read into
+     * @param off the position within the buffer
+     * @param len the number of bytes to read
+     * @throws IOException if there was an error accessing the data.
+     */
+    void readBytes(long offset, byte[] b, int off, int len) throws IOException
+    {
+        synchronized (lockReadtable)
+        {
+            // save current position
+            long currentPosition = data.getCurrentPosition();
+            data.seek(offset);
+
+            int totalAmountRead = 0;
+            int amountRead;
+            while (totalAmountRead < len
+                    && (amountRead = data.read(b, off + totalAmountRead, len - totalAmountRead)) > 0)
+            {
+                totalAmountRead += amountRead;
+            }
+
+            // restore current position
+            data.seek(currentPosition);
+            if (totalAmountRead < len)
+            {
+                throw new IOException("Unexpected end of TTF stream reached");
+            }
+        }
+    }
+
+    /**
+     * Returns the glyph data needed to build subsets of this font. It is created once and shared by
+     * all subsets. Package-private, used by the subsetter only.
+     *
+     * @return the glyph subset index
+     * @throws IOException if there was an error reading the tables.
+     */
+    GlyphSubsetIndex getGlyphSubsetIndex() throws IOException
+    {
+        GlyphSubsetIndex index = glyphSubsetIndex;
+        if (index == null)
+        {
+            // not locked, creating it twice by concurrent threads is harmless
+            index = new GlyphSubsetIndex(this);
+            glyphSubsetIndex = index;
+        }
+        return index;
+    }
+
     /**
      * This will get the table for the given tag.
      * 
@@ -0,0 +1,140 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.fontbox.cff;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.awt.geom.GeneralPath;
+import java.awt.geom.PathIterator;
+import java.io.IOException;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Compares the direct rendering of Type 2 charstrings with the conversion to a Type 1 sequence.
+ */
+class Type2CharStringTest
+{
+    private static final int DEFAULT_WIDTH_X = 500;
+    private static final int NOMINAL_WIDTH_X = 600;
+
+    // rlineto 10 10, return
+    private static final byte[][] LOCAL_SUBRS = { bytes(n(10), n(10), 5, 11) };
+    // hlineto 20, return
+    private static final byte[][] GLOBAL_SUBRS = { bytes(n(20), 6, 11) };
+
+    @Test
+    void testLinesAndCurves() throws IOException
+    {
+        byte[] charString = bytes(
+                n(50), n(10), n(20), 21, // width, rmoveto
+                n(30), n(0), n(5), n(-5), 5, // rlineto
+                n(10), n(20), n(30), n(40), n(50), 31, // hvcurveto with final dy
+                n(10), n(20), n(30), n(40), n(10), n(20), n(30), n(40), 30, // vhcurveto
+                n(5), n(10), n(20), n(30), n(40), 27, // hhcurveto with first dy
+                n(10), n(20), n(30), n(40), 26, // vvcurveto
+                n(1), n(2), n(3), n(4), n(5), n(6), n(7), n(8), 24, // rcurveline
+                n(1), n(2), n(3), n(4), n(5), n(6), n(7), n(8), 25, // rlinecurve
+                n(10), 6, // hlineto
+                n(10), n(20), n(30), 7, // vlineto
+                14); // endchar
+        int width = assertSameOutline(charString);
+        assertEquals(50 + NOMINAL_WIDTH_X, width);
+    }
+
+    @Test
+    void testHintsAndSubroutines() throws IOException
+    {
+        byte[] charString = bytes(
+                n(10), n(20), n(30), n(40), 1, // hstem without width
+                n(10), n(20), 19, 0xC0, // hintmask with implicit vstem, 3 hints
+                n(100), 22, // hmoveto
+                n(-107), 10, // callsubr 0
+                n(-107), 29, // callgsubr 0
+                n(50), 4, // vmoveto, closes the first path
+                n(-107), 10, // callsubr 0
+                14); // endchar
+        int width = assertSameOutline(charString);
+        assertEquals(DEFAULT_WIDTH_X, width);
+    }
+
+    @Test
+    void testFlex() throws IOException
+    {
+        byte[] charString = bytes(
+                n(0), n(0), 21, // rmoveto
+                n(1), n(2), n(3), n(4), n(5), n(6), n(7), n(8), n(9), n(10), n(11), n(12), n(50), 12, 35, // flex
+                n(1), n(2), n(3), n(4), n(5), n(6), n(7), 12, 34, // hflex
+                n(1), n(2), n(3), n(4), n(5), n(6), n(7), n(8), n(9), 12, 36, // hflex1
+                n(1), n(2), n(3), n(4), n(5), n(6), n(7), n(8), n(9), n(10), n(11), 12, 37, // flex1
+                28, 0x01, 0x00, 255, 0x00, 0x02, 0x80, 0x00, 5, // rlineto 256 2.5
+                14); // endchar
+        assertSameOutline(charString);
+    }
+
+    private static int assertSameOutline(byte[] charString) throws IOException
+    {
+        List<Object> sequence = new Type2CharStringParser("Test").parse(charString, GLOBAL_SUBRS, LOCAL_SUBRS,
+                "test");
+        Type2CharString expected = new Type2CharString(null, "Test", "test", 1, sequence, DEFAULT_WIDTH_X,
+                NOMINAL_WIDTH_X);
+        Type2CharString actual = new Type2CharString(null, "Test", "test", 1, charString, GLOBAL_SUBRS,
+                LOCAL_SUBRS, DEFAULT_WIDTH_X, NOMINAL_WIDTH_X);
+
+        assertEquals(expected.getWidth(), actual.getWidth());
+        assertEquals(expected.getBounds(), actual.getBounds());
+        assertSamePath(expected.getPath(), actual.getPath());
+        return actual.getWidth();
+    }
+
+    private static void assertSamePath(GeneralPath expected, GeneralPath actual)
+    {
+        PathIterator expectedIterator = expected.getPathIterator(null);
+        PathIterator actualIterator = actual.getPathIterator(null);
+        float[] expectedCoords = new float[6];
+        float[] actualCoords = new float[6];
+        while (!expectedIterator.isDone())
+        {
+            assertFalse(actualIterator.isDone());
+            assertEquals(expectedIterator.currentSegment(expectedCoords),
+                    actualIterator.currentSegment(actualCoords));
+            assertArrayEquals(expectedCoords, actualCoords);
+            expectedIterator.next();
+            actualIterator.next();
+        }
+        assertEquals(expectedIterator.isDone(), actualIterator.isDone());
+    }
+
+    // encodes a number in the range -107..107
+    private static int n(int value)
+    {
+        return value + 139;
+    }
+
+    private static byte[] bytes(int... values)
+    {
+        byte[] bytes = new byte[values.length];
+        for (int i = 0; i < values.length; i++)
+        {
+            bytes[i] = (byte) values[i];
+        }
+        return bytes;
+    }
+}
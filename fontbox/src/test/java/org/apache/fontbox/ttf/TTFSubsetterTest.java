@@ -20,8 +20,10 @@ import java.io.File;
 import java.io.IOException;
 import java.net.URI;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Map.Entry;
 import org.apache.fontbox.util.autodetect.FontFileFinder;
 import org.apache.pdfbox.io.RandomAccessReadBuffer;
@@ -273,4 +275,75 @@ class TTFSubsetterTest
                     "UC dieresis path should not be empty");
         }
     }
+
+    /**
+     * Tests a subset with composite glyphs. The components must be part of the subset, also those
+     * which aren't mapped to a character, and the component GIDs of the composite glyphs must be
+     * remapped to the new GIDs of these glyphs.
+     *
+     * @throws java.io.IOException
+     */
+    @Test
+    void testCompositeGlyphs() throws IOException
+    {
+        final File testFile = new File("src/test/resources/ttf/LiberationSans-Regular.ttf");
+        TrueTypeFont ttf = new TTFParser().parse(new RandomAccessReadBufferedFile(testFile));
+        TTFSubsetter ttfSubsetter = new TTFSubsetter(ttf);
+        ttfSubsetter.add('\u01FB'); // aringacute, with the components a, ring and acute
+        ttfSubsetter.add('\u1EA5'); // acircumflexacute
+        ttfSubsetter.add('é');
+        ttfSubsetter.add('Ö');
+        ttfSubsetter.add('z');
+        Map<Integer, Integer> gidMap = ttfSubsetter.getGIDMap();
+        Map<Integer, Integer> newGIDs = new HashMap<>();
+        gidMap.forEach((newGID, oldGID) -> newGIDs.put(oldGID, newGID));
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        ttfSubsetter.writeToStream(baos);
+        try (TrueTypeFont subset = new TTFParser(true)
+                .parse(new RandomAccessReadBuffer(baos.toByteArray())))
+        {
+            assertEquals(gidMap.size(), subset.getNumberOfGlyphs());
+            int compositeCount = 0;
+            for (Entry<Integer, Integer> entry : gidMap.entrySet())
+            {
+                int newGID = entry.getKey();
+                int oldGID = entry.getValue();
+                assertEquals(ttf.getPostScript().getName(oldGID),
+                        subset.getPostScript().getName(newGID));
+                GlyphData oldGlyph = ttf.getGlyph().getGlyph(oldGID);
+                GlyphData newGlyph = subset.getGlyph().getGlyph(newGID);
+                if (oldGlyph == null)
+                {
+                    assertNull(newGlyph);
+                    continue;
+                }
+                assertEquals(oldGlyph.getPath().getBounds2D(), newGlyph.getPath().getBounds2D(),
+                        "path of GID " + oldGID);
+                if (!oldGlyph.getDescription().isComposite())
+                {
+                    assertFalse(newGlyph.getDescription().isComposite());
+                    continue;
+                }
+                compositeCount++;
+                assertTrue(newGlyph.getDescription().isComposite());
+                List<GlyfCompositeComp> oldComponents =
+                        ((GlyfCompositeDescript) oldGlyph.getDescription()).getComponents();
+                List<GlyfCompositeComp> newComponents =
+                        ((GlyfCompositeDescript) newGlyph.getDescription()).getComponents();
+                assertEquals(oldComponents.size(), newComponents.size());
+                for (int i = 0; i < oldComponents.size(); i++)
+                {
+                    int oldComponentGID = oldComponents.get(i).getGlyphIndex();
+                    assertTrue(newGIDs.containsKey(oldComponentGID),
+                            "component " + oldComponentGID + " of GID " + oldGID + " missing");
+                    assertEquals(newGIDs.get(oldComponentGID).intValue(),
+                            newComponents.get(i).getGlyphIndex());
+                }
+            }
+            assertEquals(4, compositeCount);
+            GlyphData aringacute = subset.getGlyph().getGlyph(subset.nameToGID("aringacute"));
+            assertEquals(3, ((GlyfCompositeDescript) aringacute.getDescription())
+                    .getComponentCount());
+        }
+    }
 }
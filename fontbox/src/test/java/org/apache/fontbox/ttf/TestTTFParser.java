@@ -15,6 +15,7 @@
  */
 package org.apache.fontbox.ttf;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 
@@ -24,8 +25,10 @@ import java.io.InputStream;
 import java.util.Calendar;
 import java.util.TimeZone;
 
+import org.apache.pdfbox.io.IOUtils;
 import org.apache.pdfbox.io.RandomAccessReadBuffer;
 import org.apache.pdfbox.io.RandomAccessReadBufferedFile;
+import org.apache.pdfbox.io.RandomAccessReadMemoryMappedFile;
 import org.junit.jupiter.api.Test;
 
 /**
@@ -110,4 +113,35 @@ class TestTTFParser
         assertEquals("Euro", glyphNames[gid]);
     }
 
+    /**
+     * Test that a font read directly from a memory mapped file gives the same results as a font
+     * which was copied to the heap.
+     * 
+     * @throws IOException if an error occurs.
+     */
+    @Test
+    void testParseUnbuffered() throws IOException
+    {
+        final File testFile = new File("src/test/resources/ttf/LiberationSans-Regular.ttf");
+        TTFParser parser = new TTFParser();
+        try (TrueTypeFont expected = parser.parse(new RandomAccessReadBufferedFile(testFile));
+             TrueTypeFont actual = parser.parseUnbuffered(
+                     new RandomAccessReadMemoryMappedFile(testFile)))
+        {
+            assertEquals(expected.getName(), actual.getName());
+            assertEquals(expected.getNumberOfGlyphs(), actual.getNumberOfGlyphs());
+            assertEquals(expected.getOriginalDataSize(), actual.getOriginalDataSize());
+            for (int gid = 0; gid < expected.getNumberOfGlyphs(); gid++)
+            {
+                assertEquals(expected.getGlyph().getGlyph(gid).getPath().getBounds2D(),
+                        actual.getGlyph().getGlyph(gid).getPath().getBounds2D(), "gid " + gid);
+            }
+            try (InputStream expectedData = expected.getOriginalData();
+                 InputStream actualData = actual.getOriginalData())
+            {
+                assertArrayEquals(IOUtils.toByteArray(expectedData),
+                        IOUtils.toByteArray(actualData));
+            }
+        }
+    }
 }
@@ -0,0 +1,245 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * An implementation of the RandomAccessRead interface using an InputStream as source. Unlike
+ * {@link RandomAccessReadBuffer} the input isn't copied to memory, only the most recently read
+ * bytes are kept in a small buffer. Therefore it is only possible to seek forward and to seek back
+ * by up to {@link #MAXIMUM_REWIND} bytes, which is enough for peek and rewind operations of
+ * consumers which read the data more or less sequentially, such as a content stream parser.
+ * <p>
+ * The length of the data isn't known until the end of the input has been reached.
+ * {@link #length()} returns the number of bytes that have been read from the input so far.
+ */
+public class NonSeekableRandomAccessReadInputStream implements RandomAccessRead
+{
+    /**
+     * The number of bytes before the current position that are always available for seeking back.
+     */
+    public static final int MAXIMUM_REWIND = 4096;
+
+    private static final int BUFFER_SIZE = 4 * MAXIMUM_REWIND;
+
+    private InputStream input;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    // position of the first byte of the buffer within the input
+    private long bufferStart = 0;
+    // number of valid bytes in the buffer
+    private int bufferLength = 0;
+    // current position within the buffer
+    private int bufferPosition = 0;
+    private boolean endOfInput = false;
+
+    /**
+     * Constructor.
+     *
+     * @param input the input stream to be read, it is closed when this is closed
+     */
+    public NonSeekableRandomAccessReadInputStream(InputStream input)
+    {
+        this.input = input;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int read() throws IOException
+    {
+        checkClosed();
+        if (!fill())
+        {
+            return -1;
+        }
+        return buffer[bufferPosition++] & 0xff;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int read(byte[] b, int offset, int length) throws IOException
+    {
+        checkClosed();
+        if (length == 0)
+        {
+            return 0;
+        }
+        // read as much as possible like the other implementations do, some callers rely on it
+        int readBytes = 0;
+        while (readBytes < length && fill())
+        {
+            int chunk = Math.min(length - readBytes, bufferLength - bufferPosition);
+            System.arraycopy(buffer, bufferPosition, b, offset + readBytes, chunk);
+            bufferPosition += chunk;
+            readBytes += chunk;
+        }
+        return readBytes > 0 ? readBytes : -1;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getPosition() throws IOException
+    {
+        checkClosed();
+        return bufferStart + bufferPosition;
+    }
+
+    /**
+     * Seeks to the given position. Seeking forward skips the bytes in between, seeking back is
+     * only possible within the bytes which are still buffered.
+     *
+     * @param position the position to seek to
+     * @throws IOException if the position is before the buffered bytes or if the input can't be
+     * read
+     */
+    @Override
+    public void seek(long position) throws IOException
+    {
+        checkClosed();
+        if (position < bufferStart)
+        {
+            throw new IOException("Can't seek back to position " + position +
+                    ", the earliest available position is " + bufferStart);
+        }
+        while (position > bufferStart + bufferLength && fill())
+        {
+            bufferPosition = bufferLength;
+        }
+        bufferPosition = (int) (Math.min(position, bufferStart + bufferLength) - bufferStart);
+    }
+
+    /**
+     * Returns the number of bytes that have been read from the input so far, which is the length
+     * of the data once the end of the input has been reached.
+     *
+     * @return the number of bytes read from the input
+     * @throws IOException if this has been closed
+     */
+    @Override
+    public long length() throws IOException
+    {
+        checkClosed();
+        return bufferStart + bufferLength;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isClosed()
+    {
+        return input == null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isEOF() throws IOException
+    {
+        checkClosed();
+        return !fill();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int available() throws IOException
+    {
+        checkClosed();
+        return bufferLength - bufferPosition + input.available();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() throws IOException
+    {
+        if (input != null)
+        {
+            input.close();
+            input = null;
+        }
+    }
+
+    @Override
+    public RandomAccessReadView createView(long startPosition, long streamLength) throws IOException
+    {
+        throw new IOException(getClass().getName() + ".createView isn't supported.");
+    }
+
+    /**
+     * Makes sure that there is at least one byte to be read at the current position.
+     *
+     * @return false if the end of the input has been reached
+     * @throws IOException if the input can't be read
+     */
+    private boolean fill() throws IOException
+    {
+        if (bufferPosition < bufferLength)
+        {
+            return true;
+        }
+        if (endOfInput)
+        {
+            return false;
+        }
+        if (bufferLength == BUFFER_SIZE)
+        {
+            // keep the most recent bytes for seeking back
+            int discarded = BUFFER_SIZE - MAXIMUM_REWIND;
+            System.arraycopy(buffer, discarded, buffer, 0, MAXIMUM_REWIND);
+            bufferStart += discarded;
+            bufferLength = MAXIMUM_REWIND;
+            bufferPosition = MAXIMUM_REWIND;
+        }
+        int readBytes = input.read(buffer, bufferLength, BUFFER_SIZE - bufferLength);
+        while (readBytes == 0)
+        {
+            readBytes = input.read(buffer, bufferLength, BUFFER_SIZE - bufferLength);
+        }
+        if (readBytes < 0)
+        {
+            endOfInput = true;
+            return false;
+        }
+        bufferLength += readBytes;
+        return true;
+    }
+
+    /**
+     * Ensure that this isn't closed.
+     *
+     * @throws IOException If already closed
+     */
+    private void checkClosed() throws IOException
+    {
+        if (isClosed())
+        {
+            throw new IOException("NonSeekableRandomAccessReadInputStream already closed");
+        }
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.io;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unittest for {@link org.apache.pdfbox.io.NonSeekableRandomAccessReadInputStream}
+ */
+class NonSeekableRandomAccessReadInputStreamTest
+{
+    private static byte[] createValues(int length)
+    {
+        byte[] values = new byte[length];
+        for (int i = 0; i < length; i++)
+        {
+            values[i] = (byte) (i * 7);
+        }
+        return values;
+    }
+
+    @Test
+    void testReadAll() throws IOException
+    {
+        byte[] values = createValues(100000);
+        try (NonSeekableRandomAccessReadInputStream source =
+                new NonSeekableRandomAccessReadInputStream(new ByteArrayInputStream(values)))
+        {
+            byte[] result = new byte[values.length];
+            int position = 0;
+            while (!source.isEOF())
+            {
+                if (position % 3 == 0)
+                {
+                    result[position++] = (byte) source.read();
+                }
+                else
+                {
+                    position += source.read(result, position, Math.min(1000, result.length - position));
+                }
+                assertEquals(position, source.getPosition());
+            }
+            assertArrayEquals(values, result);
+            assertEquals(values.length, source.length());
+            assertEquals(-1, source.read());
+            assertEquals(-1, source.read(result, 0, 10));
+        }
+    }
+
+    @Test
+    void testPeekAndRewind() throws IOException
+    {
+        byte[] values = createValues(50000);
+        try (NonSeekableRandomAccessReadInputStream source =
+                new NonSeekableRandomAccessReadInputStream(new ByteArrayInputStream(values)))
+        {
+            for (int i = 0; i < values.length; i++)
+            {
+                assertEquals(values[i] & 0xff, source.peek());
+                assertEquals(values[i] & 0xff, source.read());
+                if (i % 1000 == 999)
+                {
+                    // rewinds which reach back before a refill of the buffer
+                    int bytes = Math.min(i + 1, NonSeekableRandomAccessReadInputStream.MAXIMUM_REWIND);
+                    source.rewind(bytes);
+                    assertEquals(values[i + 1 - bytes] & 0xff, source.read());
+                    source.skip(bytes - 1);
+                }
+            }
+            assertEquals(-1, source.peek());
+            assertTrue(source.isEOF());
+        }
+    }
+
+    @Test
+    void testSeek() throws IOException
+    {
+        byte[] values = createValues(100000);
+        try (NonSeekableRandomAccessReadInputStream source =
+                new NonSeekableRandomAccessReadInputStream(new ByteArrayInputStream(values)))
+        {
+            source.seek(40000);
+            assertEquals(40000, source.getPosition());
+            assertEquals(values[40000] & 0xff, source.read());
+            source.seek(40000 - NonSeekableRandomAccessReadInputStream.MAXIMUM_REWIND);
+            assertEquals(values[40000 - NonSeekableRandomAccessReadInputStream.MAXIMUM_REWIND] & 0xff,
+                    source.read());
+            assertThrows(IOException.class, () -> source.seek(0));
+
+            // seeking beyond the end stops at the end
+            source.seek(200000);
+            assertEquals(values.length, source.getPosition());
+            assertTrue(source.isEOF());
+        }
+    }
+
+    @Test
+    void testClose() throws IOException
+    {
+        NonSeekableRandomAccessReadInputStream source = new NonSeekableRandomAccessReadInputStream(
+                new ByteArrayInputStream(createValues(10)));
+        byte[] buffer = new byte[5];
+        assertEquals(5, source.read(buffer));
+        assertArrayEquals(Arrays.copyOf(createValues(10), 5), buffer);
+        assertFalse(source.isClosed());
+        source.close();
+        assertTrue(source.isClosed());
+        assertThrows(IOException.class, source::read);
+        source.close();
+    }
+}
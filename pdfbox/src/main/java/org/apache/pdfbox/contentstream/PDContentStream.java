@@ -47,6 +47,19 @@ public interface PDContentStream
      */
     RandomAccessRead getContentsForRandomAccess() throws IOException;
 
+    /**
+     * Returns this stream's content for a parser which reads it from start to end, if any. The
+     * content may be decoded while it is read, so that it is only possible to seek back a few
+     * kilobytes.
+     * 
+     * @return A RandomAccessRead or null.
+     * @throws IOException If the content could not be read
+     */
+    default RandomAccessRead getContentsForStreamParsing() throws IOException
+    {
+        return getContentsForRandomAccess();
+    }
+
     /**
      * Returns this stream's resources, if any.
      * 
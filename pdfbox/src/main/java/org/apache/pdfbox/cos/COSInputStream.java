@@ -74,6 +74,27 @@ public final class COSInputStream extends FilterInputStream
         return new COSInputStream(new RandomAccessInputStream(decoded), results);
     }
 
+    /**
+     * Creates a new COSInputStream which decodes an encoded input stream while it is read.
+     *
+     * @param filters Filters to be applied.
+     * @param parameters Filter parameters.
+     * @param in Encoded input stream.
+     * @return Decoded stream.
+     * @throws IOException If the stream could not be read.
+     */
+    static COSInputStream createDecoding(List<Filter> filters, COSDictionary parameters,
+            InputStream in) throws IOException
+    {
+        if (filters.isEmpty())
+        {
+            return new COSInputStream(in, Collections.<DecodeResult>emptyList());
+        }
+        List<DecodeResult> results = new ArrayList<>(filters.size());
+        InputStream decoded = Filter.decodeWhileReading(in, filters, parameters, results);
+        return new COSInputStream(decoded, results);
+    }
+
     private final List<DecodeResult> decodeResults;
 
     /**
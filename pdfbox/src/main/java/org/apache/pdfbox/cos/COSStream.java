@@ -172,6 +172,22 @@ public class COSStream extends COSDictionary implements Closeable
         return COSInputStream.create(getFilterList(), this, input, options);
     }
 
+    /**
+     * Returns a new InputStream which decodes the stream data while it is read, for consumers which
+     * read the data sequentially such as content stream parsers. Unlike
+     * {@link #createInputStream()} the decoded data isn't buffered, if the filters support this.
+     * The stream must be closed, and the data of this stream must not be changed while the stream
+     * is read.
+     * 
+     * @return InputStream containing decoded stream data.
+     * @throws IOException If the stream could not be read.
+     */
+    public COSInputStream createDecodingInputStream() throws IOException
+    {
+        InputStream input = createRawInputStream();
+        return COSInputStream.createDecoding(getFilterList(), this, input);
+    }
+
     /**
      * Returns a new RandomAccessRead which reads the decoded stream data.
      * 
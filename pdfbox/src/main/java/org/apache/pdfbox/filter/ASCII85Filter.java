@@ -41,6 +41,13 @@ final class ASCII85Filter extends Filter
         return new DecodeResult(parameters);
     }
 
+    @Override
+    public InputStream createDecodingInputStream(InputStream encoded, COSDictionary parameters,
+            int index)
+    {
+        return new ASCII85InputStream(encoded);
+    }
+
     @Override
     protected void encode(InputStream input, OutputStream encoded, COSDictionary parameters)
         throws IOException
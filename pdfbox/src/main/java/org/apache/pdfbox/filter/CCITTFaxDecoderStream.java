@@ -74,6 +74,15 @@ final class CCITTFaxDecoderStream extends FilterInputStream {
 
     private int lastChangingElement = 0;
 
+    // the next bits of the input, the first bit is the most significant bit
+    private long bits;
+    private int bitCount;
+
+    // the input is read in chunks rather than byte by byte
+    private final byte[] input = new byte[4096];
+    private int inputPos;
+    private int inputLength;
+
     /**
      * Creates a CCITTFaxDecoderStream.
      * This constructor may be used for CCITT streams embedded in PDF files,
@@ -129,6 +138,7 @@ final class CCITTFaxDecoderStream extends FilterInputStream {
 
             try {
                 decodeRow();
+                fillRow(decodedRow, 0);
             }
             catch (ArrayIndexOutOfBoundsException e) {
                 // Mask the AIOOBE as an IOException
@@ -158,10 +168,10 @@ final class CCITTFaxDecoderStream extends FilterInputStream {
             int completeRun;
 
             if (white) {
-                completeRun = decodeRun(whiteRunTree);
+                completeRun = decodeRun(whiteRunTree, WHITE_RUN_TABLE);
             }
             else {
-                completeRun = decodeRun(blackRunTree);
+                completeRun = decodeRun(blackRunTree, BLACK_RUN_TABLE);
             }
 
             index += completeRun;
@@ -182,61 +192,54 @@ final class CCITTFaxDecoderStream extends FilterInputStream {
         int index = 0;
         changesCurrentRowCount = 0;
 
-        mode: while (index < columns) {
+        while (index < columns) {
             // read mode
-            Node n = codeTree.root;
+            int mode = decodeCode(codeTree, CODE_TABLE, CODE_TABLE_BITS);
 
-            while (true) {
-                n = n.walk(readBit());
+            switch (mode) {
+                case VALUE_INVALID:
+                    // skip unknown codes
+                    break;
 
-                if (n == null) {
-                    continue mode;
-                }
-                else if (n.isLeaf) {
-                    switch (n.value) {
-                        case VALUE_HMODE:
-                            int runLength;
-                            runLength = decodeRun(white ? whiteRunTree : blackRunTree);
-                            index += runLength;
-                            changesCurrentRow[changesCurrentRowCount++] = index;
-
-                            runLength = decodeRun(white ? blackRunTree : whiteRunTree);
-                            index += runLength;
-                            changesCurrentRow[changesCurrentRowCount++] = index;
-                            break;
-
-                        case VALUE_PASSMODE:
-                            int pChangingElement = getNextChangingElement(index, white) + 1;
-
-                            if (pChangingElement >= changesReferenceRowCount) {
-                                index = columns;
-                            }
-                            else {
-                                index = changesReferenceRow[pChangingElement];
-                            }
-
-                            break;
-
-                        default:
-                            // Vertical mode (-3 to 3)
-                            int vChangingElement = getNextChangingElement(index, white);
-
-                            if (vChangingElement >= changesReferenceRowCount || vChangingElement == -1) {
-                                index = columns + n.value;
-                            }
-                            else {
-                                index = changesReferenceRow[vChangingElement] + n.value;
-                            }
-
-                            changesCurrentRow[changesCurrentRowCount] = index;
-                            changesCurrentRowCount++;
-                            white = !white;
-
-                            break;
+                case VALUE_HMODE:
+                    int runLength;
+                    runLength = white ? decodeRun(whiteRunTree, WHITE_RUN_TABLE) : decodeRun(blackRunTree, BLACK_RUN_TABLE);
+                    index += runLength;
+                    changesCurrentRow[changesCurrentRowCount++] = index;
+
+                    runLength = white ? decodeRun(blackRunTree, BLACK_RUN_TABLE) : decodeRun(whiteRunTree, WHITE_RUN_TABLE);
+                    index += runLength;
+                    changesCurrentRow[changesCurrentRowCount++] = index;
+                    break;
+
+                case VALUE_PASSMODE:
+                    int pChangingElement = getNextChangingElement(index, white) + 1;
+
+                    if (pChangingElement >= changesReferenceRowCount) {
+                        index = columns;
+                    }
+                    else {
+                        index = changesReferenceRow[pChangingElement];
                     }
 
-                    continue mode;
-                }
+                    break;
+
+                default:
+                    // Vertical mode (-3 to 3)
+                    int vChangingElement = getNextChangingElement(index, white);
+
+                    if (vChangingElement >= changesReferenceRowCount || vChangingElement == -1) {
+                        index = columns + mode;
+                    }
+                    else {
+                        index = changesReferenceRow[vChangingElement] + mode;
+                    }
+
+                    changesCurrentRow[changesCurrentRowCount] = index;
+                    changesCurrentRowCount++;
+                    white = !white;
+
+                    break;
             }
         }
     }
@@ -319,10 +322,46 @@ final class CCITTFaxDecoderStream extends FilterInputStream {
                 throw new IllegalArgumentException("Illegal parameter: " + type);
         }
 
+        lastChangingElement = 0;
+    }
+
+    /**
+     * Decodes rows straight into the given array, e.g. the data buffer of a packed 1 bit raster.
+     * The rows are stored without gaps, each row starts at a byte boundary. Rows after the end of
+     * the stream are left as they are.
+     *
+     * @param target the array for the decoded rows.
+     * @param rows the number of rows to decode.
+     * @return the number of rows decoded.
+     * @throws IOException if the stream is malformed.
+     */
+    int decodeRows(final byte[] target, final int rows) throws IOException {
+        int rowLength = (columns + 7) / 8;
+
+        for (int row = 0; row < rows; row++) {
+            try {
+                decodeRow();
+            }
+            catch (ArrayIndexOutOfBoundsException e) {
+                // Mask the AIOOBE as an IOException
+                throw new IOException("Malformed CCITT stream", e);
+            }
+            catch (EOFException e) {
+                return row;
+            }
+
+            fillRow(target, row * rowLength);
+        }
+
+        return rows;
+    }
+
+    private void fillRow(final byte[] row, final int offset) throws IOException {
+        Arrays.fill(row, offset, offset + (columns + 7) / 8, (byte) 0);
+
         int index = 0;
         boolean white = true;
 
-        lastChangingElement = 0;
         for (int i = 0; i <= changesCurrentRowCount; i++) {
             int nextChange = columns;
 
@@ -334,36 +373,17 @@ final class CCITTFaxDecoderStream extends FilterInputStream {
                 nextChange = columns;
             }
 
-            int byteIndex = index / 8;
-
-            while (index % 8 != 0 && (nextChange - index) > 0) {
-                decodedRow[byteIndex] |= (white ? 0 : 1 << (7 - ((index) % 8)));
-                index++;
-            }
-
-            if (index % 8 == 0) {
-                byteIndex = index / 8;
-                final byte value = (byte) (white ? 0x00 : 0xff);
-
-                while ((nextChange - index) > 7) {
-                    decodedRow[byteIndex] = value;
-                    index += 8;
-                    ++byteIndex;
+            if (nextChange > index) {
+                if (!white) {
+                    setBits(row, offset, index, nextChange);
                 }
-            }
 
-            while ((nextChange - index) > 0) {
-                if (index % 8 == 0) {
-                    decodedRow[byteIndex] = 0;
-                }
-
-                decodedRow[byteIndex] |= (white ? 0 : 1 << (7 - ((index) % 8)));
-                index++;
+                index = nextChange;
             }
 
             white = !white;
         }
-        
+
         if (index != columns) {
             throw new IOException("Sum of run-lengths does not equal scan line width: " + index + " > " + columns);
         }
@@ -371,55 +391,119 @@ final class CCITTFaxDecoderStream extends FilterInputStream {
         decodedLength = (index + 7) / 8;
     }
 
-    private int decodeRun(final Tree tree) throws IOException {
+    private static void setBits(final byte[] row, final int offset, final int from, final int to) {
+        int first = offset + (from >> 3);
+        int last = offset + ((to - 1) >> 3);
+        int firstMask = 0xff >>> (from & 7);
+        int lastMask = 0xff << (7 - ((to - 1) & 7));
+
+        if (first == last) {
+            row[first] |= firstMask & lastMask;
+        }
+        else {
+            row[first] |= firstMask;
+            for (int i = first + 1; i < last; i++) {
+                row[i] = (byte) 0xff;
+            }
+            row[last] |= lastMask;
+        }
+    }
+
+    private int decodeRun(final Tree tree, final int[] table) throws IOException {
         int total = 0;
 
+        while (true) {
+            int value = decodeCode(tree, table, RUN_TABLE_BITS);
+
+            if (value == VALUE_INVALID) {
+                throw new IOException("Unknown code in Huffman RLE stream");
+            }
+
+            total += value;
+            if (value >= 64) {
+                continue;
+            }
+            else if (value >= 0) {
+                return total;
+            }
+            else {
+                return columns;
+            }
+        }
+    }
+
+    /**
+     * Decodes the next code with the lookup table of the tree, or by walking the tree bit by bit
+     * if the code is longer than the table or if the end of the stream is near.
+     */
+    private int decodeCode(final Tree tree, final int[] table, final int tableBits) throws IOException {
+        if (bitCount < tableBits) {
+            fillBits();
+        }
+
+        if (bitCount >= tableBits) {
+            int entry = table[(int) (bits >>> (64 - tableBits))];
+            int length = entry & 0xff;
+
+            if (length != 0) {
+                bits <<= length;
+                bitCount -= length;
+
+                return entry >> 8;
+            }
+        }
+
         Node n = tree.root;
 
         while (true) {
-            boolean bit = readBit();
-            n = n.walk(bit);
+            n = n.walk(readBit());
 
             if (n == null) {
-                throw new IOException("Unknown code in Huffman RLE stream");
+                return VALUE_INVALID;
             }
 
             if (n.isLeaf) {
-                total += n.value;
-                if (n.value >= 64) {
-                    n = tree.root;
-                }
-                else if (n.value >= 0) {
-                    return total;
-                }
-                else {
-                    return columns;
-                }
+                return n.value;
             }
         }
     }
 
     private void resetBuffer() {
-        bufferPos = -1;
+        // skip the rest of the current byte
+        int skip = bitCount & 7;
+        bits <<= skip;
+        bitCount -= skip;
     }
 
-    int buffer = -1;
-    int bufferPos = -1;
+    private void fillBits() throws IOException {
+        while (bitCount <= 56) {
+            if (inputPos >= inputLength) {
+                inputLength = in.read(input, 0, input.length);
+                inputPos = 0;
+
+                if (inputLength <= 0) {
+                    inputLength = 0;
+                    return;
+                }
+            }
+
+            bits |= (input[inputPos++] & 0xffL) << (56 - bitCount);
+            bitCount += 8;
+        }
+    }
 
     private boolean readBit() throws IOException {
-        if (bufferPos < 0 || bufferPos > 7) {
-            buffer = in.read();
+        if (bitCount == 0) {
+            fillBits();
 
-            if (buffer == -1) {
+            if (bitCount == 0) {
                 throw new EOFException("Unexpected end of Huffman RLE stream");
             }
-
-            bufferPos = 0;
         }
 
-        boolean isSet = (buffer & 0x80) != 0;
-        buffer <<= 1;
-        bufferPos++;
+        boolean isSet = bits < 0;
+        bits <<= 1;
+        bitCount--;
 
         return isSet;
     }
@@ -746,6 +830,15 @@ final class CCITTFaxDecoderStream extends FilterInputStream {
     final static int VALUE_FILL = -1000;
     final static int VALUE_PASSMODE = -3000;
     final static int VALUE_HMODE = -4000;
+    // a code which isn't in the tree
+    final static int VALUE_INVALID = -5000;
+
+    // the lookup tables are indexed by the next bits of the input
+    final static int RUN_TABLE_BITS = 13;
+    final static int CODE_TABLE_BITS = 7;
+    final static int[] WHITE_RUN_TABLE;
+    final static int[] BLACK_RUN_TABLE;
+    final static int[] CODE_TABLE;
 
     static {
         EOL = new Node();
@@ -809,5 +902,37 @@ final class CCITTFaxDecoderStream extends FilterInputStream {
         catch (IOException e) {
             throw new AssertionError(e);
         }
+
+        WHITE_RUN_TABLE = createTable(whiteRunTree, RUN_TABLE_BITS);
+        BLACK_RUN_TABLE = createTable(blackRunTree, RUN_TABLE_BITS);
+        CODE_TABLE = createTable(codeTree, CODE_TABLE_BITS);
+    }
+
+    /**
+     * Creates a lookup table with the value and the length of the code that starts with each
+     * combination of the given number of bits. An entry is 0 if the code is longer.
+     */
+    private static int[] createTable(final Tree tree, final int tableBits) {
+        int[] table = new int[1 << tableBits];
+
+        for (int i = 0; i < table.length; i++) {
+            Node n = tree.root;
+
+            for (int length = 1; length <= tableBits; length++) {
+                n = n.walk(((i >> (tableBits - length)) & 1) == 1);
+
+                if (n == null) {
+                    table[i] = VALUE_INVALID << 8 | length;
+                    break;
+                }
+
+                if (n.isLeaf) {
+                    table[i] = n.value << 8 | length;
+                    break;
+                }
+            }
+        }
+
+        return table;
     }
 }
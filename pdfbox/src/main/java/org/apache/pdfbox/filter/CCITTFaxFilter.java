@@ -16,6 +16,10 @@
  */
 package org.apache.pdfbox.filter;
 
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferByte;
+import java.awt.image.Raster;
+import java.awt.image.WritableRaster;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -44,25 +48,54 @@ final class CCITTFaxFilter extends Filter
 
         // parse dimensions
         int cols = decodeParms.getInt(COSName.COLUMNS, 1728);
+        int rows = getRows(decodeParms, parameters);
+
+        byte[] decompressed = new byte[(cols + 7) / 8 * rows];
+        decodeBitmap(encoded, decodeParms, cols, rows, decompressed);
+
+        decoded.write(decompressed);
+        return new DecodeResult(parameters);
+    }
+
+    @Override
+    public WritableRaster decodeToRaster(InputStream encoded, COSDictionary parameters, int index)
+            throws IOException
+    {
+        COSDictionary decodeParms = getDecodeParams(parameters, index);
+        int cols = decodeParms.getInt(COSName.COLUMNS, 1728);
+        int rows = getRows(decodeParms, parameters);
+        if (cols <= 0 || rows <= 0)
+        {
+            throw new IOException("Invalid CCITT image dimensions: " + cols + " x " + rows);
+        }
+
+        // the rows of a packed 1 bit raster are laid out like the decoded stream
+        WritableRaster raster = Raster.createPackedRaster(DataBuffer.TYPE_BYTE, cols, rows, 1, 1,
+                null);
+        decodeBitmap(encoded, decodeParms, cols, rows,
+                ((DataBufferByte) raster.getDataBuffer()).getData());
+        return raster;
+    }
+
+    private static int getRows(COSDictionary decodeParms, COSDictionary parameters)
+    {
         int rows = decodeParms.getInt(COSName.ROWS, 0);
         int height = parameters.getInt(COSName.HEIGHT, COSName.H, 0);
         if (rows > 0 && height > 0)
         {
             // PDFBOX-771, PDFBOX-3727: rows in DecodeParms sometimes contains an incorrect value
-            rows = height;
-        }
-        else
-        {
-            // at least one of the values has to have a valid value
-            rows = Math.max(rows, height);
+            return height;
         }
+        // at least one of the values has to have a valid value
+        return Math.max(rows, height);
+    }
 
+    private void decodeBitmap(InputStream encoded, COSDictionary decodeParms, int cols, int rows,
+            byte[] decompressed) throws IOException
+    {
         // decompress data
         int k = decodeParms.getInt(COSName.K, 0);
         boolean encodedByteAlign = decodeParms.getBoolean(COSName.ENCODED_BYTE_ALIGN, false);
-        int arraySize = (cols + 7) / 8 * rows;
-        // TODO possible options??
-        byte[] decompressed = new byte[arraySize];
         CCITTFaxDecoderStream s;
         int type;
         long tiffOptions = 0;
@@ -103,7 +136,8 @@ final class CCITTFaxFilter extends Filter
             type = TIFFExtension.COMPRESSION_CCITT_T6;
         }
         s = new CCITTFaxDecoderStream(encoded, cols, type, tiffOptions, encodedByteAlign);
-        readFromDecoderStream(s, decompressed);
+        // the rows are decoded in place, rows after the end of the data stay white
+        s.decodeRows(decompressed, rows);
 
         // invert bitmap
         boolean blackIsOne = decodeParms.getBoolean(COSName.BLACK_IS_1, false);
@@ -115,24 +149,6 @@ final class CCITTFaxFilter extends Filter
             // So a safe but slower approach was taken.
             invertBitmap(decompressed);
         }
-
-        decoded.write(decompressed);
-        return new DecodeResult(parameters);
-    }
-
-    void readFromDecoderStream(CCITTFaxDecoderStream decoderStream, byte[] result)
-            throws IOException
-    {
-        int pos = 0;
-        int read;
-        while ((read = decoderStream.read(result, pos, result.length - pos)) > -1)
-        {
-            pos += read;
-            if (pos >= result.length)
-            {
-                break;
-            }
-        }
     }
 
     private void invertBitmap(byte[] bufferData)
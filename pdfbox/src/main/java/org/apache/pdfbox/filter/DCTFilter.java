@@ -259,76 +259,68 @@ final class DCTFilter extends Filter
     // PDF color space have to be consulted
     private WritableRaster fromYCCKtoCMYK(Raster raster)
     {
-        WritableRaster writableRaster = raster.createCompatibleWritableRaster();
+        WritableRaster writableRaster = toWritableRaster(raster);
 
-        int[] value = new int[4];
-        for (int y = 0, height = raster.getHeight(); y < height; y++)
+        int width = raster.getWidth();
+        int height = raster.getHeight();
+        int w4 = width * 4;
+        int[] value = new int[w4];
+        // one row at a time, see fromBGRtoRGB()
+        for (int y = 0; y < height; y++)
         {
-            for (int x = 0, width = raster.getWidth(); x < width; x++)
+            raster.getPixels(0, y, width, 1, value);
+            for (int off = 0; off < w4; off += 4)
             {
-                raster.getPixel(x, y, value);
-
                 // 4-channels 0..255
-                float Y = value[0];
-                float Cb = value[1];
-                float Cr = value[2];
-                float K = value[3];
+                float Y = value[off];
+                float Cb = value[off + 1];
+                float Cr = value[off + 2];
 
                 // YCCK to RGB, see http://software.intel.com/en-us/node/442744
                 int r = clamp(Y + 1.402f * Cr - 179.456f);
                 int g = clamp(Y - 0.34414f * Cb - 0.71414f * Cr + 135.45984f);
                 int b = clamp(Y + 1.772f * Cb - 226.816f);
 
-                // naive RGB to CMYK
-                int cyan = 255 - r;
-                int magenta = 255 - g;
-                int yellow = 255 - b;
-
-                // update new raster
-                value[0] = cyan;
-                value[1] = magenta;
-                value[2] = yellow;
-                value[3] = (int)K;
-                writableRaster.setPixel(x, y, value);
+                // naive RGB to CMYK, K is unchanged
+                value[off] = 255 - r;
+                value[off + 1] = 255 - g;
+                value[off + 2] = 255 - b;
             }
+            writableRaster.setPixels(0, y, width, 1, value);
         }
         return writableRaster;
     }
 
     private WritableRaster fromYCbCrtoCMYK(Raster raster)
     {
-        WritableRaster writableRaster = raster.createCompatibleWritableRaster();
+        WritableRaster writableRaster = toWritableRaster(raster);
 
-        int[] value = new int[4];
-        for (int y = 0, height = raster.getHeight(); y < height; y++)
+        int width = raster.getWidth();
+        int height = raster.getHeight();
+        int w4 = width * 4;
+        int[] value = new int[w4];
+        // one row at a time, see fromBGRtoRGB()
+        for (int y = 0; y < height; y++)
         {
-            for (int x = 0, width = raster.getWidth(); x < width; x++)
+            raster.getPixels(0, y, width, 1, value);
+            for (int off = 0; off < w4; off += 4)
             {
-                raster.getPixel(x, y, value);
-
                 // 4-channels 0..255
-                float Y = value[0];
-                float Cb = value[1];
-                float Cr = value[2];
-                float K = value[3];
+                float Y = value[off];
+                float Cb = value[off + 1];
+                float Cr = value[off + 2];
 
                 // YCbCr to RGB, see http://www.equasys.de/colorconversion.html
                 int r = clamp( (1.164f * (Y-16)) + (1.596f * (Cr - 128)) );
                 int g = clamp( (1.164f * (Y-16)) + (-0.392f * (Cb-128)) + (-0.813f * (Cr-128)));
                 int b = clamp( (1.164f * (Y-16)) + (2.017f * (Cb-128)));
 
-                // naive RGB to CMYK
-                int cyan = 255 - r;
-                int magenta = 255 - g;
-                int yellow = 255 - b;
-
-                // update new raster
-                value[0] = cyan;
-                value[1] = magenta;
-                value[2] = yellow;
-                value[3] = (int)K;
-                writableRaster.setPixel(x, y, value);
+                // naive RGB to CMYK, K is unchanged
+                value[off] = 255 - r;
+                value[off + 1] = 255 - g;
+                value[off + 2] = 255 - b;
             }
+            writableRaster.setPixels(0, y, width, 1, value);
         }
         return writableRaster;
     }
@@ -336,7 +328,7 @@ final class DCTFilter extends Filter
     // converts from BGR to RGB
     private WritableRaster fromBGRtoRGB(Raster raster)
     {
-        WritableRaster writableRaster = raster.createCompatibleWritableRaster();
+        WritableRaster writableRaster = toWritableRaster(raster);
 
         int width = raster.getWidth();
         int height = raster.getHeight();
@@ -357,6 +349,16 @@ final class DCTFilter extends Filter
         return writableRaster;
     }
     
+    // the rasters are converted in place if possible, they aren't shared with the image reader
+    private WritableRaster toWritableRaster(Raster raster)
+    {
+        if (raster instanceof WritableRaster && raster.getParent() == null)
+        {
+            return (WritableRaster) raster;
+        }
+        return raster.createCompatibleWritableRaster();
+    }
+
     // returns the number of channels as a string, or an empty string if there is an error getting the meta data
     private String getNumChannels(ImageReader reader)
     {
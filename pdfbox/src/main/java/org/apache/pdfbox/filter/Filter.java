@@ -16,6 +16,7 @@
  */
 package org.apache.pdfbox.filter;
 
+import java.awt.image.WritableRaster;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -96,6 +97,41 @@ public abstract class Filter
         return decode(encoded, decoded, parameters, index);
     }
 
+    /**
+     * Returns a stream which decodes the data while it is read, instead of decoding all of it up
+     * front. Errors in the encoded data may not be reported until the affected part is read. Not
+     * all filters support this.
+     *
+     * @param encoded the encoded byte stream, it is closed when the returned stream is closed
+     * @param parameters the parameters used for decoding
+     * @param index the index to the filter being decoded
+     * @return the stream of the decoded data, or null if this filter doesn't decode while reading
+     * @throws IOException if the stream cannot be decoded
+     */
+    public InputStream createDecodingInputStream(InputStream encoded, COSDictionary parameters,
+            int index) throws IOException
+    {
+        return null;
+    }
+
+    /**
+     * Decodes 1 bit image data straight into a packed raster, i.e. a raster with one bit per pixel
+     * whose rows start at byte boundaries, without writing the data to a stream first. The samples
+     * are the same as the ones that {@link #decode(InputStream, OutputStream, COSDictionary, int)
+     * decode()} writes. Only filters whose output is always a 1 bit image support this.
+     *
+     * @param encoded the encoded byte stream
+     * @param parameters the parameters used for decoding
+     * @param index the index to the filter being decoded
+     * @return the decoded raster, or null if this filter doesn't support decoding to a raster
+     * @throws IOException if the stream cannot be decoded
+     */
+    public WritableRaster decodeToRaster(InputStream encoded, COSDictionary parameters, int index)
+            throws IOException
+    {
+        return null;
+    }
+
     /**
      * Encodes data.
      * @param input the byte stream to encode
@@ -204,50 +240,125 @@ public abstract class Filter
             COSDictionary parameters, DecodeOptions options, List<DecodeResult> results)
             throws IOException
     {
+        checkDuplicates(filterList);
         int length = parameters.getInt(COSName.LENGTH,
                 RandomAccessReadBuffer.DEFAULT_CHUNK_SIZE_4KB);
-        if (filterList.size() > 1)
-        {
-            Set<Filter> filterSet = new HashSet<>(filterList);
-            if (filterSet.size() != filterList.size())
-            {
-                throw new IOException("Duplicate");
-            }
-        }
         InputStream input = encoded;
         RandomAccessReadWriteBuffer randomAccessWriteBuffer = null;
-        OutputStream output = null;
         // apply filters
         for (int i = 0; i < filterList.size(); i++)
         {
-            if (i > 0)
+            if (randomAccessWriteBuffer != null)
             {
                 randomAccessWriteBuffer.seek(0);
                 input = new RandomAccessInputStream(randomAccessWriteBuffer);
                 length = (int) randomAccessWriteBuffer.length();
+                randomAccessWriteBuffer = null;
             }
-            // avoid invalid values
-            length = length <= 0 ? RandomAccessReadBuffer.DEFAULT_CHUNK_SIZE_4KB : length;
-            // we don't know the size of the decoded stream, just estimate a 4 times bigger size than the encoded stream
-            // use the estimated stream size as chunk size, use the default chunk size as limit to avoid to big values
-            randomAccessWriteBuffer = new RandomAccessReadWriteBuffer(
-                    Math.min(length << 2, RandomAccessReadBuffer.DEFAULT_CHUNK_SIZE_4KB));
-            output = new RandomAccessOutputStream(randomAccessWriteBuffer);
-            try
+            if (i < filterList.size() - 1)
+            {
+                // the data of all but the last filter is pulled through the chain, if possible,
+                // instead of being buffered
+                InputStream decoding = filterList.get(i).createDecodingInputStream(input,
+                        parameters, i);
+                if (decoding != null)
+                {
+                    if (results != null)
+                    {
+                        results.add(new DecodeResult(parameters));
+                    }
+                    input = decoding;
+                    continue;
+                }
+            }
+            randomAccessWriteBuffer = decode(filterList.get(i), input, parameters, i, length,
+                    options, results);
+        }
+        randomAccessWriteBuffer.seek(0);
+        return randomAccessWriteBuffer;
+    }
+
+    /**
+     * Returns a stream which decodes the data while it is read, for consumers which read the data
+     * sequentially. Nothing is buffered if all filters support decoding while reading, see
+     * {@link #createDecodingInputStream(InputStream, COSDictionary, int)}, otherwise only the
+     * output of the filters which don't support it is buffered.
+     *
+     * @param encoded the input stream holding the encoded data, it is closed when the returned
+     * stream is closed
+     * @param filterList list of filters to be used for decoding
+     * @param parameters the parameters used for decoding
+     * @param results list of optional decoding results for each filter
+     * @return the stream of the decoded data
+     * @throws IOException if the stream cannot be decoded
+     */
+    public static InputStream decodeWhileReading(InputStream encoded, List<Filter> filterList,
+            COSDictionary parameters, List<DecodeResult> results) throws IOException
+    {
+        checkDuplicates(filterList);
+        int length = parameters.getInt(COSName.LENGTH,
+                RandomAccessReadBuffer.DEFAULT_CHUNK_SIZE_4KB);
+        InputStream input = encoded;
+        for (int i = 0; i < filterList.size(); i++)
+        {
+            InputStream decoding = filterList.get(i).createDecodingInputStream(input, parameters,
+                    i);
+            if (decoding != null)
             {
-                DecodeResult result = filterList.get(i).decode(input, output, parameters, i,
-                        options);
                 if (results != null)
                 {
-                    results.add(result);
+                    results.add(new DecodeResult(parameters));
                 }
+                input = decoding;
             }
-            finally
+            else
             {
-                IOUtils.closeQuietly(input);
+                RandomAccessReadWriteBuffer randomAccessWriteBuffer = decode(filterList.get(i),
+                        input, parameters, i, length, DecodeOptions.DEFAULT, results);
+                randomAccessWriteBuffer.seek(0);
+                input = new RandomAccessInputStream(randomAccessWriteBuffer);
+                length = (int) randomAccessWriteBuffer.length();
             }
         }
-        randomAccessWriteBuffer.seek(0);
+        return input;
+    }
+
+    private static void checkDuplicates(List<Filter> filterList) throws IOException
+    {
+        if (filterList.size() > 1)
+        {
+            Set<Filter> filterSet = new HashSet<>(filterList);
+            if (filterSet.size() != filterList.size())
+            {
+                throw new IOException("Duplicate");
+            }
+        }
+    }
+
+    // decodes the data of one filter into a new buffer, the input is closed
+    private static RandomAccessReadWriteBuffer decode(Filter filter, InputStream input,
+            COSDictionary parameters, int index, int length, DecodeOptions options,
+            List<DecodeResult> results) throws IOException
+    {
+        // avoid invalid values
+        length = length <= 0 ? RandomAccessReadBuffer.DEFAULT_CHUNK_SIZE_4KB : length;
+        // we don't know the size of the decoded stream, just estimate a 4 times bigger size than the encoded stream
+        // use the estimated stream size as chunk size, use the default chunk size as limit to avoid to big values
+        RandomAccessReadWriteBuffer randomAccessWriteBuffer = new RandomAccessReadWriteBuffer(
+                Math.min(length << 2, RandomAccessReadBuffer.DEFAULT_CHUNK_SIZE_4KB));
+        OutputStream output = new RandomAccessOutputStream(randomAccessWriteBuffer);
+        try
+        {
+            DecodeResult result = filter.decode(input, output, parameters, index, options);
+            if (results != null)
+            {
+                results.add(result);
+            }
+        }
+        finally
+        {
+            IOUtils.closeQuietly(input);
+        }
         return randomAccessWriteBuffer;
     }
     
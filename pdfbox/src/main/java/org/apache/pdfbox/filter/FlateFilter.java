@@ -16,6 +16,7 @@
  */
 package org.apache.pdfbox.filter;
 
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -26,6 +27,7 @@ import java.util.zip.Inflater;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.cos.COSName;
 import org.apache.pdfbox.io.IOUtils;
 
 /**
@@ -105,11 +107,16 @@ final class FlateFilter extends Filter
                         dataWritten = true;
                         continue; 
                     } 
-                    if (inflater.finished() || inflater.needsDictionary() || in.available() == 0) 
+                    // don't rely on available(), streams decoding on the fly don't know it
+                    if (inflater.finished() || inflater.needsDictionary()) 
                     {
                         break;
                     } 
                     read = in.read(buf); 
+                    if (read < 0)
+                    {
+                        break;
+                    }
                     inflater.setInput(buf,0,read);
                 }
             }
@@ -121,6 +128,18 @@ final class FlateFilter extends Filter
         out.flush();
     }
     
+    @Override
+    public InputStream createDecodingInputStream(InputStream encoded, COSDictionary parameters,
+            int index) throws IOException
+    {
+        if (getDecodeParams(parameters, index).getInt(COSName.PREDICTOR) > 1)
+        {
+            // predictors are only supported by decode()
+            return null;
+        }
+        return new FlateInputStream(encoded);
+    }
+
     @Override
     protected void encode(InputStream input, OutputStream encoded, COSDictionary parameters)
             throws IOException
@@ -134,4 +153,147 @@ final class FlateFilter extends Filter
         encoded.flush();
         deflater.end();
     }
+
+    /**
+     * Inflates the data while it is read, like decompress() does. The first chunk is inflated
+     * right away, so that streams which can't be decoded at all are rejected when they are opened.
+     */
+    private static final class FlateInputStream extends FilterInputStream
+    {
+        private final byte[] buf = new byte[2048];
+        private final byte[] res = new byte[1024];
+        private Inflater inflater;
+        private int resPos = 0;
+        private int resLength = 0;
+        private boolean dataWritten = false;
+
+        FlateInputStream(InputStream in) throws IOException
+        {
+            super(in);
+            // skip zlib header
+            in.read();
+            in.read();
+            int read = in.read(buf);
+            if (read > 0)
+            {
+                // use nowrap mode to bypass zlib-header and checksum to avoid a DataFormatException
+                inflater = new Inflater(true);
+                inflater.setInput(buf, 0, read);
+                fill();
+            }
+        }
+
+        private boolean fill() throws IOException
+        {
+            while (inflater != null)
+            {
+                int resRead;
+                try
+                {
+                    resRead = inflater.inflate(res);
+                }
+                catch (DataFormatException exception)
+                {
+                    end();
+                    if (dataWritten)
+                    {
+                        // some data could be read -> don't throw an exception
+                        LOG.warn("FlateFilter: premature end of stream due to a DataFormatException");
+                        return false;
+                    }
+                    // if the stream is corrupt a DataFormatException may occur
+                    LOG.error("FlateFilter: stop reading corrupt stream due to a DataFormatException");
+                    throw new IOException(exception);
+                }
+                if (resRead != 0)
+                {
+                    resPos = 0;
+                    resLength = resRead;
+                    dataWritten = true;
+                    return true;
+                }
+                if (inflater.finished() || inflater.needsDictionary())
+                {
+                    end();
+                    return false;
+                }
+                int read = in.read(buf);
+                if (read < 0)
+                {
+                    end();
+                    return false;
+                }
+                inflater.setInput(buf, 0, read);
+            }
+            return false;
+        }
+
+        private void end()
+        {
+            if (inflater != null)
+            {
+                inflater.end();
+                inflater = null;
+            }
+        }
+
+        @Override
+        public int read() throws IOException
+        {
+            if (resPos >= resLength && !fill())
+            {
+                return -1;
+            }
+            return res[resPos++] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException
+        {
+            if (len == 0)
+            {
+                return 0;
+            }
+            if (resPos >= resLength && !fill())
+            {
+                return -1;
+            }
+            int read = Math.min(len, resLength - resPos);
+            System.arraycopy(res, resPos, b, off, read);
+            resPos += read;
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException
+        {
+            long skipped = 0;
+            while (skipped < n && (resPos < resLength || fill()))
+            {
+                int step = (int) Math.min(n - skipped, resLength - resPos);
+                resPos += step;
+                skipped += step;
+            }
+            return skipped;
+        }
+
+        @Override
+        public int available()
+        {
+            return resLength - resPos;
+        }
+
+        @Override
+        public boolean markSupported()
+        {
+            return false;
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            end();
+            super.close();
+        }
+    }
 }
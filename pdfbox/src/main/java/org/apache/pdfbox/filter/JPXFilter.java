@@ -17,6 +17,7 @@
 package org.apache.pdfbox.filter;
 
 import java.awt.Graphics2D;
+import java.awt.Rectangle;
 import java.awt.Transparency;
 import java.awt.color.ColorSpace;
 import java.awt.image.BufferedImage;
@@ -26,9 +27,11 @@ import java.awt.image.DataBufferUShort;
 import java.awt.image.IndexColorModel;
 import java.awt.image.MultiPixelPackedSampleModel;
 import java.awt.image.Raster;
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.lang.reflect.Method;
 import javax.imageio.ImageReadParam;
 import javax.imageio.ImageReader;
 import javax.imageio.stream.ImageInputStream;
@@ -124,11 +127,15 @@ public final class JPXFilter extends Filter
         // PDFBOX-4121: ImageIO.createImageInputStream() is much slower
         try (ImageInputStream iis = new MemoryCacheImageInputStream(input))
         {
+            int levels = getDecompositionLevels(iis);
             reader.setInput(iis, true, true);
             ImageReadParam irp = reader.getDefaultReadParam();
-            irp.setSourceRegion(options.getSourceRegion());
-            irp.setSourceSubsampling(options.getSubsamplingX(), options.getSubsamplingY(),
-                    options.getSubsamplingOffsetX(), options.getSubsamplingOffsetY());
+            if (!setReducedResolution(irp, options, levels))
+            {
+                irp.setSourceRegion(options.getSourceRegion());
+                irp.setSourceSubsampling(options.getSubsamplingX(), options.getSubsamplingY(),
+                        options.getSubsamplingOffsetX(), options.getSubsamplingOffsetY());
+            }
             options.setFilterSubsampled(true);
 
             BufferedImage image;
@@ -201,6 +208,128 @@ public final class JPXFilter extends Filter
         }
     }
 
+    /**
+     * Decodes a lower resolution level of the image if the subsampling allows it, i.e. if it is a
+     * multiple of a power of two. Each level halves the size of the image, and the wavelet
+     * transform of the omitted levels isn't computed at all. The source region and the remaining
+     * subsampling are scaled to the reduced image so that the same pixels are returned, each one
+     * being the low-pass of the pixels it replaces.
+     *
+     * @return true if the read parameters have been set, false if the full resolution is needed
+     */
+    private static boolean setReducedResolution(ImageReadParam irp, DecodeOptions options,
+            int levels)
+    {
+        int subsamplingX = options.getSubsamplingX();
+        int subsamplingY = options.getSubsamplingY();
+        if (options.getSubsamplingOffsetX() != 0 || options.getSubsamplingOffsetY() != 0)
+        {
+            return false;
+        }
+        int reduction = 0;
+        while (reduction < levels && subsamplingX % (2 << reduction) == 0
+                && subsamplingY % (2 << reduction) == 0)
+        {
+            reduction++;
+        }
+        if (reduction == 0)
+        {
+            return false;
+        }
+        try
+        {
+            // J2KImageReadParam of jai-imageio, which is an optional dependency
+            Method setResolution = irp.getClass().getMethod("setResolution", int.class);
+            setResolution.invoke(irp, levels - reduction);
+        }
+        catch (ReflectiveOperationException | SecurityException e)
+        {
+            LOG.debug("Can't decode a reduced resolution level", e);
+            return false;
+        }
+        Rectangle region = options.getSourceRegion();
+        int remainingX = subsamplingX >> reduction;
+        int remainingY = subsamplingY >> reduction;
+        if (region != null)
+        {
+            // the region is clipped by the caller, the last pixel is at x + (count - 1) * subsampling
+            int countX = (region.width + subsamplingX - 1) / subsamplingX;
+            int countY = (region.height + subsamplingY - 1) / subsamplingY;
+            irp.setSourceRegion(new Rectangle(region.x >> reduction, region.y >> reduction,
+                    (countX - 1) * remainingX + 1, (countY - 1) * remainingY + 1));
+        }
+        irp.setSourceSubsampling(remainingX, remainingY, 0, 0);
+        return true;
+    }
+
+    /**
+     * Returns the number of wavelet decomposition levels from the COD marker segment of the
+     * codestream, which may be embedded in a JP2 file.
+     *
+     * @return the number of levels, or 0 if the codestream can't be parsed
+     */
+    private static int getDecompositionLevels(ImageInputStream iis) throws IOException
+    {
+        iis.mark();
+        try
+        {
+            if (iis.readInt() != 0xFF4FFF51)
+            {
+                // JP2 file, find the contiguous codestream box
+                iis.seek(0);
+                while (true)
+                {
+                    long boxStart = iis.getStreamPosition();
+                    long length = iis.readUnsignedInt();
+                    int type = iis.readInt();
+                    if (length == 1)
+                    {
+                        length = iis.readLong();
+                    }
+                    if (type == 0x6A703263) // jp2c
+                    {
+                        break;
+                    }
+                    if (length < 8)
+                    {
+                        return 0;
+                    }
+                    iis.seek(boxStart + length);
+                }
+                if (iis.readInt() != 0xFF4FFF51)
+                {
+                    return 0;
+                }
+            }
+            // SIZ, which follows SOC, and then the other main header segments
+            iis.seek(iis.getStreamPosition() + iis.readUnsignedShort());
+            while (true)
+            {
+                int marker = iis.readUnsignedShort();
+                int length = iis.readUnsignedShort();
+                if (marker == 0xFF52) // COD
+                {
+                    // Scod, progression order, number of layers, multiple component transform
+                    iis.skipBytes(5);
+                    return iis.readUnsignedByte();
+                }
+                if (marker == 0xFF90 || (marker & 0xFF00) != 0xFF00) // SOT or garbage
+                {
+                    return 0;
+                }
+                iis.seek(iis.getStreamPosition() + length - 2);
+            }
+        }
+        catch (EOFException e)
+        {
+            return 0;
+        }
+        finally
+        {
+            iis.reset();
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
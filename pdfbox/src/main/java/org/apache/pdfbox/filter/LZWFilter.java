@@ -19,12 +19,7 @@ import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.List;
-
-import javax.imageio.stream.MemoryCacheImageInputStream;
-import javax.imageio.stream.MemoryCacheImageOutputStream;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -54,7 +49,24 @@ public class LZWFilter extends Filter
      * The LZW end of data code.
      */
     public static final long EOD = 257;
-    
+
+    /**
+     * The maximum size of the code table, codes have at most 12 bits.
+     */
+    private static final int MAX_TABLE_SIZE = 4096;
+
+    /**
+     * The size of the code table after a clear table code, 256 single bytes plus CLEAR_TABLE and EOD.
+     */
+    private static final int INITIAL_TABLE_SIZE = 258;
+
+    /**
+     * The size of the hash table of the encoder, at least twice the maximum table size.
+     */
+    private static final int HASH_TABLE_SIZE = 8192;
+
+    private static final int BUFFER_SIZE = 8192;
+
     //BEWARE: codeTable must be local to each method, because there is only
     // one instance of each filter
 
@@ -73,49 +85,72 @@ public class LZWFilter extends Filter
 
     private static void doLZWDecode(InputStream encoded, OutputStream decoded, boolean earlyChange) throws IOException
     {
-        List<byte[]> codeTable = new ArrayList<>();
+        // each entry of the code table is stored as the code of its prefix and its last byte
+        int[] prefixes = new int[MAX_TABLE_SIZE];
+        byte[] suffixes = new byte[MAX_TABLE_SIZE];
+        int[] lengths = new int[MAX_TABLE_SIZE];
+        for (int i = 0; i < 256; i++)
+        {
+            prefixes[i] = -1;
+            suffixes[i] = (byte) i;
+            lengths[i] = 1;
+        }
+        // the code table is empty until the first clear table code
+        int tableSize = 0;
         int chunk = 9;
-        final MemoryCacheImageInputStream in = new MemoryCacheImageInputStream(encoded);
-        long nextCommand;
-        long prevCommand = -1;
+        CodeReader in = new CodeReader(encoded);
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int position = 0;
+        int nextCommand;
+        int prevCommand = -1;
 
         try
         {
-            while ((nextCommand = in.readBits(chunk)) != EOD)
+            while ((nextCommand = in.readCode(chunk)) != EOD)
             {
                 if (nextCommand == CLEAR_TABLE)
                 {
                     chunk = 9;
-                    codeTable = createCodeTable();
+                    tableSize = INITIAL_TABLE_SIZE;
                     prevCommand = -1;
                 }
                 else
                 {
-                    if (nextCommand < codeTable.size())
+                    if (nextCommand < tableSize)
                     {
-                        byte[] data = codeTable.get((int) nextCommand);
-                        byte firstByte = data[0];
-                        decoded.write(data);
+                        int length = lengths[nextCommand];
+                        if (position + length > buffer.length)
+                        {
+                            decoded.write(buffer, 0, position);
+                            position = 0;
+                        }
+                        copyEntry(prefixes, suffixes, nextCommand, buffer, position + length);
+                        byte firstByte = buffer[position];
+                        position += length;
                         if (prevCommand != -1)
                         {
-                            checkIndexBounds(codeTable, prevCommand, in);
-                            data = codeTable.get((int) prevCommand);
-                            byte[] newData = Arrays.copyOf(data, data.length + 1);
-                            newData[data.length] = firstByte;
-                            codeTable.add(newData);
+                            checkIndexBounds(prevCommand, tableSize, in);
+                            tableSize = addEntry(prefixes, suffixes, lengths, tableSize, prevCommand,
+                                    firstByte);
                         }
                     }
                     else
                     {
-                        checkIndexBounds(codeTable, prevCommand, in);
-                        byte[] data = codeTable.get((int) prevCommand);
-                        byte[] newData = Arrays.copyOf(data, data.length + 1);
-                        newData[data.length] = data[0];
-                        decoded.write(newData);
-                        codeTable.add(newData);
+                        checkIndexBounds(prevCommand, tableSize, in);
+                        int length = lengths[prevCommand] + 1;
+                        if (position + length > buffer.length)
+                        {
+                            decoded.write(buffer, 0, position);
+                            position = 0;
+                        }
+                        copyEntry(prefixes, suffixes, prevCommand, buffer, position + length - 1);
+                        byte firstByte = buffer[position];
+                        buffer[position + length - 1] = firstByte;
+                        position += length;
+                        tableSize = addEntry(prefixes, suffixes, lengths, tableSize, prevCommand,
+                                firstByte);
                     }
-                    
-                    chunk = calculateChunk(codeTable.size(), earlyChange);
+                    chunk = calculateChunk(tableSize, earlyChange);
                     prevCommand = nextCommand;
                 }
             }
@@ -124,10 +159,48 @@ public class LZWFilter extends Filter
         {
             LOG.warn("Premature EOF in LZW stream, EOD code missing", ex);
         }
+        finally
+        {
+            decoded.write(buffer, 0, position);
+        }
         decoded.flush();
     }
 
-    private static void checkIndexBounds(List<byte[]> codeTable, long index, MemoryCacheImageInputStream in)
+    /**
+     * Copies the bytes of a code table entry, the entry is written backwards from its last byte.
+     *
+     * @param code the code of the entry
+     * @param end the position after the last byte of the entry in the buffer
+     */
+    private static void copyEntry(int[] prefixes, byte[] suffixes, int code, byte[] buffer, int end)
+    {
+        for (int i = end - 1; code != -1; i--)
+        {
+            buffer[i] = suffixes[code];
+            code = prefixes[code];
+        }
+    }
+
+    /**
+     * Adds an entry to the code table, nothing is added if the table is full.
+     *
+     * @return the new size of the code table
+     */
+    private static int addEntry(int[] prefixes, byte[] suffixes, int[] lengths, int tableSize, int prefix,
+            byte suffix)
+    {
+        if (tableSize == MAX_TABLE_SIZE)
+        {
+            // no code could address this entry
+            return tableSize;
+        }
+        prefixes[tableSize] = prefix;
+        suffixes[tableSize] = suffix;
+        lengths[tableSize] = lengths[prefix] + 1;
+        return tableSize + 1;
+    }
+
+    private static void checkIndexBounds(int index, int tableSize, CodeReader in)
             throws IOException
     {
         if (index < 0)
@@ -135,10 +208,10 @@ public class LZWFilter extends Filter
             throw new IOException("negative array index: " + index + " near offset "
                     + in.getStreamPosition());
         }
-        if (index >= codeTable.size())
+        if (index >= tableSize)
         {
             throw new IOException("array index overflow: " + index +
-                    " >= " + codeTable.size() + " near offset "
+                    " >= " + tableSize + " near offset "
                     + in.getStreamPosition());
         }
     }
@@ -150,124 +223,91 @@ public class LZWFilter extends Filter
     protected void encode(InputStream rawData, OutputStream encoded, COSDictionary parameters)
             throws IOException
     {
-        List<byte[]> codeTable = createCodeTable();
+        // maps the code of a prefix followed by a byte to the code of the table entry
+        int[] hashKeys = new int[HASH_TABLE_SIZE];
+        int[] hashCodes = new int[HASH_TABLE_SIZE];
+        Arrays.fill(hashKeys, -1);
+        int tableSize = INITIAL_TABLE_SIZE;
         int chunk = 9;
 
-        byte[] inputPattern = null;
-        try (MemoryCacheImageOutputStream out = new MemoryCacheImageOutputStream(encoded))
+        CodeWriter out = new CodeWriter(encoded);
+        out.writeCode((int) CLEAR_TABLE, chunk);
+        int foundCode = -1;
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int count;
+        while ((count = rawData.read(buffer)) != -1)
         {
-            out.writeBits(CLEAR_TABLE, chunk);
-            int foundCode = -1;
-            int r;
-            while ((r = rawData.read()) != -1)
+            for (int i = 0; i < count; i++)
             {
-                byte by = (byte) r;
-                if (inputPattern == null)
+                int by = buffer[i] & 0xff;
+                if (foundCode == -1)
                 {
-                    inputPattern = new byte[] { by };
-                    foundCode = by & 0xff;
+                    foundCode = by;
+                    continue;
                 }
-                else
+                int key = foundCode << 8 | by;
+                int slot = findSlot(hashKeys, key);
+                if (hashKeys[slot] == -1)
                 {
-                    inputPattern = Arrays.copyOf(inputPattern, inputPattern.length + 1);
-                    inputPattern[inputPattern.length - 1] = by;
-                    int newFoundCode = findPatternCode(codeTable, inputPattern);
-                    if (newFoundCode == -1)
-                    {
-                        // use previous
-                        chunk = calculateChunk(codeTable.size() - 1, true);
-                        out.writeBits(foundCode, chunk);
-                        // create new table entry
-                        codeTable.add(inputPattern);
-                        
-                        if (codeTable.size() == 4096)
-                        {
-                            // code table is full
-                            out.writeBits(CLEAR_TABLE, chunk);
-                            codeTable = createCodeTable();
-                        }
-                        
-                        inputPattern = new byte[] { by };
-                        foundCode = by & 0xff;
-                    }
-                    else
+                    // use previous
+                    chunk = calculateChunk(tableSize - 1, true);
+                    out.writeCode(foundCode, chunk);
+                    // create new table entry
+                    hashKeys[slot] = key;
+                    hashCodes[slot] = tableSize++;
+
+                    if (tableSize == MAX_TABLE_SIZE)
                     {
-                        foundCode = newFoundCode;
+                        // code table is full
+                        out.writeCode((int) CLEAR_TABLE, chunk);
+                        tableSize = INITIAL_TABLE_SIZE;
+                        Arrays.fill(hashKeys, -1);
                     }
+
+                    foundCode = by;
+                }
+                else
+                {
+                    foundCode = hashCodes[slot];
                 }
             }
-            if (foundCode != -1)
-            {
-                chunk = calculateChunk(codeTable.size() - 1, true);
-                out.writeBits(foundCode, chunk);
-            }
-            
-            // PPDFBOX-1977: the decoder wouldn't know that the encoder would output
-            // an EOD as code, so he would have increased his own code table and
-            // possibly adjusted the chunk. Therefore, the encoder must behave as
-            // if the code table had just grown and thus it must be checked it is
-            // needed to adjust the chunk, based on an increased table size parameter
-            chunk = calculateChunk(codeTable.size(), true);
-            
-            out.writeBits(EOD, chunk);
-            
-            // pad with 0
-            out.writeBits(0, 7);
-            
-            // must do or file will be empty :-(
-            out.flush();
         }
-    }
-
-    /**
-     * Find a matching pattern in the code table.
-     *
-     * @param codeTable The LZW code table.
-     * @param pattern The pattern to be searched for.
-     * @return The index of the matching pattern or -1 if nothing is found.
-     */
-    private static int findPatternCode(List<byte[]> codeTable, byte[] pattern)
-    {
-        // for the first 256 entries, index matches value
-        if (pattern.length == 1)
+        if (foundCode != -1)
         {
-            return pattern[0];
+            chunk = calculateChunk(tableSize - 1, true);
+            out.writeCode(foundCode, chunk);
         }
 
-        // no need to test the first 256 + 2 entries against longer patterns
-        for (int i = 257; i < codeTable.size(); i++)
-        {
-            if (Arrays.equals(codeTable.get(i), pattern))
-            {
-                return i;
-            }
-        }
+        // PPDFBOX-1977: the decoder wouldn't know that the encoder would output
+        // an EOD as code, so he would have increased his own code table and
+        // possibly adjusted the chunk. Therefore, the encoder must behave as
+        // if the code table had just grown and thus it must be checked it is
+        // needed to adjust the chunk, based on an increased table size parameter
+        chunk = calculateChunk(tableSize, true);
+
+        out.writeCode((int) EOD, chunk);
 
-        return -1;
+        // pad with 0
+        out.writeCode(0, 7);
+
+        out.flush();
     }
 
     /**
-     * Init the code table with 1 byte entries and the EOD and CLEAR_TABLE markers.
+     * Find the slot of the given key in the hash table, using linear probing.
+     *
+     * @param hashKeys the keys of the hash table, -1 for empty slots
+     * @param key the code of the prefix followed by the next byte
+     * @return the slot with the given key, or the empty slot where it is to be added
      */
-    private static List<byte[]> createCodeTable()
-    {
-        List<byte[]> codeTable = new ArrayList<>(4096);
-        codeTable.addAll(INITIAL_CODE_TABLE);
-        return codeTable;
-    }
-
-    private static final List<byte[]> INITIAL_CODE_TABLE = createInitialCodeTable();
-
-    private static List<byte[]> createInitialCodeTable()
+    private static int findSlot(int[] hashKeys, int key)
     {
-        List<byte[]> codeTable = new ArrayList<>(258);
-        for (int i = 0; i < 256; ++i)
+        int slot = key * 0x9E3779B1 >>> 19;
+        while (hashKeys[slot] != key && hashKeys[slot] != -1)
         {
-            codeTable.add(new byte[] { (byte) (i & 0xFF) });
+            slot = slot + 1 & HASH_TABLE_SIZE - 1;
         }
-        codeTable.add(null); // 256 EOD
-        codeTable.add(null); // 257 CLEAR_TABLE
-        return codeTable;
+        return slot;
     }
 
     /**
@@ -295,4 +335,113 @@ public class LZWFilter extends Filter
         }
         return 9;
     }
+
+    /**
+     * Reads codes of variable length from a buffered stream, most significant bit first.
+     */
+    private static final class CodeReader
+    {
+        private final InputStream in;
+        private final byte[] buffer = new byte[BUFFER_SIZE];
+        private int bufferPosition = 0;
+        private int bufferLength = 0;
+        private long streamPosition = 0;
+        private int bits = 0;
+        private int bitCount = 0;
+
+        CodeReader(InputStream in)
+        {
+            this.in = in;
+        }
+
+        int readCode(int length) throws IOException
+        {
+            while (bitCount < length)
+            {
+                if (bufferPosition == bufferLength)
+                {
+                    fillBuffer();
+                }
+                bits = bits << 8 | buffer[bufferPosition++] & 0xff;
+                bitCount += 8;
+                streamPosition++;
+            }
+            bitCount -= length;
+            int code = bits >>> bitCount;
+            bits &= (1 << bitCount) - 1;
+            return code;
+        }
+
+        private void fillBuffer() throws IOException
+        {
+            int count;
+            do
+            {
+                count = in.read(buffer);
+            }
+            while (count == 0);
+            if (count < 0)
+            {
+                throw new EOFException();
+            }
+            bufferPosition = 0;
+            bufferLength = count;
+        }
+
+        /**
+         * Returns the position of the byte containing the next bit to be read.
+         */
+        long getStreamPosition()
+        {
+            return bitCount > 0 ? streamPosition - 1 : streamPosition;
+        }
+    }
+
+    /**
+     * Writes codes of variable length to a buffered stream, most significant bit first.
+     */
+    private static final class CodeWriter
+    {
+        private final OutputStream out;
+        private final byte[] buffer = new byte[BUFFER_SIZE];
+        private int bufferPosition = 0;
+        private int bits = 0;
+        private int bitCount = 0;
+
+        CodeWriter(OutputStream out)
+        {
+            this.out = out;
+        }
+
+        void writeCode(int code, int length) throws IOException
+        {
+            bits = bits << length | code;
+            bitCount += length;
+            while (bitCount >= 8)
+            {
+                bitCount -= 8;
+                if (bufferPosition == buffer.length)
+                {
+                    out.write(buffer, 0, bufferPosition);
+                    bufferPosition = 0;
+                }
+                buffer[bufferPosition++] = (byte) (bits >>> bitCount);
+            }
+            bits &= (1 << bitCount) - 1;
+        }
+
+        /**
+         * Writes the buffered bytes, a partial last byte is padded with 0.
+         */
+        void flush() throws IOException
+        {
+            if (bitCount > 0)
+            {
+                writeCode(0, 8 - bitCount);
+            }
+            out.write(buffer, 0, bufferPosition);
+            bufferPosition = 0;
+            out.flush();
+        }
+    }
 }
@@ -29,6 +29,8 @@ import org.apache.pdfbox.cos.COSName;
  */
 public final class Predictor
 {
+    // decoded rows shorter than this are collected and written in blocks, e.g. for xref streams
+    private static final int OUTPUT_BUFFER_SIZE = 8192;
 
     private Predictor()
     {
@@ -143,64 +145,127 @@ public final class Predictor
                 break;
             case 11:
                 // PRED SUB
-                for (int p = bytesPerPixel; p < rowlength; p++)
-                {
-                    int sub = actline[p];
-                    int left = actline[p - bytesPerPixel];
-                    actline[p] = (byte) (sub + left);
-                }
+                decodeSub(actline, bytesPerPixel);
                 break;
             case 12:
                 // PRED UP
-                for (int p = 0; p < rowlength; p++)
-                {
-                    int up = actline[p] & 0xff;
-                    int prior = lastline[p] & 0xff;
-                    actline[p] = (byte) ((up + prior) & 0xff);
-                }
+                decodeUp(actline, lastline);
                 break;
             case 13:
                 // PRED AVG
-                for (int p = 0; p < rowlength; p++)
-                {
-                    int avg = actline[p] & 0xff;
-                    int left = p - bytesPerPixel >= 0 ? actline[p - bytesPerPixel] & 0xff : 0;
-                    int up = lastline[p] & 0xff;
-                    actline[p] = (byte) ((avg + (left + up) / 2) & 0xff);
-                }
+                decodeAverage(actline, lastline, bytesPerPixel);
                 break;
             case 14:
                 // PRED PAETH
-                for (int p = 0; p < rowlength; p++)
-                {
-                    int paeth = actline[p] & 0xff;
-                    int a = p - bytesPerPixel >= 0 ? actline[p - bytesPerPixel] & 0xff : 0;// left
-                    int b = lastline[p] & 0xff;// upper
-                    int c = p - bytesPerPixel >= 0 ? lastline[p - bytesPerPixel] & 0xff : 0;// upperleft
-                    int value = a + b - c;
-                    int absa = Math.abs(value - a);
-                    int absb = Math.abs(value - b);
-                    int absc = Math.abs(value - c);
-
-                    if (absa <= absb && absa <= absc)
-                    {
-                        actline[p] = (byte) ((paeth + a) & 0xff);
-                    }
-                    else if (absb <= absc)
-                    {
-                        actline[p] = (byte) ((paeth + b) & 0xff);
-                    }
-                    else
-                    {
-                        actline[p] = (byte) ((paeth + c) & 0xff);
-                    }
-                }
+                decodePaeth(actline, lastline, bytesPerPixel);
                 break;
             default:
                 break;
         }
     }
 
+    // The loops below are kept simple and free of per byte branches so that the JIT can unroll and,
+    // for the up predictor, vectorize them. The first pixel of a row has no left neighbour and is
+    // handled separately, a single byte per pixel is the most common case and is specialized.
+
+    private static void decodeSub(byte[] actline, int bytesPerPixel)
+    {
+        final int rowlength = actline.length;
+        if (bytesPerPixel == 1)
+        {
+            byte left = 0;
+            for (int p = 0; p < rowlength; p++)
+            {
+                left = (byte) (actline[p] + left);
+                actline[p] = left;
+            }
+            return;
+        }
+        for (int p = bytesPerPixel; p < rowlength; p++)
+        {
+            actline[p] = (byte) (actline[p] + actline[p - bytesPerPixel]);
+        }
+    }
+
+    private static void decodeUp(byte[] actline, byte[] lastline)
+    {
+        final int rowlength = actline.length;
+        for (int p = 0; p < rowlength; p++)
+        {
+            actline[p] = (byte) (actline[p] + lastline[p]);
+        }
+    }
+
+    private static void decodeAverage(byte[] actline, byte[] lastline, int bytesPerPixel)
+    {
+        final int rowlength = actline.length;
+        final int head = Math.min(bytesPerPixel, rowlength);
+        for (int p = 0; p < head; p++)
+        {
+            actline[p] = (byte) (actline[p] + ((lastline[p] & 0xff) >> 1));
+        }
+        if (bytesPerPixel == 1)
+        {
+            int left = actline[0] & 0xff;
+            for (int p = 1; p < rowlength; p++)
+            {
+                left = (actline[p] + ((left + (lastline[p] & 0xff)) >> 1)) & 0xff;
+                actline[p] = (byte) left;
+            }
+            return;
+        }
+        for (int p = bytesPerPixel; p < rowlength; p++)
+        {
+            int left = actline[p - bytesPerPixel] & 0xff;
+            int up = lastline[p] & 0xff;
+            actline[p] = (byte) (actline[p] + ((left + up) >> 1));
+        }
+    }
+
+    private static void decodePaeth(byte[] actline, byte[] lastline, int bytesPerPixel)
+    {
+        final int rowlength = actline.length;
+        final int head = Math.min(bytesPerPixel, rowlength);
+        // without left and upper left neighbours the predictor is always the upper byte
+        for (int p = 0; p < head; p++)
+        {
+            actline[p] = (byte) (actline[p] + lastline[p]);
+        }
+        if (bytesPerPixel == 1)
+        {
+            int a = actline[0] & 0xff;
+            int c = lastline[0] & 0xff;
+            for (int p = 1; p < rowlength; p++)
+            {
+                int b = lastline[p] & 0xff;
+                a = (actline[p] + paethPredictor(a, b, c)) & 0xff;
+                actline[p] = (byte) a;
+                c = b;
+            }
+            return;
+        }
+        for (int p = bytesPerPixel; p < rowlength; p++)
+        {
+            int a = actline[p - bytesPerPixel] & 0xff; // left
+            int b = lastline[p] & 0xff; // upper
+            int c = lastline[p - bytesPerPixel] & 0xff; // upperleft
+            actline[p] = (byte) (actline[p] + paethPredictor(a, b, c));
+        }
+    }
+
+    private static int paethPredictor(int a, int b, int c)
+    {
+        // same as comparing the distances of a + b - c to a, b and c
+        int absa = Math.abs(b - c);
+        int absb = Math.abs(a - c);
+        int absc = Math.abs(a + b - 2 * c);
+        if (absa <= absb && absa <= absc)
+        {
+            return a;
+        }
+        return absb <= absc ? b : c;
+    }
+
     static int calculateRowLength(int colors, int bitsPerComponent, int columns)
     {
         final int bitsPerPixel = colors * bitsPerComponent;
@@ -252,7 +317,8 @@ public final class Predictor
     /**
      * Output stream that implements predictor decoding. Data is buffered until a complete
      * row is available, which is then decoded and written to the underlying stream.
-     * The previous row is retained for decoding the next row.
+     * The previous row is retained for decoding the next row. Short rows are collected
+     * and written in blocks, all of them are written when the stream is flushed.
      */
     private static final class PredictorOutputStream extends FilterOutputStream
     {
@@ -270,6 +336,9 @@ public final class Predictor
         // data buffers
         private byte[] currentRow;
         private byte[] lastRow;
+        // decoded rows not yet written to the underlying stream, null for long rows
+        private final byte[] outputBuffer;
+        private int outputLength = 0;
         // amount of data in the current row
         private int currentRowData = 0;
         // was the per-row predictor value read for the current row being processed
@@ -286,6 +355,8 @@ public final class Predictor
             this.predictorPerRow = predictor >= 10;
             currentRow = new byte[rowLength];
             lastRow = new byte[rowLength];
+            outputBuffer = rowLength > 0 && rowLength < OUTPUT_BUFFER_SIZE
+                    ? new byte[OUTPUT_BUFFER_SIZE / rowLength * rowLength] : null;
         }
 
         @Override
@@ -329,10 +400,31 @@ public final class Predictor
         private void decodeAndWriteRow() throws IOException
         {
             decodePredictorRow(predictor, colors, bitsPerComponent, columns, currentRow, lastRow);
-            out.write(currentRow);
+            if (outputBuffer == null)
+            {
+                out.write(currentRow);
+            }
+            else
+            {
+                if (outputLength == outputBuffer.length)
+                {
+                    writeOutputBuffer();
+                }
+                System.arraycopy(currentRow, 0, outputBuffer, outputLength, rowLength);
+                outputLength += rowLength;
+            }
             flipRows();
         }
 
+        private void writeOutputBuffer() throws IOException
+        {
+            if (outputLength > 0)
+            {
+                out.write(outputBuffer, 0, outputLength);
+                outputLength = 0;
+            }
+        }
+
         /**
          * Flips the row buffers (to avoid copying), and resets the current-row index
          * and predictorRead flag
@@ -355,6 +447,7 @@ public final class Predictor
                 Arrays.fill(currentRow, currentRowData, rowLength, (byte)0);
                 decodeAndWriteRow();
             }
+            writeOutputBuffer();
             super.flush();
         }
 
@@ -40,6 +40,7 @@ import org.apache.pdfbox.cos.COSNumber;
 import org.apache.pdfbox.cos.COSObject;
 import org.apache.pdfbox.cos.COSObjectKey;
 import org.apache.pdfbox.cos.COSString;
+import org.apache.pdfbox.io.NonSeekableRandomAccessReadInputStream;
 import org.apache.pdfbox.io.RandomAccessRead;
 
 /**
@@ -730,12 +731,23 @@ public abstract class BaseParser
                 {
                     return po;
                 }
-                source.rewind(isThisTheEnd.getBytes(StandardCharsets.ISO_8859_1).length);
-                // This could also be an "endobj" or "endstream" which means we can assume that
-                // the array has ended.
-                if(ENDOBJ_STRING.equals(isThisTheEnd) || ENDSTREAM_STRING.equals(isThisTheEnd))
+                int length = isThisTheEnd.getBytes(StandardCharsets.ISO_8859_1).length;
+                if (length > NonSeekableRandomAccessReadInputStream.MAXIMUM_REWIND)
                 {
-                    return po;
+                    // a content stream which is parsed while it is decoded can't be rewound that
+                    // far, and a token of that length isn't a valid object anyway
+                    LOG.warn("Skipped unexpected array element of " + length + " bytes at offset "
+                            + source.getPosition());
+                }
+                else
+                {
+                    source.rewind(length);
+                    // This could also be an "endobj" or "endstream" which means we can assume
+                    // that the array has ended.
+                    if (ENDOBJ_STRING.equals(isThisTheEnd) || ENDSTREAM_STRING.equals(isThisTheEnd))
+                    {
+                        return po;
+                    }
                 }
             }
             else
@@ -922,7 +934,8 @@ public abstract class BaseParser
                         + " (start offset: " + startOffset + ")");
             }
 
-            // if it's an endstream/endobj, we want to put it back so the caller will see it
+            // if it's an endstream/endobj, we want to put it back so the caller will see it,
+            // other tokens are skipped without a rewind as they may be arbitrarily long
             if (ENDOBJ_STRING.equals(badString) || ENDSTREAM_STRING.equals(badString))
             {
                 source.rewind(badString.getBytes(StandardCharsets.ISO_8859_1).length);
@@ -25,6 +25,8 @@ import org.apache.pdfbox.pdmodel.documentinterchange.markedcontent.PDPropertyLis
 import org.apache.pdfbox.pdmodel.font.PDFont;
 import org.apache.pdfbox.pdmodel.graphics.PDXObject;
 import org.apache.pdfbox.pdmodel.graphics.color.PDColorSpace;
+import org.apache.pdfbox.pdmodel.graphics.image.DecodedImageCache;
+import org.apache.pdfbox.pdmodel.graphics.image.DefaultDecodedImageCache;
 import org.apache.pdfbox.pdmodel.graphics.pattern.PDAbstractPattern;
 import org.apache.pdfbox.pdmodel.graphics.shading.PDShading;
 import org.apache.pdfbox.pdmodel.graphics.state.PDExtendedGraphicsState;
@@ -58,6 +60,8 @@ public class DefaultResourceCache implements ResourceCache
     private final Map<COSObject, SoftReference<PDPropertyList>> properties =
             new HashMap<>();
 
+    private DecodedImageCache decodedImageCache = DefaultDecodedImageCache.getSharedInstance();
+
     @Override
     public PDFont getFont(COSObject indirect)
     {
@@ -176,4 +180,22 @@ public class DefaultResourceCache implements ResourceCache
     {
         xobjects.put(indirect, new SoftReference<>(xobject));
     }
+
+    @Override
+    public DecodedImageCache getDecodedImageCache()
+    {
+        return decodedImageCache;
+    }
+
+    /**
+     * Sets the cache of decoded images. The same cache may be used for several documents, by
+     * default all documents use {@link DefaultDecodedImageCache#getSharedInstance()}.
+     *
+     * @param decodedImageCache the decoded image cache, or null to cache decoded images only by
+     * their XObject
+     */
+    public void setDecodedImageCache(DecodedImageCache decodedImageCache)
+    {
+        this.decodedImageCache = decodedImageCache;
+    }
 }
@@ -19,7 +19,9 @@ package org.apache.pdfbox.pdmodel;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.SequenceInputStream;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -35,6 +37,7 @@ import org.apache.pdfbox.cos.COSName;
 import org.apache.pdfbox.cos.COSNumber;
 import org.apache.pdfbox.cos.COSObject;
 import org.apache.pdfbox.cos.COSStream;
+import org.apache.pdfbox.io.NonSeekableRandomAccessReadInputStream;
 import org.apache.pdfbox.io.RandomAccessInputStream;
 import org.apache.pdfbox.io.RandomAccessRead;
 import org.apache.pdfbox.io.RandomAccessReadBuffer;
@@ -211,6 +214,52 @@ public class PDPage implements COSObjectable, PDContentStream
         return new RandomAccessReadBuffer(new byte[0]);
     }
 
+    @Override
+    public RandomAccessRead getContentsForStreamParsing() throws IOException
+    {
+        COSStream contentStream = page.getCOSStream(COSName.CONTENTS);
+        if (contentStream != null)
+        {
+            try
+            {
+                return new NonSeekableRandomAccessReadInputStream(
+                        contentStream.createDecodingInputStream());
+            }
+            catch (IOException exception)
+            {
+                LOG.warn("skipped malformed content stream");
+                return new RandomAccessReadBuffer(DELIMITER);
+            }
+        }
+        COSArray array = page.getCOSArray(COSName.CONTENTS);
+        if (array != null)
+        {
+            List<InputStream> inputStreams = new ArrayList<>();
+            for (COSBase base : array)
+            {
+                COSBase object = base instanceof COSObject ? ((COSObject) base).getObject() : base;
+                if (object instanceof COSStream)
+                {
+                    try
+                    {
+                        inputStreams.add(((COSStream) object).createDecodingInputStream());
+                        inputStreams.add(new ByteArrayInputStream(DELIMITER));
+                    }
+                    catch (IOException exception)
+                    {
+                        LOG.warn("malformed substream of content stream skipped");
+                    }
+                }
+            }
+            if (!inputStreams.isEmpty())
+            {
+                return new NonSeekableRandomAccessReadInputStream(
+                        new SequenceInputStream(Collections.enumeration(inputStreams)));
+            }
+        }
+        return new RandomAccessReadBuffer(new byte[0]);
+    }
+
     /**
      * Returns true if this page has one or more content streams.
      * 
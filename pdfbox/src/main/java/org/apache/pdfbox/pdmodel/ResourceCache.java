@@ -22,6 +22,7 @@ import org.apache.pdfbox.pdmodel.documentinterchange.markedcontent.PDPropertyLis
 import org.apache.pdfbox.pdmodel.font.PDFont;
 import org.apache.pdfbox.pdmodel.graphics.PDXObject;
 import org.apache.pdfbox.pdmodel.graphics.color.PDColorSpace;
+import org.apache.pdfbox.pdmodel.graphics.image.DecodedImageCache;
 import org.apache.pdfbox.pdmodel.graphics.pattern.PDAbstractPattern;
 import org.apache.pdfbox.pdmodel.graphics.shading.PDShading;
 import org.apache.pdfbox.pdmodel.graphics.state.PDExtendedGraphicsState;
@@ -144,4 +145,14 @@ public interface ResourceCache
      * @param xobject the XObject to be cached
      */
     void put(COSObject indirect, PDXObject xobject);
+
+    /**
+     * Returns the cache of decoded images, which keeps the images across pages.
+     *
+     * @return the decoded image cache, or null if decoded images are only cached by their XObject
+     */
+    default DecodedImageCache getDecodedImageCache()
+    {
+        return null;
+    }
 }
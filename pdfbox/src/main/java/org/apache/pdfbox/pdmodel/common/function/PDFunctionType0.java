@@ -28,6 +28,7 @@ import org.apache.pdfbox.cos.COSArray;
 import org.apache.pdfbox.cos.COSBase;
 import org.apache.pdfbox.cos.COSInteger;
 import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSNumber;
 import org.apache.pdfbox.pdmodel.common.PDRange;
 
 /**
@@ -63,9 +64,14 @@ public class PDFunctionType0 extends PDFunction
      */
     private COSArray size = null;
     /**
-     * The samples of the function.
+     * The samples of the function, the output values of each sample are adjacent.
      */
-    private int[][] samples = null;
+    private int[] samples = null;
+    /**
+     * The entries needed by the specialised evaluation of functions with one or two inputs.
+     */
+    private SampleTable sampleTable = null;
+    private boolean sampleTableCreated = false;
     
     /**
      * Constructor.
@@ -134,6 +140,7 @@ public class PDFunctionType0 extends PDFunction
     public void setBitsPerSample(int bps)
     {
         getCOSObject().setInt(COSName.BITS_PER_SAMPLE, bps);
+        sampleTableCreated = false;
     }
     
     /**
@@ -208,6 +215,7 @@ public class PDFunctionType0 extends PDFunction
     {
         encode = encodeValues;
         getCOSObject().setItem(COSName.ENCODE, encodeValues);
+        sampleTableCreated = false;
     }
 
     /**
@@ -237,6 +245,27 @@ public class PDFunctionType0 extends PDFunction
     {
         decode = decodeValues;
         getCOSObject().setItem(COSName.DECODE, decodeValues);
+        sampleTableCreated = false;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setDomainValues(COSArray domainValues)
+    {
+        super.setDomainValues(domainValues);
+        sampleTableCreated = false;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setRangeValues(COSArray rangeValues)
+    {
+        super.setRangeValues(rangeValues);
+        sampleTableCreated = false;
     }
 
     /**
@@ -259,6 +288,7 @@ public class PDFunctionType0 extends PDFunction
         private final int[] inNext;
         private final int numberOfInputValues;
         private final int numberOfOutputValues = getNumberOfOutputParameters();
+        private final int[] allSamples = getSamples();
 
         /**
          * Constructor.
@@ -305,20 +335,21 @@ public class PDFunctionType0 extends PDFunction
                 if (inPrev[step] == inNext[step])
                 {
                     coord[step] = inPrev[step];
-                    int[] tmpSample = getSamples()[calcSampleIndex(coord)];
+                    int offset = calcSampleIndex(coord) * numberOfOutputValues;
                     for (int i = 0; i < numberOfOutputValues; ++i)
                     {
-                        resultSample[i] = tmpSample[i];
+                        resultSample[i] = allSamples[offset + i];
                     }
                     return resultSample;
                 }
                 coord[step] = inPrev[step];
-                int[] sample1 = getSamples()[calcSampleIndex(coord)];
+                int offset1 = calcSampleIndex(coord) * numberOfOutputValues;
                 coord[step] = inNext[step];
-                int[] sample2 = getSamples()[calcSampleIndex(coord)];
+                int offset2 = calcSampleIndex(coord) * numberOfOutputValues;
                 for (int i = 0; i < numberOfOutputValues; ++i)
                 {
-                    resultSample[i] = interpolate(in[step], inPrev[step], inNext[step], sample1[i], sample2[i]);
+                    resultSample[i] = interpolate(in[step], inPrev[step], inNext[step],
+                            allSamples[offset1 + i], allSamples[offset2 + i]);
                 }
                 return resultSample;
             }
@@ -370,52 +401,51 @@ public class PDFunctionType0 extends PDFunction
             }
             return index;
         }
+    }
 
-        /**
-         * Get all sample values of this function.
-         *
-         * @return an array with all samples.
-         */
-        private int[][] getSamples()
+    /**
+     * Get all sample values of this function.
+     *
+     * @return an array with all samples, the output values of each sample are adjacent.
+     */
+    private int[] getSamples()
+    {
+        if (samples == null)
         {
-            if (samples == null)
+            int arraySize = 1;
+            int nIn = getNumberOfInputParameters();
+            int nOut = getNumberOfOutputParameters();
+            COSArray sizes = getSize();
+            for (int i = 0; i < nIn; i++)
             {
-                int arraySize = 1;
-                int nIn = getNumberOfInputParameters();
-                int nOut = getNumberOfOutputParameters();
-                COSArray sizes = getSize();
-                for (int i = 0; i < nIn; i++)
-                {
-                    arraySize *= sizes.getInt(i);
-                }
-                samples = new int[arraySize][nOut];
-                int bitsPerSample = getBitsPerSample();
-                int index = 0;
-                try (InputStream is = getPDStream().createInputStream())
+                arraySize *= sizes.getInt(i);
+            }
+            samples = new int[arraySize * nOut];
+            int bitsPerSample = getBitsPerSample();
+            int index = 0;
+            try (InputStream is = getPDStream().createInputStream())
+            {
+                // PDF spec 1.7 p.171:
+                // Each sample value is represented as a sequence of BitsPerSample bits. 
+                // Successive values are adjacent in the bit stream; there is no padding at byte boundaries.
+                try (ImageInputStream mciis = new MemoryCacheImageInputStream(is))
                 {
-                    // PDF spec 1.7 p.171:
-                    // Each sample value is represented as a sequence of BitsPerSample bits. 
-                    // Successive values are adjacent in the bit stream; there is no padding at byte boundaries.
-                    try (ImageInputStream mciis = new MemoryCacheImageInputStream(is))
+                    for (int i = 0; i < arraySize; i++)
                     {
-                        for (int i = 0; i < arraySize; i++)
+                        for (int k = 0; k < nOut; k++)
                         {
-                            for (int k = 0; k < nOut; k++)
-                            {
-                                // TODO will this cast work properly for 32 bitsPerSample or should we use long[]?
-                                samples[index][k] = (int) mciis.readBits(bitsPerSample);
-                            }
-                            index++;
+                            // TODO will this cast work properly for 32 bitsPerSample or should we use long[]?
+                            samples[index++] = (int) mciis.readBits(bitsPerSample);
                         }
                     }
                 }
-                catch (IOException exception)
-                {
-                    LOG.error("IOException while reading the sample values of this function.", exception);
-                }
             }
-            return samples;
+            catch (IOException exception)
+            {
+                LOG.error("IOException while reading the sample values of this function.", exception);
+            }
         }
+        return samples;
     }
 
     /**
@@ -427,6 +457,15 @@ public class PDFunctionType0 extends PDFunction
         //This involves linear interpolation based on a set of sample points.
         //Theoretically it's not that difficult ... see section 3.9.1 of the PDF Reference.
 
+        if (input.length <= 2)
+        {
+            SampleTable table = getSampleTable();
+            if (table != null && table.numberOfInputValues == input.length)
+            {
+                return input.length == 1 ? eval1(table, input[0]) : eval2(table, input[0], input[1]);
+            }
+        }
+
         float[] sizeValues = getSize().toFloatArray();
         int bitsPerSample = getBitsPerSample();
         float maxSample = (float) (Math.pow(2, bitsPerSample) - 1.0);
@@ -465,4 +504,202 @@ public class PDFunctionType0 extends PDFunction
 
         return outputValues;
     }
+
+    /**
+     * Returns the entries needed by {@link #eval1} and {@link #eval2}.
+     *
+     * @return the sample table or null if the function has more than two inputs or if an entry is
+     * missing or invalid, the general evaluation handles these
+     */
+    private SampleTable getSampleTable()
+    {
+        if (!sampleTableCreated)
+        {
+            sampleTable = createSampleTable();
+            sampleTableCreated = true;
+        }
+        return sampleTable;
+    }
+
+    private SampleTable createSampleTable()
+    {
+        COSArray domainValues = getCOSObject().getCOSArray(COSName.DOMAIN);
+        COSArray sizeValues = getSize();
+        if (domainValues == null || sizeValues == null)
+        {
+            return null;
+        }
+        int numberOfInputValues = getNumberOfInputParameters();
+        int numberOfOutputValues = getNumberOfOutputParameters();
+        if (numberOfInputValues < 1 || numberOfInputValues > 2 || numberOfOutputValues < 1)
+        {
+            return null;
+        }
+        float[] domain = toFloatArray(domainValues, 2 * numberOfInputValues);
+        float[] encodeArray = toFloatArray(getEncodeValues(), 2 * numberOfInputValues);
+        float[] sizes = toFloatArray(sizeValues, numberOfInputValues);
+        float[] decodeArray = toFloatArray(getDecodeValues(), 2 * numberOfOutputValues);
+        float[] range = toFloatArray(getRangeValues(), 2 * numberOfOutputValues);
+        if (domain == null || encodeArray == null || sizes == null || decodeArray == null
+                || range == null)
+        {
+            return null;
+        }
+        float maxSample = (float) (Math.pow(2, getBitsPerSample()) - 1.0);
+        return new SampleTable(numberOfInputValues, numberOfOutputValues, domain, encodeArray,
+                sizes, decodeArray, range, maxSample, getSamples());
+    }
+
+    // the first values of the array as floats, or null if there are too few or if one isn't a number
+    private static float[] toFloatArray(COSArray array, int length)
+    {
+        if (array == null || array.size() < length)
+        {
+            return null;
+        }
+        float[] values = new float[length];
+        for (int i = 0; i < length; i++)
+        {
+            COSBase base = array.getObject(i);
+            if (!(base instanceof COSNumber))
+            {
+                return null;
+            }
+            values[i] = ((COSNumber) base).floatValue();
+        }
+        return values;
+    }
+
+    /**
+     * Maps an input value to the coordinate within the sample table, the same way as
+     * {@link #eval(float[])} does.
+     */
+    private float toSampleCoordinate(SampleTable table, float input, int dimension)
+    {
+        float domainMin = table.domain[2 * dimension];
+        float domainMax = table.domain[2 * dimension + 1];
+        float x = clipToRange(input, domainMin, domainMax);
+        x = interpolate(x, domainMin, domainMax, table.encode[2 * dimension],
+                table.encode[2 * dimension + 1]);
+        return clipToRange(x, 0, table.sizes[dimension] - 1);
+    }
+
+    private float[] decodeOutputs(SampleTable table, float[] outputValues)
+    {
+        for (int i = 0; i < table.numberOfOutputValues; i++)
+        {
+            float value = interpolate(outputValues[i], 0, table.maxSample, table.decode[2 * i],
+                    table.decode[2 * i + 1]);
+            outputValues[i] = clipToRange(value, table.range[2 * i], table.range[2 * i + 1]);
+        }
+        return outputValues;
+    }
+
+    /**
+     * Evaluates a function with one input.
+     */
+    private float[] eval1(SampleTable table, float input)
+    {
+        int numberOfOutputValues = table.numberOfOutputValues;
+        int[] sampleValues = table.samples;
+        float x = toSampleCoordinate(table, input, 0);
+        int prev = (int) Math.floor(x);
+        int next = (int) Math.ceil(x);
+        int offset1 = prev * numberOfOutputValues;
+        int offset2 = next * numberOfOutputValues;
+        float[] outputValues = new float[numberOfOutputValues];
+        for (int i = 0; i < numberOfOutputValues; i++)
+        {
+            outputValues[i] = prev == next ? sampleValues[offset1 + i]
+                    : interpolate(x, prev, next, sampleValues[offset1 + i],
+                            sampleValues[offset2 + i]);
+        }
+        return decodeOutputs(table, outputValues);
+    }
+
+    /**
+     * Evaluates a function with two inputs, interpolating the second dimension first like
+     * {@link Rinterpol} does.
+     */
+    private float[] eval2(SampleTable table, float input0, float input1)
+    {
+        int numberOfOutputValues = table.numberOfOutputValues;
+        int[] sampleValues = table.samples;
+        float x = toSampleCoordinate(table, input0, 0);
+        float y = toSampleCoordinate(table, input1, 1);
+        int prevX = (int) Math.floor(x);
+        int nextX = (int) Math.ceil(x);
+        int prevY = (int) Math.floor(y);
+        int nextY = (int) Math.ceil(y);
+        int rowStride = table.rowStride;
+        int offset11 = (prevX + prevY * rowStride) * numberOfOutputValues;
+        int offset12 = (prevX + nextY * rowStride) * numberOfOutputValues;
+        int offset21 = (nextX + prevY * rowStride) * numberOfOutputValues;
+        int offset22 = (nextX + nextY * rowStride) * numberOfOutputValues;
+        float[] outputValues = new float[numberOfOutputValues];
+        for (int i = 0; i < numberOfOutputValues; i++)
+        {
+            float value1;
+            if (prevY == nextY)
+            {
+                value1 = sampleValues[offset11 + i];
+            }
+            else
+            {
+                value1 = interpolate(y, prevY, nextY, sampleValues[offset11 + i],
+                        sampleValues[offset12 + i]);
+            }
+            if (prevX == nextX)
+            {
+                outputValues[i] = value1;
+                continue;
+            }
+            float value2;
+            if (prevY == nextY)
+            {
+                value2 = sampleValues[offset21 + i];
+            }
+            else
+            {
+                value2 = interpolate(y, prevY, nextY, sampleValues[offset21 + i],
+                        sampleValues[offset22 + i]);
+            }
+            outputValues[i] = interpolate(x, prevX, nextX, value1, value2);
+        }
+        return decodeOutputs(table, outputValues);
+    }
+
+    /**
+     * The entries of the function dictionary as primitive arrays, together with the samples.
+     */
+    private static final class SampleTable
+    {
+        private final int numberOfInputValues;
+        private final int numberOfOutputValues;
+        private final float[] domain;
+        private final float[] encode;
+        private final float[] sizes;
+        private final float[] decode;
+        private final float[] range;
+        private final float maxSample;
+        private final int[] samples;
+        // the number of samples between successive values of the second input
+        private final int rowStride;
+
+        SampleTable(int numberOfInputValues, int numberOfOutputValues, float[] domain,
+                float[] encode, float[] sizes, float[] decode, float[] range, float maxSample,
+                int[] samples)
+        {
+            this.numberOfInputValues = numberOfInputValues;
+            this.numberOfOutputValues = numberOfOutputValues;
+            this.domain = domain;
+            this.encode = encode;
+            this.sizes = sizes;
+            this.decode = decode;
+            this.range = range;
+            this.maxSample = maxSample;
+            this.samples = samples;
+            this.rowStride = (int) sizes[0];
+        }
+    }
 }
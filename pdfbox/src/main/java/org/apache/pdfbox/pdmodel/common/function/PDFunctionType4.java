@@ -18,6 +18,7 @@ package org.apache.pdfbox.pdmodel.common.function;
 
 import org.apache.pdfbox.cos.COSBase;
 import org.apache.pdfbox.pdmodel.common.PDRange;
+import org.apache.pdfbox.pdmodel.common.function.type4.CompiledInstructionSequence;
 import org.apache.pdfbox.pdmodel.common.function.type4.ExecutionContext;
 import org.apache.pdfbox.pdmodel.common.function.type4.InstructionSequence;
 import org.apache.pdfbox.pdmodel.common.function.type4.InstructionSequenceBuilder;
@@ -38,6 +39,7 @@ public class PDFunctionType4 extends PDFunction
     private static final Operators OPERATORS = new Operators();
 
     private final InstructionSequence instructions;
+    private final CompiledInstructionSequence compiledInstructions;
 
     /**
      * Constructor.
@@ -51,6 +53,7 @@ public class PDFunctionType4 extends PDFunction
         byte[] bytes = getPDStream().toByteArray();
         String string = new String(bytes, StandardCharsets.ISO_8859_1);
         this.instructions = InstructionSequenceBuilder.parse(string);
+        this.compiledInstructions = CompiledInstructionSequence.compile(instructions);
     }
     
     /**
@@ -68,6 +71,11 @@ public class PDFunctionType4 extends PDFunction
     @Override
     public float[] eval(float[] input) throws IOException
     {
+        if (compiledInstructions != null)
+        {
+            return evalCompiled(input);
+        }
+
         //Setup the input values
         ExecutionContext context = new ExecutionContext(OPERATORS);
         for (int i = 0; i < input.length; i++)
@@ -82,14 +90,7 @@ public class PDFunctionType4 extends PDFunction
 
         //Extract the output values
         int numberOfOutputValues = getNumberOfOutputParameters();
-        int numberOfActualOutputValues = context.getStack().size();
-        if (numberOfActualOutputValues < numberOfOutputValues)
-        {
-            throw new IllegalStateException("The type 4 function returned "
-                    + numberOfActualOutputValues
-                    + " values but the Range entry indicates that "
-                    + numberOfOutputValues + " values be returned.");
-        }
+        checkNumberOfOutputValues(context.getStack().size(), numberOfOutputValues);
         float[] outputValues = new float[numberOfOutputValues];
         for (int i = numberOfOutputValues - 1; i >= 0; i--)
         {
@@ -101,4 +102,41 @@ public class PDFunctionType4 extends PDFunction
         //Return the resulting array
         return outputValues;
     }
+
+    /**
+     * Same as {@link #eval(float[])} but using the compiled instructions, which don't box the
+     * values on the operand stack.
+     */
+    private float[] evalCompiled(float[] input)
+    {
+        float[] inputValues = new float[input.length];
+        for (int i = 0; i < input.length; i++)
+        {
+            PDRange domain = getDomainForInput(i);
+            inputValues[i] = clipToRange(input[i], domain.getMin(), domain.getMax());
+        }
+
+        int numberOfOutputValues = getNumberOfOutputParameters();
+        float[] outputValues = new float[numberOfOutputValues];
+        checkNumberOfOutputValues(compiledInstructions.execute(inputValues, outputValues),
+                numberOfOutputValues);
+        for (int i = 0; i < numberOfOutputValues; i++)
+        {
+            PDRange range = getRangeForOutput(i);
+            outputValues[i] = clipToRange(outputValues[i], range.getMin(), range.getMax());
+        }
+        return outputValues;
+    }
+
+    private static void checkNumberOfOutputValues(int numberOfActualOutputValues,
+            int numberOfOutputValues)
+    {
+        if (numberOfActualOutputValues < numberOfOutputValues)
+        {
+            throw new IllegalStateException("The type 4 function returned "
+                    + numberOfActualOutputValues
+                    + " values but the Range entry indicates that "
+                    + numberOfOutputValues + " values be returned.");
+        }
+    }
 }
@@ -0,0 +1,912 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.pdmodel.common.function.type4;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EmptyStackException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An instruction sequence compiled to a flat list of opcodes. The procs of "if" and "ifelse" are
+ * turned into jumps and the operand stack is made of primitive arrays, so the execution neither
+ * looks up operators nor boxes values. The results are the same as those of
+ * {@link InstructionSequence#execute(ExecutionContext)}.
+ */
+public final class CompiledInstructionSequence
+{
+    private static final int PUSH_INT = 0;
+    private static final int PUSH_REAL = 1;
+    private static final int PUSH_BOOLEAN = 2;
+    private static final int JUMP = 3;
+    private static final int JUMP_IF_FALSE = 4;
+    private static final int UNKNOWN = 5;
+
+    private static final int ABS = 10;
+    private static final int ADD = 11;
+    private static final int ATAN = 12;
+    private static final int CEILING = 13;
+    private static final int COS = 14;
+    private static final int CVI = 15;
+    private static final int CVR = 16;
+    private static final int DIV = 17;
+    private static final int EXP = 18;
+    private static final int FLOOR = 19;
+    private static final int IDIV = 20;
+    private static final int LN = 21;
+    private static final int LOG = 22;
+    private static final int MOD = 23;
+    private static final int MUL = 24;
+    private static final int NEG = 25;
+    private static final int ROUND = 26;
+    private static final int SIN = 27;
+    private static final int SQRT = 28;
+    private static final int SUB = 29;
+    private static final int TRUNCATE = 30;
+
+    private static final int AND = 40;
+    private static final int BITSHIFT = 41;
+    private static final int EQ = 42;
+    private static final int FALSE = 43;
+    private static final int GE = 44;
+    private static final int GT = 45;
+    private static final int LE = 46;
+    private static final int LT = 47;
+    private static final int NE = 48;
+    private static final int NOT = 49;
+    private static final int OR = 50;
+    private static final int TRUE = 51;
+    private static final int XOR = 52;
+
+    private static final int COPY = 60;
+    private static final int DUP = 61;
+    private static final int EXCH = 62;
+    private static final int INDEX = 63;
+    private static final int POP = 64;
+    private static final int ROLL = 65;
+
+    private static final Map<String, Integer> OPCODES = new HashMap<>();
+
+    static
+    {
+        OPCODES.put("abs", ABS);
+        OPCODES.put("add", ADD);
+        OPCODES.put("atan", ATAN);
+        OPCODES.put("ceiling", CEILING);
+        OPCODES.put("cos", COS);
+        OPCODES.put("cvi", CVI);
+        OPCODES.put("cvr", CVR);
+        OPCODES.put("div", DIV);
+        OPCODES.put("exp", EXP);
+        OPCODES.put("floor", FLOOR);
+        OPCODES.put("idiv", IDIV);
+        OPCODES.put("ln", LN);
+        OPCODES.put("log", LOG);
+        OPCODES.put("mod", MOD);
+        OPCODES.put("mul", MUL);
+        OPCODES.put("neg", NEG);
+        OPCODES.put("round", ROUND);
+        OPCODES.put("sin", SIN);
+        OPCODES.put("sqrt", SQRT);
+        OPCODES.put("sub", SUB);
+        OPCODES.put("truncate", TRUNCATE);
+
+        OPCODES.put("and", AND);
+        OPCODES.put("bitshift", BITSHIFT);
+        OPCODES.put("eq", EQ);
+        OPCODES.put("false", FALSE);
+        OPCODES.put("ge", GE);
+        OPCODES.put("gt", GT);
+        OPCODES.put("le", LE);
+        OPCODES.put("lt", LT);
+        OPCODES.put("ne", NE);
+        OPCODES.put("not", NOT);
+        OPCODES.put("or", OR);
+        OPCODES.put("true", TRUE);
+        OPCODES.put("xor", XOR);
+
+        OPCODES.put("copy", COPY);
+        OPCODES.put("dup", DUP);
+        OPCODES.put("exch", EXCH);
+        OPCODES.put("index", INDEX);
+        OPCODES.put("pop", POP);
+        OPCODES.put("roll", ROLL);
+    }
+
+    private final int[] code;
+    private final String[] names;
+    // every instruction pushes at most one value except "copy"
+    private final int maximumGrowth;
+    // the number of values copied by "copy" with constant operands
+    private final int copyReserve;
+
+    private CompiledInstructionSequence(int[] code, String[] names, int maximumGrowth,
+            int copyReserve)
+    {
+        this.code = code;
+        this.names = names;
+        this.maximumGrowth = maximumGrowth;
+        this.copyReserve = copyReserve;
+    }
+
+    /**
+     * Compiles the given instruction sequence. Procs are only supported as operands which
+     * immediately precede "if" or "ifelse" and as the last element of the top-level sequence,
+     * which is the form of all Type 4 functions; other sequences aren't compiled.
+     *
+     * @param sequence the instruction sequence
+     * @return the compiled instruction sequence or null if the sequence can't be compiled
+     */
+    public static CompiledInstructionSequence compile(InstructionSequence sequence)
+    {
+        Compiler compiler = new Compiler();
+        if (!compiler.compile(sequence.getInstructions(), true))
+        {
+            return null;
+        }
+        return new CompiledInstructionSequence(Arrays.copyOf(compiler.code, compiler.size),
+                compiler.names.toArray(new String[0]), compiler.instructionCount,
+                compiler.copyReserve);
+    }
+
+    /**
+     * Executes the instruction sequence with the given input values on the operand stack and
+     * returns the topmost values of the operand stack as reals.
+     *
+     * @param input the input values, they are pushed onto the operand stack as reals
+     * @param output receives the topmost values of the operand stack, the topmost value last
+     * @return the number of values on the operand stack after the execution, the output is only
+     * set if there are at least as many values as it has elements
+     */
+    public int execute(float[] input, float[] output)
+    {
+        OperandStack stack = new OperandStack(input.length + maximumGrowth, copyReserve);
+        for (float value : input)
+        {
+            stack.pushReal(value);
+        }
+        execute(stack);
+
+        int size = stack.size;
+        if (size >= output.length)
+        {
+            for (int i = output.length - 1; i >= 0; i--)
+            {
+                output[i] = (float) stack.popNumber();
+            }
+        }
+        return size;
+    }
+
+    private void execute(OperandStack stack)
+    {
+        int[] code = this.code;
+        int pc = 0;
+        while (pc < code.length)
+        {
+            switch (code[pc++])
+            {
+                case PUSH_INT:
+                    stack.pushInt(code[pc++]);
+                    break;
+                case PUSH_REAL:
+                    stack.pushReal(Float.intBitsToFloat(code[pc++]));
+                    break;
+                case PUSH_BOOLEAN:
+                    stack.pushBoolean(code[pc++] != 0);
+                    break;
+                case JUMP:
+                    pc = code[pc];
+                    break;
+                case JUMP_IF_FALSE:
+                    pc = stack.popBoolean() ? pc + 1 : code[pc];
+                    break;
+                case UNKNOWN:
+                    throw new UnsupportedOperationException(
+                            "Unknown operator or name: " + names[code[pc]]);
+                default:
+                    executeOperator(code[pc - 1], stack);
+                    break;
+            }
+        }
+    }
+
+    private static void executeOperator(int opcode, OperandStack stack)
+    {
+        switch (opcode)
+        {
+            case ABS:
+            {
+                double num = stack.popNumber();
+                if (stack.poppedInt())
+                {
+                    stack.pushInt(Math.abs((int) num));
+                }
+                else
+                {
+                    stack.pushReal(Math.abs((float) num));
+                }
+                break;
+            }
+            case ADD:
+            {
+                double num2 = stack.popNumber();
+                boolean integers = stack.poppedInt();
+                double num1 = stack.popNumber();
+                if (integers && stack.poppedInt())
+                {
+                    stack.pushIntOrReal((long) num1 + (long) num2);
+                }
+                else
+                {
+                    stack.pushReal((float) num1 + (float) num2);
+                }
+                break;
+            }
+            case ATAN:
+            {
+                float den = (float) stack.popNumber();
+                float num = (float) stack.popNumber();
+                float atan = (float) Math.atan2(num, den);
+                atan = (float) Math.toDegrees(atan) % 360;
+                if (atan < 0)
+                {
+                    atan = atan + 360;
+                }
+                stack.pushReal(atan);
+                break;
+            }
+            case CEILING:
+            {
+                double num = stack.popNumber();
+                if (stack.poppedInt())
+                {
+                    stack.pushInt((int) num);
+                }
+                else
+                {
+                    stack.pushReal((float) Math.ceil(num));
+                }
+                break;
+            }
+            case COS:
+            {
+                float angle = (float) stack.popNumber();
+                stack.pushReal((float) Math.cos(Math.toRadians(angle)));
+                break;
+            }
+            case CVI:
+                stack.pushInt((int) stack.popNumber());
+                break;
+            case CVR:
+                stack.pushReal((float) stack.popNumber());
+                break;
+            case DIV:
+            {
+                float num2 = (float) stack.popNumber();
+                float num1 = (float) stack.popNumber();
+                stack.pushReal(num1 / num2);
+                break;
+            }
+            case EXP:
+            {
+                double exp = stack.popNumber();
+                double base = stack.popNumber();
+                stack.pushReal((float) Math.pow(base, exp));
+                break;
+            }
+            case FLOOR:
+            {
+                double num = stack.popNumber();
+                if (stack.poppedInt())
+                {
+                    stack.pushInt((int) num);
+                }
+                else
+                {
+                    stack.pushReal((float) Math.floor(num));
+                }
+                break;
+            }
+            case IDIV:
+            {
+                int num2 = stack.popInt();
+                int num1 = stack.popInt();
+                stack.pushInt(num1 / num2);
+                break;
+            }
+            case LN:
+                stack.pushReal((float) Math.log(stack.popNumber()));
+                break;
+            case LOG:
+                stack.pushReal((float) Math.log10(stack.popNumber()));
+                break;
+            case MOD:
+            {
+                int int2 = stack.popInt();
+                int int1 = stack.popInt();
+                stack.pushInt(int1 % int2);
+                break;
+            }
+            case MUL:
+            {
+                double num2 = stack.popNumber();
+                boolean integers = stack.poppedInt();
+                double num1 = stack.popNumber();
+                if (integers && stack.poppedInt())
+                {
+                    stack.pushIntOrReal((long) num1 * (long) num2);
+                }
+                else
+                {
+                    stack.pushReal((float) (num1 * num2));
+                }
+                break;
+            }
+            case NEG:
+            {
+                double num = stack.popNumber();
+                if (stack.poppedInt() && (int) num != Integer.MIN_VALUE)
+                {
+                    stack.pushInt(-(int) num);
+                }
+                else
+                {
+                    stack.pushReal(-(float) num);
+                }
+                break;
+            }
+            case ROUND:
+            {
+                double num = stack.popNumber();
+                if (stack.poppedInt())
+                {
+                    stack.pushInt((int) num);
+                }
+                else
+                {
+                    stack.pushReal((float) Math.round(num));
+                }
+                break;
+            }
+            case SIN:
+            {
+                float angle = (float) stack.popNumber();
+                stack.pushReal((float) Math.sin(Math.toRadians(angle)));
+                break;
+            }
+            case SQRT:
+            {
+                float num = (float) stack.popNumber();
+                if (num < 0)
+                {
+                    throw new IllegalArgumentException("argument must be nonnegative");
+                }
+                stack.pushReal((float) Math.sqrt(num));
+                break;
+            }
+            case SUB:
+            {
+                double num2 = stack.popNumber();
+                boolean integers = stack.poppedInt();
+                double num1 = stack.popNumber();
+                if (integers && stack.poppedInt())
+                {
+                    stack.pushIntOrReal((long) num1 - (long) num2);
+                }
+                else
+                {
+                    stack.pushReal((float) num1 - (float) num2);
+                }
+                break;
+            }
+            case TRUNCATE:
+            {
+                double num = stack.popNumber();
+                if (stack.poppedInt())
+                {
+                    stack.pushInt((int) num);
+                }
+                else
+                {
+                    stack.pushReal((int) (float) num);
+                }
+                break;
+            }
+            case AND:
+            case OR:
+            case XOR:
+                executeLogical(opcode, stack);
+                break;
+            case BITSHIFT:
+            {
+                int shift = stack.popInt();
+                int int1 = stack.popInt();
+                stack.pushInt(shift < 0 ? int1 >> Math.abs(shift) : int1 << shift);
+                break;
+            }
+            case EQ:
+            case NE:
+            {
+                double op2 = stack.pop();
+                boolean boolean2 = stack.poppedBoolean();
+                double op1 = stack.pop();
+                boolean boolean1 = stack.poppedBoolean();
+                boolean equal;
+                if (!boolean1 && !boolean2)
+                {
+                    equal = Float.compare((float) op1, (float) op2) == 0;
+                }
+                else
+                {
+                    equal = boolean1 && boolean2 && op1 == op2;
+                }
+                stack.pushBoolean(opcode == EQ ? equal : !equal);
+                break;
+            }
+            case FALSE:
+                stack.pushBoolean(false);
+                break;
+            case GE:
+            case GT:
+            case LE:
+            case LT:
+            {
+                // both operands are popped before their types are checked
+                float num2 = (float) stack.pop();
+                boolean boolean2 = stack.poppedBoolean();
+                float num1 = (float) stack.pop();
+                if (boolean2 || stack.poppedBoolean())
+                {
+                    throw new ClassCastException("Operands must be numbers");
+                }
+                boolean result;
+                if (opcode == GE)
+                {
+                    result = num1 >= num2;
+                }
+                else if (opcode == GT)
+                {
+                    result = num1 > num2;
+                }
+                else if (opcode == LE)
+                {
+                    result = num1 <= num2;
+                }
+                else
+                {
+                    result = num1 < num2;
+                }
+                stack.pushBoolean(result);
+                break;
+            }
+            case NOT:
+            {
+                double op1 = stack.pop();
+                if (stack.poppedBoolean())
+                {
+                    stack.pushBoolean(op1 == 0);
+                }
+                else if (stack.poppedInt())
+                {
+                    stack.pushInt(-(int) op1);
+                }
+                else
+                {
+                    throw new ClassCastException("Operand must be bool or int");
+                }
+                break;
+            }
+            case TRUE:
+                stack.pushBoolean(true);
+                break;
+            case COPY:
+                stack.copy((int) stack.popNumber());
+                break;
+            case DUP:
+                stack.index(0);
+                break;
+            case EXCH:
+                stack.roll(2, 1);
+                break;
+            case INDEX:
+            {
+                int n = (int) stack.popNumber();
+                if (n < 0)
+                {
+                    throw new IllegalArgumentException("rangecheck: " + n);
+                }
+                stack.index(n);
+                break;
+            }
+            case POP:
+                stack.pop();
+                break;
+            case ROLL:
+            {
+                int j = (int) stack.popNumber();
+                int n = (int) stack.popNumber();
+                if (j == 0)
+                {
+                    break;
+                }
+                if (n < 0)
+                {
+                    throw new IllegalArgumentException("rangecheck: " + n);
+                }
+                stack.roll(n, j);
+                break;
+            }
+            default:
+                throw new IllegalStateException("Unknown opcode " + opcode);
+        }
+    }
+
+    private static void executeLogical(int opcode, OperandStack stack)
+    {
+        double op2 = stack.pop();
+        byte type2 = stack.poppedType;
+        double op1 = stack.pop();
+        byte type1 = stack.poppedType;
+        if (type1 == OperandStack.BOOLEAN && type2 == OperandStack.BOOLEAN)
+        {
+            boolean bool1 = op1 != 0;
+            boolean bool2 = op2 != 0;
+            boolean result;
+            if (opcode == AND)
+            {
+                result = bool1 && bool2;
+            }
+            else if (opcode == OR)
+            {
+                result = bool1 || bool2;
+            }
+            else
+            {
+                result = bool1 ^ bool2;
+            }
+            stack.pushBoolean(result);
+        }
+        else if (type1 == OperandStack.INT && type2 == OperandStack.INT)
+        {
+            int int1 = (int) op1;
+            int int2 = (int) op2;
+            int result;
+            if (opcode == AND)
+            {
+                result = int1 & int2;
+            }
+            else if (opcode == OR)
+            {
+                result = int1 | int2;
+            }
+            else
+            {
+                result = int1 ^ int2;
+            }
+            stack.pushInt(result);
+        }
+        else
+        {
+            throw new ClassCastException("Operands must be bool/bool or int/int");
+        }
+    }
+
+    /**
+     * The operand stack. Ints, reals and bools are all kept as doubles, which represent ints and
+     * reals exactly, together with their type.
+     */
+    private static final class OperandStack
+    {
+        private static final byte INT = 0;
+        private static final byte REAL = 1;
+        private static final byte BOOLEAN = 2;
+
+        private double[] values;
+        private byte[] types;
+        private int size;
+        private byte poppedType;
+        // capacity beyond what the other instructions may need, values copied by "copy" use it
+        private int reserve;
+
+        OperandStack(int capacity, int reserve)
+        {
+            values = new double[capacity + reserve];
+            types = new byte[capacity + reserve];
+            this.reserve = reserve;
+        }
+
+        void pushInt(int value)
+        {
+            values[size] = value;
+            types[size++] = INT;
+        }
+
+        void pushReal(float value)
+        {
+            values[size] = value;
+            types[size++] = REAL;
+        }
+
+        void pushBoolean(boolean value)
+        {
+            values[size] = value ? 1 : 0;
+            types[size++] = BOOLEAN;
+        }
+
+        // pushes an int unless the value overflows an int, like the boxed arithmetic operators
+        void pushIntOrReal(long value)
+        {
+            if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE)
+            {
+                pushReal(value);
+            }
+            else
+            {
+                pushInt((int) value);
+            }
+        }
+
+        double pop()
+        {
+            if (size == 0)
+            {
+                throw new EmptyStackException();
+            }
+            size--;
+            poppedType = types[size];
+            return values[size];
+        }
+
+        double popNumber()
+        {
+            double value = pop();
+            if (poppedType == BOOLEAN)
+            {
+                throw new ClassCastException("Operand must be a number");
+            }
+            return value;
+        }
+
+        int popInt()
+        {
+            double value = pop();
+            if (poppedType != INT)
+            {
+                throw new ClassCastException("Operand must be an int");
+            }
+            return (int) value;
+        }
+
+        boolean popBoolean()
+        {
+            double value = pop();
+            if (poppedType != BOOLEAN)
+            {
+                throw new ClassCastException("Operand must be a bool");
+            }
+            return value != 0;
+        }
+
+        boolean poppedInt()
+        {
+            return poppedType == INT;
+        }
+
+        boolean poppedBoolean()
+        {
+            return poppedType == BOOLEAN;
+        }
+
+        // pushes a copy of the n-th value below the top
+        void index(int n)
+        {
+            if (n >= size)
+            {
+                throw new EmptyStackException();
+            }
+            values[size] = values[size - n - 1];
+            types[size] = types[size - n - 1];
+            size++;
+        }
+
+        void copy(int n)
+        {
+            if (n <= 0)
+            {
+                return;
+            }
+            if (n > size)
+            {
+                throw new EmptyStackException();
+            }
+            reserve -= n;
+            if (reserve < 0)
+            {
+                int capacity = values.length - reserve;
+                values = Arrays.copyOf(values, capacity);
+                types = Arrays.copyOf(types, capacity);
+                reserve = 0;
+            }
+            System.arraycopy(values, size - n, values, size, n);
+            System.arraycopy(types, size - n, types, size, n);
+            size += n;
+        }
+
+        // moves the topmost values below the ones beneath them, the same way as the "roll"
+        // operator of the interpreter does, including its handling of abs(j) > n
+        void roll(int n, int j)
+        {
+            int top = j > 0 ? j : Math.max(n + j, 0);
+            int below = j > 0 ? Math.max(n - j, 0) : -j;
+            int start = size - top - below;
+            if (start < 0)
+            {
+                throw new EmptyStackException();
+            }
+            reverse(start, size);
+            reverse(start, start + top);
+            reverse(start + top, size);
+        }
+
+        private void reverse(int from, int to)
+        {
+            for (int i = from, k = to - 1; i < k; i++, k--)
+            {
+                double value = values[i];
+                values[i] = values[k];
+                values[k] = value;
+                byte type = types[i];
+                types[i] = types[k];
+                types[k] = type;
+            }
+        }
+    }
+
+    /**
+     * Turns the instructions into opcodes.
+     */
+    private static final class Compiler
+    {
+        private int[] code = new int[64];
+        private int size;
+        private int instructionCount;
+        private int copyReserve;
+        private int lastInstruction = -1;
+        private final List<String> names = new ArrayList<>();
+
+        boolean compile(List<Object> instructions, boolean topLevel)
+        {
+            int count = instructions.size();
+            for (int i = 0; i < count; i++)
+            {
+                Object instruction = instructions.get(i);
+                if (instruction instanceof InstructionSequence)
+                {
+                    List<Object> proc = ((InstructionSequence) instruction).getInstructions();
+                    if (i + 1 < count && "if".equals(instructions.get(i + 1)))
+                    {
+                        int jump = emit(JUMP_IF_FALSE, 0);
+                        if (!compile(proc, false))
+                        {
+                            return false;
+                        }
+                        code[jump] = size;
+                        i++;
+                    }
+                    else if (i + 2 < count && instructions.get(i + 1) instanceof InstructionSequence
+                            && "ifelse".equals(instructions.get(i + 2)))
+                    {
+                        int jumpToElse = emit(JUMP_IF_FALSE, 0);
+                        if (!compile(proc, false))
+                        {
+                            return false;
+                        }
+                        int jumpToEnd = emit(JUMP, 0);
+                        code[jumpToElse] = size;
+                        if (!compile(((InstructionSequence) instructions.get(i + 1))
+                                .getInstructions(), false))
+                        {
+                            return false;
+                        }
+                        code[jumpToEnd] = size;
+                        i += 2;
+                    }
+                    else if (topLevel && i == count - 1)
+                    {
+                        // a top-level proc is executed after the rest of the sequence
+                        return compile(proc, false);
+                    }
+                    else
+                    {
+                        return false;
+                    }
+                }
+                else if (instruction instanceof String)
+                {
+                    Integer opcode = OPCODES.get(instruction);
+                    if (opcode != null)
+                    {
+                        if (opcode == COPY && lastInstruction >= 0
+                                && code[lastInstruction] == PUSH_INT)
+                        {
+                            copyReserve += Math.max(0, Math.min(code[lastInstruction + 1], 100));
+                        }
+                        emit(opcode);
+                    }
+                    else if ("if".equals(instruction) || "ifelse".equals(instruction))
+                    {
+                        // operands which aren't procs
+                        return false;
+                    }
+                    else
+                    {
+                        // fails when reached, like the interpreter does
+                        emit(UNKNOWN, names.size());
+                        names.add((String) instruction);
+                    }
+                }
+                else if (instruction instanceof Integer)
+                {
+                    emit(PUSH_INT, (Integer) instruction);
+                }
+                else if (instruction instanceof Float)
+                {
+                    emit(PUSH_REAL, Float.floatToRawIntBits((Float) instruction));
+                }
+                else if (instruction instanceof Boolean)
+                {
+                    emit(PUSH_BOOLEAN, (Boolean) instruction ? 1 : 0);
+                }
+                else
+                {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void emit(int opcode)
+        {
+            ensureCapacity(1);
+            lastInstruction = size;
+            code[size++] = opcode;
+            instructionCount++;
+        }
+
+        // returns the position of the operand
+        private int emit(int opcode, int operand)
+        {
+            ensureCapacity(2);
+            lastInstruction = size;
+            code[size++] = opcode;
+            code[size++] = operand;
+            instructionCount++;
+            return size - 1;
+        }
+
+        private void ensureCapacity(int length)
+        {
+            if (size + length > code.length)
+            {
+                code = Arrays.copyOf(code, code.length * 2);
+            }
+        }
+    }
+}
@@ -73,6 +73,16 @@ public class InstructionSequence
         this.instructions.add(child);
     }
 
+    /**
+     * Returns the instructions of this sequence: names as String, values as Integer, Float or
+     * Boolean and procs as InstructionSequence.
+     * @return the instructions
+     */
+    List<Object> getInstructions()
+    {
+        return this.instructions;
+    }
+
     /**
      * Executes the instruction sequence.
      * @param context the execution context
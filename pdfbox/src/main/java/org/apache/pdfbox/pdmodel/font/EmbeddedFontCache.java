@@ -0,0 +1,303 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.pdmodel.font;
+
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.pdfbox.io.RandomAccessRead;
+import org.apache.pdfbox.io.RandomAccessReadBuffer;
+
+/**
+ * A process-wide cache of parsed embedded font programs, shared by all documents. Fonts are keyed
+ * by a SHA-256 hash of the decoded font program, so that identical (subset) fonts embedded in many
+ * documents are only parsed once. The cache is limited by the total size of the cached font
+ * programs, the least recently used fonts are evicted first.
+ *
+ * <p>Only the bytes of the font programs are counted, not the parsed font objects which the cache
+ * keeps alive. A parsed TrueTypeFont or CFFFont holds its font program as well as the tables and
+ * glyphs parsed on demand, so the memory actually retained may be a multiple of the budget,
+ * depending on how many glyphs of the cached fonts are used.
+ *
+ * <p>The cache is disabled by default and can be enabled with {@link #setInstance}. The cached
+ * fonts are used by several threads concurrently, so the cache should only be enabled if the font
+ * objects aren't modified after parsing.
+ */
+public final class EmbeddedFontCache
+{
+    private static final Log LOG = LogFactory.getLog(EmbeddedFontCache.class);
+
+    /**
+     * Kind of font program parsed with TTFParser or OTFParser.
+     */
+    static final String TRUETYPE = "TTF";
+
+    /**
+     * Kind of font program parsed with CFFParser.
+     */
+    static final String CFF = "CFF";
+
+    private static volatile EmbeddedFontCache instance;
+
+    private final long maxMemory;
+    private final Map<Key, Entry> fonts = new LinkedHashMap<>(64, 0.75f, true);
+    private long usedMemory;
+    private long hits;
+    private long misses;
+
+    /**
+     * Parses a font program.
+     *
+     * @param <T> the type of the parsed font
+     */
+    @FunctionalInterface
+    interface FontParser<T>
+    {
+        /**
+         * Parses the font program from the given source.
+         *
+         * @param source the decoded font program
+         * @return the parsed font
+         * @throws IOException if the font could not be parsed
+         */
+        T parse(RandomAccessRead source) throws IOException;
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param maxMemory the maximum total size in bytes of the cached font programs, the parsed
+     * font objects aren't counted
+     */
+    public EmbeddedFontCache(long maxMemory)
+    {
+        if (maxMemory <= 0)
+        {
+            throw new IllegalArgumentException("maxMemory must be positive: " + maxMemory);
+        }
+        this.maxMemory = maxMemory;
+    }
+
+    /**
+     * Returns the process-wide cache.
+     *
+     * @return the cache or null if caching is disabled, which is the default
+     */
+    public static EmbeddedFontCache getInstance()
+    {
+        return instance;
+    }
+
+    /**
+     * Sets the process-wide cache.
+     *
+     * @param cache the cache to be used or null to disable caching
+     */
+    public static void setInstance(EmbeddedFontCache cache)
+    {
+        instance = cache;
+    }
+
+    /**
+     * Parses the given embedded font program, or returns the font parsed earlier from an identical
+     * font program if caching is enabled.
+     *
+     * @param source the decoded FontFile, FontFile2 or FontFile3 stream. If caching is enabled it
+     * is read completely and closed, otherwise it is handed over to the parser.
+     * @param kind the kind of the font program, which must correspond to the given parser
+     * @param parser the parser to be used if the font isn't cached
+     * @return the parsed font
+     * @throws IOException if the font could not be read or parsed
+     */
+    static <T> T parse(RandomAccessRead source, String kind, FontParser<T> parser)
+            throws IOException
+    {
+        EmbeddedFontCache cache = instance;
+        if (cache == null)
+        {
+            return parser.parse(source);
+        }
+        return cache.getOrParse(source, kind, parser);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T getOrParse(RandomAccessRead source, String kind, FontParser<T> parser)
+            throws IOException
+    {
+        byte[] program;
+        try (RandomAccessRead input = source)
+        {
+            input.seek(0);
+            program = new byte[(int) input.length()];
+            int offset = 0;
+            int amountRead;
+            while (offset < program.length
+                    && (amountRead = input.read(program, offset, program.length - offset)) > 0)
+            {
+                offset += amountRead;
+            }
+            if (offset < program.length)
+            {
+                program = Arrays.copyOf(program, offset);
+            }
+        }
+        Key key = new Key(kind, sha256(program));
+        synchronized (this)
+        {
+            Entry entry = fonts.get(key);
+            if (entry != null)
+            {
+                hits++;
+                return (T) entry.font;
+            }
+            misses++;
+        }
+        // parse outside of the lock, if two threads parse the same font the first one wins
+        T font = parser.parse(new RandomAccessReadBuffer(program));
+        if (program.length > maxMemory)
+        {
+            return font;
+        }
+        synchronized (this)
+        {
+            Entry entry = fonts.get(key);
+            if (entry != null)
+            {
+                return (T) entry.font;
+            }
+            fonts.put(key, new Entry(font, program.length));
+            usedMemory += program.length;
+            Iterator<Entry> iterator = fonts.values().iterator();
+            while (usedMemory > maxMemory && iterator.hasNext())
+            {
+                Entry eldest = iterator.next();
+                usedMemory -= eldest.size;
+                iterator.remove();
+            }
+        }
+        if (LOG.isDebugEnabled())
+        {
+            LOG.debug("Cached embedded " + kind + " font of " + program.length + " bytes, "
+                    + usedMemory + " of " + maxMemory + " bytes used");
+        }
+        return font;
+    }
+
+    private static byte[] sha256(byte[] data)
+    {
+        try
+        {
+            return MessageDigest.getInstance("SHA-256").digest(data);
+        }
+        catch (NoSuchAlgorithmException e)
+        {
+            // should never happen
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Removes all fonts from the cache.
+     */
+    public synchronized void clear()
+    {
+        fonts.clear();
+        usedMemory = 0;
+    }
+
+    /**
+     * Returns the total size in bytes of the cached font programs, without the parsed font
+     * objects.
+     *
+     * @return the used memory
+     */
+    public synchronized long getUsedMemory()
+    {
+        return usedMemory;
+    }
+
+    /**
+     * Returns the number of requests which were served from the cache.
+     *
+     * @return the number of cache hits
+     */
+    public synchronized long getHitCount()
+    {
+        return hits;
+    }
+
+    /**
+     * Returns the number of requests which required the font to be parsed.
+     *
+     * @return the number of cache misses
+     */
+    public synchronized long getMissCount()
+    {
+        return misses;
+    }
+
+    private static final class Key
+    {
+        private final String kind;
+        private final byte[] hash;
+
+        Key(String kind, byte[] hash)
+        {
+            this.kind = kind;
+            this.hash = hash;
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (this == obj)
+            {
+                return true;
+            }
+            if (!(obj instanceof Key))
+            {
+                return false;
+            }
+            Key other = (Key) obj;
+            return kind.equals(other.kind) && Arrays.equals(hash, other.hash);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return 31 * kind.hashCode() + Arrays.hashCode(hash);
+        }
+    }
+
+    private static final class Entry
+    {
+        private final Object font;
+        private final long size;
+
+        Entry(Object font, long size)
+        {
+            this.font = font;
+            this.size = size;
+        }
+    }
+}
@@ -24,13 +24,19 @@ import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStream;
+import java.lang.ref.WeakReference;
 import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
 import java.security.AccessControlException;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.fontbox.FontBoxFont;
@@ -45,6 +51,8 @@ import org.apache.fontbox.ttf.TrueTypeCollection;
 import org.apache.fontbox.ttf.TrueTypeFont;
 import org.apache.fontbox.type1.Type1Font;
 import org.apache.fontbox.util.autodetect.FontFileFinder;
+import org.apache.pdfbox.io.RandomAccessRead;
+import org.apache.pdfbox.io.RandomAccessReadBuffer;
 import org.apache.pdfbox.io.RandomAccessReadBufferedFile;
 
 /**
@@ -56,6 +64,13 @@ final class FileSystemFontProvider extends FontProvider
 {
     private static final Log LOG = LogFactory.getLog(FileSystemFontProvider.class);
     
+    /**
+     * Memory mappings of the loaded font files. All fonts loaded from the same file share a single read-only
+     * mapping, which is released by the garbage collector as soon as no font uses it anymore.
+     */
+    private static final Map<File, WeakReference<ByteBuffer>> MAPPED_FONT_FILES =
+            new ConcurrentHashMap<>();
+
     private final List<FSFontInfo> fontInfoList = new ArrayList<>();
     private final FontCache cache;
 
@@ -212,7 +227,7 @@ final class FileSystemFontProvider extends FontProvider
                 @SuppressWarnings("squid:S2095")
                 // ttc not closed here because it is needed later when ttf is accessed,
                 // e.g. rendering PDF with non-embedded font which is in ttc file in our font directory
-                TrueTypeCollection ttc = new TrueTypeCollection(file);
+                TrueTypeCollection ttc = new TrueTypeCollection(mapFontFile(file), true);
                 TrueTypeFont ttf;
                 try
                 {
@@ -233,7 +248,7 @@ final class FileSystemFontProvider extends FontProvider
             else
             {
                 TTFParser ttfParser = new TTFParser(false);
-                return ttfParser.parse(new RandomAccessReadBufferedFile(file));
+                return ttfParser.parseUnbuffered(mapFontFile(file));
             }
         }
 
@@ -246,7 +261,7 @@ final class FileSystemFontProvider extends FontProvider
                     @SuppressWarnings("squid:S2095")
                     // ttc not closed here because it is needed later when ttf is accessed,
                     // e.g. rendering PDF with non-embedded font which is in ttc file in our font directory
-                    TrueTypeCollection ttc = new TrueTypeCollection(file);
+                    TrueTypeCollection ttc = new TrueTypeCollection(mapFontFile(file), true);
                     TrueTypeFont ttf;
                     try
                     {
@@ -267,7 +282,7 @@ final class FileSystemFontProvider extends FontProvider
                 }
 
                 OTFParser parser = new OTFParser(false);
-                OpenTypeFont otf = parser.parse(new RandomAccessReadBufferedFile(file));
+                OpenTypeFont otf = parser.parseUnbuffered(mapFontFile(file));
 
                 if (LOG.isDebugEnabled())
                 {
@@ -611,7 +626,8 @@ final class FileSystemFontProvider extends FontProvider
      */
     private void addTrueTypeCollection(final File ttcFile) throws IOException
     {
-        try (TrueTypeCollection ttc = new TrueTypeCollection(ttcFile))
+        try (TrueTypeCollection ttc = new TrueTypeCollection(
+                new RandomAccessReadBufferedFile(ttcFile), true))
         {
             ttc.processAllFonts(ttf -> addTrueTypeFontImpl(ttf, ttcFile));
         }
@@ -631,13 +647,13 @@ final class FileSystemFontProvider extends FontProvider
             if (ttfFile.getPath().toLowerCase().endsWith(".otf"))
             {
                 OTFParser parser = new OTFParser(false);
-                OpenTypeFont otf = parser.parse(new RandomAccessReadBufferedFile(ttfFile));
+                OpenTypeFont otf = parser.parseUnbuffered(new RandomAccessReadBufferedFile(ttfFile));
                 addTrueTypeFontImpl(otf, ttfFile);
             }
             else
             {
                 TTFParser parser = new TTFParser(false);
-                TrueTypeFont ttf = parser.parse(new RandomAccessReadBufferedFile(ttfFile));
+                TrueTypeFont ttf = parser.parseUnbuffered(new RandomAccessReadBufferedFile(ttfFile));
                 addTrueTypeFontImpl(ttf, ttfFile);
             }
         }
@@ -792,6 +808,36 @@ final class FileSystemFontProvider extends FontProvider
         }
     }
 
+    /**
+     * Returns a read-only view of the given font file. The file is memory mapped once and the mapping is shared by all
+     * fonts loaded from that file, so that big fonts aren't copied to the heap for each loaded instance.
+     */
+    private static RandomAccessRead mapFontFile(File file) throws IOException
+    {
+        WeakReference<ByteBuffer> reference = MAPPED_FONT_FILES.get(file);
+        ByteBuffer mapped = reference != null ? reference.get() : null;
+        if (mapped == null)
+        {
+            synchronized (MAPPED_FONT_FILES)
+            {
+                reference = MAPPED_FONT_FILES.get(file);
+                mapped = reference != null ? reference.get() : null;
+                if (mapped == null)
+                {
+                    // the mapping stays valid after the channel has been closed
+                    try (FileChannel channel = FileChannel.open(file.toPath(),
+                            StandardOpenOption.READ))
+                    {
+                        mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                    }
+                    MAPPED_FONT_FILES.put(file, new WeakReference<>(mapped));
+                }
+            }
+        }
+        // each font gets its own buffer position, the duplicate keeps the mapping alive
+        return new RandomAccessReadBuffer(mapped.duplicate());
+    }
+
     @Override
     public String toDebugString()
     {
@@ -20,6 +20,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -49,10 +50,36 @@ final class FontMapperImpl implements FontMapper
     private static final Log LOG = LogFactory.getLog(FontMapperImpl.class);
 
     private static final FontCache fontCache = new FontCache(); // todo: static cache isn't ideal
+
+    /** Maximum number of memoised lookups, see {@link #matchCache}. */
+    private static final int MAX_CACHED_MATCHES = 512;
+
+    /** The character collections which may be substituted via CIDSystemInfo. */
+    private static final List<String> CJK_ORDERINGS = Arrays.asList("GB1", "CNS1", "Japan1",
+            "Korea1");
+
     private FontProvider fontProvider;
     private Map<String, FontInfo> fontInfoByName;
+    private Map<String, List<FontInfo>> fontInfoByOrdering;
     private final TrueTypeFont lastResortFont;
 
+    /**
+     * LRU memo of resolved lookups, shared by all documents. Keys are built from the requested
+     * font name or the relevant font descriptor fields, values are the matching FontInfo or null
+     * if nothing matched. The fonts themselves are not held here, they remain in the FontCache.
+     */
+    private final Map<String, FontInfo> matchCache = Collections.synchronizedMap(
+            new LinkedHashMap<String, FontInfo>(MAX_CACHED_MATCHES, 0.75f, true)
+            {
+                private static final long serialVersionUID = 2926245361012834541L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, FontInfo> eldest)
+                {
+                    return size() > MAX_CACHED_MATCHES;
+                }
+            });
+
     /** Map of PostScript name substitutes, in priority order. */
     private final Map<String, List<String>> substitutes = new HashMap<>();
 
@@ -145,7 +172,9 @@ final class FontMapperImpl implements FontMapper
     public synchronized void setProvider(FontProvider fontProvider)
     {
         fontInfoByName = createFontInfoByName(fontProvider.getFontInfo());
+        fontInfoByOrdering = createFontInfoByOrdering(fontInfoByName.values());
         this.fontProvider = fontProvider;
+        matchCache.clear();
     }
 
     /**
@@ -182,6 +211,31 @@ final class FontMapperImpl implements FontMapper
         return map;
     }
 
+    /**
+     * Groups the fonts by the CJK character collections they support, so that CIDSystemInfo based
+     * substitution only has to score the fonts which can actually be used. The order of the given
+     * fonts is kept so that the matching results are the same as when scoring all fonts.
+     */
+    private Map<String, List<FontInfo>> createFontInfoByOrdering(Collection<FontInfo> fontInfos)
+    {
+        Map<String, List<FontInfo>> map = new HashMap<>();
+        for (String ordering : CJK_ORDERINGS)
+        {
+            map.put(ordering, new ArrayList<>());
+        }
+        for (FontInfo info : fontInfos)
+        {
+            for (String ordering : CJK_ORDERINGS)
+            {
+                if (isCharSetMatch("Adobe", ordering, info))
+                {
+                    map.get(ordering).add(info);
+                }
+            }
+        }
+        return map;
+    }
+
     /**
      * Gets alternative names, as seen in some PDFs, e.g. PDFBOX-142.
      */
@@ -208,6 +262,7 @@ final class FontMapperImpl implements FontMapper
     {
         String lowerCaseMatch = match.toLowerCase(Locale.ENGLISH);
         substitutes.computeIfAbsent(lowerCaseMatch, key -> new ArrayList<>()).add(replace);
+        matchCache.clear();
     }
 
     private void addSubstitutes(String match, List<String> replacements)
@@ -416,18 +471,40 @@ final class FontMapperImpl implements FontMapper
             getProvider();
         }
 
+        String key = format + "/" + postScriptName;
+        FontInfo info;
+        if (matchCache.containsKey(key))
+        {
+            info = matchCache.get(key);
+        }
+        else
+        {
+            info = findFontInfo(format, postScriptName);
+            matchCache.put(key, info);
+        }
+        return info != null ? info.getFont() : null;
+    }
+
+    /**
+     * Finds the FontInfo of a font with the given PostScript name, or a suitable substitute, or
+     * null.
+     *
+     * @param postScriptName PostScript font name
+     */
+    private FontInfo findFontInfo(FontFormat format, String postScriptName)
+    {
         // first try to match the PostScript name
         FontInfo info = getFont(format, postScriptName);
         if (info != null)
         {
-            return info.getFont();
+            return info;
         }
 
         // remove hyphens (e.g. Arial-Black -> ArialBlack)
         info = getFont(format, postScriptName.replace("-", ""));
         if (info != null)
         {
-            return info.getFont();
+            return info;
         }
 
         // then try named substitutes
@@ -436,7 +513,7 @@ final class FontMapperImpl implements FontMapper
             info = getFont(format, substituteName);
             if (info != null)
             {
-                return info.getFont();
+                return info;
             }
         }
 
@@ -444,17 +521,11 @@ final class FontMapperImpl implements FontMapper
         info = getFont(format, postScriptName.replace(",", "-"));
         if (info != null)
         {
-            return info.getFont();
+            return info;
         }
 
         // try appending "-Regular", works for Wingdings on windows
-        info = getFont(format, postScriptName + "-Regular");
-        if (info != null)
-        {
-            return info.getFont();
-        }
-        // no matches
-        return null;
+        return getFont(format, postScriptName + "-Regular");
     }
 
     /**
@@ -518,15 +589,14 @@ final class FontMapperImpl implements FontMapper
                 collection.equals("Adobe-Japan1") || collection.equals("Adobe-Korea1"))
             {
                 // try automatic substitutes via character collection
-                PriorityQueue<FontMatch> queue = getFontMatches(fontDescriptor, cidSystemInfo);
-                FontMatch bestMatch = queue.poll();
+                FontInfo bestMatch = getBestFontMatch(fontDescriptor, cidSystemInfo);
                 if (bestMatch != null)
                 {
                     if (LOG.isDebugEnabled())
                     {
-                        LOG.debug("Best match for '" + baseFont + "': " + bestMatch.info);
+                        LOG.debug("Best match for '" + baseFont + "': " + bestMatch);
                     }
-                    FontBoxFont font = bestMatch.info.getFont();
+                    FontBoxFont font = bestMatch.getFont();
                     if (font instanceof OpenTypeFont)
                     {
                         return new CIDFontMapping((OpenTypeFont)font, null, true);
@@ -543,6 +613,59 @@ final class FontMapperImpl implements FontMapper
         return new CIDFontMapping(null, lastResortFont, true);
     }
 
+    /**
+     * Returns the best matching font for the given font descriptor and CIDSystemInfo, or null.
+     * The result depends only on the descriptor fields used by {@link #getFontMatches}, so it is
+     * memoised using those fields as key. This method is package-private for testing.
+     *
+     * @param fontDescriptor FontDescriptor, always present.
+     * @param cidSystemInfo Font's CIDSystemInfo, may be null.
+     */
+    FontInfo getBestFontMatch(PDFontDescriptor fontDescriptor, PDCIDSystemInfo cidSystemInfo)
+    {
+        StringBuilder key = new StringBuilder("CID/");
+        if (cidSystemInfo != null)
+        {
+            key.append(cidSystemInfo.getRegistry()).append('-').append(cidSystemInfo.getOrdering());
+        }
+        key.append('/');
+        if (fontDescriptor.getPanose() != null)
+        {
+            PDPanoseClassification panose = fontDescriptor.getPanose().getPanose();
+            key.append(panose.getFamilyKind()).append(',')
+               .append(panose.getSerifStyle()).append(',')
+               .append(panose.getWeight());
+        }
+        key.append('/').append(fontDescriptor.getFontWeight());
+        key.append('/').append(probablyBarcodeFont(fontDescriptor));
+
+        String cacheKey = key.toString();
+        if (matchCache.containsKey(cacheKey))
+        {
+            return matchCache.get(cacheKey);
+        }
+        FontMatch bestMatch = getFontMatches(fontDescriptor, cidSystemInfo).poll();
+        FontInfo info = bestMatch != null ? bestMatch.info : null;
+        matchCache.put(cacheKey, info);
+        return info;
+    }
+
+    /**
+     * Returns the best matching font like {@link #getBestFontMatch}, but scores all fonts without
+     * using the memo or the fonts grouped by character collection. This method is package-private
+     * for testing.
+     *
+     * @param fontDescriptor FontDescriptor, always present.
+     * @param cidSystemInfo Font's CIDSystemInfo, may be null.
+     */
+    FontInfo getBestFontMatchOfAllFonts(PDFontDescriptor fontDescriptor,
+                                        PDCIDSystemInfo cidSystemInfo)
+    {
+        FontMatch bestMatch = getFontMatches(fontDescriptor, cidSystemInfo,
+                fontInfoByName.values()).poll();
+        return bestMatch != null ? bestMatch.info : null;
+    }
+
     /**
      * Returns a list of matching fonts, scored by suitability. Positive scores indicate matches
      * for certain attributes, while negative scores indicate mismatches. Zero scores are neutral.
@@ -552,10 +675,26 @@ final class FontMapperImpl implements FontMapper
      */
     private PriorityQueue<FontMatch> getFontMatches(PDFontDescriptor fontDescriptor,
                                                            PDCIDSystemInfo cidSystemInfo)
+    {
+        // only the fonts supporting the character collection need to be scored
+        Collection<FontInfo> candidates = null;
+        if (cidSystemInfo != null && "Adobe".equals(cidSystemInfo.getRegistry()))
+        {
+            candidates = fontInfoByOrdering.get(cidSystemInfo.getOrdering());
+        }
+        if (candidates == null)
+        {
+            candidates = fontInfoByName.values();
+        }
+        return getFontMatches(fontDescriptor, cidSystemInfo, candidates);
+    }
+
+    private PriorityQueue<FontMatch> getFontMatches(PDFontDescriptor fontDescriptor,
+            PDCIDSystemInfo cidSystemInfo, Collection<FontInfo> candidates)
     {
         PriorityQueue<FontMatch> queue = new PriorityQueue<>(20);
-        
-        for (FontInfo info : fontInfoByName.values())
+
+        for (FontInfo info : candidates)
         {
             // filter by CIDSystemInfo, if given
             if (cidSystemInfo != null && !isCharSetMatch(cidSystemInfo, info))
@@ -664,11 +803,16 @@ final class FontMapperImpl implements FontMapper
      * Only applies to Adobe-GB1, Adobe-CNS1, Adobe-Japan1, Adobe-Korea1, as per the PDF spec.
      */
     private boolean isCharSetMatch(PDCIDSystemInfo cidSystemInfo, FontInfo info)
+    {
+        return isCharSetMatch(cidSystemInfo.getRegistry(), cidSystemInfo.getOrdering(), info);
+    }
+
+    private boolean isCharSetMatch(String registry, String ordering, FontInfo info)
     {
         if (info.getCIDSystemInfo() != null)
         {
-            return info.getCIDSystemInfo().getRegistry().equals(cidSystemInfo.getRegistry()) &&
-                   info.getCIDSystemInfo().getOrdering().equals(cidSystemInfo.getOrdering());
+            return info.getCIDSystemInfo().getRegistry().equals(registry) &&
+                   info.getCIDSystemInfo().getOrdering().equals(ordering);
         }
         else
         {
@@ -685,24 +829,24 @@ final class FontMapperImpl implements FontMapper
                 // PDFBOX-4793 and PDF.js 10699: This font has only Korean, but has bits 17-21 set.
                 codePageRange &= ~(JIS_JAPAN | CHINESE_SIMPLIFIED | CHINESE_TRADITIONAL);
             }
-            if (cidSystemInfo.getOrdering().equals("GB1") &&
+            if (ordering.equals("GB1") &&
                     (codePageRange & CHINESE_SIMPLIFIED) == CHINESE_SIMPLIFIED)
             {
                 return true;
             }
-            else if (cidSystemInfo.getOrdering().equals("CNS1") && 
+            else if (ordering.equals("CNS1") && 
                     (codePageRange & CHINESE_TRADITIONAL) == CHINESE_TRADITIONAL)
             {
                 return true;
             }
-            else if (cidSystemInfo.getOrdering().equals("Japan1") &&
+            else if (ordering.equals("Japan1") &&
                     (codePageRange & JIS_JAPAN) == JIS_JAPAN)
             {
                 return true;
             }
             else
             {
-                return cidSystemInfo.getOrdering().equals("Korea1") &&
+                return ordering.equals("Korea1") &&
                         ((codePageRange & KOREAN_WANSUNG) == KOREAN_WANSUNG ||
                          (codePageRange & KOREAN_JOHAB) == KOREAN_JOHAB);
             }
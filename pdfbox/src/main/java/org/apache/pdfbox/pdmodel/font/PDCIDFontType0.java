@@ -93,8 +93,8 @@ public class PDCIDFontType0 extends PDCIDFont
                     }
                     else
                     {
-                        CFFParser cffParser = new CFFParser();
-                        cffFont = cffParser.parse(randomAccessRead).get(0);
+                        cffFont = EmbeddedFontCache.parse(randomAccessRead, EmbeddedFontCache.CFF,
+                                source -> new CFFParser().parse(source).get(0));
                     }
                 }
                 catch (IOException e)
@@ -119,9 +119,8 @@ public class PDCIDFontType2 extends PDCIDFont
                 {
                     // embedded OTF or TTF
                     RandomAccessRead view = stream.getCOSObject().createView();
-                    TTFParser ttfParser = getParser(view, true);
-                    ttfFont = ttfParser.parse(view);
-                    ttfFont.close();
+                    ttfFont = EmbeddedFontCache.parse(view, EmbeddedFontCache.TRUETYPE,
+                            this::parseEmbedded);
                 }
                 catch (IOException e)
                 {
@@ -503,6 +502,14 @@ public class PDCIDFontType2 extends PDCIDFont
         return codeToGID(code) != 0;
     }
 
+    private TrueTypeFont parseEmbedded(RandomAccessRead randomAccessRead) throws IOException
+    {
+        TTFParser ttfParser = getParser(randomAccessRead, true);
+        TrueTypeFont ttfFont = ttfParser.parse(randomAccessRead);
+        ttfFont.close();
+        return ttfFont;
+    }
+
     private TTFParser getParser(RandomAccessRead randomAccessRead, boolean isEmbedded)
             throws IOException
     {
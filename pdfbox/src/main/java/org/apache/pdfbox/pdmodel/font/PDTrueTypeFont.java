@@ -120,9 +120,8 @@ public class PDTrueTypeFont extends PDSimpleFont implements PDVectorFont
                 {
                     view = ff2Stream.getCOSObject().createView();
                     // embedded
-                    TTFParser ttfParser = getParser(view, true);
-                    ttfFont = ttfParser.parse(view);
-                    ttfFont.close();
+                    ttfFont = EmbeddedFontCache.parse(view, EmbeddedFontCache.TRUETYPE,
+                            this::parseEmbedded);
                 }
                 catch (IOException e)
                 {
@@ -766,6 +765,14 @@ public class PDTrueTypeFont extends PDSimpleFont implements PDVectorFont
         cmapInitialized = true;
     }
 
+    private TrueTypeFont parseEmbedded(RandomAccessRead randomAccessRead) throws IOException
+    {
+        TTFParser ttfParser = getParser(randomAccessRead, true);
+        TrueTypeFont ttfFont = ttfParser.parse(randomAccessRead);
+        ttfFont.close();
+        return ttfFont;
+    }
+
     private TTFParser getParser(RandomAccessRead randomAccessRead, boolean isEmbedded)
             throws IOException
     {
@@ -94,8 +94,8 @@ public class PDType1CFont extends PDSimpleFont implements PDVectorFont
                     else
                     {
                         // note: this could be an OpenType file, fortunately CFFParser can handle that
-                        CFFParser cffParser = new CFFParser();
-                        CFFFont parsedCffFont = cffParser.parse(randomAccessRead).get(0);
+                        CFFFont parsedCffFont = EmbeddedFontCache.parse(randomAccessRead,
+                                EmbeddedFontCache.CFF, source -> new CFFParser().parse(source).get(0));
                         if (parsedCffFont instanceof CFFType1Font)
                         {
                             cffEmbedded = (CFFType1Font) parsedCffFont;
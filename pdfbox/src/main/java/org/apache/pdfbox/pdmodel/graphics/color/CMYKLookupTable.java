@@ -0,0 +1,307 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.pdmodel.graphics.color;
+
+import java.awt.Transparency;
+import java.awt.color.ICC_ColorSpace;
+import java.awt.image.BufferedImage;
+import java.awt.image.ColorConvertOp;
+import java.awt.image.ComponentColorModel;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferInt;
+import java.awt.image.Raster;
+import java.awt.image.WritableRaster;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Converts CMYK images to RGB with a 4D lookup table. The transform of the ICC profile is sampled
+ * once on a regular grid, the pixels are converted by tetrahedral interpolation of C, M and Y in
+ * the two K planes around the pixel and linear interpolation between these planes. This is much
+ * faster than converting large images with the CMM, the results mostly differ by at most one
+ * level. The conversion is optional, it is used when the system property
+ * {@code org.apache.pdfbox.rendering.UseCMYKLookupTable} is set.
+ * <p>
+ * The tables are cached per profile.
+ */
+final class CMYKLookupTable
+{
+    // the grid points are at the multiples of 15 in 0..255, so that 8 bit samples never need
+    // a division
+    private static final int GRID_POINTS = 18;
+    private static final int STEP = 255 / (GRID_POINTS - 1);
+    private static final int NODES = GRID_POINTS * GRID_POINTS * GRID_POINTS * GRID_POINTS;
+
+    // offsets of the neighbours of a grid point in the table, K varies fastest
+    private static final int K_STRIDE = 3;
+    private static final int Y_STRIDE = K_STRIDE * GRID_POINTS;
+    private static final int M_STRIDE = Y_STRIDE * GRID_POINTS;
+    private static final int C_STRIDE = M_STRIDE * GRID_POINTS;
+
+    // grid cell and position within the cell of every sample value, 255 is at the end of the
+    // last cell so that the upper neighbours always exist
+    private static final int[] CELL = new int[256];
+    private static final int[] FRACTION = new int[256];
+
+    static
+    {
+        for (int i = 0; i < 256; i++)
+        {
+            int cell = Math.min(i / STEP, GRID_POINTS - 2);
+            CELL[i] = cell;
+            FRACTION[i] = i - cell * STEP;
+        }
+    }
+
+    private static final int MAX_PROFILES = 16;
+
+    private static final Map<ProfileKey, CMYKLookupTable> CACHE =
+            new LinkedHashMap<ProfileKey, CMYKLookupTable>(MAX_PROFILES, 0.75f, true)
+    {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<ProfileKey, CMYKLookupTable> eldest)
+        {
+            return size() > MAX_PROFILES;
+        }
+    };
+
+    // R, G and B of every grid point
+    private final int[] table;
+
+    private CMYKLookupTable(ICC_ColorSpace colorSpace)
+    {
+        byte[] samples = new byte[NODES * 4];
+        int i = 0;
+        for (int c = 0; c < GRID_POINTS; c++)
+        {
+            for (int m = 0; m < GRID_POINTS; m++)
+            {
+                for (int y = 0; y < GRID_POINTS; y++)
+                {
+                    for (int k = 0; k < GRID_POINTS; k++)
+                    {
+                        samples[i++] = (byte) (c * STEP);
+                        samples[i++] = (byte) (m * STEP);
+                        samples[i++] = (byte) (y * STEP);
+                        samples[i++] = (byte) (k * STEP);
+                    }
+                }
+            }
+        }
+
+        // convert the grid points like PDColorSpace.toRGBImageAWT() converts images
+        int size = GRID_POINTS * GRID_POINTS;
+        WritableRaster raster = Raster.createInterleavedRaster(DataBuffer.TYPE_BYTE, size, size, 4,
+                null);
+        raster.setDataElements(0, 0, size, size, samples);
+        ComponentColorModel colorModel = new ComponentColorModel(colorSpace, false, false,
+                Transparency.OPAQUE, DataBuffer.TYPE_BYTE);
+        BufferedImage src = new BufferedImage(colorModel, raster, false, null);
+        BufferedImage dest = new BufferedImage(size, size, BufferedImage.TYPE_INT_RGB);
+        new ColorConvertOp(null).filter(src, dest);
+
+        int[] rgb = ((DataBufferInt) dest.getRaster().getDataBuffer()).getData();
+        table = new int[NODES * 3];
+        for (int node = 0, t = 0; node < NODES; node++)
+        {
+            table[t++] = rgb[node] >> 16 & 0xff;
+            table[t++] = rgb[node] >> 8 & 0xff;
+            table[t++] = rgb[node] & 0xff;
+        }
+    }
+
+    /**
+     * Returns the lookup table for the profile of the given color space, creates it if necessary.
+     *
+     * @param colorSpace an ICC color space with a CMYK profile
+     * @return the lookup table
+     */
+    static CMYKLookupTable getInstance(ICC_ColorSpace colorSpace)
+    {
+        ProfileKey key = new ProfileKey(colorSpace.getProfile().getData());
+        synchronized (CACHE)
+        {
+            CMYKLookupTable lookupTable = CACHE.get(key);
+            if (lookupTable != null)
+            {
+                return lookupTable;
+            }
+        }
+        // created outside of the lock, creating a table twice is harmless
+        CMYKLookupTable lookupTable = new CMYKLookupTable(colorSpace);
+        synchronized (CACHE)
+        {
+            CACHE.put(key, lookupTable);
+        }
+        return lookupTable;
+    }
+
+    /**
+     * Converts a raster with 8 bit CMYK samples to an RGB image.
+     *
+     * @param raster the source raster, see {@link PDColorSpace#isByteRaster(Raster, int)}
+     * @return an RGB image
+     */
+    BufferedImage toRGBImage(Raster raster)
+    {
+        int width = raster.getWidth();
+        int height = raster.getHeight();
+        BufferedImage rgbImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        int[] rgbData = ((DataBufferInt) rgbImage.getRaster().getDataBuffer()).getData();
+        byte[] row = new byte[width * 4];
+        int lastCMYK = 0;
+        int lastRGB = interpolate(0, 0, 0, 0);
+        for (int y = 0, idx = 0; y < height; y++)
+        {
+            raster.getDataElements(raster.getMinX(), raster.getMinY() + y, width, 1, row);
+            for (int i = 0; i < row.length; i += 4)
+            {
+                int cmyk = (row[i] & 0xff) << 24 | (row[i + 1] & 0xff) << 16 |
+                        (row[i + 2] & 0xff) << 8 | row[i + 3] & 0xff;
+                // runs of the same color are common
+                if (cmyk != lastCMYK)
+                {
+                    lastCMYK = cmyk;
+                    lastRGB = interpolate(row[i] & 0xff, row[i + 1] & 0xff, row[i + 2] & 0xff,
+                            row[i + 3] & 0xff);
+                }
+                rgbData[idx++] = lastRGB;
+            }
+        }
+        return rgbImage;
+    }
+
+    private int interpolate(int c, int m, int y, int k)
+    {
+        int base = CELL[c] * C_STRIDE + CELL[m] * M_STRIDE + CELL[y] * Y_STRIDE +
+                CELL[k] * K_STRIDE;
+        int fc = FRACTION[c];
+        int fm = FRACTION[m];
+        int fy = FRACTION[y];
+
+        // the tetrahedron of the cell that contains the point is given by the order of the
+        // fractions, it is walked from the lower corner along the axis with the largest fraction
+        int f1;
+        int f2;
+        int f3;
+        int offset1;
+        int offset2;
+        if (fc >= fm)
+        {
+            if (fm >= fy)
+            {
+                f1 = fc;
+                f2 = fm;
+                f3 = fy;
+                offset1 = C_STRIDE;
+                offset2 = C_STRIDE + M_STRIDE;
+            }
+            else if (fc >= fy)
+            {
+                f1 = fc;
+                f2 = fy;
+                f3 = fm;
+                offset1 = C_STRIDE;
+                offset2 = C_STRIDE + Y_STRIDE;
+            }
+            else
+            {
+                f1 = fy;
+                f2 = fc;
+                f3 = fm;
+                offset1 = Y_STRIDE;
+                offset2 = Y_STRIDE + C_STRIDE;
+            }
+        }
+        else
+        {
+            if (fc >= fy)
+            {
+                f1 = fm;
+                f2 = fc;
+                f3 = fy;
+                offset1 = M_STRIDE;
+                offset2 = M_STRIDE + C_STRIDE;
+            }
+            else if (fm >= fy)
+            {
+                f1 = fm;
+                f2 = fy;
+                f3 = fc;
+                offset1 = M_STRIDE;
+                offset2 = M_STRIDE + Y_STRIDE;
+            }
+            else
+            {
+                f1 = fy;
+                f2 = fm;
+                f3 = fc;
+                offset1 = Y_STRIDE;
+                offset2 = Y_STRIDE + M_STRIDE;
+            }
+        }
+        int offset3 = C_STRIDE + M_STRIDE + Y_STRIDE;
+        int w0 = STEP - f1;
+        int w1 = f1 - f2;
+        int w2 = f2 - f3;
+        int w3 = f3;
+        int fk = FRACTION[k];
+        int k0 = STEP - fk;
+
+        int rgb = 0;
+        for (int channel = 0; channel < 3; channel++)
+        {
+            int p0 = base + channel;
+            int p1 = p0 + K_STRIDE;
+            int lower = w0 * table[p0] + w1 * table[p0 + offset1] + w2 * table[p0 + offset2] +
+                    w3 * table[p0 + offset3];
+            int upper = w0 * table[p1] + w1 * table[p1 + offset1] + w2 * table[p1 + offset2] +
+                    w3 * table[p1 + offset3];
+            int value = (k0 * lower + fk * upper + STEP * STEP / 2) / (STEP * STEP);
+            rgb = rgb << 8 | value;
+        }
+        return rgb;
+    }
+
+    private static final class ProfileKey
+    {
+        private final byte[] data;
+        private final int hash;
+
+        ProfileKey(byte[] data)
+        {
+            this.data = data;
+            this.hash = Arrays.hashCode(data);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            return obj instanceof ProfileKey && hash == ((ProfileKey) obj).hash &&
+                    Arrays.equals(data, ((ProfileKey) obj).data);
+        }
+    }
+}
@@ -0,0 +1,214 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.pdmodel.graphics.color;
+
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.pdfbox.cos.COSBase;
+
+/**
+ * Process-wide cache of color conversion lookup tables, e.g. the RGB values of all tints of a
+ * Separation color space. The tables are keyed by the identity of the COS objects they are
+ * computed from, i.e. the color space array, the tint transform and the alternate or base color
+ * space, so that color spaces which are created again for every page share their tables.
+ * <p>
+ * The COS objects are only weakly referenced, and the cache keeps the most recently used tables
+ * up to a fixed budget of estimated bytes. Tables which grow after they have been cached are
+ * counted with their maximum size, see {@link SizedTable}.
+ */
+final class ColorLookupCache
+{
+    private static final long MAX_SIZE = 32 << 20;
+
+    private static final Map<Key, Object> CACHE = new LinkedHashMap<>(64, 0.75f, true);
+    private static final Map<Key, Long> SIZES = new HashMap<>();
+    private static long size;
+
+    private ColorLookupCache()
+    {
+    }
+
+    /**
+     * Creates a lookup table.
+     *
+     * @param <T> the type of the table
+     */
+    @FunctionalInterface
+    interface TableFactory<T>
+    {
+        T create() throws IOException;
+    }
+
+    /**
+     * A table which knows its size, e.g. because it grows after it has been cached.
+     */
+    interface SizedTable
+    {
+        /**
+         * Returns the estimated maximum number of bytes used by the table.
+         *
+         * @return the size in bytes
+         */
+        long getEstimatedSize();
+    }
+
+    /**
+     * Returns the cached lookup table for the given COS objects, or creates and caches it.
+     *
+     * @param type the type of the table, tables of different types never share an entry
+     * @param factory creates the table if it isn't cached
+     * @param objects the COS objects the table is computed from, may contain null
+     * @return the lookup table
+     * @throws IOException if the table can't be created
+     */
+    static <T> T get(Class<T> type, TableFactory<T> factory, COSBase... objects) throws IOException
+    {
+        Key key = new Key(type, objects);
+        synchronized (CACHE)
+        {
+            Object table = CACHE.get(key);
+            if (table != null)
+            {
+                return type.cast(table);
+            }
+        }
+        // created outside of the lock, creating a table twice is harmless
+        T table = factory.create();
+        long tableSize = estimateSize(table);
+        if (tableSize > MAX_SIZE)
+        {
+            return table;
+        }
+        synchronized (CACHE)
+        {
+            if (CACHE.put(key, table) != null)
+            {
+                size -= SIZES.get(key);
+            }
+            SIZES.put(key, tableSize);
+            size += tableSize;
+
+            // the least recently used tables come first
+            Iterator<Key> iterator = CACHE.keySet().iterator();
+            while (size > MAX_SIZE && iterator.hasNext())
+            {
+                Key eldest = iterator.next();
+                iterator.remove();
+                size -= SIZES.remove(eldest);
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Returns the estimated number of bytes of a table.
+     *
+     * @param table an int[], an int[][] or a {@link SizedTable}
+     * @return the size in bytes
+     */
+    static long estimateSize(Object table)
+    {
+        if (table instanceof SizedTable)
+        {
+            return ((SizedTable) table).getEstimatedSize();
+        }
+        if (table instanceof int[])
+        {
+            return 16 + 4L * ((int[]) table).length;
+        }
+        if (table instanceof int[][])
+        {
+            int[][] rows = (int[][]) table;
+            long tableSize = 16 + 8L * rows.length;
+            for (int[] row : rows)
+            {
+                tableSize += estimateSize(row);
+            }
+            return tableSize;
+        }
+        throw new IllegalArgumentException("unsupported table " + table.getClass());
+    }
+
+    private static final class Key
+    {
+        private final Class<?> type;
+        private final WeakReference<?>[] objects;
+        private final int hash;
+
+        Key(Class<?> type, COSBase[] objects)
+        {
+            this.type = type;
+            this.objects = new WeakReference<?>[objects.length];
+            int[] hashes = new int[objects.length + 1];
+            hashes[0] = type.hashCode();
+            for (int i = 0; i < objects.length; i++)
+            {
+                this.objects[i] = objects[i] != null ? new WeakReference<>(objects[i]) : null;
+                hashes[i + 1] = System.identityHashCode(objects[i]);
+            }
+            this.hash = Arrays.hashCode(hashes);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (this == obj)
+            {
+                return true;
+            }
+            if (!(obj instanceof Key))
+            {
+                return false;
+            }
+            Key other = (Key) obj;
+            if (hash != other.hash || type != other.type || objects.length != other.objects.length)
+            {
+                return false;
+            }
+            for (int i = 0; i < objects.length; i++)
+            {
+                if (objects[i] == null || other.objects[i] == null)
+                {
+                    if (objects[i] != other.objects[i])
+                    {
+                        return false;
+                    }
+                    continue;
+                }
+                Object object = objects[i].get();
+                // entries whose objects have been collected are never found again
+                if (object == null || object != other.objects[i].get())
+                {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -21,6 +21,8 @@ import java.awt.Transparency;
 import java.awt.image.BufferedImage;
 import java.awt.image.ColorConvertOp;
 import java.awt.image.ComponentColorModel;
+import java.awt.image.DataBuffer;
+import java.awt.image.Raster;
 import java.awt.image.WritableRaster;
 import java.awt.color.ColorSpace;
 import java.awt.image.ColorModel;
@@ -323,6 +325,31 @@ public abstract class PDColorSpace implements COSObjectable
      */
     public abstract BufferedImage toRawImage(WritableRaster raster) throws IOException;
 
+    /**
+     * Tells whether the raster has the given number of bands with 8 bit samples stored in bytes,
+     * so that rows can be read in bulk with {@link Raster#getDataElements(int, int, int, int, Object)}.
+     *
+     * @param raster the raster
+     * @param numBands the expected number of bands
+     * @return true if the samples can be read as bytes
+     */
+    static boolean isByteRaster(Raster raster, int numBands)
+    {
+        if (raster.getTransferType() != DataBuffer.TYPE_BYTE || raster.getNumBands() != numBands
+                || raster.getNumDataElements() != numBands)
+        {
+            return false;
+        }
+        for (int sampleSize : raster.getSampleModel().getSampleSize())
+        {
+            if (sampleSize != 8)
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
     /**
      * Returns the given raster as BufferedImage with the given awtColorSpace using a
      * ComponentColorModel.
@@ -50,6 +50,8 @@ public class PDDeviceCMYK extends PDDeviceColorSpace
     private ICC_ColorSpace awtColorSpace;
     private volatile boolean initDone = false;
     private boolean usePureJavaCMYKConversion = false;
+    private boolean useCMYKLookupTable = false;
+    private volatile CMYKLookupTable lookupTable;
 
     protected PDDeviceCMYK()
     {
@@ -88,6 +90,8 @@ public class PDDeviceCMYK extends PDDeviceColorSpace
             awtColorSpace.toRGB(new float[] { 0, 0, 0, 0 });
             usePureJavaCMYKConversion = System
                     .getProperty("org.apache.pdfbox.rendering.UsePureJavaCMYKConversion") != null;
+            useCMYKLookupTable = System
+                    .getProperty("org.apache.pdfbox.rendering.UseCMYKLookupTable") != null;
 
             // Assignment to volatile must be the LAST statement in this block!
             initDone = true;
@@ -156,6 +160,16 @@ public class PDDeviceCMYK extends PDDeviceColorSpace
     public BufferedImage toRGBImage(WritableRaster raster) throws IOException
     {
         init();
+        if (useCMYKLookupTable && !usePureJavaCMYKConversion && isByteRaster(raster, 4))
+        {
+            CMYKLookupTable table = lookupTable;
+            if (table == null)
+            {
+                table = CMYKLookupTable.getInstance(awtColorSpace);
+                lookupTable = table;
+            }
+            return table.toRGBImage(raster);
+        }
         return toRGBImageAWT(raster, awtColorSpace);
     }
 
@@ -19,6 +19,7 @@ package org.apache.pdfbox.pdmodel.graphics.color;
 import org.apache.pdfbox.cos.COSName;
 
 import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
 import java.awt.image.WritableRaster;
 import java.io.IOException;
 
@@ -85,6 +86,23 @@ public final class PDDeviceGray extends PDDeviceColorSpace
 
         BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
 
+        if (isByteRaster(raster, 1))
+        {
+            // bulk conversion row by row, directly into the data buffer of the image
+            int[] rgbData = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+            byte[] row = new byte[width];
+            for (int y = 0, idx = 0; y < height; y++)
+            {
+                raster.getDataElements(0, y, width, 1, row);
+                for (int x = 0; x < width; x++)
+                {
+                    int gray = row[x] & 0xff;
+                    rgbData[idx++] = gray << 16 | gray << 8 | gray;
+                }
+            }
+            return image;
+        }
+
         int[] gray = new int[1];
         int[] rgb = new int[3];
         for (int y = 0; y < height; y++)
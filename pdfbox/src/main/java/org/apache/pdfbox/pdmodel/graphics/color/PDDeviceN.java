@@ -21,12 +21,14 @@ import java.awt.Graphics2D;
 import java.awt.Point;
 import java.awt.image.BufferedImage;
 import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferInt;
 import java.awt.image.Raster;
 import java.awt.image.WritableRaster;
 import java.io.IOException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.pdfbox.cos.COSArray;
 import org.apache.pdfbox.cos.COSBase;
@@ -285,6 +287,12 @@ public class PDDeviceN extends PDSpecialColorSpace
     //
     private BufferedImage toRGBWithTintTransform(WritableRaster raster) throws IOException
     {
+        int numColorants = getColorantNames().size();
+        if (numColorants <= 8 && isByteRaster(raster, numColorants))
+        {
+            return toRGBWithColorMemo(raster, numColorants);
+        }
+
         // cache color mappings
         Map<String, int[]> map1 = new HashMap<>();
         String key;
@@ -345,6 +353,54 @@ public class PDDeviceN extends PDSpecialColorSpace
         return rgbImage;
     }
 
+    // the samples of a pixel are packed into a long, the converted colors are shared by all images
+    // with this color space
+    private BufferedImage toRGBWithColorMemo(WritableRaster raster, int numSrcComponents)
+            throws IOException
+    {
+        ColorMemo memo = ColorLookupCache.get(ColorMemo.class, ColorMemo::new, array,
+                tintTransform.getCOSObject(), alternateColorSpace.getCOSObject());
+
+        int width = raster.getWidth();
+        int height = raster.getHeight();
+        BufferedImage rgbImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        int[] rgbData = ((DataBufferInt) rgbImage.getRaster().getDataBuffer()).getData();
+        byte[] row = new byte[width * numSrcComponents];
+        float[] src = new float[numSrcComponents];
+        for (int y = 0, idx = 0; y < height; y++)
+        {
+            raster.getDataElements(0, y, width, 1, row);
+            for (int i = 0; i < row.length; i += numSrcComponents)
+            {
+                long key = 0;
+                for (int s = 0; s < numSrcComponents; s++)
+                {
+                    key = key << 8 | row[i + s] & 0xff;
+                }
+                Integer rgb = memo.get(key);
+                if (rgb == null)
+                {
+                    // scale to 0..1
+                    for (int s = 0; s < numSrcComponents; s++)
+                    {
+                        src[s] = (row[i + s] & 0xff) / 255f;
+                    }
+
+                    // convert to alternate color space via tint transform and then to RGB
+                    float[] rgbFloat = alternateColorSpace.toRGB(tintTransform.eval(src));
+
+                    // scale to 0..255
+                    rgb = ((int) (rgbFloat[0] * 255f) & 0xff) << 16 |
+                            ((int) (rgbFloat[1] * 255f) & 0xff) << 8 |
+                            ((int) (rgbFloat[2] * 255f) & 0xff);
+                    memo.put(key, rgb);
+                }
+                rgbData[idx++] = rgb;
+            }
+        }
+        return rgbImage;
+    }
+
     @Override
     public float[] toRGB(float[] value) throws IOException
     {
@@ -603,4 +659,37 @@ public class PDDeviceN extends PDSpecialColorSpace
         sb.append('}');
         return sb.toString();
     }
+
+    /**
+     * The RGB values of the colors that have been converted with the tint transform. The number
+     * of colors is limited, further colors are converted every time.
+     */
+    private static final class ColorMemo implements ColorLookupCache.SizedTable
+    {
+        private static final int MAX_COLORS = 1 << 16;
+
+        // a map node, a Long, an Integer and a slot of the table
+        private static final int ESTIMATED_ENTRY_SIZE = 80;
+
+        private final Map<Long, Integer> colors = new ConcurrentHashMap<>();
+
+        Integer get(long key)
+        {
+            return colors.get(key);
+        }
+
+        void put(long key, int rgb)
+        {
+            if (colors.size() < MAX_COLORS)
+            {
+                colors.put(key, rgb);
+            }
+        }
+
+        @Override
+        public long getEstimatedSize()
+        {
+            return (long) MAX_COLORS * ESTIMATED_ENTRY_SIZE;
+        }
+    }
 }
@@ -17,6 +17,7 @@
 package org.apache.pdfbox.pdmodel.graphics.color;
 
 import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
 import java.awt.image.WritableRaster;
 import java.io.IOException;
 
@@ -82,7 +83,24 @@ public final class PDDeviceRGB extends PDDeviceColorSpace
         // Please read PDFBOX-3854 and PDFBOX-2092 and look at the related commits first.
         // The current code returns TYPE_INT_RGB images which prevents slowness due to threads
         // blocking each other when TYPE_CUSTOM images are used.
-        BufferedImage image = new BufferedImage(raster.getWidth(), raster.getHeight(), BufferedImage.TYPE_INT_RGB);
+        int width = raster.getWidth();
+        int height = raster.getHeight();
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        if (isByteRaster(raster, 3))
+        {
+            // bulk conversion row by row, directly into the data buffer of the image
+            int[] rgbData = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+            byte[] row = new byte[width * 3];
+            for (int y = 0, idx = 0; y < height; y++)
+            {
+                raster.getDataElements(0, y, width, 1, row);
+                for (int i = 0; i < row.length; i += 3)
+                {
+                    rgbData[idx++] = (row[i] & 0xff) << 16 | (row[i + 1] & 0xff) << 8 | row[i + 2] & 0xff;
+                }
+            }
+            return image;
+        }
         image.setData(raster);
         return image;
     }
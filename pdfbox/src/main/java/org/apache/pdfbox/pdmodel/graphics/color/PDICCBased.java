@@ -67,6 +67,9 @@ public final class PDICCBased extends PDCIEBasedColorSpace
     // reasons with LittleCMS (LCMS), see PDFBOX-4309
     // WARNING: do not activate this in a conforming reader
     private boolean useOnlyAlternateColorSpace = false;
+    // converts CMYK images with a lookup table instead of the CMM, see CMYKLookupTable
+    private boolean useCMYKLookupTable = false;
+    private volatile CMYKLookupTable lookupTable;
     private static final boolean IS_KCMS;
 
     static
@@ -112,6 +115,8 @@ public final class PDICCBased extends PDCIEBasedColorSpace
     {
         useOnlyAlternateColorSpace = System
                 .getProperty("org.apache.pdfbox.rendering.UseAlternateInsteadOfICCColorSpace") != null;
+        useCMYKLookupTable = System
+                .getProperty("org.apache.pdfbox.rendering.UseCMYKLookupTable") != null;
         array = iccArray;
         stream = new PDStream((COSStream) iccArray.getObject(1));
         loadICCProfile();
@@ -339,6 +344,17 @@ public final class PDICCBased extends PDCIEBasedColorSpace
     {
         if (awtColorSpace != null)
         {
+            if (useCMYKLookupTable && awtColorSpace.getType() == ColorSpace.TYPE_CMYK &&
+                    isByteRaster(raster, 4))
+            {
+                CMYKLookupTable table = lookupTable;
+                if (table == null)
+                {
+                    table = CMYKLookupTable.getInstance(awtColorSpace);
+                    lookupTable = table;
+                }
+                return table.toRGBImage(raster);
+            }
             return toRGBImageAWT(raster, awtColorSpace);
         }
         else
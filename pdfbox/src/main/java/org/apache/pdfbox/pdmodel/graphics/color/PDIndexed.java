@@ -20,6 +20,7 @@ import java.awt.Point;
 import java.awt.image.BufferedImage;
 import java.awt.image.ColorModel;
 import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferInt;
 import java.awt.image.IndexColorModel;
 import java.awt.image.Raster;
 import java.awt.image.WritableRaster;
@@ -53,6 +54,8 @@ public final class PDIndexed extends PDSpecialColorSpace
     private float[][] colorTable;
     private int actualMaxIndex;
     private int[][] rgbColorTable;
+    // packed RGB values for all byte values, indexes above hival use the last entry
+    private int[] packedRgbColorTable;
 
     /**
      * Creates a new Indexed color space.
@@ -119,10 +122,25 @@ public final class PDIndexed extends PDSpecialColorSpace
         return initialColor;
     }
 
+    private void initRgbColorTable() throws IOException
+    {
+        // the conversion of the color table is shared by all instances with the same base color
+        // space and lookup data, e.g. when the color space is created again for every page
+        rgbColorTable = ColorLookupCache.get(int[][].class, this::createRgbColorTable, array,
+                baseColorSpace.getCOSObject(), array.getObject(3), COSInteger.get(actualMaxIndex));
+
+        packedRgbColorTable = new int[256];
+        for (int i = 0; i < packedRgbColorTable.length; i++)
+        {
+            int[] rgb = rgbColorTable[Math.min(i, actualMaxIndex)];
+            packedRgbColorTable[i] = rgb[0] << 16 | rgb[1] << 8 | rgb[2];
+        }
+    }
+
     //
     // WARNING: this method is performance sensitive, modify with care!
     //
-    private void initRgbColorTable() throws IOException
+    private int[][] createRgbColorTable() throws IOException
     {
         int numBaseComponents = baseColorSpace.getNumberOfComponents();
 
@@ -155,13 +173,14 @@ public final class PDIndexed extends PDSpecialColorSpace
         WritableRaster rgbRaster = rgbImage.getRaster();
 
         // build an RGB lookup table from the raster
-        rgbColorTable = new int[actualMaxIndex + 1][3];
+        int[][] table = new int[actualMaxIndex + 1][3];
         int[] nil = null;
 
         for (int i = 0, n = actualMaxIndex; i <= n; i++)
         {
-            rgbColorTable[i] = rgbRaster.getPixel(i, 0, nil);
+            table[i] = rgbRaster.getPixel(i, 0, nil);
         }
+        return table;
     }
 
     //
@@ -198,6 +217,22 @@ public final class PDIndexed extends PDSpecialColorSpace
         BufferedImage rgbImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
         WritableRaster rgbRaster = rgbImage.getRaster();
 
+        if (isByteRaster(raster, 1))
+        {
+            // bulk conversion row by row, directly into the data buffer of the image
+            int[] rgbData = ((DataBufferInt) rgbRaster.getDataBuffer()).getData();
+            byte[] row = new byte[width];
+            for (int y = 0, idx = 0; y < height; y++)
+            {
+                raster.getDataElements(0, y, width, 1, row);
+                for (int x = 0; x < width; x++)
+                {
+                    rgbData[idx++] = packedRgbColorTable[row[x] & 0xff];
+                }
+            }
+            return rgbImage;
+        }
+
         int[] src = new int[1];
         for (int y = 0; y < height; y++)
         {
@@ -20,6 +20,7 @@ import java.awt.Point;
 import java.awt.color.ColorSpace;
 import java.awt.image.BufferedImage;
 import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferInt;
 import java.awt.image.Raster;
 import java.awt.image.WritableRaster;
 import java.io.IOException;
@@ -144,6 +145,11 @@ public class PDSeparation extends PDSpecialColorSpace
     @Override
     public BufferedImage toRGBImage(WritableRaster raster) throws IOException
     {
+        if (isByteRaster(raster, 1))
+        {
+            return toRGBImageWithTable(raster);
+        }
+
         if (alternateColorSpace instanceof PDLab)
         {
             // PDFBOX-3622 - regular converter fails for Lab colorspaces
@@ -219,6 +225,67 @@ public class PDSeparation extends PDSpecialColorSpace
         return rgbImage;
     }
 
+    // one table lookup per sample, the table is shared by all images with this color space
+    private BufferedImage toRGBImageWithTable(WritableRaster raster) throws IOException
+    {
+        int[] rgbTable = ColorLookupCache.get(int[].class, this::createRGBTable, array,
+                tintTransform.getCOSObject(), alternateColorSpace.getCOSObject());
+
+        int width = raster.getWidth();
+        int height = raster.getHeight();
+        BufferedImage rgbImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        int[] rgbData = ((DataBufferInt) rgbImage.getRaster().getDataBuffer()).getData();
+        byte[] row = new byte[width];
+        for (int y = 0, idx = 0; y < height; y++)
+        {
+            raster.getDataElements(0, y, width, 1, row);
+            for (int x = 0; x < width; x++)
+            {
+                rgbData[idx++] = rgbTable[row[x] & 0xff];
+            }
+        }
+        return rgbImage;
+    }
+
+    // the RGB values of all 256 tints, converted like toRGBImage() and toRGBImage2() convert the
+    // samples of an image
+    private int[] createRGBTable() throws IOException
+    {
+        int[] rgbTable = new int[256];
+        float[] samples = new float[1];
+        if (alternateColorSpace instanceof PDLab)
+        {
+            for (int i = 0; i < rgbTable.length; i++)
+            {
+                samples[0] = i / 255f;
+                float[] altColor = tintTransform.eval(samples);
+                float[] fltab = alternateColorSpace.toRGB(altColor);
+                rgbTable[i] = ((int) (fltab[0] * 255) & 0xff) << 16 |
+                        ((int) (fltab[1] * 255) & 0xff) << 8 |
+                        ((int) (fltab[2] * 255) & 0xff);
+            }
+            return rgbTable;
+        }
+
+        // a square raster, because AWT converts images with a single row differently
+        int numAltComponents = alternateColorSpace.getNumberOfComponents();
+        WritableRaster altRaster = Raster.createBandedRaster(DataBuffer.TYPE_BYTE, 16, 16,
+                numAltComponents, new Point(0, 0));
+        int[] alt = new int[numAltComponents];
+        for (int i = 0; i < rgbTable.length; i++)
+        {
+            samples[0] = i;
+            tintTransform(samples, alt);
+            altRaster.setPixel(i % 16, i / 16, alt);
+        }
+        BufferedImage rgbImage = alternateColorSpace.toRGBImage(altRaster);
+        for (int i = 0; i < rgbTable.length; i++)
+        {
+            rgbTable[i] = rgbImage.getRGB(i % 16, i / 16) & 0xffffff;
+        }
+        return rgbTable;
+    }
+
     protected void tintTransform(float[] samples, int[] alt) throws IOException
     {
         samples[0] /= 255; // 0..1
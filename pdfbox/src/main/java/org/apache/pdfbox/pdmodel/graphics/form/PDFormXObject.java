@@ -25,6 +25,7 @@ import org.apache.pdfbox.cos.COSDictionary;
 import org.apache.pdfbox.cos.COSFloat;
 import org.apache.pdfbox.cos.COSName;
 import org.apache.pdfbox.cos.COSStream;
+import org.apache.pdfbox.io.NonSeekableRandomAccessReadInputStream;
 import org.apache.pdfbox.io.RandomAccessInputStream;
 import org.apache.pdfbox.io.RandomAccessRead;
 import org.apache.pdfbox.pdmodel.PDDocument;
@@ -154,6 +155,14 @@ public class PDFormXObject extends PDXObject implements PDContentStream
     {
         return getCOSObject().createView();
     }
+
+    @Override
+    public RandomAccessRead getContentsForStreamParsing() throws IOException
+    {
+        return new NonSeekableRandomAccessReadInputStream(
+                getCOSObject().createDecodingInputStream());
+    }
+
     /**
      * This will get the resources for this Form XObject.
      * This will return null if no resources are available.
@@ -0,0 +1,63 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.pdmodel.graphics.image;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+
+import org.apache.pdfbox.cos.COSStream;
+
+/**
+ * A cache of decoded images, i.e. the results of {@link PDImageXObject#getImage(Rectangle, int)}.
+ * The images are keyed by the identity of their stream, so that they are found again when the
+ * image XObject is created again, e.g. for every page that uses the same logo. The cache is
+ * provided by the {@link org.apache.pdfbox.pdmodel.ResourceCache ResourceCache} of a document and
+ * the same instance may be used for several documents.
+ * <p>
+ * Implementations must be thread safe. The cached images are returned to the callers as is, they
+ * must not be modified.
+ */
+public interface DecodedImageCache
+{
+    /**
+     * Returns the cached image for the given stream, region and subsampling.
+     *
+     * @param stream the image stream
+     * @param region the region of the image, or null for the entire image
+     * @param subsampling the subsampling of the image
+     * @return the cached image, or null if the image isn't cached
+     */
+    BufferedImage getImage(COSStream stream, Rectangle region, int subsampling);
+
+    /**
+     * Puts a decoded image in the cache. The cache may decide not to keep it, e.g. if the image is
+     * too large.
+     *
+     * @param stream the image stream
+     * @param region the region of the image, or null for the entire image
+     * @param subsampling the subsampling of the image
+     * @param image the decoded image
+     */
+    void put(COSStream stream, Rectangle region, int subsampling, BufferedImage image);
+
+    /**
+     * Removes all images of the given stream, e.g. because its color space has been changed.
+     *
+     * @param stream the image stream
+     */
+    void remove(COSStream stream);
+}
@@ -0,0 +1,301 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.pdmodel.graphics.image;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.pdfbox.cos.COSStream;
+
+/**
+ * A decoded image cache with a fixed budget of bytes. When the budget is exceeded, the least
+ * recently used images are evicted; images larger than the budget aren't cached at all. The
+ * streams are only weakly referenced, the images of streams that have been garbage collected are
+ * removed.
+ * <p>
+ * {@link org.apache.pdfbox.pdmodel.DefaultResourceCache} uses a single instance for all
+ * documents, see {@link #getSharedInstance()}, so that the memory used by decoded images is
+ * limited for the whole process and not per document.
+ */
+public class DefaultDecodedImageCache implements DecodedImageCache
+{
+    private static final Log LOG = LogFactory.getLog(DefaultDecodedImageCache.class);
+
+    /**
+     * The budget in bytes of the shared instance, which can be set with the system property
+     * "pdfbox.decodedimagecache.size", 0 disables the shared instance.
+     */
+    private static final long SHARED_MAXIMUM_SIZE;
+    private static final String DEFAULT_SHARED_SIZE = "67108864";
+
+    static
+    {
+        String s = System.getProperty("pdfbox.decodedimagecache.size", DEFAULT_SHARED_SIZE);
+        long val;
+        try
+        {
+            val = Long.parseLong(s);
+        }
+        catch (NumberFormatException ex)
+        {
+            LOG.error("Default will be used", ex);
+            val = Long.parseLong(DEFAULT_SHARED_SIZE);
+        }
+        SHARED_MAXIMUM_SIZE = val;
+    }
+
+    private static final DefaultDecodedImageCache SHARED_INSTANCE =
+            SHARED_MAXIMUM_SIZE > 0 ? new DefaultDecodedImageCache(SHARED_MAXIMUM_SIZE) : null;
+
+    private final long maximumSize;
+    private final Map<Key, BufferedImage> images = new LinkedHashMap<>(16, 0.75f, true);
+    private final ReferenceQueue<COSStream> collectedStreams = new ReferenceQueue<>();
+    private long size;
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+
+    /**
+     * Creates a cache with the given budget.
+     *
+     * @param maximumSize the maximum number of bytes of the image data in the cache
+     */
+    public DefaultDecodedImageCache(long maximumSize)
+    {
+        this.maximumSize = maximumSize;
+    }
+
+    /**
+     * Returns the cache which is shared by all documents using
+     * {@link org.apache.pdfbox.pdmodel.DefaultResourceCache}.
+     *
+     * @return the shared cache, or null if it has been disabled with the system property
+     * "pdfbox.decodedimagecache.size"
+     */
+    public static DefaultDecodedImageCache getSharedInstance()
+    {
+        return SHARED_INSTANCE;
+    }
+
+    @Override
+    public synchronized BufferedImage getImage(COSStream stream, Rectangle region, int subsampling)
+    {
+        BufferedImage image = images.get(new Key(stream, region, subsampling, null));
+        if (image != null)
+        {
+            hitCount++;
+        }
+        else
+        {
+            missCount++;
+        }
+        return image;
+    }
+
+    @Override
+    public synchronized void put(COSStream stream, Rectangle region, int subsampling,
+            BufferedImage image)
+    {
+        long imageSize = getImageSize(image);
+        if (imageSize > maximumSize)
+        {
+            return;
+        }
+        removeCollected();
+        BufferedImage previous = images.put(
+                new Key(stream, region, subsampling, collectedStreams), image);
+        if (previous != null)
+        {
+            size -= getImageSize(previous);
+        }
+        size += imageSize;
+
+        // the least recently used images come first
+        Iterator<BufferedImage> iterator = images.values().iterator();
+        while (size > maximumSize && iterator.hasNext())
+        {
+            BufferedImage eldest = iterator.next();
+            iterator.remove();
+            size -= getImageSize(eldest);
+            evictionCount++;
+        }
+    }
+
+    @Override
+    public synchronized void remove(COSStream stream)
+    {
+        Iterator<Map.Entry<Key, BufferedImage>> iterator = images.entrySet().iterator();
+        while (iterator.hasNext())
+        {
+            Map.Entry<Key, BufferedImage> entry = iterator.next();
+            if (entry.getKey().stream.get() == stream)
+            {
+                iterator.remove();
+                size -= getImageSize(entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * Removes all images.
+     */
+    public synchronized void clear()
+    {
+        images.clear();
+        size = 0;
+    }
+
+    /**
+     * Returns the budget of this cache.
+     *
+     * @return the maximum number of bytes of the image data in the cache
+     */
+    public long getMaximumSize()
+    {
+        return maximumSize;
+    }
+
+    /**
+     * Returns the number of bytes of the image data in the cache.
+     *
+     * @return the size of the cached images in bytes
+     */
+    public synchronized long getSize()
+    {
+        return size;
+    }
+
+    /**
+     * Returns the number of images in the cache.
+     *
+     * @return the number of cached images
+     */
+    public synchronized int getImageCount()
+    {
+        return images.size();
+    }
+
+    /**
+     * Returns the number of requests which found a cached image.
+     *
+     * @return the number of cache hits
+     */
+    public synchronized long getHitCount()
+    {
+        return hitCount;
+    }
+
+    /**
+     * Returns the number of requests which didn't find a cached image.
+     *
+     * @return the number of cache misses
+     */
+    public synchronized long getMissCount()
+    {
+        return missCount;
+    }
+
+    /**
+     * Returns the number of images which have been removed to stay within the budget.
+     *
+     * @return the number of evicted images
+     */
+    public synchronized long getEvictionCount()
+    {
+        return evictionCount;
+    }
+
+    private void removeCollected()
+    {
+        if (collectedStreams.poll() == null)
+        {
+            return;
+        }
+        while (collectedStreams.poll() != null)
+        {
+            // all collected streams are found below
+        }
+        Iterator<Map.Entry<Key, BufferedImage>> iterator = images.entrySet().iterator();
+        while (iterator.hasNext())
+        {
+            Map.Entry<Key, BufferedImage> entry = iterator.next();
+            if (entry.getKey().stream.get() == null)
+            {
+                iterator.remove();
+                size -= getImageSize(entry.getValue());
+            }
+        }
+    }
+
+    // the size of the image data, the size of the objects around it is negligible
+    private static long getImageSize(BufferedImage image)
+    {
+        DataBuffer dataBuffer = image.getRaster().getDataBuffer();
+        return (long) dataBuffer.getSize() * dataBuffer.getNumBanks() *
+                DataBuffer.getDataTypeSize(dataBuffer.getDataType()) / 8;
+    }
+
+    private static final class Key
+    {
+        private final WeakReference<COSStream> stream;
+        private final Rectangle region;
+        private final int subsampling;
+        private final int hash;
+
+        Key(COSStream stream, Rectangle region, int subsampling, ReferenceQueue<COSStream> queue)
+        {
+            this.stream = new WeakReference<>(stream, queue);
+            this.region = region != null ? new Rectangle(region) : null;
+            this.subsampling = subsampling;
+            this.hash = (System.identityHashCode(stream) * 31 + Objects.hashCode(region)) * 31 +
+                    subsampling;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (this == obj)
+            {
+                return true;
+            }
+            if (!(obj instanceof Key))
+            {
+                return false;
+            }
+            Key other = (Key) obj;
+            COSStream referent = stream.get();
+            // entries whose streams have been collected are never found again
+            return hash == other.hash && subsampling == other.subsampling && referent != null &&
+                    referent == other.stream.get() && Objects.equals(region, other.region);
+        }
+    }
+}
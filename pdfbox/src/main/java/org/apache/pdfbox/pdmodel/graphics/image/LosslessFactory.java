@@ -26,7 +26,15 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.zip.Adler32;
 import java.util.zip.Deflater;
 import java.util.zip.DeflaterOutputStream;
 import javax.imageio.stream.MemoryCacheImageOutputStream;
@@ -78,6 +86,25 @@ public final class LosslessFactory
      */
     public static PDImageXObject createFromImage(PDDocument document, BufferedImage image)
             throws IOException
+    {
+        return createFromImage(document, image, null);
+    }
+
+    /**
+     * Creates a new lossless encoded image XObject from a BufferedImage. Large images are split
+     * into bands of about 1 MB of filtered data, which are compressed concurrently by the given
+     * executor. The bands don't depend on the executor, so the result is always the same.
+     *
+     * @param document the document where the image will be created
+     * @param image the BufferedImage to embed
+     * @param executor the executor compressing the bands of large images, or null to compress
+     * the image as a whole on the current thread
+     * @return a new image XObject
+     * @throws IOException if something goes wrong, also if the executor rejects a band or if the
+     * compression of a band fails
+     */
+    public static PDImageXObject createFromImage(PDDocument document, BufferedImage image,
+            Executor executor) throws IOException
     {
         if (isGrayImage(image))
         {
@@ -87,7 +114,7 @@ public final class LosslessFactory
         // We try to encode the image with predictor
         if (USE_PREDICTOR_ENCODER)
         {
-            PDImageXObject pdImageXObject = new PredictorEncoder(document, image).encode();
+            PDImageXObject pdImageXObject = new PredictorEncoder(document, image, executor).encode();
             if (pdImageXObject != null)
             {
                 if (pdImageXObject.getColorSpace() == PDDeviceRGB.INSTANCE &&
@@ -257,8 +284,22 @@ public final class LosslessFactory
 
     private static class PredictorEncoder
     {
+        /**
+         * Minimum amount of filtered image data in a band that is compressed on its own by the
+         * parallel encoder.
+         */
+        private static final int BAND_SIZE = 1 << 20;
+
+        /**
+         * Size of the deflate window. The end of the previous band is used as preset dictionary,
+         * so that the compression ratio stays close to the one of a single deflate stream.
+         */
+        private static final int DICTIONARY_SIZE = 32768;
+
         private final PDDocument document;
         private final BufferedImage image;
+        private final Executor executor;
+        private final Raster imageRaster;
         private final int componentsPerPixel;
         private final int transferType;
         private final int bytesPerComponent;
@@ -266,30 +307,25 @@ public final class LosslessFactory
 
         private final int height;
         private final int width;
-
-        private final byte[] dataRawRowNone;
-        private final byte[] dataRawRowSub;
-        private final byte[] dataRawRowUp;
-        private final byte[] dataRawRowAverage;
-        private final byte[] dataRawRowPaeth;
+        private final int dataRowByteCount;
 
         final int imageType;
         final boolean hasAlpha;
         final byte[] alphaImageData;
 
-        final byte[] aValues;
-        final byte[] cValues;
-        final byte[] bValues;
-        final byte[] xValues;
-        final byte[] tmpResultValues;
+        // the type and size of the rows read from the raster, set in encode()
+        private int rowDataType;
+        private int elementsInRowPerPixel;
 
         /**
          * Initialize the encoder and set all final fields
          */
-        PredictorEncoder(PDDocument document, BufferedImage image)
+        PredictorEncoder(PDDocument document, BufferedImage image, Executor executor)
         {
             this.document = document;
             this.image = image;
+            this.executor = executor;
+            this.imageRaster = image.getRaster();
 
             // The raw count of components per pixel including optional alpha
             this.componentsPerPixel = image.getColorModel().getNumComponents();
@@ -308,30 +344,7 @@ public final class LosslessFactory
             this.alphaImageData = hasAlpha ? new byte[width * height * bytesPerComponent] : null;
 
             // The rows have 1-byte encoding marker and width * BYTES_PER_PIXEL pixel-bytes
-            int dataRowByteCount = width * bytesPerPixel + 1;
-            this.dataRawRowNone = new byte[dataRowByteCount];
-            this.dataRawRowSub = new byte[dataRowByteCount];
-            this.dataRawRowUp = new byte[dataRowByteCount];
-            this.dataRawRowAverage = new byte[dataRowByteCount];
-            this.dataRawRowPaeth = new byte[dataRowByteCount];
-
-            // Write the encoding markers
-            dataRawRowNone[0] = 0;
-            dataRawRowSub[0] = 1;
-            dataRawRowUp[0] = 2;
-            dataRawRowAverage[0] = 3;
-            dataRawRowPaeth[0] = 4;
-
-            // c | b
-            // -----
-            // a | x
-            //
-            // x => current pixel
-            this.aValues = new byte[bytesPerPixel];
-            this.cValues = new byte[bytesPerPixel];
-            this.bValues = new byte[bytesPerPixel];
-            this.xValues = new byte[bytesPerPixel];
-            this.tmpResultValues = new byte[bytesPerPixel];
+            this.dataRowByteCount = width * bytesPerPixel + 1;
         }
 
         /**
@@ -342,28 +355,15 @@ public final class LosslessFactory
          */
         PDImageXObject encode() throws IOException
         {
-            Raster imageRaster = image.getRaster();
-            final int elementsInRowPerPixel;
-
-            // These variables store a row of the image each, the exact type depends
-            // on the image encoding. Can be a int[], short[] or byte[]
-            Object prevRow;
-            Object transferRow;
-
             switch (imageType)
             {
                 case BufferedImage.TYPE_CUSTOM:
                     switch (imageRaster.getTransferType())
                     {
                         case DataBuffer.TYPE_USHORT:
-                            elementsInRowPerPixel = componentsPerPixel;
-                            prevRow = new short[width * elementsInRowPerPixel];
-                            transferRow = new short[width * elementsInRowPerPixel];
-                            break;
                         case DataBuffer.TYPE_BYTE:
+                            rowDataType = imageRaster.getTransferType();
                             elementsInRowPerPixel = componentsPerPixel;
-                            prevRow = new byte[width * elementsInRowPerPixel];
-                            transferRow = new byte[width * elementsInRowPerPixel];
                             break;
                         default:
                             return null;
@@ -372,17 +372,15 @@ public final class LosslessFactory
 
                 case BufferedImage.TYPE_3BYTE_BGR:
                 case BufferedImage.TYPE_4BYTE_ABGR:
+                    rowDataType = DataBuffer.TYPE_BYTE;
                     elementsInRowPerPixel = componentsPerPixel;
-                    prevRow = new byte[width * elementsInRowPerPixel];
-                    transferRow = new byte[width * elementsInRowPerPixel];
                     break;
 
                 case BufferedImage.TYPE_INT_BGR:
                 case BufferedImage.TYPE_INT_ARGB:
                 case BufferedImage.TYPE_INT_RGB:
+                    rowDataType = DataBuffer.TYPE_INT;
                     elementsInRowPerPixel = 1;
-                    prevRow = new int[width * elementsInRowPerPixel];
-                    transferRow = new int[width * elementsInRowPerPixel];
                     break;
 
                 default:
@@ -390,113 +388,246 @@ public final class LosslessFactory
                     return null;
             }
 
-            final int elementsInTransferRow = width * elementsInRowPerPixel;
+            int rowsPerBand = Math.max(1, BAND_SIZE / dataRowByteCount);
+            int bandCount = (height + rowsPerBand - 1) / rowsPerBand;
+            // the bands don't depend on the number of processors, so the result is always the same
+            ByteArrayOutputStream stream;
+            if (executor != null && bandCount > 1)
+            {
+                stream = encodeParallel(rowsPerBand, bandCount);
+            }
+            else
+            {
+                stream = encodeSequential();
+            }
+            return preparePredictorPDImage(stream, bytesPerComponent * 8);
+        }
 
+        /**
+         * Filters and compresses all rows into a single deflate stream on the current thread.
+         */
+        private ByteArrayOutputStream encodeSequential() throws IOException
+        {
             // pre-size the output stream to half of the maximum size
             ByteArrayOutputStream stream = new ByteArrayOutputStream(
                     height * width * bytesPerPixel / 2);
             Deflater deflater = new Deflater(Filter.getCompressionLevel());
             DeflaterOutputStream zip = new DeflaterOutputStream(stream, deflater);
 
-            int alphaPtr = 0;
-
+            RowFilter rowFilter = new RowFilter(0);
             for (int rowNum = 0; rowNum < height; rowNum++)
             {
-                imageRaster.getDataElements(0, rowNum, width, 1, transferRow);
-
-                // We start to write at index one, as the predictor marker is in index zero
-                int writerPtr = 1;
-                Arrays.fill(aValues, (byte) 0);
-                Arrays.fill(cValues, (byte) 0);
+                byte[] rowToWrite = rowFilter.filterNextRow(alphaImageData);
 
-                final byte[] transferRowByte;
-                final byte[] prevRowByte;
-                final int[] transferRowInt;
-                final int[] prevRowInt;
-                final short[] transferRowShort;
-                final short[] prevRowShort;
+                // Write and compress the row as long it is hot (CPU cache wise)
+                zip.write(rowToWrite, 0, rowToWrite.length);
+            }
+            zip.close();
+            deflater.end();
+            return stream;
+        }
 
-                if (transferRow instanceof byte[])
+        /**
+         * Filters and compresses bands of rows concurrently with the executor, the way pigz does
+         * it. Every band is compressed into raw deflate blocks that end on a byte boundary, so that
+         * the bands can be concatenated. The result is a single zlib stream with the checksum of
+         * all bands.
+         */
+        private ByteArrayOutputStream encodeParallel(int rowsPerBand, int bandCount)
+                throws IOException
+        {
+            CompressedBand[] bands = new CompressedBand[bandCount];
+            try
+            {
+                List<CompletableFuture<CompressedBand>> futures = new ArrayList<>(bandCount);
+                for (int band = 0; band < bandCount; band++)
                 {
-                    transferRowByte = (byte[]) transferRow;
-                    prevRowByte = (byte[]) prevRow;
-                    transferRowInt = prevRowInt = null;
-                    transferRowShort = prevRowShort = null;
+                    int firstRow = band * rowsPerBand;
+                    int endRow = Math.min(height, firstRow + rowsPerBand);
+                    boolean lastBand = band == bandCount - 1;
+                    futures.add(CompletableFuture.supplyAsync(
+                            () -> compressBand(firstRow, endRow, lastBand), executor));
                 }
-                else if (transferRow instanceof int[])
+                for (int band = 0; band < bandCount; band++)
                 {
-                    transferRowInt = (int[]) transferRow;
-                    prevRowInt = (int[]) prevRow;
-                    transferRowShort = prevRowShort = null;
-                    transferRowByte = prevRowByte = null;
+                    bands[band] = futures.get(band).join();
                 }
-                else
+            }
+            catch (CompletionException | CancellationException | RejectedExecutionException ex)
+            {
+                Throwable cause = ex instanceof CompletionException && ex.getCause() != null ?
+                        ex.getCause() : ex;
+                if (cause instanceof IOException)
                 {
-                    // This must be short[]
-                    transferRowShort = (short[]) transferRow;
-                    prevRowShort = (short[]) prevRow;
-                    transferRowInt = prevRowInt = null;
-                    transferRowByte = prevRowByte = null;
+                    throw (IOException) cause;
+                }
+                if (cause instanceof Error)
+                {
+                    throw (Error) cause;
                 }
+                throw new IOException("The image couldn't be compressed: " + cause.getMessage(),
+                        cause);
+            }
 
-                for (int indexInTransferRow = 0; indexInTransferRow < elementsInTransferRow;
-                        indexInTransferRow += elementsInRowPerPixel, alphaPtr += bytesPerComponent)
+            int compressedLength = 6;
+            for (CompressedBand band : bands)
+            {
+                compressedLength += band.data.length;
+            }
+            ByteArrayOutputStream stream = new ByteArrayOutputStream(compressedLength);
+            int compressionLevel = Filter.getCompressionLevel();
+            int levelFlags;
+            if (compressionLevel == Deflater.DEFAULT_COMPRESSION || compressionLevel == 6)
+            {
+                levelFlags = 2;
+            }
+            else if (compressionLevel < 2)
+            {
+                levelFlags = 0;
+            }
+            else
+            {
+                levelFlags = compressionLevel < 6 ? 1 : 3;
+            }
+            // zlib header: deflate with 32K window, no preset dictionary
+            int header = (0x78 << 8) | (levelFlags << 6);
+            header += 31 - header % 31;
+            stream.write(header >> 8);
+            stream.write(header & 0xff);
+
+            long adler = 1;
+            for (CompressedBand band : bands)
+            {
+                stream.write(band.data, 0, band.data.length);
+                adler = combineAdler32(adler, band.adler, band.length);
+            }
+            stream.write((int) (adler >> 24) & 0xff);
+            stream.write((int) (adler >> 16) & 0xff);
+            stream.write((int) (adler >> 8) & 0xff);
+            stream.write((int) adler & 0xff);
+            return stream;
+        }
+
+        private CompressedBand compressBand(int firstRow, int endRow, boolean lastBand)
+        {
+            Deflater deflater = new Deflater(Filter.getCompressionLevel(), true);
+            Adler32 checksum = new Adler32();
+            ByteArrayOutputStream stream = new ByteArrayOutputStream(
+                    (endRow - firstRow) * dataRowByteCount / 2);
+            byte[] buffer = new byte[8192];
+            try
+            {
+                RowFilter rowFilter;
+                if (firstRow > 0)
                 {
-                    // Copy the pixel values into the byte array
-                    if (transferRowByte != null)
+                    // filter the end of the previous band once more to get the preset dictionary
+                    int dictionaryRows = Math.min(firstRow,
+                            (DICTIONARY_SIZE + dataRowByteCount - 1) / dataRowByteCount);
+                    byte[] dictionary = new byte[dictionaryRows * dataRowByteCount];
+                    rowFilter = new RowFilter(firstRow - dictionaryRows);
+                    for (int i = 0; i < dictionaryRows; i++)
                     {
-                        copyImageBytes(transferRowByte, indexInTransferRow, xValues, alphaImageData,
-                                alphaPtr);
-                        copyImageBytes(prevRowByte, indexInTransferRow, bValues, null, 0);
+                        System.arraycopy(rowFilter.filterNextRow(null), 0, dictionary,
+                                i * dataRowByteCount, dataRowByteCount);
                     }
-                    else if (transferRowInt != null)
+                    int offset = Math.max(0, dictionary.length - DICTIONARY_SIZE);
+                    deflater.setDictionary(dictionary, offset, dictionary.length - offset);
+                }
+                else
+                {
+                    rowFilter = new RowFilter(0);
+                }
+
+                for (int rowNum = firstRow; rowNum < endRow; rowNum++)
+                {
+                    byte[] rowToWrite = rowFilter.filterNextRow(alphaImageData);
+                    checksum.update(rowToWrite, 0, rowToWrite.length);
+                    // the row buffer is reused, so the deflater has to consume it completely
+                    deflater.setInput(rowToWrite, 0, rowToWrite.length);
+                    while (!deflater.needsInput())
                     {
-                        copyIntToBytes(transferRowInt, indexInTransferRow, xValues, alphaImageData,
-                                alphaPtr);
-                        copyIntToBytes(prevRowInt, indexInTransferRow, bValues, null, 0);
+                        int count = deflater.deflate(buffer, 0, buffer.length, Deflater.NO_FLUSH);
+                        stream.write(buffer, 0, count);
                     }
-                    else
+                }
+
+                if (lastBand)
+                {
+                    deflater.finish();
+                    while (!deflater.finished())
                     {
-                        // This must be short[]
-                        copyShortsToBytes(transferRowShort, indexInTransferRow, xValues, alphaImageData, alphaPtr);
-                        copyShortsToBytes(prevRowShort, indexInTransferRow, bValues, null, 0);
+                        int count = deflater.deflate(buffer, 0, buffer.length, Deflater.NO_FLUSH);
+                        stream.write(buffer, 0, count);
                     }
-
-                    // Encode the pixel values in the different encodings
-                    int length = xValues.length;
-                    for (int bytePtr = 0; bytePtr < length; bytePtr++)
+                }
+                else
+                {
+                    // end the band on a byte boundary without marking the last block
+                    int count;
+                    do
                     {
-                        int x = xValues[bytePtr] & 0xFF;
-                        int a = aValues[bytePtr] & 0xFF;
-                        int b = bValues[bytePtr] & 0xFF;
-                        int c = cValues[bytePtr] & 0xFF;
-                        dataRawRowNone[writerPtr] = (byte) x;
-                        dataRawRowSub[writerPtr] = pngFilterSub(x, a);
-                        dataRawRowUp[writerPtr] = pngFilterUp(x, b);
-                        dataRawRowAverage[writerPtr] = pngFilterAverage(x, a, b);
-                        dataRawRowPaeth[writerPtr] = pngFilterPaeth(x, a, b, c);
-                        writerPtr++;
+                        count = deflater.deflate(buffer, 0, buffer.length, Deflater.SYNC_FLUSH);
+                        stream.write(buffer, 0, count);
                     }
-
-                    //  We shift the values into the prev / upper left values for the next pixel
-                    System.arraycopy(xValues, 0, aValues, 0, bytesPerPixel);
-                    System.arraycopy(bValues, 0, cValues, 0, bytesPerPixel);
+                    while (count == buffer.length);
                 }
+            }
+            finally
+            {
+                deflater.end();
+            }
+            return new CompressedBand(stream.toByteArray(), checksum.getValue(),
+                    (long) (endRow - firstRow) * dataRowByteCount);
+        }
 
-                byte[] rowToWrite = chooseDataRowToWrite();
-
-                // Write and compress the row as long it is hot (CPU cache wise)
-                zip.write(rowToWrite, 0, rowToWrite.length);
-
-                // We swap prev and transfer row, so that we have the prev row for the next row.
-                Object temp = prevRow;
-                prevRow = transferRow;
-                transferRow = temp;
+        /**
+         * Combines the Adler-32 checksums of two consecutive blocks of data, like adler32_combine()
+         * of zlib.
+         *
+         * @param adler1 the checksum of the first block
+         * @param adler2 the checksum of the second block
+         * @param length2 the length of the second block
+         * @return the checksum of both blocks
+         */
+        static long combineAdler32(long adler1, long adler2, long length2)
+        {
+            final long base = 65521;
+            long remainder = length2 % base;
+            long sum1 = adler1 & 0xffff;
+            long sum2 = (remainder * sum1) % base;
+            sum1 += (adler2 & 0xffff) + base - 1;
+            sum2 += ((adler1 >> 16) & 0xffff) + ((adler2 >> 16) & 0xffff) + base - remainder;
+            if (sum1 >= base)
+            {
+                sum1 -= base;
             }
-            zip.close();
-            deflater.end();
+            if (sum1 >= base)
+            {
+                sum1 -= base;
+            }
+            if (sum2 >= base << 1)
+            {
+                sum2 -= base << 1;
+            }
+            if (sum2 >= base)
+            {
+                sum2 -= base;
+            }
+            return sum1 | (sum2 << 16);
+        }
 
-            return preparePredictorPDImage(stream, bytesPerComponent * 8);
+        private Object createRow()
+        {
+            int length = width * elementsInRowPerPixel;
+            switch (rowDataType)
+            {
+                case DataBuffer.TYPE_USHORT:
+                    return new short[length];
+                case DataBuffer.TYPE_INT:
+                    return new int[length];
+                default:
+                    return new byte[length];
+            }
         }
 
         private void copyIntToBytes(int[] transferRow, int indexInTranferRow, byte[] targetValues,
@@ -619,45 +750,6 @@ public final class LosslessFactory
             return imageXObject;
         }
 
-        /**
-         * We look which row encoding is the "best" one, ie. has the lowest sum. We don't implement
-         * anything fancier to choose the right row encoding. This is just the recommend algorithm
-         * in the spec. The get the perfect encoding you would need to do a brute force check how
-         * all the different encoded rows compress in the zip stream together. You have would have
-         * to check 5*image-height permutations...
-         *
-         * @return the "best" row encoding of the row encodings
-         */
-        private byte[] chooseDataRowToWrite()
-        {
-            byte[] rowToWrite = dataRawRowNone;
-            long estCompressSum = estCompressSum(dataRawRowNone);
-            long estCompressSumSub = estCompressSum(dataRawRowSub);
-            long estCompressSumUp = estCompressSum(dataRawRowUp);
-            long estCompressSumAvg = estCompressSum(dataRawRowAverage);
-            long estCompressSumPaeth = estCompressSum(dataRawRowPaeth);
-            if (estCompressSum > estCompressSumSub)
-            {
-                rowToWrite = dataRawRowSub;
-                estCompressSum = estCompressSumSub;
-            }
-            if (estCompressSum > estCompressSumUp)
-            {
-                rowToWrite = dataRawRowUp;
-                estCompressSum = estCompressSumUp;
-            }
-            if (estCompressSum > estCompressSumAvg)
-            {
-                rowToWrite = dataRawRowAverage;
-                estCompressSum = estCompressSumAvg;
-            }
-            if (estCompressSum > estCompressSumPaeth)
-            {
-                rowToWrite = dataRawRowPaeth;
-            }
-            return rowToWrite;
-        }
-
         /*
          * PNG Filters, see https://www.w3.org/TR/PNG-Filters.html
          */
@@ -711,5 +803,224 @@ public final class LosslessFactory
             }
             return sum;
         }
+
+        /**
+         * The compressed data of a band of rows.
+         */
+        private static final class CompressedBand
+        {
+            private final byte[] data;
+            private final long adler;
+            private final long length;
+
+            CompressedBand(byte[] data, long adler, long length)
+            {
+                this.data = data;
+                this.adler = adler;
+                this.length = length;
+            }
+        }
+
+        /**
+         * Applies all PNG filters to consecutive rows of the image and chooses the best one. Every
+         * thread uses its own instance.
+         */
+        private final class RowFilter
+        {
+            private final byte[] dataRawRowNone;
+            private final byte[] dataRawRowSub;
+            private final byte[] dataRawRowUp;
+            private final byte[] dataRawRowAverage;
+            private final byte[] dataRawRowPaeth;
+
+            private final byte[] aValues;
+            private final byte[] cValues;
+            private final byte[] bValues;
+            private final byte[] xValues;
+
+            // These variables store a row of the image each, the exact type depends
+            // on the image encoding. Can be a int[], short[] or byte[]
+            private Object prevRow;
+            private Object transferRow;
+
+            private int rowNum;
+
+            /**
+             * @param firstRow the first row to be filtered
+             */
+            RowFilter(int firstRow)
+            {
+                this.dataRawRowNone = new byte[dataRowByteCount];
+                this.dataRawRowSub = new byte[dataRowByteCount];
+                this.dataRawRowUp = new byte[dataRowByteCount];
+                this.dataRawRowAverage = new byte[dataRowByteCount];
+                this.dataRawRowPaeth = new byte[dataRowByteCount];
+
+                // Write the encoding markers
+                dataRawRowNone[0] = 0;
+                dataRawRowSub[0] = 1;
+                dataRawRowUp[0] = 2;
+                dataRawRowAverage[0] = 3;
+                dataRawRowPaeth[0] = 4;
+
+                // c | b
+                // -----
+                // a | x
+                //
+                // x => current pixel
+                this.aValues = new byte[bytesPerPixel];
+                this.cValues = new byte[bytesPerPixel];
+                this.bValues = new byte[bytesPerPixel];
+                this.xValues = new byte[bytesPerPixel];
+
+                this.prevRow = createRow();
+                this.transferRow = createRow();
+                if (firstRow > 0)
+                {
+                    imageRaster.getDataElements(0, firstRow - 1, width, 1, prevRow);
+                }
+                this.rowNum = firstRow;
+            }
+
+            /**
+             * Filters the next row.
+             *
+             * @param alphaTarget the array for the alpha values or null
+             * @return the filtered row with the predictor marker, only valid until the next call
+             */
+            byte[] filterNextRow(byte[] alphaTarget)
+            {
+                imageRaster.getDataElements(0, rowNum, width, 1, transferRow);
+                final int elementsInTransferRow = width * elementsInRowPerPixel;
+                int alphaPtr = rowNum * width * bytesPerComponent;
+
+                // We start to write at index one, as the predictor marker is in index zero
+                int writerPtr = 1;
+                Arrays.fill(aValues, (byte) 0);
+                Arrays.fill(cValues, (byte) 0);
+
+                final byte[] transferRowByte;
+                final byte[] prevRowByte;
+                final int[] transferRowInt;
+                final int[] prevRowInt;
+                final short[] transferRowShort;
+                final short[] prevRowShort;
+
+                if (transferRow instanceof byte[])
+                {
+                    transferRowByte = (byte[]) transferRow;
+                    prevRowByte = (byte[]) prevRow;
+                    transferRowInt = prevRowInt = null;
+                    transferRowShort = prevRowShort = null;
+                }
+                else if (transferRow instanceof int[])
+                {
+                    transferRowInt = (int[]) transferRow;
+                    prevRowInt = (int[]) prevRow;
+                    transferRowShort = prevRowShort = null;
+                    transferRowByte = prevRowByte = null;
+                }
+                else
+                {
+                    // This must be short[]
+                    transferRowShort = (short[]) transferRow;
+                    prevRowShort = (short[]) prevRow;
+                    transferRowInt = prevRowInt = null;
+                    transferRowByte = prevRowByte = null;
+                }
+
+                for (int indexInTransferRow = 0; indexInTransferRow < elementsInTransferRow;
+                        indexInTransferRow += elementsInRowPerPixel, alphaPtr += bytesPerComponent)
+                {
+                    // Copy the pixel values into the byte array
+                    if (transferRowByte != null)
+                    {
+                        copyImageBytes(transferRowByte, indexInTransferRow, xValues, alphaTarget,
+                                alphaPtr);
+                        copyImageBytes(prevRowByte, indexInTransferRow, bValues, null, 0);
+                    }
+                    else if (transferRowInt != null)
+                    {
+                        copyIntToBytes(transferRowInt, indexInTransferRow, xValues, alphaTarget,
+                                alphaPtr);
+                        copyIntToBytes(prevRowInt, indexInTransferRow, bValues, null, 0);
+                    }
+                    else
+                    {
+                        // This must be short[]
+                        copyShortsToBytes(transferRowShort, indexInTransferRow, xValues, alphaTarget, alphaPtr);
+                        copyShortsToBytes(prevRowShort, indexInTransferRow, bValues, null, 0);
+                    }
+
+                    // Encode the pixel values in the different encodings
+                    int length = xValues.length;
+                    for (int bytePtr = 0; bytePtr < length; bytePtr++)
+                    {
+                        int x = xValues[bytePtr] & 0xFF;
+                        int a = aValues[bytePtr] & 0xFF;
+                        int b = bValues[bytePtr] & 0xFF;
+                        int c = cValues[bytePtr] & 0xFF;
+                        dataRawRowNone[writerPtr] = (byte) x;
+                        dataRawRowSub[writerPtr] = pngFilterSub(x, a);
+                        dataRawRowUp[writerPtr] = pngFilterUp(x, b);
+                        dataRawRowAverage[writerPtr] = pngFilterAverage(x, a, b);
+                        dataRawRowPaeth[writerPtr] = pngFilterPaeth(x, a, b, c);
+                        writerPtr++;
+                    }
+
+                    //  We shift the values into the prev / upper left values for the next pixel
+                    System.arraycopy(xValues, 0, aValues, 0, bytesPerPixel);
+                    System.arraycopy(bValues, 0, cValues, 0, bytesPerPixel);
+                }
+
+                byte[] rowToWrite = chooseDataRowToWrite();
+
+                // We swap prev and transfer row, so that we have the prev row for the next row.
+                Object temp = prevRow;
+                prevRow = transferRow;
+                transferRow = temp;
+                rowNum++;
+                return rowToWrite;
+            }
+
+            /**
+             * We look which row encoding is the "best" one, ie. has the lowest sum. We don't implement
+             * anything fancier to choose the right row encoding. This is just the recommend algorithm
+             * in the spec. The get the perfect encoding you would need to do a brute force check how
+             * all the different encoded rows compress in the zip stream together. You have would have
+             * to check 5*image-height permutations...
+             *
+             * @return the "best" row encoding of the row encodings
+             */
+            private byte[] chooseDataRowToWrite()
+            {
+                byte[] rowToWrite = dataRawRowNone;
+                long estCompressSum = estCompressSum(dataRawRowNone);
+                long estCompressSumSub = estCompressSum(dataRawRowSub);
+                long estCompressSumUp = estCompressSum(dataRawRowUp);
+                long estCompressSumAvg = estCompressSum(dataRawRowAverage);
+                long estCompressSumPaeth = estCompressSum(dataRawRowPaeth);
+                if (estCompressSum > estCompressSumSub)
+                {
+                    rowToWrite = dataRawRowSub;
+                    estCompressSum = estCompressSumSub;
+                }
+                if (estCompressSum > estCompressSumUp)
+                {
+                    rowToWrite = dataRawRowUp;
+                    estCompressSum = estCompressSumUp;
+                }
+                if (estCompressSum > estCompressSumAvg)
+                {
+                    rowToWrite = dataRawRowAverage;
+                    estCompressSum = estCompressSumAvg;
+                }
+                if (estCompressSum > estCompressSumPaeth)
+                {
+                    rowToWrite = dataRawRowPaeth;
+                }
+                return rowToWrite;
+            }
+        }
     }
 }
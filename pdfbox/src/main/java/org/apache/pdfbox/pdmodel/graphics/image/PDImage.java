@@ -81,8 +81,13 @@ public interface PDImage extends COSObjectable
      * specified is rendered, and is subsampled by advancing the specified amount of rows and columns in the source
      * image for every resulting pixel.
      *
-     * Note that unlike {@link PDImage#getImage() the unparameterized version}, this method does not cache the resulting
-     * image.
+     * Image XObjects cache the resulting image in the {@link DecodedImageCache} of the resource cache of their document,
+     * by default the {@link DefaultDecodedImageCache#getSharedInstance() shared instance} with a fixed budget, so the
+     * returned image may be shared and must not be modified. The shared instance can be disabled by setting the system
+     * property "pdfbox.decodedimagecache.size" to 0, and the cache of a document can be replaced or removed with
+     * {@link org.apache.pdfbox.pdmodel.DefaultResourceCache#setDecodedImageCache(DecodedImageCache)}. Without a
+     * decoded image cache, only the entire image is cached like by {@link PDImage#getImage() the unparameterized
+     * version}. Inline images are not cached.
      * 
      * @param region The region of the source image to get, or null if the entire image is needed. The actual region
      * will be clipped to the dimensions of the source image.
@@ -52,6 +52,7 @@ import org.apache.pdfbox.filter.DecodeResult;
 import org.apache.pdfbox.io.IOUtils;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.PDResources;
+import org.apache.pdfbox.pdmodel.ResourceCache;
 import org.apache.pdfbox.pdmodel.common.PDMetadata;
 import org.apache.pdfbox.pdmodel.common.PDStream;
 import org.apache.pdfbox.pdmodel.documentinterchange.markedcontent.PDPropertyList;
@@ -431,7 +432,8 @@ public final class PDImageXObject extends PDXObject implements PDImage
 
     /**
      * {@inheritDoc}
-     * The returned images are cached via a SoftReference.
+     * The returned images are cached in the {@link DecodedImageCache} of the document, or via a
+     * SoftReference if there is none.
      */
     @Override
     public BufferedImage getImage() throws IOException
@@ -445,7 +447,16 @@ public final class PDImageXObject extends PDXObject implements PDImage
     @Override
     public BufferedImage getImage(Rectangle region, int subsampling) throws IOException
     {
-        if (region == null && subsampling == cachedImageSubsampling && cachedImage != null)
+        DecodedImageCache decodedImageCache = getDecodedImageCache();
+        if (decodedImageCache != null)
+        {
+            BufferedImage cached = decodedImageCache.getImage(getCOSObject(), region, subsampling);
+            if (cached != null)
+            {
+                return cached;
+            }
+        }
+        else if (region == null && subsampling == cachedImageSubsampling && cachedImage != null)
         {
             BufferedImage cached = cachedImage.get();
             if (cached != null)
@@ -476,7 +487,11 @@ public final class PDImageXObject extends PDXObject implements PDImage
             image = SampledImageReader.getRGBImage(this, region, subsampling, getColorKeyMask());
         }
 
-        if (region == null && subsampling <= cachedImageSubsampling)
+        if (decodedImageCache != null)
+        {
+            decodedImageCache.put(getCOSObject(), region, subsampling, image);
+        }
+        else if (region == null && subsampling <= cachedImageSubsampling)
         {
             // only cache full-image renders, and prefer lower subsampling frequency, as lower
             // subsampling means higher quality and longer render times.
@@ -487,6 +502,13 @@ public final class PDImageXObject extends PDXObject implements PDImage
         return image;
     }
 
+    // the cache of the document, shared by all XObjects of the image stream
+    private DecodedImageCache getDecodedImageCache()
+    {
+        ResourceCache resourceCache = resources != null ? resources.getResourceCache() : null;
+        return resourceCache != null ? resourceCache.getDecodedImageCache() : null;
+    }
+
     @Override
     public BufferedImage getRawImage() throws IOException
     {
@@ -879,6 +901,11 @@ public final class PDImageXObject extends PDXObject implements PDImage
         getCOSObject().setItem(COSName.COLORSPACE, cs != null ? cs.getCOSObject() : null);
         colorSpace = null;
         cachedImage = null;
+        DecodedImageCache decodedImageCache = getDecodedImageCache();
+        if (decodedImageCache != null)
+        {
+            decodedImageCache.remove(getCOSObject());
+        }
     }
 
     @Override
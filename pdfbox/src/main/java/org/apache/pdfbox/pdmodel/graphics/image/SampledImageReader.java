@@ -25,6 +25,7 @@ import java.awt.image.DataBuffer;
 import java.awt.image.DataBufferByte;
 import java.awt.image.Raster;
 import java.awt.image.WritableRaster;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.Arrays;
@@ -33,8 +34,13 @@ import javax.imageio.stream.MemoryCacheImageInputStream;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.pdfbox.cos.COSArray;
+import org.apache.pdfbox.cos.COSBase;
+import org.apache.pdfbox.cos.COSName;
 import org.apache.pdfbox.cos.COSNumber;
+import org.apache.pdfbox.cos.COSStream;
 import org.apache.pdfbox.filter.DecodeOptions;
+import org.apache.pdfbox.filter.Filter;
+import org.apache.pdfbox.filter.FilterFactory;
 import org.apache.pdfbox.io.IOUtils;
 import org.apache.pdfbox.pdmodel.graphics.color.PDColorSpace;
 import org.apache.pdfbox.pdmodel.graphics.color.PDDeviceGray;
@@ -85,7 +91,8 @@ final class SampledImageReader
         // avoid getting a BufferedImage for the mask to lessen memory footprint.
         // Such masks are always bpc=1 and have no colorspace, but have a decode.
         // (see 8.9.6.2 Stencil Masking)
-        try (InputStream iis = pdImage.createInputStream())
+        InputStream ccitt = createCCITTInputStream(pdImage);
+        try (InputStream iis = ccitt != null ? ccitt : pdImage.createInputStream())
         {
             final float[] decode = getDecodeArray(pdImage);
             int value = decode[0] < decode[1] ? 1 : 0;
@@ -216,6 +223,12 @@ final class SampledImageReader
                 // convert image, faster path for non-decoded, non-colormasked 8-bit images
                 return from8bit(pdImage, raster, clipped, subsampling, width, height);
             }
+            if (colorKey == null && (bitsPerComponent == 16 || (bitsPerComponent <= 8
+                    && Integer.bitCount(bitsPerComponent) == 1)))
+            {
+                // faster path for all other sample sizes allowed by the PDF specification
+                return fromPacked(pdImage, raster, clipped, subsampling, width, height);
+            }
             return fromAny(pdImage, raster, colorKey, clipped, subsampling, width, height);
         }
         catch (NegativeArraySizeException | IllegalArgumentException ex)
@@ -358,6 +371,47 @@ final class SampledImageReader
         }
     }
 
+    /**
+     * Returns the rows of a 1 bit image whose only filter is CCITTFaxDecode. They are decoded
+     * straight into a packed raster, which has the same bytes as the decoded stream, instead of
+     * being written to a buffer and read again.
+     *
+     * @param pdImage the image
+     * @return the packed rows, or null if the image isn't a CCITT image XObject or if it can't
+     * be decoded to a raster
+     * @throws IOException if the stream can't be read
+     */
+    private static InputStream createCCITTInputStream(PDImage pdImage) throws IOException
+    {
+        if (!(pdImage instanceof PDImageXObject))
+        {
+            return null;
+        }
+        COSStream stream = ((PDImageXObject) pdImage).getCOSObject();
+        COSBase filters = stream.getFilters();
+        if (filters instanceof COSArray && ((COSArray) filters).size() == 1)
+        {
+            filters = ((COSArray) filters).getObject(0);
+        }
+        if (!COSName.CCITTFAX_DECODE.equals(filters))
+        {
+            return null;
+        }
+        Filter filter = FilterFactory.INSTANCE.getFilter(COSName.CCITTFAX_DECODE);
+        WritableRaster raster;
+        try (InputStream encoded = stream.createRawInputStream())
+        {
+            raster = filter.decodeToRaster(encoded, stream, 0);
+        }
+        catch (IOException ex)
+        {
+            // the decoded stream handles broken images more leniently
+            LOG.debug("CCITT image couldn't be decoded to a raster", ex);
+            return null;
+        }
+        return new ByteArrayInputStream(((DataBufferByte) raster.getDataBuffer()).getData());
+    }
+
     private static BufferedImage from1Bit(PDImage pdImage, Rectangle clipped, final int subsampling,
                                           final int width, final int height) throws IOException
     {
@@ -370,7 +424,8 @@ final class SampledImageReader
         DecodeOptions options = new DecodeOptions(currentSubsampling);
         options.setSourceRegion(clipped);
         // read bit stream
-        try (InputStream iis = pdImage.createInputStream(options))
+        InputStream ccitt = createCCITTInputStream(pdImage);
+        try (InputStream iis = ccitt != null ? ccitt : pdImage.createInputStream(options))
         {
             final int inputWidth;
             final int startx;
@@ -550,6 +605,169 @@ final class SampledImageReader
         }
     }
 
+    // faster conversion of 1, 2, 4, 8 and 16 bit images without color key mask: whole rows are
+    // read and unpacked, the samples are mapped with lookup tables that give the same results as
+    // the per sample computation in fromAny()
+    private static BufferedImage fromPacked(PDImage pdImage, WritableRaster raster, Rectangle clipped,
+                                            final int subsampling, final int width, final int height)
+            throws IOException
+    {
+        int currentSubsampling = subsampling;
+        final PDColorSpace colorSpace = pdImage.getColorSpace();
+        final int numComponents = colorSpace.getNumberOfComponents();
+        final int bitsPerComponent = pdImage.getBitsPerComponent();
+        final byte[][] lookup = createSampleLookup(getDecodeArray(pdImage), bitsPerComponent,
+                numComponents, colorSpace instanceof PDIndexed);
+
+        DecodeOptions options = new DecodeOptions(currentSubsampling);
+        options.setSourceRegion(clipped);
+        try (InputStream input = pdImage.createInputStream(options))
+        {
+            final int inputWidth;
+            final int startx;
+            final int starty;
+            final int scanWidth;
+            final int scanHeight;
+            if (options.isFilterSubsampled())
+            {
+                // Decode options were honored, and so there is no need for additional clipping or subsampling
+                inputWidth = width;
+                startx = 0;
+                starty = 0;
+                scanWidth = width;
+                scanHeight = height;
+                currentSubsampling = 1;
+            }
+            else
+            {
+                // Decode options not honored, so we need to clip and subsample ourselves.
+                inputWidth = pdImage.getWidth();
+                startx = clipped.x;
+                starty = clipped.y;
+                scanWidth = clipped.width;
+                scanHeight = clipped.height;
+            }
+
+            // rows are padded to the nearest byte
+            final int[] samples = new int[inputWidth * numComponents];
+            final byte[] row = new byte[(int) (((long) samples.length * bitsPerComponent + 7) / 8)];
+            final byte[] bank = ((DataBufferByte) raster.getDataBuffer()).getData();
+            // same pixels as in fromAny(), i.e. the ones whose coordinates are multiples of the subsampling
+            final int firstX = (startx + currentSubsampling - 1) / currentSubsampling * currentSubsampling;
+            final int endX = startx + scanWidth;
+            final int step = currentSubsampling * numComponents;
+            for (int y = 0; y < starty + scanHeight; y++)
+            {
+                int read = (int) IOUtils.populateBuffer(input, row);
+                if (read != row.length)
+                {
+                    Arrays.fill(row, Math.max(read, 0), row.length, (byte) 0);
+                }
+                if (y >= starty && y % currentSubsampling == 0)
+                {
+                    unpackRow(row, bitsPerComponent, samples);
+                    int idx = (y - starty) / currentSubsampling * width * numComponents;
+                    int end = endX * numComponents;
+                    if (numComponents == 1)
+                    {
+                        byte[] lookup0 = lookup[0];
+                        for (int i = firstX; i < end; i += step)
+                        {
+                            bank[idx++] = lookup0[samples[i]];
+                        }
+                    }
+                    else
+                    {
+                        for (int i = firstX * numComponents; i < end; i += step)
+                        {
+                            for (int c = 0; c < numComponents; c++)
+                            {
+                                bank[idx++] = lookup[c][samples[i + c]];
+                            }
+                        }
+                    }
+                }
+                if (read != row.length)
+                {
+                    LOG.warn("premature EOF, image will be incomplete");
+                    break;
+                }
+            }
+
+            // use the color space to convert the image to RGB
+            return colorSpace.toRGBImage(raster);
+        }
+    }
+
+    // unpacks a row of samples, the first sample is in the high order bits
+    private static void unpackRow(byte[] row, int bitsPerComponent, int[] samples)
+    {
+        final int count = samples.length;
+        switch (bitsPerComponent)
+        {
+            case 16:
+                for (int i = 0; i < count; i++)
+                {
+                    samples[i] = (row[i * 2] & 0xff) << 8 | row[i * 2 + 1] & 0xff;
+                }
+                break;
+            case 8:
+                for (int i = 0; i < count; i++)
+                {
+                    samples[i] = row[i] & 0xff;
+                }
+                break;
+            case 4:
+                for (int i = 0; i < count; i++)
+                {
+                    samples[i] = row[i >> 1] >> (4 - ((i & 1) << 2)) & 0x0f;
+                }
+                break;
+            case 2:
+                for (int i = 0; i < count; i++)
+                {
+                    samples[i] = row[i >> 2] >> (6 - ((i & 3) << 1)) & 0x03;
+                }
+                break;
+            default:
+                for (int i = 0; i < count; i++)
+                {
+                    samples[i] = row[i >> 3] >> (7 - (i & 7)) & 0x01;
+                }
+                break;
+        }
+    }
+
+    // maps every possible sample of each component to the byte that fromAny() computes for it
+    private static byte[][] createSampleLookup(float[] decode, int bitsPerComponent, int numComponents,
+                                               boolean isIndexed)
+    {
+        final float sampleMax = (float) Math.pow(2, bitsPerComponent) - 1f;
+        byte[][] lookup = new byte[numComponents][1 << bitsPerComponent];
+        for (int c = 0; c < numComponents; c++)
+        {
+            final float dMin = decode[c * 2];
+            final float dMax = decode[(c * 2) + 1];
+            byte[] componentLookup = lookup[c];
+            for (int value = 0; value < componentLookup.length; value++)
+            {
+                // interpolate to domain
+                float output = dMin + (value * ((dMax - dMin) / sampleMax));
+                if (isIndexed)
+                {
+                    componentLookup[value] = (byte) Math.round(output);
+                }
+                else
+                {
+                    // interpolate to TYPE_BYTE
+                    componentLookup[value] = (byte) Math.round(((output - Math.min(dMin, dMax)) /
+                            Math.abs(dMax - dMin)) * 255f);
+                }
+            }
+        }
+        return lookup;
+    }
+
     // slower, general-purpose image conversion from any image format
     private static BufferedImage fromAny(PDImage pdImage, WritableRaster raster, COSArray colorKey, Rectangle clipped,
                                          final int subsampling, final int width, final int height)
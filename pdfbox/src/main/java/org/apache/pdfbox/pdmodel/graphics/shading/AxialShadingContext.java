@@ -19,10 +19,13 @@ package org.apache.pdfbox.pdmodel.graphics.shading;
 import java.awt.Rectangle;
 import java.awt.geom.AffineTransform;
 import java.awt.geom.NoninvertibleTransformException;
+import java.awt.geom.Point2D;
 import java.awt.image.ColorModel;
+import java.awt.image.DataBufferInt;
 import java.awt.image.Raster;
 import java.awt.image.WritableRaster;
 import java.io.IOException;
+import java.util.Arrays;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.pdfbox.cos.COSArray;
@@ -56,6 +59,8 @@ public class AxialShadingContext extends ShadingContext
 
     private AffineTransform rat;
 
+    private WritableRaster raster;
+
     /**
      * Constructor creates an instance to be used for fill operations.
      *
@@ -63,11 +68,28 @@ public class AxialShadingContext extends ShadingContext
      * @param colorModel the color model to be used
      * @param xform transformation for user to device space
      * @param matrix the pattern matrix concatenated with that of the parent content stream
-     * @param deviceBounds the bounds of the area to paint, in device units
+     * @param deviceBounds the bounds of the area to paint, in device units, not used as the
+     * number of colors depends on the length of the axis on the device
      * @throws IOException if there is an error getting the color space or doing color conversion.
      */
     public AxialShadingContext(PDShadingType2 shading, ColorModel colorModel, AffineTransform xform,
                                Matrix matrix, Rectangle deviceBounds) throws IOException
+    {
+        this(shading, colorModel, xform, matrix, (ShadingPaint<?>) null);
+    }
+
+    /**
+     * Constructor which shares the color table with the other contexts of the paint.
+     *
+     * @param shading the shading type to be used
+     * @param colorModel the color model to be used
+     * @param xform transformation for user to device space
+     * @param matrix the pattern matrix concatenated with that of the parent content stream
+     * @param paint the paint which creates the context, or null
+     * @throws IOException if there is an error getting the color space or doing color conversion.
+     */
+    AxialShadingContext(PDShadingType2 shading, ColorModel colorModel, AffineTransform xform,
+                        Matrix matrix, ShadingPaint<?> paint) throws IOException
     {
         super(shading, colorModel, xform, matrix);
         this.axialShadingType = shading;
@@ -100,7 +122,7 @@ public class AxialShadingContext extends ShadingContext
         x1x0 = coords[2] - coords[0];
         y1y0 = coords[3] - coords[1];
         d1d0 = domain[1] - domain[0];
-        denom = Math.pow(x1x0, 2) + Math.pow(y1y0, 2);
+        denom = x1x0 * x1x0 + y1y0 * y1y0;
 
         try
         {
@@ -119,20 +141,29 @@ public class AxialShadingContext extends ShadingContext
         AffineTransform shadingToDevice = (AffineTransform)xform.clone();
         shadingToDevice.concatenate(matrix.createAffineTransform());
 
-        // worst case for the number of steps is opposite diagonal corners, so use that
-        double dist = Math.sqrt(Math.pow(deviceBounds.getMaxX() - deviceBounds.getMinX(), 2) +
-                                Math.pow(deviceBounds.getMaxY() - deviceBounds.getMinY(), 2));
-        factor = (int) Math.ceil(dist);
-        
+        // one step per device pixel along the axis, this doesn't depend on the area to paint so
+        // that the fills of the paint with the same transform share the color table
+        Point2D axis = shadingToDevice.deltaTransform(new Point2D.Double(x1x0, y1y0), null);
+        factor = getSteps(axis.distance(0, 0));
+
         // build the color table for the given number of steps
-        colorTable = calcColorTable();
+        int[] table = paint == null ? null : paint.getColorTable(factor + 1);
+        if (table == null)
+        {
+            table = calcColorTable();
+            if (paint != null)
+            {
+                paint.setColorTable(table);
+            }
+        }
+        colorTable = table;
     }
     
     /**
      * Calculate the color on the axial line and store them in an array.
      *
      * @return an array, index denotes the relative position, the corresponding
-     * value is the color on the axial line
+     * value is the color on the axial line as a pixel of the color model
      * @throws IOException if the color conversion fails.
      */
     private int[] calcColorTable() throws IOException
@@ -141,7 +172,7 @@ public class AxialShadingContext extends ShadingContext
         if (factor == 0 || Float.compare(d1d0, 0) == 0)
         {
             float[] values = axialShadingType.evalFunction(domain[0]);
-            map[0] = convertToRGB(values);
+            map[0] = toARGB(convertToRGB(values));
         }
         else
         {
@@ -149,7 +180,7 @@ public class AxialShadingContext extends ShadingContext
             {
                 float t = domain[0] + d1d0 * i / factor;
                 float[] values = axialShadingType.evalFunction(t);
-                map[i] = convertToRGB(values);
+                map[i] = toARGB(convertToRGB(values));
             }
         }
         return map;
@@ -160,93 +191,71 @@ public class AxialShadingContext extends ShadingContext
     {
         super.dispose();
         axialShadingType = null;
+        raster = null;
     }
 
     @Override
     public Raster getRaster(int x, int y, int w, int h)
     {
-        // create writable raster
-        WritableRaster raster = getColorModel().createCompatibleWritableRaster(w, h);
-        boolean useBackground;
-        int[] data = new int[w * h * 4];
-        float[] values = new float[2];
+        // the raster is reused for the following tiles, it may be larger than requested
+        if (raster == null || raster.getWidth() < w || raster.getHeight() < h)
+        {
+            raster = getColorModel().createCompatibleWritableRaster(w, h);
+        }
+        int[] data = ((DataBufferInt) raster.getDataBuffer()).getData();
+        int scanlineStride = raster.getWidth();
+        // pixels outside of the shading are transparent, unless there is a background
+        int background = getBackground() == null ? 0 : toARGB(getRgbBackground());
+
+        // the input value changes by a constant amount from one pixel to the next one of a row
+        double step = 0;
+        if (Double.compare(denom, 0) != 0)
+        {
+            step = (x1x0 * rat.getScaleX() + y1y0 * rat.getShearY()) / denom;
+        }
+        double[] values = new double[2];
         for (int j = 0; j < h; j++)
         {
-            for (int i = 0; i < w; i++)
+            int index = j * scanlineStride;
+            // TODO this happens if start == end, see PDFBOX-1442
+            if (Double.compare(denom, 0) == 0)
             {
-                useBackground = false;
-                values[0] = x + i;
-                values[1] = y + j;
-                rat.transform(values, 0, values, 0, 1);
-                double inputValue = x1x0 * (values[0] - coords[0]) + y1y0 * (values[1] - coords[1]);
-                // TODO this happens if start == end, see PDFBOX-1442
-                if (Double.compare(denom, 0) == 0)
-                {
-                    if (getBackground() == null)
-                    {
-                        continue;
-                    }
-                    useBackground = true;
-                }
-                else
-                {
-                    inputValue /= denom;
-                }
+                Arrays.fill(data, index, index + w, background);
+                continue;
+            }
+            values[0] = x;
+            values[1] = y + j;
+            rat.transform(values, 0, values, 0, 1);
+            double start = (x1x0 * (values[0] - coords[0]) + y1y0 * (values[1] - coords[1])) /
+                    denom;
+            for (int i = 0; i < w; i++, index++)
+            {
+                double inputValue = start + i * step;
                 // input value is out of range
                 if (inputValue < 0)
                 {
                     // the shading has to be extended if extend[0] == true
-                    if (extend[0])
+                    if (!extend[0])
                     {
-                        inputValue = domain[0];
-                    }
-                    else
-                    {
-                        if (getBackground() == null)
-                        {
-                            continue;
-                        }
-                        useBackground = true;
+                        data[index] = background;
+                        continue;
                     }
+                    inputValue = 0;
                 }
                 // input value is out of range
                 else if (inputValue > 1)
                 {
                     // the shading has to be extended if extend[1] == true
-                    if (extend[1])
-                    {
-                        inputValue = domain[1];
-                    }
-                    else
+                    if (!extend[1])
                     {
-                        if (getBackground() == null)
-                        {
-                            continue;
-                        }
-                        useBackground = true;
+                        data[index] = background;
+                        continue;
                     }
+                    inputValue = 1;
                 }
-                int value;
-                if (useBackground)
-                {
-                    // use the given background color values
-                    value = getRgbBackground();
-                }
-                else
-                {
-                    int key = (int) (inputValue * factor);
-                    value = colorTable[key];
-                }
-                int index = (j * w + i) * 4;
-                data[index] = value & 255;
-                value >>= 8;
-                data[index + 1] = value & 255;
-                value >>= 8;
-                data[index + 2] = value & 255;
-                data[index + 3] = 255;
+                data[index] = colorTable[(int) (inputValue * factor)];
             }
         }
-        raster.setPixels(0, 0, w, h, data);
         return raster;
     }
 
@@ -15,14 +15,11 @@
  */
 package org.apache.pdfbox.pdmodel.graphics.shading;
 
-import java.awt.Point;
 import java.awt.Rectangle;
 import java.awt.geom.AffineTransform;
 import java.awt.image.ColorModel;
 import java.io.IOException;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 import org.apache.pdfbox.util.Matrix;
 
@@ -60,14 +57,14 @@ abstract class PatchMeshesShadingContext extends TriangleBasedShadingContext
     }
 
     @Override
-    protected Map<Point, Integer> calcPixelTable(Rectangle deviceBounds)  throws IOException
+    protected PixelTable calcPixelTable(Rectangle deviceBounds) throws IOException
     {
-        Map<Point, Integer> map = new HashMap<>();
+        PixelTable table = new PixelTable(deviceBounds);
         for (Patch it : patchList)
         {
-            super.calcPixelTable(it.listOfTriangles, map, deviceBounds);
+            super.calcPixelTable(it.listOfTriangles, table, deviceBounds);
         }
-        return map;
+        return table;
     }
 
     @Override
@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.pdmodel.graphics.shading;
+
+import java.awt.Rectangle;
+
+/**
+ * The RGB colors of the pixels of a shading within the device bounds, including the right and
+ * bottom edge. The pixels are stored in tiles of 64 x 64 pixels which are only allocated when one
+ * of their pixels is set, so that large device bounds which are only partly covered by the
+ * shading don't need memory for all pixels.
+ */
+final class PixelTable
+{
+    private static final int TILE_SHIFT = 6;
+    private static final int TILE_SIZE = 1 << TILE_SHIFT;
+    private static final int TILE_MASK = TILE_SIZE - 1;
+
+    // marks pixels which have been set, the color only uses the lower 24 bits
+    private static final int SET = 1 << 24;
+
+    private final int minX;
+    private final int minY;
+    private final int width;
+    private final int height;
+    private final int tilesPerRow;
+    private final int[][] tiles;
+
+    /**
+     * Constructor.
+     *
+     * @param bounds the device bounds, the pixels at x + width and y + height are included
+     */
+    PixelTable(Rectangle bounds)
+    {
+        minX = bounds.x;
+        minY = bounds.y;
+        width = Math.max(bounds.width + 1, 0);
+        height = Math.max(bounds.height + 1, 0);
+        tilesPerRow = (width + TILE_MASK) >> TILE_SHIFT;
+        int tileRows = (height + TILE_MASK) >> TILE_SHIFT;
+        tiles = new int[tilesPerRow * tileRows][];
+    }
+
+    /**
+     * Sets the color of a pixel, pixels outside of the table are ignored.
+     *
+     * @param x the x coordinate in device space
+     * @param y the y coordinate in device space
+     * @param rgb the color as returned by {@link ShadingContext#convertToRGB(float[])}
+     */
+    void set(int x, int y, int rgb)
+    {
+        int col = x - minX;
+        int row = y - minY;
+        if (col < 0 || row < 0 || col >= width || row >= height)
+        {
+            return;
+        }
+        int tileIndex = (row >> TILE_SHIFT) * tilesPerRow + (col >> TILE_SHIFT);
+        int[] tile = tiles[tileIndex];
+        if (tile == null)
+        {
+            tile = new int[TILE_SIZE * TILE_SIZE];
+            tiles[tileIndex] = tile;
+        }
+        tile[((row & TILE_MASK) << TILE_SHIFT) + (col & TILE_MASK)] = (rgb & 0xffffff) | SET;
+    }
+
+    /**
+     * Returns the color of a pixel.
+     *
+     * @param x the x coordinate in device space
+     * @param y the y coordinate in device space
+     * @return the color in the lower 24 bits or -1 if the pixel hasn't been set
+     */
+    int get(int x, int y)
+    {
+        int col = x - minX;
+        int row = y - minY;
+        if (col < 0 || row < 0 || col >= width || row >= height)
+        {
+            return -1;
+        }
+        int[] tile = tiles[(row >> TILE_SHIFT) * tilesPerRow + (col >> TILE_SHIFT)];
+        if (tile == null)
+        {
+            return -1;
+        }
+        int value = tile[((row & TILE_MASK) << TILE_SHIFT) + (col & TILE_MASK)];
+        return value != 0 ? value & 0xffffff : -1;
+    }
+}
@@ -19,7 +19,9 @@ package org.apache.pdfbox.pdmodel.graphics.shading;
 import java.awt.Rectangle;
 import java.awt.geom.AffineTransform;
 import java.awt.geom.NoninvertibleTransformException;
+import java.awt.geom.Point2D;
 import java.awt.image.ColorModel;
+import java.awt.image.DataBufferInt;
 import java.awt.image.Raster;
 import java.awt.image.WritableRaster;
 import java.io.IOException;
@@ -58,6 +60,8 @@ public class RadialShadingContext extends ShadingContext
 
     private AffineTransform rat;
 
+    private WritableRaster raster;
+
     /**
      * Constructor creates an instance to be used for fill operations.
      *
@@ -65,12 +69,29 @@ public class RadialShadingContext extends ShadingContext
      * @param colorModel the color model to be used
      * @param xform transformation for user to device space
      * @param matrix the pattern matrix concatenated with that of the parent content stream
-     * @param deviceBounds the bounds of the area to paint, in device units
+     * @param deviceBounds the bounds of the area to paint, in device units, not used as the
+     * number of colors depends on the size of the circles on the device
      * @throws IOException if there is an error getting the color space or doing color conversion.
      */
     public RadialShadingContext(PDShadingType3 shading, ColorModel colorModel,
                                 AffineTransform xform, Matrix matrix, Rectangle deviceBounds)
                                 throws IOException
+    {
+        this(shading, colorModel, xform, matrix, (ShadingPaint<?>) null);
+    }
+
+    /**
+     * Constructor which shares the color table with the other contexts of the paint.
+     *
+     * @param shading the shading type to be used
+     * @param colorModel the color model to be used
+     * @param xform transformation for user to device space
+     * @param matrix the pattern matrix concatenated with that of the parent content stream
+     * @param paint the paint which creates the context, or null
+     * @throws IOException if there is an error getting the color space or doing color conversion.
+     */
+    RadialShadingContext(PDShadingType3 shading, ColorModel colorModel, AffineTransform xform,
+                         Matrix matrix, ShadingPaint<?> paint) throws IOException
     {
         super(shading, colorModel, xform, matrix);
         this.radialShadingType = shading;
@@ -125,13 +146,26 @@ public class RadialShadingContext extends ShadingContext
         AffineTransform shadingToDevice = (AffineTransform)xform.clone();
         shadingToDevice.concatenate(matrix.createAffineTransform());
 
-        // worst case for the number of steps is opposite diagonal corners, so use that
-        double dist = Math.sqrt(Math.pow(deviceBounds.getMaxX() - deviceBounds.getMinX(), 2) +
-                                Math.pow(deviceBounds.getMaxY() - deviceBounds.getMinY(), 2));
-        factor = (int) Math.ceil(dist);
+        // one step per device pixel by which the circles move or grow, this doesn't depend on
+        // the area to paint so that the fills of the paint with the same transform share the
+        // color table
+        Point2D centers = shadingToDevice.deltaTransform(new Point2D.Double(x1x0, y1y0), null);
+        double scale = Math.max(
+                Math.hypot(shadingToDevice.getScaleX(), shadingToDevice.getShearY()),
+                Math.hypot(shadingToDevice.getShearX(), shadingToDevice.getScaleY()));
+        factor = getSteps(centers.distance(0, 0) + Math.abs(r1r0) * scale);
 
         // build the color table for the given number of steps
-        colorTable = calcColorTable();
+        int[] table = paint == null ? null : paint.getColorTable(factor + 1);
+        if (table == null)
+        {
+            table = calcColorTable();
+            if (paint != null)
+            {
+                paint.setColorTable(table);
+            }
+        }
+        colorTable = table;
     }
 
     /**
@@ -139,6 +173,7 @@ public class RadialShadingContext extends ShadingContext
      * array.
      *
      * @return an array, index denotes the relative position, the corresponding value the color
+     * as a pixel of the color model
      */
     private int[] calcColorTable() throws IOException
     {
@@ -146,7 +181,7 @@ public class RadialShadingContext extends ShadingContext
         if (factor == 0 || Float.compare(d1d0,0) == 0)
         {
             float[] values = radialShadingType.evalFunction(domain[0]);
-            map[0] = convertToRGB(values);
+            map[0] = toARGB(convertToRGB(values));
         }
         else
         {
@@ -154,7 +189,7 @@ public class RadialShadingContext extends ShadingContext
             {
                 float t = domain[0] + d1d0 * i / factor;
                 float[] values = radialShadingType.evalFunction(t);
-                map[i] = convertToRGB(values);
+                map[i] = toARGB(convertToRGB(values));
             }
         }
         return map;
@@ -165,143 +200,60 @@ public class RadialShadingContext extends ShadingContext
     {
         super.dispose();
         radialShadingType = null;
+        raster = null;
     }
 
     @Override
     public Raster getRaster(int x, int y, int w, int h)
     {
-        // create writable raster
-        WritableRaster raster = getColorModel().createCompatibleWritableRaster(w, h);
-        float inputValue = -1;
-        boolean useBackground;
-        int[] data = new int[w * h * 4];
-        float[] values = new float[2];
+        // the raster is reused for the following tiles, it may be larger than requested
+        if (raster == null || raster.getWidth() < w || raster.getHeight() < h)
+        {
+            raster = getColorModel().createCompatibleWritableRaster(w, h);
+        }
+        int[] data = ((DataBufferInt) raster.getDataBuffer()).getData();
+        int scanlineStride = raster.getWidth();
+        // pixels outside of the shading are transparent, unless there is a background
+        int background = getBackground() == null ? 0 : toARGB(getRgbBackground());
+
+        // the position in shading space changes by a constant amount from one pixel to the next
+        // one of a row
+        double stepX = rat.getScaleX();
+        double stepY = rat.getShearY();
+        double[] values = new double[2];
         for (int j = 0; j < h; j++)
         {
-            for (int i = 0; i < w; i++)
+            values[0] = x;
+            values[1] = y + j;
+            rat.transform(values, 0, values, 0, 1);
+            double startX = values[0] - coords[0];
+            double startY = values[1] - coords[1];
+            int index = j * scanlineStride;
+            for (int i = 0; i < w; i++, index++)
             {
-                values[0] = x + i;
-                values[1] = y + j;
-                rat.transform(values, 0, values, 0, 1);
-                useBackground = false;
-                float[] inputValues = calculateInputValues(values[0], values[1]);
-                if (Float.isNaN(inputValues[0]) && Float.isNaN(inputValues[1]))
-                {
-                    if (getBackground() == null)
-                    {
-                        continue;
-                    }
-                    useBackground = true;
-                }
-                else
-                {
-                    // choose 1 of the 2 values
-                    if (inputValues[0] >= 0 && inputValues[0] <= 1)
-                    {
-                        // both values are in the range -> choose the larger one
-                        if (inputValues[1] >= 0 && inputValues[1] <= 1)
-                        {
-                            inputValue = Math.max(inputValues[0], inputValues[1]);
-                        }
-                        // first value is in the range, the second not -> choose first value
-                        else
-                        {
-                            inputValue = inputValues[0];
-                        }
-                    }
-                    else
-                    {
-                        // first value is not in the range, 
-                        // but the second -> choose second value
-                        if (inputValues[1] >= 0 && inputValues[1] <= 1)
-                        {
-                            inputValue = inputValues[1];
-                        }
-                        // both are not in the range
-                        else
-                        {
-                            if (extend[0] && extend[1])
-                            {
-                                inputValue = Math.max(inputValues[0], inputValues[1]);
-                            }
-                            else if (extend[0])
-                            {
-                                inputValue = inputValues[0];
-                            }
-                            else if (extend[1])
-                            {
-                                inputValue = inputValues[1];
-                            }
-                            else if (getBackground() != null)
-                            {
-                                useBackground = true;
-                            }
-                            else
-                            {
-                                continue;
-                            }
-                        }
-                    }
-                    // input value is out of range
-                    if (inputValue > 1)
-                    {
-                        // extend shading if extend[1] is true and nonzero radius
-                        if (extend[1] && coords[5] > 0)
-                        {
-                            inputValue = 1;
-                        }
-                        else
-                        {
-                            if (getBackground() == null)
-                            {
-                                continue;
-                            }
-                            useBackground = true;
-                        }
-                    }
-                    // input value is out of range
-                    else if (inputValue < 0)
-                    {
-                        // extend shading if extend[0] is true and nonzero radius
-                        if (extend[0] && coords[2] > 0)
-                        {
-                            inputValue = 0;
-                        }
-                        else
-                        {
-                            if (getBackground() == null)
-                            {
-                                continue;
-                            }
-                            useBackground = true;
-                        }
-                    }
-                }
-                int value;
-                if (useBackground)
+                float inputValue = calculateInputValue(startX + i * stepX, startY + i * stepY);
+                if (inputValue < 0)
                 {
-                    // use the given background color values
-                    value = getRgbBackground();
+                    data[index] = background;
                 }
                 else
                 {
-                    int key = (int) (inputValue * factor);
-                    value = colorTable[key];
+                    data[index] = colorTable[(int) (inputValue * factor)];
                 }
-                int index = (j * w + i) * 4;
-                data[index] = value & 255;
-                value >>= 8;
-                data[index + 1] = value & 255;
-                value >>= 8;
-                data[index + 2] = value & 255;
-                data[index + 3] = 255;
             }
         }
-        raster.setPixels(0, 0, w, h, data);
         return raster;
     }
 
-    private float[] calculateInputValues(double x, double y)
+    /**
+     * Calculates the input value of a point, clipped to the range [0, 1] if the shading is
+     * extended.
+     *
+     * @param x the horizontal distance of the point to the center of the start circle
+     * @param y the vertical distance of the point to the center of the start circle
+     * @return the input value, or -1 if the point is outside of the shading
+     */
+    private float calculateInputValue(double x, double y)
     {
         // According to Adobes Technical Note #5600 we have to do the following
         //
@@ -319,19 +271,69 @@ public class RadialShadingContext extends ShadingContext
         //
         // The following code calculates the 2 possible values of s
         //
-        double p = -(x - coords[0]) * x1x0 - (y - coords[1]) * y1y0 - coords[2] * r1r0;
-        double q = (Math.pow(x - coords[0], 2) + Math.pow(y - coords[1], 2) - r0pow2);
+        double p = -x * x1x0 - y * y1y0 - coords[2] * r1r0;
+        double q = x * x + y * y - r0pow2;
         double root = Math.sqrt(p * p - denom * q);
         float root1 = (float) ((-p + root) / denom);
         float root2 = (float) ((-p - root) / denom);
-        if (denom < 0)
+        float value0 = denom < 0 ? root1 : root2;
+        float value1 = denom < 0 ? root2 : root1;
+        if (Float.isNaN(value0) && Float.isNaN(value1))
+        {
+            return -1;
+        }
+
+        float inputValue;
+        // choose 1 of the 2 values
+        if (value0 >= 0 && value0 <= 1)
+        {
+            // both values are in the range -> choose the larger one
+            if (value1 >= 0 && value1 <= 1)
+            {
+                inputValue = Math.max(value0, value1);
+            }
+            // first value is in the range, the second not -> choose first value
+            else
+            {
+                inputValue = value0;
+            }
+        }
+        // first value is not in the range, but the second -> choose second value
+        else if (value1 >= 0 && value1 <= 1)
         {
-            return new float[] { root1, root2 };
+            inputValue = value1;
+        }
+        // both are not in the range
+        else if (extend[0] && extend[1])
+        {
+            inputValue = Math.max(value0, value1);
+        }
+        else if (extend[0])
+        {
+            inputValue = value0;
+        }
+        else if (extend[1])
+        {
+            inputValue = value1;
         }
         else
         {
-            return new float[] { root2, root1 };
+            return -1;
+        }
+
+        // input value is out of range
+        if (inputValue > 1)
+        {
+            // extend shading if extend[1] is true and nonzero radius
+            return extend[1] && coords[5] > 0 ? 1 : -1;
+        }
+        // input value is out of range
+        if (inputValue < 0)
+        {
+            // extend shading if extend[0] is true and nonzero radius
+            return extend[0] && coords[2] > 0 ? 0 : -1;
         }
+        return inputValue;
     }
 
     /**
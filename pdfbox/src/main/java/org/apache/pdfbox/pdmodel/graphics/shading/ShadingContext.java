@@ -16,12 +16,8 @@
 package org.apache.pdfbox.pdmodel.graphics.shading;
 
 import java.awt.PaintContext;
-import java.awt.Transparency;
-import java.awt.color.ColorSpace;
 import java.awt.geom.AffineTransform;
 import java.awt.image.ColorModel;
-import java.awt.image.ComponentColorModel;
-import java.awt.image.DataBuffer;
 import java.io.IOException;
 import org.apache.pdfbox.cos.COSArray;
 import org.apache.pdfbox.pdmodel.graphics.color.PDColorSpace;
@@ -35,6 +31,9 @@ import org.apache.pdfbox.util.Matrix;
  */
 public abstract class ShadingContext implements PaintContext
 {
+    // the maximum number of colors of the color tables of axial and radial shadings
+    private static final int MAXIMUM_STEPS = 1 << 16;
+
     private float[] background;
     private int rgbBackground;
     private final PDShading shading;
@@ -57,10 +56,9 @@ public abstract class ShadingContext implements PaintContext
         this.shading = shading;
         shadingColorSpace = shading.getColorSpace();
 
-        // create the output color model using RGB+alpha as color space
-        ColorSpace outputCS = ColorSpace.getInstance(ColorSpace.CS_sRGB);
-        outputColorModel = new ComponentColorModel(outputCS, true, false, Transparency.TRANSLUCENT,
-                DataBuffer.TYPE_BYTE);
+        // the output color model is sRGB + alpha packed into integers, rasters of this model are
+        // drawn by the native loops of Java2D without converting each pixel
+        outputColorModel = ColorModel.getRGBdefault();
 
         // get background values if available
         COSArray bg = shading.getBackground();
@@ -110,7 +108,30 @@ public abstract class ShadingContext implements PaintContext
 
         return normRGBValues;
     }
+
+    /**
+     * Convert RGB color values encoded by {@link #convertToRGB(float[])} into an opaque pixel of
+     * the {@link #getColorModel() color model}.
+     *
+     * @param rgb RGB values encoded in an integer.
+     * @return the ARGB pixel value.
+     */
+    static int toARGB(int rgb)
+    {
+        return 0xff000000 | (rgb & 0xff) << 16 | rgb & 0xff00 | rgb >> 16 & 0xff;
+    }
     
+    /**
+     * Returns the number of steps of a color table for a distance on the device, one per pixel.
+     *
+     * @param length the distance in device pixels
+     * @return the number of steps
+     */
+    static int getSteps(double length)
+    {
+        return (int) Math.ceil(Math.min(length, MAXIMUM_STEPS));
+    }
+
     @Override
     public ColorModel getColorModel()
     {
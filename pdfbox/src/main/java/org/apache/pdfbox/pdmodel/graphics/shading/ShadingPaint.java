@@ -31,6 +31,10 @@ public abstract class ShadingPaint<T extends PDShading> implements Paint
     protected final T shading;
     protected final Matrix matrix;
 
+    // the color table of the last context of an axial or radial shading, which depends only on
+    // the number of steps, so that the fills of the same paint can share it
+    private volatile int[] colorTable;
+
     ShadingPaint(T shading, Matrix matrix)
     {
         this.shading = shading;
@@ -52,4 +56,26 @@ public abstract class ShadingPaint<T extends PDShading> implements Paint
     {
         return matrix;
     }
+
+    /**
+     * Returns the color table of a previous context with the given number of entries.
+     *
+     * @param length the number of entries
+     * @return the color table, or null if there is none with that length
+     */
+    int[] getColorTable(int length)
+    {
+        int[] table = colorTable;
+        return table != null && table.length == length ? table : null;
+    }
+
+    /**
+     * Keeps the color table of a context for the following contexts.
+     *
+     * @param colorTable the color table, which must not be changed afterwards
+     */
+    void setColorTable(int[] colorTable)
+    {
+        this.colorTable = colorTable;
+    }
 }
@@ -18,12 +18,12 @@ package org.apache.pdfbox.pdmodel.graphics.shading;
 import java.awt.Point;
 import java.awt.Rectangle;
 import java.awt.geom.AffineTransform;
+import java.awt.geom.Point2D;
 import java.awt.image.ColorModel;
 import java.awt.image.Raster;
 import java.awt.image.WritableRaster;
 import java.io.IOException;
 import java.util.List;
-import java.util.Map;
 
 import org.apache.pdfbox.util.Matrix;
 
@@ -36,8 +36,8 @@ import org.apache.pdfbox.util.Matrix;
  */
 abstract class TriangleBasedShadingContext extends ShadingContext
 {
-    // map of pixels within triangles to their RGB color
-    private Map<Point, Integer> pixelTable;
+    // RGB colors of the pixels within triangles
+    private PixelTable pixelTable;
 
     /**
      * Constructor.
@@ -63,16 +63,16 @@ abstract class TriangleBasedShadingContext extends ShadingContext
     }
 
     /**
-     * Calculate every point and its color and store them in a Hash table.
+     * Calculate every point within the device bounds and its color and store them in a table.
      *
-     * @return a Hash table which contains all the points' positions and colors of one image
+     * @return a table which contains the colors of all points of one image
      */
-    abstract Map<Point, Integer> calcPixelTable(Rectangle deviceBounds) throws IOException;
+    abstract PixelTable calcPixelTable(Rectangle deviceBounds) throws IOException;
 
     /**
-     * Get the points from the triangles, calculate their color and add point-color mappings.
+     * Get the points from the triangles, calculate their color and set them in the pixel table.
      */
-    protected void calcPixelTable(List<ShadedTriangle> triangleList, Map<Point, Integer> map,
+    protected void calcPixelTable(List<ShadedTriangle> triangleList, PixelTable table,
             Rectangle deviceBounds) throws IOException
     {
         for (ShadedTriangle tri : triangleList)
@@ -83,7 +83,7 @@ abstract class TriangleBasedShadingContext extends ShadingContext
                 Line line = tri.getLine();
                 for (Point p : line.linePoints)
                 {
-                    map.put(p, evalFunctionAndConvertToRGB(line.calcColor(p)));
+                    table.set(p.x, p.y, evalFunctionAndConvertToRGB(line.calcColor(p)));
                 }
             }
             else
@@ -94,14 +94,22 @@ abstract class TriangleBasedShadingContext extends ShadingContext
                 boundary[2] = Math.max(boundary[2], deviceBounds.y);
                 boundary[3] = Math.min(boundary[3], deviceBounds.y + deviceBounds.height);
 
-                for (int x = boundary[0]; x <= boundary[1]; x++)
+                if (degree == 3)
                 {
-                    for (int y = boundary[2]; y <= boundary[3]; y++)
+                    fillTriangle(tri, boundary, table);
+                }
+                else
+                {
+                    Point p = new Point();
+                    for (int x = boundary[0]; x <= boundary[1]; x++)
                     {
-                        Point p = new IntPoint(x, y);
-                        if (tri.contains(p))
+                        for (int y = boundary[2]; y <= boundary[3]; y++)
                         {
-                            map.put(p, evalFunctionAndConvertToRGB(tri.calcColor(p)));
+                            p.setLocation(x, y);
+                            if (tri.contains(p))
+                            {
+                                table.set(x, y, evalFunctionAndConvertToRGB(tri.calcColor(p)));
+                            }
                         }
                     }
                 }
@@ -119,20 +127,84 @@ abstract class TriangleBasedShadingContext extends ShadingContext
                 Line l3 = new Line(p2, p0, tri.color[2], tri.color[0]);
                 for (Point p : l1.linePoints)
                 {
-                    map.put(p, evalFunctionAndConvertToRGB(l1.calcColor(p)));
+                    table.set(p.x, p.y, evalFunctionAndConvertToRGB(l1.calcColor(p)));
                 }
                 for (Point p : l2.linePoints)
                 {
-                    map.put(p, evalFunctionAndConvertToRGB(l2.calcColor(p)));
+                    table.set(p.x, p.y, evalFunctionAndConvertToRGB(l2.calcColor(p)));
                 }
                 for (Point p : l3.linePoints)
                 {
-                    map.put(p, evalFunctionAndConvertToRGB(l3.calcColor(p)));
+                    table.set(p.x, p.y, evalFunctionAndConvertToRGB(l3.calcColor(p)));
+                }
+            }
+        }
+    }
+
+    /**
+     * Sets the pixels within a triangle row by row. The pixels of a row which are within the
+     * triangle are contiguous, so only the ends of the row are searched with
+     * {@link ShadedTriangle#contains(Point2D)}, starting one pixel outside of where the row
+     * crosses the edges.
+     */
+    private void fillTriangle(ShadedTriangle tri, int[] boundary, PixelTable table)
+            throws IOException
+    {
+        Point p = new Point();
+        for (int y = boundary[2]; y <= boundary[3]; y++)
+        {
+            double minX = Double.POSITIVE_INFINITY;
+            double maxX = Double.NEGATIVE_INFINITY;
+            for (int i = 0; i < 3; i++)
+            {
+                Point2D a = tri.corner[i];
+                Point2D b = tri.corner[(i + 1) % 3];
+                double ay = a.getY();
+                double by = b.getY();
+                if (y < Math.min(ay, by) || y > Math.max(ay, by))
+                {
+                    continue;
+                }
+                if (ay == by)
+                {
+                    minX = Math.min(minX, Math.min(a.getX(), b.getX()));
+                    maxX = Math.max(maxX, Math.max(a.getX(), b.getX()));
                 }
+                else
+                {
+                    double x = a.getX() + (y - ay) * (b.getX() - a.getX()) / (by - ay);
+                    minX = Math.min(minX, x);
+                    maxX = Math.max(maxX, x);
+                }
+            }
+            if (minX > maxX)
+            {
+                continue;
+            }
+            int start = (int) Math.max(boundary[0], Math.floor(minX) - 1);
+            int end = (int) Math.min(boundary[1], Math.ceil(maxX) + 1);
+            while (start <= end && !containsPixel(tri, p, start, y))
+            {
+                start++;
+            }
+            while (end > start && !containsPixel(tri, p, end, y))
+            {
+                end--;
+            }
+            for (int x = start; x <= end; x++)
+            {
+                p.setLocation(x, y);
+                table.set(x, y, evalFunctionAndConvertToRGB(tri.calcColor(p)));
             }
         }
     }
 
+    private static boolean containsPixel(ShadedTriangle tri, Point p, int x, int y)
+    {
+        p.setLocation(x, y);
+        return tri.contains(p);
+    }
+
     /**
      * Convert color to RGB color value, using function if required, then convert from the shading
      * color space to an RGB value, which is encoded into an integer.
@@ -162,14 +234,8 @@ abstract class TriangleBasedShadingContext extends ShadingContext
             {
                 for (int col = 0; col < w; col++)
                 {
-                    Point p = new IntPoint(x + col, y + row);
-                    int value;
-                    Integer v = pixelTable.get(p);
-                    if (v != null)
-                    {
-                        value = v;
-                    }
-                    else
+                    int value = pixelTable.get(x + col, y + row);
+                    if (value == -1)
                     {
                         if (getBackground() == null)
                         {
@@ -0,0 +1,415 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.rendering;
+
+import java.awt.Color;
+import java.awt.Composite;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.Paint;
+import java.awt.PaintContext;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.Shape;
+import java.awt.Stroke;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Area;
+import java.awt.geom.Path2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.ColorModel;
+import java.awt.image.Raster;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The drawing operations of a page, as recorded by {@link RecordingGraphics}, which can be
+ * replayed onto other Graphics2D objects.
+ * <p>
+ * Each operation refers to the graphics state it was recorded with. The transform and the clip of
+ * that state are relative to the device of the recording, they are applied on top of the
+ * transform and the clip of the Graphics2D the list is replayed on, and operations whose clip is
+ * outside of the replay clip are skipped. So the list can be replayed at another scale than the
+ * one it was recorded at, by scaling the Graphics2D. Images which {@link PageDrawer} creates at
+ * device resolution, e.g. for transparency groups, are scaled with the rest, so they lose quality
+ * when replayed at a larger scale. Soft masks are positioned in device space and can only be
+ * replayed at the recorded scale, see {@link #isScalable()}.
+ * <p>
+ * The list may be replayed by several threads at the same time, e.g. into different tiles of the
+ * same image. Paints other than plain colors, i.e. shadings, patterns and soft masks, read the
+ * document when creating their paint contexts and aren't thread safe, so they are used by one
+ * thread at a time.
+ */
+final class DisplayList
+{
+    /**
+     * A drawing operation, which is replayed with the graphics state it was recorded with.
+     */
+    interface Operation
+    {
+        void paint(Graphics2D graphics);
+    }
+
+    /**
+     * The graphics state of recorded operations, consecutive operations share the same instance
+     * as long as the state doesn't change.
+     */
+    static final class State
+    {
+        private final AffineTransform transform;
+        private final Shape clip;
+        private final Rectangle2D clipBounds;
+        private final RenderingHints hints;
+        private final Paint paint;
+        private final Composite composite;
+        private final Stroke stroke;
+        private final Color background;
+        private final Font font;
+
+        private State(AffineTransform transform, Shape clip, RenderingHints hints, Paint paint,
+                Composite composite, Stroke stroke, Color background, Font font)
+        {
+            this.transform = transform;
+            this.clip = clip;
+            this.clipBounds = clip == null ? null : clip.getBounds2D();
+            this.hints = hints;
+            this.paint = paint;
+            this.composite = composite;
+            this.stroke = stroke;
+            this.background = background;
+            this.font = font;
+        }
+
+        AffineTransform getTransform()
+        {
+            return transform;
+        }
+
+        Shape getClip()
+        {
+            return clip;
+        }
+
+        RenderingHints getRenderingHints()
+        {
+            return hints;
+        }
+    }
+
+    private static final class Item
+    {
+        private final State state;
+        private final Operation operation;
+
+        private Item(State state, Operation operation)
+        {
+            this.state = state;
+            this.operation = operation;
+        }
+    }
+
+    // estimated memory used by an item and by a state, without the shapes and images they refer to
+    private static final long ITEM_SIZE = 64;
+    private static final long STATE_SIZE = 256;
+
+    private final float scale;
+    private final List<Item> items = new ArrayList<>();
+    private long size;
+    private boolean scalable = true;
+    private boolean complete = true;
+
+    // the paint of the last created state, to share its wrapper with the next states
+    private Paint lastPaint;
+    private Paint lastSerializedPaint;
+
+    /**
+     * Constructor.
+     *
+     * @param scale the scale of the device the operations are recorded for, 1 = 72 DPI
+     */
+    DisplayList(float scale)
+    {
+        this.scale = scale;
+    }
+
+    /**
+     * Returns the scale of the device the operations have been recorded for.
+     */
+    float getScale()
+    {
+        return scale;
+    }
+
+    /**
+     * Returns whether the list can be replayed at other scales than the recorded one, which is
+     * the case when it doesn't use soft masks.
+     */
+    boolean isScalable()
+    {
+        return scalable;
+    }
+
+    /**
+     * Returns whether all operations of the page have been recorded. This isn't the case when the
+     * page has to be drawn directly, because it uses the page image as backdrop of a
+     * transparency group or copies an area of the device, the list is empty then.
+     */
+    boolean isComplete()
+    {
+        return complete;
+    }
+
+    /**
+     * Marks the list as incomplete and removes the recorded operations, operations which are
+     * added afterwards are ignored.
+     */
+    void setIncomplete()
+    {
+        complete = false;
+        items.clear();
+        size = 0;
+    }
+
+    /**
+     * Returns the estimated number of bytes used by the list, including the recorded images and
+     * shapes.
+     */
+    long getSize()
+    {
+        return size;
+    }
+
+    /**
+     * Creates a graphics state for recorded operations.
+     *
+     * @param transform the transform of the recording device, must not be changed afterwards
+     * @param clip the clip in the space of the recording device, must not be changed afterwards
+     * @param hints the rendering hints, must not be changed afterwards
+     * @param paint the paint
+     * @param composite the composite
+     * @param stroke the stroke
+     * @param background the background color
+     * @param font the font
+     * @param clipSize the estimated number of bytes used by the clip if it is a new one, or 0
+     * @return the graphics state
+     */
+    State createState(AffineTransform transform, Shape clip, RenderingHints hints, Paint paint,
+            Composite composite, Stroke stroke, Color background, Font font, long clipSize)
+    {
+        if (complete)
+        {
+            size += STATE_SIZE + clipSize;
+        }
+        if (paint instanceof SoftMask)
+        {
+            scalable = false;
+        }
+        if (!(paint instanceof Color) && paint != null)
+        {
+            if (paint != lastPaint)
+            {
+                lastPaint = paint;
+                lastSerializedPaint = new SerializedPaint(paint);
+            }
+            paint = lastSerializedPaint;
+        }
+        return new State(transform, clip, hints, paint, composite, stroke, background, font);
+    }
+
+    /**
+     * Adds an operation.
+     *
+     * @param state the graphics state of the operation
+     * @param operation the operation
+     * @param operationSize the estimated number of bytes used by the arguments of the operation
+     */
+    void add(State state, Operation operation, long operationSize)
+    {
+        if (!complete)
+        {
+            return;
+        }
+        items.add(new Item(state, operation));
+        size += ITEM_SIZE + operationSize;
+    }
+
+    /**
+     * Replays the recorded operations. The transform and the clip of the given graphics are
+     * restored afterwards, the other attributes are left as set by the last operation.
+     *
+     * @param graphics the graphics to draw on
+     */
+    void replay(Graphics2D graphics)
+    {
+        AffineTransform base = graphics.getTransform();
+        Shape baseClip = graphics.getClip();
+        Rectangle2D baseClipBounds = baseClip == null ? null : baseClip.getBounds2D();
+        State applied = null;
+        State current = null;
+        boolean visible = false;
+        for (Item item : items)
+        {
+            if (item.state != current)
+            {
+                current = item.state;
+                visible = apply(graphics, current, applied, base, baseClip, baseClipBounds);
+                if (visible)
+                {
+                    applied = current;
+                }
+            }
+            if (visible)
+            {
+                item.operation.paint(graphics);
+            }
+        }
+        graphics.setTransform(base);
+        graphics.setClip(baseClip);
+    }
+
+    // sets the attributes of the state which differ from the last applied one, returns false
+    // if the clip of the state is outside of the replay clip
+    private static boolean apply(Graphics2D graphics, State state, State applied,
+            AffineTransform base, Shape baseClip, Rectangle2D baseClipBounds)
+    {
+        if (state.clipBounds != null && baseClipBounds != null &&
+                !state.clipBounds.intersects(baseClipBounds))
+        {
+            return false;
+        }
+        boolean clipChanged = applied == null || state.clip != applied.clip;
+        if (clipChanged || state.transform != applied.transform)
+        {
+            graphics.setTransform(base);
+            if (clipChanged)
+            {
+                graphics.setClip(baseClip);
+                if (state.clip != null)
+                {
+                    if (baseClip == null || baseClip instanceof Rectangle2D &&
+                            baseClipBounds.contains(state.clipBounds))
+                    {
+                        // avoid the intersection of the clips, which is slow for non rectangles
+                        graphics.setClip(state.clip);
+                    }
+                    else if (state.clip instanceof Rectangle2D)
+                    {
+                        graphics.clip(state.clip);
+                    }
+                    else
+                    {
+                        // Graphics2D.clip() would turn a rectangular intersection into a
+                        // rectangle, which is rounded differently than a path, so that the clip
+                        // would differ from the recorded one
+                        Area area = new Area(state.clip);
+                        area.intersect(new Area(baseClip));
+                        graphics.setClip(new Path2D.Double(area));
+                    }
+                }
+            }
+            graphics.transform(state.transform);
+        }
+        if (applied == null || state.hints != applied.hints)
+        {
+            graphics.setRenderingHints(state.hints);
+        }
+        if (applied == null || state.paint != applied.paint)
+        {
+            graphics.setPaint(state.paint);
+        }
+        if (applied == null || state.composite != applied.composite)
+        {
+            graphics.setComposite(state.composite);
+        }
+        if (applied == null || state.stroke != applied.stroke)
+        {
+            graphics.setStroke(state.stroke);
+        }
+        if (applied == null || state.background != applied.background)
+        {
+            graphics.setBackground(state.background);
+        }
+        if (applied == null || state.font != applied.font)
+        {
+            graphics.setFont(state.font);
+        }
+        return true;
+    }
+
+    /**
+     * Paint which creates and uses the contexts of the wrapped paint in one thread at a time.
+     */
+    private final class SerializedPaint implements Paint
+    {
+        private final Paint paint;
+
+        private SerializedPaint(Paint paint)
+        {
+            this.paint = paint;
+        }
+
+        @Override
+        public PaintContext createContext(ColorModel cm, Rectangle deviceBounds,
+                Rectangle2D userBounds, AffineTransform xform, RenderingHints hints)
+        {
+            synchronized (DisplayList.this)
+            {
+                return new SerializedPaintContext(
+                        paint.createContext(cm, deviceBounds, userBounds, xform, hints));
+            }
+        }
+
+        @Override
+        public int getTransparency()
+        {
+            return paint.getTransparency();
+        }
+    }
+
+    private final class SerializedPaintContext implements PaintContext
+    {
+        private final PaintContext context;
+
+        private SerializedPaintContext(PaintContext context)
+        {
+            this.context = context;
+        }
+
+        @Override
+        public void dispose()
+        {
+            synchronized (DisplayList.this)
+            {
+                context.dispose();
+            }
+        }
+
+        @Override
+        public ColorModel getColorModel()
+        {
+            return context.getColorModel();
+        }
+
+        @Override
+        public Raster getRaster(int x, int y, int w, int h)
+        {
+            synchronized (DisplayList.this)
+            {
+                return context.getRaster(x, y, w, h);
+            }
+        }
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.rendering;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.pdmodel.PDPage;
+
+/**
+ * The display lists of the pages rendered by a {@link PDFRenderer}, with a fixed budget of bytes.
+ * When the budget is exceeded, the display lists of the least recently rendered pages are
+ * evicted; display lists larger than the budget aren't cached at all.
+ * <p>
+ * There is one display list per page, destination and image type. A new recording replaces the cached one,
+ * unless the cached one can be replayed at more scales, i.e. it is scalable and has been recorded
+ * at a larger scale, because replaying at a smaller scale keeps the quality.
+ */
+final class DisplayListCache
+{
+    private final long maximumSize;
+    private final Map<Key, DisplayList> displayLists = new LinkedHashMap<>(16, 0.75f, true);
+    private long size;
+    private long hitCount;
+
+    /**
+     * Constructor.
+     *
+     * @param maximumSize the maximum number of bytes used by the display lists in the cache
+     */
+    DisplayListCache(long maximumSize)
+    {
+        this.maximumSize = maximumSize;
+    }
+
+    /**
+     * Returns the display list of a page which can be replayed at the given scale.
+     *
+     * @param page the page
+     * @param destination the destination the page is rendered for
+     * @param imageType the type of the image the page is rendered into
+     * @param scale the scale of the rendering
+     * @return the display list, or null if none can be used for this scale
+     */
+    DisplayList get(PDPage page, RenderDestination destination, int imageType, float scale)
+    {
+        DisplayList displayList = displayLists.get(new Key(page, destination, imageType));
+        if (displayList == null)
+        {
+            return null;
+        }
+        if (!displayList.isComplete() || displayList.getScale() == scale ||
+                displayList.isScalable() && scale < displayList.getScale())
+        {
+            hitCount++;
+            return displayList;
+        }
+        return null;
+    }
+
+    /**
+     * Puts the display list of a page in the cache.
+     *
+     * @param page the page
+     * @param destination the destination the page has been recorded for
+     * @param imageType the type of the image the page has been recorded for
+     * @param displayList the display list
+     */
+    void put(PDPage page, RenderDestination destination, int imageType, DisplayList displayList)
+    {
+        long displayListSize = displayList.getSize();
+        if (displayListSize > maximumSize)
+        {
+            return;
+        }
+        Key key = new Key(page, destination, imageType);
+        DisplayList previous = displayLists.get(key);
+        if (previous != null)
+        {
+            if (previous.isScalable() && previous.getScale() > displayList.getScale())
+            {
+                return;
+            }
+            size -= previous.getSize();
+        }
+        displayLists.put(key, displayList);
+        size += displayListSize;
+
+        // the least recently used display lists come first
+        Iterator<DisplayList> iterator = displayLists.values().iterator();
+        while (size > maximumSize && iterator.hasNext())
+        {
+            DisplayList eldest = iterator.next();
+            iterator.remove();
+            size -= eldest.getSize();
+        }
+    }
+
+    /**
+     * Returns the budget of this cache.
+     */
+    long getMaximumSize()
+    {
+        return maximumSize;
+    }
+
+    /**
+     * Returns the number of bytes used by the display lists in the cache.
+     */
+    long getSize()
+    {
+        return size;
+    }
+
+    /**
+     * Returns the number of display lists which have been returned by {@link #get}, package-private
+     * for testing.
+     */
+    long getHitCount()
+    {
+        return hitCount;
+    }
+
+    private static final class Key
+    {
+        private final COSDictionary page;
+        private final RenderDestination destination;
+        private final int imageType;
+
+        Key(PDPage page, RenderDestination destination, int imageType)
+        {
+            this.page = page.getCOSObject();
+            this.destination = destination;
+            this.imageType = imageType;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return (System.identityHashCode(page) * 31 + Objects.hashCode(destination)) * 31 + imageType;
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (this == obj)
+            {
+                return true;
+            }
+            if (!(obj instanceof Key))
+            {
+                return false;
+            }
+            Key other = (Key) obj;
+            return page == other.page && destination == other.destination &&
+                    imageType == other.imageType;
+        }
+    }
+}
@@ -0,0 +1,328 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.rendering;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.Shape;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.GeneralPath;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
+import java.awt.image.Raster;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.pdmodel.font.PDFont;
+
+/**
+ * Anti-aliased coverage masks of small glyphs, which are drawn as images instead of filling the
+ * glyph outlines. Filling a path through Java2D has a high fixed cost, which dominates when the
+ * glyphs are only a few pixels high, e.g. in thumbnails.
+ * <p>
+ * Only glyphs which are neither rotated nor skewed on the device are cached. The masks are keyed
+ * by font dictionary, character code, the device scale rounded to 1/16 pixel per em and the
+ * position within the pixel rounded to 1/8 pixel, so glyphs may be placed up to 1/16 pixel away
+ * from their exact position. The cache has a fixed budget of bytes, when it is exceeded the least
+ * recently used masks are evicted.
+ */
+final class GlyphRasterCache
+{
+    private static final Log LOG = LogFactory.getLog(GlyphRasterCache.class);
+
+    /**
+     * The default budget in bytes, which can be set with the system property
+     * "pdfbox.rendering.glyphraster.cachesize".
+     */
+    static final long DEFAULT_MAXIMUM_SIZE;
+    private static final String DEFAULT_CACHE_SIZE = "16777216";
+
+    static
+    {
+        String s = System.getProperty("pdfbox.rendering.glyphraster.cachesize", DEFAULT_CACHE_SIZE);
+        long val;
+        try
+        {
+            val = Long.parseLong(s);
+        }
+        catch (NumberFormatException ex)
+        {
+            LOG.error("Default will be used", ex);
+            val = Long.parseLong(DEFAULT_CACHE_SIZE);
+        }
+        DEFAULT_MAXIMUM_SIZE = val;
+    }
+
+    // fractions of a pixel per em and within a pixel
+    private static final int SCALE_STEPS = 16;
+    private static final int POSITION_STEPS = 8;
+
+    // glyph space units per em of the normalized glyph paths
+    private static final int UNITS_PER_EM = 1000;
+
+    private static final Mask EMPTY = new Mask(0, 0, null);
+
+    private final float threshold;
+    private final long maximumSize;
+    private final Map<Key, Mask> masks = new LinkedHashMap<>(256, 0.75f, true);
+    private long size;
+
+    /**
+     * Constructor.
+     *
+     * @param threshold the size of the em square in device pixels, up to which glyphs are cached
+     * @param maximumSize the maximum number of bytes used by the masks in the cache
+     */
+    GlyphRasterCache(float threshold, long maximumSize)
+    {
+        this.threshold = threshold;
+        this.maximumSize = maximumSize;
+    }
+
+    /**
+     * Returns the size of the em square in device pixels, up to which glyphs are cached.
+     */
+    float getThreshold()
+    {
+        return threshold;
+    }
+
+    /**
+     * Returns the budget of this cache.
+     */
+    long getMaximumSize()
+    {
+        return maximumSize;
+    }
+
+    /**
+     * Returns the number of bytes used by the masks in the cache.
+     */
+    long getSize()
+    {
+        return size;
+    }
+
+    /**
+     * Returns whether a glyph can be drawn from the cache.
+     *
+     * @param device the transform from glyph space to device space
+     * @return true if the glyph is small enough and neither rotated nor skewed
+     */
+    boolean isCacheable(AffineTransform device)
+    {
+        if (device.getShearX() != 0 || device.getShearY() != 0)
+        {
+            return false;
+        }
+        double size = Math.max(Math.abs(device.getScaleX()), Math.abs(device.getScaleY()));
+        return size > 0 && size * UNITS_PER_EM <= threshold;
+    }
+
+    /**
+     * Draws a glyph from its cached mask, which is created first if needed.
+     *
+     * @param graphics the graphics, with the clip, the paint and the composite of the glyph
+     * @param device the transform from glyph space to device space, see
+     * {@link #isCacheable(AffineTransform)}
+     * @param font the font
+     * @param code the character code
+     * @param path the normalized path of the glyph
+     * @param color the color of the glyph
+     */
+    void drawGlyph(Graphics2D graphics, AffineTransform device, PDFont font, int code,
+            GeneralPath path, Color color)
+    {
+        int scaleX = (int) Math.round(device.getScaleX() * UNITS_PER_EM * SCALE_STEPS);
+        int scaleY = (int) Math.round(device.getScaleY() * UNITS_PER_EM * SCALE_STEPS);
+        double translateX = device.getTranslateX();
+        double translateY = device.getTranslateY();
+        int x = (int) Math.floor(translateX);
+        int y = (int) Math.floor(translateY);
+        int offsetX = (int) Math.round((translateX - x) * POSITION_STEPS);
+        int offsetY = (int) Math.round((translateY - y) * POSITION_STEPS);
+
+        Key key = new Key(font, code, scaleX, scaleY, offsetX, offsetY);
+        Mask mask = masks.get(key);
+        if (mask == null)
+        {
+            mask = createMask(graphics, path, scaleX, scaleY, offsetX, offsetY);
+            put(key, mask);
+        }
+        if (mask.raster == null)
+        {
+            return;
+        }
+
+        BufferedImage image = mask.getImage(color);
+        AffineTransform transform = graphics.getTransform();
+        graphics.setTransform(new AffineTransform());
+        graphics.drawImage(image, x + mask.x, y + mask.y, null);
+        graphics.setTransform(transform);
+    }
+
+    // masks larger than the budget are drawn, but not cached
+    private void put(Key key, Mask mask)
+    {
+        long maskSize = mask.getSize();
+        if (maskSize > maximumSize)
+        {
+            return;
+        }
+        masks.put(key, mask);
+        size += maskSize;
+
+        // the least recently used masks come first
+        Iterator<Mask> iterator = masks.values().iterator();
+        while (size > maximumSize && iterator.hasNext())
+        {
+            Mask eldest = iterator.next();
+            iterator.remove();
+            size -= eldest.getSize();
+        }
+    }
+
+    private static Mask createMask(Graphics2D graphics, GeneralPath path, int scaleX, int scaleY,
+            int offsetX, int offsetY)
+    {
+        AffineTransform at = new AffineTransform(
+                (double) scaleX / (UNITS_PER_EM * SCALE_STEPS), 0,
+                0, (double) scaleY / (UNITS_PER_EM * SCALE_STEPS),
+                (double) offsetX / POSITION_STEPS, (double) offsetY / POSITION_STEPS);
+        Shape glyph = at.createTransformedShape(path);
+        Rectangle bounds = glyph.getBounds();
+        if (bounds.isEmpty())
+        {
+            return EMPTY;
+        }
+        // stroke normalization may move the edges a bit
+        bounds.grow(1, 1);
+
+        BufferedImage image =
+                new BufferedImage(bounds.width, bounds.height, BufferedImage.TYPE_BYTE_GRAY);
+        Graphics2D g = image.createGraphics();
+        g.setRenderingHints(graphics.getRenderingHints());
+        g.translate(-bounds.x, -bounds.y);
+        g.setColor(Color.WHITE);
+        g.fill(glyph);
+        g.dispose();
+        return new Mask(bounds.x, bounds.y, image.getRaster());
+    }
+
+    /**
+     * The coverage of a glyph, and an image of the glyph in the last color it has been drawn in.
+     * Premultiplied images are drawn by the fastest loops of Java2D.
+     */
+    private static final class Mask
+    {
+        private final int x;
+        private final int y;
+        private final Raster raster;
+        private Color color;
+        private BufferedImage image;
+
+        private Mask(int x, int y, Raster raster)
+        {
+            this.x = x;
+            this.y = y;
+            this.raster = raster;
+        }
+
+        /**
+         * Returns the number of bytes used by the coverage and by the image of one color.
+         */
+        private long getSize()
+        {
+            return raster == null ? 0 : 5L * raster.getWidth() * raster.getHeight();
+        }
+
+        private BufferedImage getImage(Color color)
+        {
+            if (!color.equals(this.color))
+            {
+                int width = raster.getWidth();
+                int height = raster.getHeight();
+                // a new image, as the previous one may still be referenced by a display list
+                image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB_PRE);
+                byte[] coverage = ((DataBufferByte) raster.getDataBuffer()).getData();
+                int[] pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+                int alpha = color.getAlpha();
+                int red = color.getRed();
+                int green = color.getGreen();
+                int blue = color.getBlue();
+                for (int i = 0; i < pixels.length; i++)
+                {
+                    int a = ((coverage[i] & 0xff) * alpha + 127) / 255;
+                    pixels[i] = a << 24 | (red * a + 127) / 255 << 16 |
+                            (green * a + 127) / 255 << 8 | (blue * a + 127) / 255;
+                }
+                this.color = color;
+            }
+            return image;
+        }
+    }
+
+    private static final class Key
+    {
+        private final COSDictionary font;
+        private final int code;
+        private final int scaleX;
+        private final int scaleY;
+        private final int offsetX;
+        private final int offsetY;
+
+        private Key(PDFont font, int code, int scaleX, int scaleY, int offsetX, int offsetY)
+        {
+            // fonts without indirect reference are loaded again for every page
+            this.font = font.getCOSObject();
+            this.code = code;
+            this.scaleX = scaleX;
+            this.scaleY = scaleY;
+            this.offsetX = offsetX;
+            this.offsetY = offsetY;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            int hash = System.identityHashCode(font);
+            hash = hash * 31 + code;
+            hash = hash * 31 + scaleX;
+            hash = hash * 31 + scaleY;
+            return hash * 31 + offsetX * POSITION_STEPS + offsetY;
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (!(obj instanceof Key))
+            {
+                return false;
+            }
+            Key other = (Key) obj;
+            return font == other.font && code == other.code && scaleX == other.scaleX &&
+                    scaleY == other.scaleY && offsetX == other.offsetX &&
+                    offsetY == other.offsetY;
+        }
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.rendering;
+
+import java.awt.Point;
+import java.awt.Transparency;
+import java.awt.color.ColorSpace;
+import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.awt.image.ComponentColorModel;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
+import java.awt.image.Raster;
+import java.awt.image.WritableRaster;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The pixel arrays of the offscreen images of transparency groups and soft masks of a page. A
+ * page may contain hundreds of groups, often as large as the page, so the arrays of images which
+ * are no longer used are kept and given to the next images, instead of allocating and clearing
+ * new ones each time.
+ * <p>
+ * The images have exactly the requested size and their rows start at the beginning of the array,
+ * so that they can be accessed like images created by the BufferedImage constructor.
+ */
+final class OffscreenBufferPool
+{
+    private static final int MAXIMUM_FREE_BUFFERS = 8;
+
+    private static final int[] ARGB_MASKS = { 0x00ff0000, 0x0000ff00, 0x000000ff, 0xff000000 };
+
+    private static final ColorModel ARGB_COLOR_MODEL = ColorModel.getRGBdefault();
+
+    // http://stackoverflow.com/a/21181943/535646
+    private static final ColorModel GRAY_ALPHA_COLOR_MODEL = new ComponentColorModel(
+            ColorSpace.getInstance(ColorSpace.CS_GRAY),
+            true, false, Transparency.TRANSLUCENT, DataBuffer.TYPE_BYTE);
+
+    private final List<int[]> freeIntBuffers = new ArrayList<>();
+    private final List<byte[]> freeByteBuffers = new ArrayList<>();
+
+    /**
+     * Returns a transparent image of type {@link BufferedImage#TYPE_INT_ARGB}.
+     *
+     * @param width the width of the image
+     * @param height the height of the image
+     * @return the image
+     */
+    BufferedImage getARGBImage(int width, int height)
+    {
+        int size = width * height;
+        int[] data;
+        int index = findBuffer(freeIntBuffers, size);
+        if (index >= 0)
+        {
+            data = freeIntBuffers.remove(index);
+            Arrays.fill(data, 0, size, 0);
+        }
+        else
+        {
+            data = new int[size];
+        }
+        WritableRaster raster = Raster.createPackedRaster(new DataBufferInt(data, size), width,
+                height, width, ARGB_MASKS, null);
+        return new BufferedImage(ARGB_COLOR_MODEL, raster, false, null);
+    }
+
+    /**
+     * Returns a transparent image with a gray and an alpha byte per pixel.
+     *
+     * @param width the width of the image
+     * @param height the height of the image
+     * @return the image
+     */
+    BufferedImage getGrayAlphaImage(int width, int height)
+    {
+        // gray + alpha
+        int[] bandOffsets = new int[] {1, 0};
+        int bands = bandOffsets.length;
+
+        int size = width * height * bands;
+        byte[] data;
+        int index = findBuffer(freeByteBuffers, size);
+        if (index >= 0)
+        {
+            data = freeByteBuffers.remove(index);
+            Arrays.fill(data, 0, size, (byte) 0);
+        }
+        else
+        {
+            data = new byte[size];
+        }
+        WritableRaster raster = Raster.createInterleavedRaster(new DataBufferByte(data, size),
+                width, height, width * bands, bands, bandOffsets, new Point(0, 0));
+        return new BufferedImage(GRAY_ALPHA_COLOR_MODEL, raster, false, null);
+    }
+
+    /**
+     * Gives back the pixels of an image of this pool. The image must not be used afterwards,
+     * neither directly nor by a paint or a display list that has drawn it.
+     *
+     * @param image the image
+     */
+    void release(BufferedImage image)
+    {
+        DataBuffer buffer = image.getRaster().getDataBuffer();
+        if (buffer instanceof DataBufferInt)
+        {
+            addBuffer(freeIntBuffers, ((DataBufferInt) buffer).getData());
+        }
+        else if (buffer instanceof DataBufferByte)
+        {
+            addBuffer(freeByteBuffers, ((DataBufferByte) buffer).getData());
+        }
+    }
+
+    // returns the index of the smallest buffer with at least the given length, or -1
+    private static int findBuffer(List<?> buffers, int length)
+    {
+        int found = -1;
+        int foundLength = Integer.MAX_VALUE;
+        for (int i = 0; i < buffers.size(); i++)
+        {
+            Object buffer = buffers.get(i);
+            int bufferLength = buffer instanceof int[] ?
+                    ((int[]) buffer).length : ((byte[]) buffer).length;
+            if (bufferLength >= length && bufferLength < foundLength)
+            {
+                found = i;
+                foundLength = bufferLength;
+            }
+        }
+        return found;
+    }
+
+    private static <T> void addBuffer(List<T> buffers, T buffer)
+    {
+        if (buffers.contains(buffer))
+        {
+            return;
+        }
+        if (buffers.size() == MAXIMUM_FREE_BUFFERS)
+        {
+            buffers.remove(0);
+        }
+        buffers.add(buffer);
+    }
+}
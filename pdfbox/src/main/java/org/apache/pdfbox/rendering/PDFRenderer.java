@@ -21,9 +21,19 @@ import java.awt.DisplayMode;
 import java.awt.Graphics2D;
 import java.awt.GraphicsConfiguration;
 import java.awt.GraphicsDevice;
+import java.awt.Rectangle;
 import java.awt.RenderingHints;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import org.apache.commons.logging.Log;
@@ -66,6 +76,22 @@ public class PDFRenderer
 
     private BufferedImage pageImage;
 
+    // whether the image of the current page has been requested as backdrop of a group
+    private boolean pageImageRequested;
+
+    private int renderingThreads = 1;
+
+    // the threads replaying the tiles, created when they are needed for the first time
+    private ThreadPoolExecutor renderingExecutor;
+
+    private DisplayListCache displayListCache;
+
+    private GlyphRasterCache glyphRasterCache;
+
+    private TilingCellCache tilingCellCache = new TilingCellCache(TilingCellCache.DEFAULT_MAXIMUM_SIZE);
+
+    private boolean transparencyGroupsDrawnDirectly = true;
+
     private static boolean kcmsLogged = false;
 
     private float imageDownscalingOptimizationThreshold = 0.5f;
@@ -108,6 +134,7 @@ public class PDFRenderer
     public void setAnnotationsFilter(AnnotationFilter annotationsFilter)
     {
         this.annotationFilter = annotationsFilter;
+        clearCaches();
     }
 
     /**
@@ -136,6 +163,7 @@ public class PDFRenderer
     public void setSubsamplingAllowed(boolean subsamplingAllowed)
     {
         this.subsamplingAllowed = subsamplingAllowed;
+        clearCaches();
     }
 
     /**
@@ -173,6 +201,176 @@ public class PDFRenderer
     public void setRenderingHints(RenderingHints renderingHints)
     {
         this.renderingHints = renderingHints;
+        clearCaches();
+        if (glyphRasterCache != null)
+        {
+            // the masks are anti-aliased according to the hints
+            glyphRasterCache = new GlyphRasterCache(glyphRasterCache.getThreshold(),
+                    glyphRasterCache.getMaximumSize());
+        }
+    }
+
+    /**
+     * Returns the number of threads used to render a single page to an image.
+     *
+     * @return the number of threads, 1 by default
+     */
+    public int getRenderingThreads()
+    {
+        return renderingThreads;
+    }
+
+    /**
+     * Sets the number of threads used to render a single page to an image with the
+     * <code>renderImage</code> methods. If there is more than one, the drawing operations of the page
+     * are recorded first and then replayed into horizontal tiles of the image in parallel, one tile
+     * per thread. This speeds up the rendering of very heavy pages, e.g. maps or CAD drawings with
+     * millions of path segments. Pages with transparency groups which need the page as backdrop
+     * are rendered by one thread. Anti-aliased edges which cross the border of two tiles may differ
+     * slightly from the rendering with one thread, as Java2D clips paths to the tiles.
+     * <p>
+     * The threads are kept by the renderer and reused for all pages. They are daemon threads which
+     * end after being idle for a few seconds.
+     *
+     * @param renderingThreads the number of threads, values less than 1 are treated as 1
+     */
+    public void setRenderingThreads(int renderingThreads)
+    {
+        renderingThreads = Math.max(renderingThreads, 1);
+        if (renderingThreads != this.renderingThreads && renderingExecutor != null)
+        {
+            renderingExecutor.shutdown();
+            renderingExecutor = null;
+        }
+        this.renderingThreads = renderingThreads;
+    }
+
+    private ExecutorService getRenderingExecutor()
+    {
+        if (renderingExecutor == null)
+        {
+            renderingExecutor = new ThreadPoolExecutor(renderingThreads, renderingThreads,
+                    5, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable ->
+                    {
+                        Thread thread = new Thread(runnable, "PDFRenderer tile");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+            renderingExecutor.allowCoreThreadTimeOut(true);
+        }
+        return renderingExecutor;
+    }
+
+    /**
+     * Returns the maximum number of bytes used by the display lists of rendered pages.
+     *
+     * @return the maximum size of the display list cache, 0 if the cache is disabled, which is
+     * the default
+     */
+    public long getDisplayListCacheSize()
+    {
+        return displayListCache == null ? 0 : displayListCache.getMaximumSize();
+    }
+
+    /**
+     * Sets the maximum number of bytes used by the display lists of rendered pages, and clears the
+     * cache. The drawing operations of a page which is rendered to an image with the
+     * <code>renderImage</code> methods are then recorded into a display list, which is kept as long
+     * as it fits into the cache. Rendering the same page again, e.g. at another zoom level, only
+     * replays the display list, without parsing the page and its fonts, images and shadings again.
+     * <p>
+     * A display list can be replayed at the scale it has been recorded at, and at smaller ones if
+     * the page doesn't use soft masks; rendering the page at a larger scale records it again.
+     * Transparency groups, patterns and very thin lines are drawn at the resolution of the
+     * recording, so they may differ slightly from a page rendered directly at the smaller scale.
+     * Changes of the document aren't seen by the cached display lists, so the cache has to be
+     * cleared with this method after changing a page that has already been rendered.
+     *
+     * @param maximumSize the maximum size of the cache in bytes, 0 disables the cache
+     */
+    public void setDisplayListCacheSize(long maximumSize)
+    {
+        displayListCache = maximumSize > 0 ? new DisplayListCache(maximumSize) : null;
+    }
+
+    /**
+     * Returns the display list cache, or null if it is disabled.
+     */
+    DisplayListCache getDisplayListCache()
+    {
+        return displayListCache;
+    }
+
+    /**
+     * Returns the size up to which filled glyphs are drawn from cached images.
+     *
+     * @return the size of the em square in device pixels, 0 if the cache is disabled, which is
+     * the default
+     */
+    public float getGlyphRasterThreshold()
+    {
+        return glyphRasterCache == null ? 0 : glyphRasterCache.getThreshold();
+    }
+
+    /**
+     * Sets the size up to which filled glyphs are drawn from cached images instead of filling
+     * their outlines, and clears the cache. Filling the outlines of glyphs which are only a few
+     * pixels high is slow compared to their size, so this speeds up the rendering of text heavy
+     * pages at low resolutions, e.g. for thumbnails. Only glyphs filled with a plain color which
+     * are neither rotated nor skewed are cached, and not when rendering for printing. The cached
+     * glyphs are placed with a precision of 1/8 pixel, so they may differ slightly from filled
+     * outlines. The cached glyphs use at most 16 MB, which can be changed with the system property
+     * "pdfbox.rendering.glyphraster.cachesize".
+     *
+     * @param threshold the size of the em square in device pixels, e.g. 20, 0 disables the cache
+     */
+    public void setGlyphRasterThreshold(float threshold)
+    {
+        glyphRasterCache = threshold > 0 ?
+                new GlyphRasterCache(threshold, GlyphRasterCache.DEFAULT_MAXIMUM_SIZE) : null;
+    }
+
+    /**
+     * Returns the glyph raster cache, or null if it is disabled.
+     */
+    GlyphRasterCache getGlyphRasterCache()
+    {
+        return glyphRasterCache;
+    }
+
+    /**
+     * Returns whether transparency groups which don't need an offscreen image are drawn directly.
+     */
+    boolean isTransparencyGroupsDrawnDirectly()
+    {
+        return transparencyGroupsDrawnDirectly;
+    }
+
+    /**
+     * Sets whether transparency groups which don't need an offscreen image are drawn directly,
+     * package-private for testing.
+     */
+    void setTransparencyGroupsDrawnDirectly(boolean drawnDirectly)
+    {
+        this.transparencyGroupsDrawnDirectly = drawnDirectly;
+    }
+
+    /**
+     * Returns the cache of rendered tiling pattern cells.
+     */
+    TilingCellCache getTilingCellCache()
+    {
+        return tilingCellCache;
+    }
+
+    // the display lists and the pattern cells depend on the settings of the renderer
+    private void clearCaches()
+    {
+        if (displayListCache != null)
+        {
+            displayListCache = new DisplayListCache(displayListCache.getMaximumSize());
+        }
+        tilingCellCache = new TilingCellCache(tilingCellCache.getMaximumSize());
     }
 
     /**
@@ -195,6 +393,7 @@ public class PDFRenderer
     public void setImageDownscalingOptimizationThreshold(float imageDownscalingOptimizationThreshold)
     {
         this.imageDownscalingOptimizationThreshold = imageDownscalingOptimizationThreshold;
+        clearCaches();
     }
 
     /**
@@ -340,8 +539,14 @@ public class PDFRenderer
         PageDrawerParameters parameters =
                 new PageDrawerParameters(this, page, subsamplingAllowed, destination,
                         actualRenderingHints, imageDownscalingOptimizationThreshold);
-        PageDrawer drawer = createPageDrawer(parameters);
-        drawer.drawPage(g, cropBox);
+        if (renderingThreads > 1 && image.getHeight() > 1 || displayListCache != null)
+        {
+            drawRecordedPage(parameters, g, image, cropBox, scale);
+        }
+        else
+        {
+            createPageDrawer(parameters).drawPage(g, cropBox);
+        }
         
         g.dispose();
 
@@ -361,6 +566,134 @@ public class PDFRenderer
         return image;
     }
 
+    /**
+     * Draws the page by replaying its display list, which is taken from the cache or recorded.
+     */
+    private void drawRecordedPage(PageDrawerParameters parameters, Graphics2D g,
+            BufferedImage image, PDRectangle cropBox, float scale) throws IOException
+    {
+        PDPage page = parameters.getPage();
+        RenderDestination destination = parameters.getDestination();
+        DisplayList displayList = displayListCache == null ? null :
+                displayListCache.get(page, destination, image.getType(), scale);
+        if (displayList == null)
+        {
+            displayList = recordPage(parameters, g, cropBox, scale);
+            if (displayListCache != null)
+            {
+                displayListCache.put(page, destination, image.getType(), displayList);
+            }
+        }
+        if (!displayList.isComplete())
+        {
+            // the page image was still empty when it was used as backdrop, nothing has been
+            // drawn yet, so draw the page without recording
+            createPageDrawer(parameters).drawPage(g, cropBox);
+            return;
+        }
+        replay(displayList, image, scale / displayList.getScale());
+    }
+
+    private DisplayList recordPage(PageDrawerParameters parameters, Graphics2D g,
+            PDRectangle cropBox, float scale) throws IOException
+    {
+        DisplayList displayList = new DisplayList(scale);
+        Graphics2D recorder = new RecordingGraphics((Graphics2D) g.create(), displayList);
+        pageImageRequested = false;
+        try
+        {
+            createPageDrawer(parameters).drawPage(recorder, cropBox);
+        }
+        finally
+        {
+            recorder.dispose();
+        }
+        if (pageImageRequested)
+        {
+            displayList.setIncomplete();
+        }
+        return displayList;
+    }
+
+    /**
+     * Replays a display list into the image, scaled by the given factor. With several rendering
+     * threads, the list is replayed into horizontal tiles of the image in parallel. The tiles
+     * don't overlap and each one has its own graphics clipped to it, so they are drawn directly
+     * into the image, using the same device coordinates as when the page is drawn by one thread.
+     */
+    private void replay(DisplayList displayList, BufferedImage image, float scale)
+            throws IOException
+    {
+        if (renderingThreads == 1 || image.getHeight() == 1)
+        {
+            Graphics2D graphics = image.createGraphics();
+            try
+            {
+                if (scale != 1)
+                {
+                    graphics.scale(scale, scale);
+                }
+                displayList.replay(graphics);
+            }
+            finally
+            {
+                graphics.dispose();
+            }
+            return;
+        }
+
+        int tileCount = Math.min(renderingThreads, image.getHeight());
+        int tileHeight = (image.getHeight() + tileCount - 1) / tileCount;
+        ExecutorService executor = getRenderingExecutor();
+        List<Future<?>> tiles = new ArrayList<>(tileCount);
+        try
+        {
+            for (int y = 0; y < image.getHeight(); y += tileHeight)
+            {
+                Rectangle tile = new Rectangle(0, y, image.getWidth(),
+                        Math.min(tileHeight, image.getHeight() - y));
+                tiles.add(executor.submit(() ->
+                {
+                    Graphics2D tileGraphics = image.createGraphics();
+                    try
+                    {
+                        tileGraphics.setClip(tile);
+                        if (scale != 1)
+                        {
+                            tileGraphics.scale(scale, scale);
+                        }
+                        displayList.replay(tileGraphics);
+                    }
+                    finally
+                    {
+                        tileGraphics.dispose();
+                    }
+                }));
+            }
+            for (Future<?> tile : tiles)
+            {
+                tile.get();
+            }
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Rendering of the page has been interrupted");
+        }
+        catch (ExecutionException e)
+        {
+            throw new IOException("Rendering of a tile of the page failed", e.getCause());
+        }
+        finally
+        {
+            // stop the remaining tiles if one of them failed
+            for (Future<?> tile : tiles)
+            {
+                tile.cancel(true);
+            }
+        }
+    }
+
     /**
      * Renders a given page to an AWT Graphics2D instance at 72 DPI.
      * <p>
@@ -576,6 +909,7 @@ public class PDFRenderer
      */
     BufferedImage getPageImage()
     {
+        pageImageRequested = true;
         return pageImage;
     }
 
@@ -24,14 +24,11 @@ import java.awt.GraphicsConfiguration;
 import java.awt.GraphicsDevice;
 import java.awt.Image;
 import java.awt.Paint;
-import java.awt.Point;
 import java.awt.Rectangle;
 import java.awt.RenderingHints;
 import java.awt.Shape;
 import java.awt.Stroke;
 import java.awt.TexturePaint;
-import java.awt.Transparency;
-import java.awt.color.ColorSpace;
 import java.awt.geom.AffineTransform;
 import java.awt.geom.Area;
 import java.awt.geom.GeneralPath;
@@ -41,13 +38,8 @@ import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
 import java.awt.image.BufferedImage;
 import java.awt.image.ByteLookupTable;
-import java.awt.image.ColorModel;
-import java.awt.image.ComponentColorModel;
-import java.awt.image.DataBuffer;
-import java.awt.image.DataBufferByte;
 import java.awt.image.LookupOp;
 import java.awt.image.LookupTable;
-import java.awt.image.Raster;
 import java.awt.image.WritableRaster;
 import java.io.IOException;
 import java.util.ArrayDeque;
@@ -84,6 +76,7 @@ import org.apache.pdfbox.pdmodel.graphics.color.PDPattern;
 import org.apache.pdfbox.pdmodel.graphics.color.PDSeparation;
 import org.apache.pdfbox.pdmodel.graphics.form.PDFormXObject;
 import org.apache.pdfbox.pdmodel.graphics.form.PDTransparencyGroup;
+import org.apache.pdfbox.pdmodel.graphics.form.PDTransparencyGroupAttributes;
 import org.apache.pdfbox.pdmodel.graphics.image.PDImage;
 import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
 import org.apache.pdfbox.pdmodel.graphics.optionalcontent.PDOptionalContentGroup;
@@ -161,9 +154,21 @@ public class PageDrawer extends PDFGraphicsStreamEngine
     private final Map<PDFont, GlyphCache> glyphCaches = new HashMap<>();
 
     private final TilingPaintFactory tilingPaintFactory = new TilingPaintFactory(this);
+
+    private final ShadingPaintCache shadingPaintCache = new ShadingPaintCache();
     
     private final Deque<TransparencyGroup> transparencyGroupStack = new ArrayDeque<>();
 
+    // pixels of the images of transparency groups and soft masks
+    private final OffscreenBufferPool bufferPool = new OffscreenBufferPool();
+
+    // number of transparency groups and soft masks being drawn, the images of groups drawn into
+    // them are copied, unlike those drawn to the page graphics, which may keep a reference
+    private int offscreenDepth;
+
+    // the last rendered soft mask, which is used until the soft mask or the clipping path changes
+    private SoftMaskImage lastSoftMask;
+
     // if greater zero the content is hidden and will not be rendered
     private int nestedHiddenOCGCount;
 
@@ -226,6 +231,14 @@ public class PageDrawer extends PDFGraphicsStreamEngine
         return renderer;
     }
 
+    /**
+     * Returns the destination the page is drawn for.
+     */
+    RenderDestination getDestination()
+    {
+        return destination;
+    }
+
     /**
      * Returns the underlying Graphics2D. May be null if drawPage has not yet been called.
      * 
@@ -386,8 +399,8 @@ public class PageDrawer extends PDFGraphicsStreamEngine
                     LOG.error("shadingPattern is null, will be filled with transparency");
                     return new Color(0,0,0,0);
                 }
-                return shading.toPaint(Matrix.concatenate(getInitialMatrix(),
-                                                          shadingPattern.getMatrix()));
+                return shadingPaintCache.getPaint(shading,
+                        Matrix.concatenate(getInitialMatrix(), shadingPattern.getMatrix()));
             }
         }
     }
@@ -424,6 +437,20 @@ public class PageDrawer extends PDFGraphicsStreamEngine
      */
     protected void transferClip(Graphics2D graphics)
     {
+        Rectangle2D rectangle = getRectangularClip(getGraphicsState().getCurrentClippingPaths());
+        if (rectangle != null)
+        {
+            if (rectangle.isEmpty())
+            {
+                graphics.setClip(new Rectangle());
+            }
+            else
+            {
+                // not a Rectangle2D, which Java2D would round differently than the Area
+                graphics.setClip(new Path2D.Double(rectangle));
+            }
+            return;
+        }
         Area clippingPath = getGraphicsState().getCurrentClippingPath();
         if (clippingPath.getPathIterator(null).isDone())
         {
@@ -538,6 +565,12 @@ public class PageDrawer extends PDFGraphicsStreamEngine
                 }
             }
 
+            if (renderingMode == RenderingMode.FILL && isContentRendered() &&
+                    drawCachedGlyph(path, font, code, at))
+            {
+                return;
+            }
+
             // render glyph
             Shape glyph = at.createTransformedShape(path);
 
@@ -568,6 +601,37 @@ public class PageDrawer extends PDFGraphicsStreamEngine
         }
     }
 
+    /**
+     * Draws a small filled glyph from the glyph raster cache of the renderer, if enabled.
+     *
+     * @return false if the glyph can't be drawn from the cache and has to be filled
+     */
+    private boolean drawCachedGlyph(GeneralPath path, PDFont font, int code, AffineTransform at)
+            throws IOException
+    {
+        GlyphRasterCache cache = renderer.getGlyphRasterCache();
+        if (cache == null || destination == RenderDestination.PRINT)
+        {
+            return false;
+        }
+        AffineTransform device = graphics.getTransform();
+        device.concatenate(at);
+        if (!cache.isCacheable(device))
+        {
+            return false;
+        }
+        Paint paint = getNonStrokingPaint();
+        if (!(paint instanceof Color))
+        {
+            return false;
+        }
+        graphics.setComposite(getGraphicsState().getNonStrokingJavaComposite());
+        graphics.setPaint(paint);
+        setClip();
+        cache.drawGlyph(graphics, device, font, code, path, (Color) paint);
+        return true;
+    }
+
     @Override
     protected void showType3Glyph(Matrix textRenderingMatrix, PDType3Font font, int code,
             Vector displacement) throws IOException
@@ -601,6 +665,26 @@ public class PageDrawer extends PDFGraphicsStreamEngine
         {
             return parentPaint;
         }
+        // the mask is rendered once for all fills and glyphs drawn with it, not for each one
+        Area clip = getGraphicsState().getCurrentClippingPath();
+        if (lastSoftMask == null || lastSoftMask.softMask != softMask ||
+                lastSoftMask.clip != clip || lastSoftMask.pageSize != pageSize ||
+                !lastSoftMask.xform.equals(xform))
+        {
+            lastSoftMask = createSoftMaskImage(softMask, clip);
+        }
+        if (lastSoftMask.gray == null)
+        {
+            // Adobe Reader ignores empty softmasks instead of using bc color
+            // sample file: PDFJS-6967_reduced_outside_softmask.pdf
+            return parentPaint;
+        }
+        return new SoftMask(parentPaint, lastSoftMask.gray, lastSoftMask.bounds,
+                lastSoftMask.backdropColor, softMask.getTransferFunction());
+    }
+
+    private SoftMaskImage createSoftMaskImage(PDSoftMask softMask, Area clip) throws IOException
+    {
         PDColor backdropColor = null;
         if (COSName.LUMINOSITY.equals(softMask.getSubType()))
         {
@@ -620,9 +704,7 @@ public class PageDrawer extends PDFGraphicsStreamEngine
         BufferedImage image = transparencyGroup.getImage();
         if (image == null)
         {
-            // Adobe Reader ignores empty softmasks instead of using bc color
-            // sample file: PDFJS-6967_reduced_outside_softmask.pdf
-            return parentPaint;
+            return new SoftMaskImage(softMask, clip, xform, pageSize, null, null, null);
         }
         BufferedImage gray = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_BYTE_GRAY);
         if (COSName.ALPHA.equals(softMask.getSubType()))
@@ -639,10 +721,38 @@ public class PageDrawer extends PDFGraphicsStreamEngine
         {
             throw new IOException("Invalid soft mask subtype.");
         }
+        bufferPool.release(image);
         gray = adjustImage(gray);
         
         Rectangle2D tpgBounds = transparencyGroup.getBounds();
-        return new SoftMask(parentPaint, gray, tpgBounds, backdropColor, softMask.getTransferFunction());
+        return new SoftMaskImage(softMask, clip, xform, pageSize, gray, tpgBounds, backdropColor);
+    }
+
+    /**
+     * A rendered soft mask and what it has been rendered for.
+     */
+    private static final class SoftMaskImage
+    {
+        private final PDSoftMask softMask;
+        private final Area clip;
+        private final AffineTransform xform;
+        private final PDRectangle pageSize;
+        private final BufferedImage gray;
+        private final Rectangle2D bounds;
+        private final PDColor backdropColor;
+
+        private SoftMaskImage(PDSoftMask softMask, Area clip, AffineTransform xform,
+                PDRectangle pageSize, BufferedImage gray, Rectangle2D bounds,
+                PDColor backdropColor)
+        {
+            this.softMask = softMask;
+            this.clip = clip;
+            this.xform = new AffineTransform(xform);
+            this.pageSize = pageSize;
+            this.gray = gray;
+            this.bounds = bounds;
+            this.backdropColor = backdropColor;
+        }
     }
 
     // returns the image adjusted for applySoftMaskToPaint().
@@ -955,6 +1065,100 @@ public class PageDrawer extends PDFGraphicsStreamEngine
         clipWindingRule = windingRule;
     }
 
+    /**
+     * Intersects the clipping paths arithmetically if all of them are axis-aligned rectangles,
+     * which is much faster than intersecting them as areas. Report generators often clip each
+     * cell of a table to its rectangle.
+     *
+     * This method is package-private for testing.
+     *
+     * @param clippingPaths the clipping paths
+     * @return the intersection, or null if a clipping path isn't an axis-aligned rectangle
+     */
+    static Rectangle2D getRectangularClip(List<Path2D> clippingPaths)
+    {
+        Rectangle2D intersection = null;
+        double[] coords = new double[8];
+        for (Path2D path : clippingPaths)
+        {
+            if (!getRectangleCorners(path, coords))
+            {
+                return null;
+            }
+            double minX = Math.min(coords[0], coords[4]);
+            double minY = Math.min(coords[1], coords[5]);
+            double maxX = Math.max(coords[0], coords[4]);
+            double maxY = Math.max(coords[1], coords[5]);
+            if (intersection != null)
+            {
+                minX = Math.max(minX, intersection.getMinX());
+                minY = Math.max(minY, intersection.getMinY());
+                maxX = Math.min(maxX, intersection.getMaxX());
+                maxY = Math.min(maxY, intersection.getMaxY());
+            }
+            intersection = new Rectangle2D.Double(minX, minY,
+                    Math.max(maxX - minX, 0), Math.max(maxY - minY, 0));
+        }
+        return intersection;
+    }
+
+    // gets the four corners of a path which consists of one axis-aligned rectangle,
+    // package-private for testing
+    static boolean getRectangleCorners(Path2D path, double[] corners)
+    {
+        PathIterator iter = path.getPathIterator(null);
+        double[] coords = new double[6];
+        int count = 0;
+        boolean closed = false;
+        boolean lineToStart = false;
+        while (!iter.isDone())
+        {
+            int segment = iter.currentSegment(coords);
+            if (closed)
+            {
+                // a trailing move is allowed, as well as a close after an explicit line back to
+                // the start, anything else is another subpath
+                if (segment != PathIterator.SEG_MOVETO &&
+                    !(segment == PathIterator.SEG_CLOSE && lineToStart))
+                {
+                    return false;
+                }
+                lineToStart = false;
+            }
+            else if (segment == PathIterator.SEG_CLOSE)
+            {
+                closed = true;
+            }
+            else if (segment == PathIterator.SEG_MOVETO && count == 0 ||
+                    segment == PathIterator.SEG_LINETO && count > 0 && count < 4)
+            {
+                corners[count * 2] = coords[0];
+                corners[count * 2 + 1] = coords[1];
+                count++;
+            }
+            else if (segment == PathIterator.SEG_LINETO && count == 4 &&
+                    coords[0] == corners[0] && coords[1] == corners[1])
+            {
+                // explicit line back to the start
+                closed = true;
+                lineToStart = true;
+            }
+            else
+            {
+                return false;
+            }
+            iter.next();
+        }
+        if (count != 4)
+        {
+            return false;
+        }
+        return corners[0] == corners[2] && corners[3] == corners[5] &&
+                corners[4] == corners[6] && corners[7] == corners[1] ||
+               corners[1] == corners[3] && corners[2] == corners[4] &&
+                corners[5] == corners[7] && corners[6] == corners[0];
+    }
+
     @Override
     public void moveTo(float x, float y)
     {
@@ -1453,7 +1657,7 @@ public class PageDrawer extends PDFGraphicsStreamEngine
         if (!area.isEmpty())
         {
             // creating Paint is sometimes a costly operation, so avoid if possible
-            Paint paint = shading.toPaint(ctm);
+            Paint paint = shadingPaintCache.getPaint(shading, ctm);
             paint = applySoftMaskToPaint(paint, getGraphicsState().getSoftMask());
             graphics.setPaint(paint);
             graphics.fill(area);
@@ -1565,6 +1769,15 @@ public class PageDrawer extends PDFGraphicsStreamEngine
         {
             return;
         }
+        if (graphics == this.graphics && renderer.isTransparencyGroupsDrawnDirectly() &&
+                isDrawnDirectly(form))
+        {
+            GeneralPath savedLinePath = linePath;
+            linePath = new GeneralPath();
+            processTransparencyGroup(form);
+            linePath = savedLinePath;
+            return;
+        }
         TransparencyGroup group
                 = new TransparencyGroup(form, false, getGraphicsState().getCurrentTransformationMatrix(), null);
         BufferedImage image = group.getImage();
@@ -1623,6 +1836,54 @@ public class PageDrawer extends PDFGraphicsStreamEngine
         }
 
         graphics.setTransform(savedTransform);
+
+        if (graphics == this.graphics && offscreenDepth > 0)
+        {
+            // the image has been drawn into the image of another group or soft mask
+            bufferPool.release(image);
+        }
+    }
+
+    /**
+     * Returns whether a transparency group can be drawn like a form, because compositing its
+     * contents one by one with the backdrop gives the same result as compositing the group as a
+     * whole. This is the case if the group is painted without alpha, soft mask and blend mode, if
+     * it is no knockout group, if its contents only use the Normal blend mode, so that it doesn't
+     * matter whether it is isolated, and if its colors aren't converted to gray.
+     */
+    private boolean isDrawnDirectly(PDTransparencyGroup form) throws IOException
+    {
+        PDGraphicsState state = getGraphicsState();
+        if (state.getNonStrokeAlphaConstant() < 1 || state.getSoftMask() != null ||
+                state.getBlendMode() != BlendMode.NORMAL)
+        {
+            return false;
+        }
+        PDTransparencyGroupAttributes group = form.getGroup();
+        return form.getBBox() != null && !group.isKnockout() &&
+                !isGray(group.getColorSpace(form.getResources())) &&
+                !hasBlendMode(form);
+    }
+
+    private boolean isGray(PDColorSpace colorSpace)
+    {
+        if (colorSpace instanceof PDDeviceGray)
+        {
+            return true;
+        }
+        if (colorSpace instanceof PDICCBased)
+        {
+            try
+            {
+                return ((PDICCBased) colorSpace).getAlternateColorSpace() instanceof PDDeviceGray;
+            }
+            catch (IOException ex)
+            {
+                LOG.debug("Couldn't get an alternate ColorSpace", ex);
+                return false;
+            }
+        }
+        return false;
     }
 
     /**
@@ -1708,15 +1969,15 @@ public class PageDrawer extends PDFGraphicsStreamEngine
             // FIXME - color space
             if (isGray(form.getGroup().getColorSpace(form.getResources())))
             {
-                image = create2ByteGrayAlphaImage(width, height);
+                image = bufferPool.getGrayAlphaImage(width, height);
             }
             else
             {
-                image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+                image = bufferPool.getARGBImage(width, height);
             }
 
             boolean needsBackdrop = !isSoftMask && !form.getGroup().isIsolated() &&
-                hasBlendMode(form, new HashSet<>());
+                hasBlendMode(form);
             BufferedImage backdropImage = null;
             // Position of this group in parent group's coordinates
             int backdropX = 0;
@@ -1789,6 +2050,7 @@ public class PageDrawer extends PDFGraphicsStreamEngine
 
             graphics = g;
             setRenderingHints();
+            offscreenDepth++;
             try
             {
                 if (isSoftMask)
@@ -1812,6 +2074,7 @@ public class PageDrawer extends PDFGraphicsStreamEngine
             }
             finally 
             {
+                offscreenDepth--;
                 flipTG = savedFlipTG;
                 lastClips = savedLastClips;
                 graphics.dispose();
@@ -1824,52 +2087,6 @@ public class PageDrawer extends PDFGraphicsStreamEngine
             }
         }
 
-        // http://stackoverflow.com/a/21181943/535646
-        private BufferedImage create2ByteGrayAlphaImage(int width, int height) 
-        {
-            // gray + alpha
-            int[] bandOffsets = new int[] {1, 0};
-            int bands = bandOffsets.length;
-
-            // Color Model used for raw GRAY + ALPHA
-            final ColorModel CM_GRAY_ALPHA
-                = new ComponentColorModel(
-                        ColorSpace.getInstance(ColorSpace.CS_GRAY),
-                        true, false, Transparency.TRANSLUCENT, DataBuffer.TYPE_BYTE);
-
-            // Init data buffer of type byte
-            DataBuffer buffer = new DataBufferByte(width * height * bands);
-
-            // Wrap the data buffer in a raster
-            WritableRaster raster =
-                    Raster.createInterleavedRaster(buffer, width, height,
-                            width * bands, bands, bandOffsets, new Point(0, 0));
-
-            // Create a custom BufferedImage with the raster and a suitable color model
-            return new BufferedImage(CM_GRAY_ALPHA, raster, false, null);
-        }
-
-        private boolean isGray(PDColorSpace colorSpace)
-        {
-            if (colorSpace instanceof PDDeviceGray)
-            {
-                return true;
-            }
-            if (colorSpace instanceof PDICCBased)
-            {
-                try
-                {
-                    return ((PDICCBased) colorSpace).getAlternateColorSpace() instanceof PDDeviceGray;
-                }
-                catch (IOException ex)
-                {
-                    LOG.debug("Couldn't get an alternate ColorSpace", ex);
-                    return false;
-                }
-            }
-            return false;
-        }
-
         BufferedImage getImage()
         {
             return image;
@@ -1900,53 +2117,103 @@ public class PageDrawer extends PDFGraphicsStreamEngine
         }
     }
 
-    private boolean hasBlendMode(PDTransparencyGroup group, Set<COSBase> groupsDone)
+    /**
+     * Returns whether the contents of a transparency group may use another blend mode than Normal.
+     * The resources of the forms, tiling patterns and Type 3 fonts used by the group are checked
+     * as well. When in doubt, i.e. if one of them can't be read or if it uses itself, this returns
+     * true.
+     */
+    private boolean hasBlendMode(PDTransparencyGroup group)
+    {
+        // a group without resources uses those of its parent
+        PDResources resources = group.getResources();
+        return hasBlendMode(group.getCOSObject(), resources != null ? resources : getResources(),
+                new HashSet<>(), new HashSet<>());
+    }
+
+    /**
+     * Checks the resources of a form, pattern or font.
+     *
+     * @param object the form, pattern or font
+     * @param resources its resources, or null if it uses those of its parent
+     * @param done the objects which have been checked already and don't use blend modes
+     * @param pending the objects which are being checked, to detect cycles
+     */
+    private boolean hasBlendMode(COSBase object, PDResources resources, Set<COSBase> done,
+            Set<COSBase> pending)
     {
-        if (groupsDone.contains(group.getCOSObject()))
+        if (done.contains(object))
         {
-            // The group was already processed. Avoid endless recursion.
             return false;
         }
-        groupsDone.add(group.getCOSObject());
-
-        PDResources resources = group.getResources();
-        if (resources == null)
+        if (!pending.add(object))
         {
-            return false;
+            // the object uses itself
+            return true;
         }
-        for (COSName name : resources.getExtGStateNames())
+        if (resources != null)
         {
-            PDExtendedGraphicsState extGState = resources.getExtGState(name);
-            if (extGState == null)
+            for (COSName name : resources.getExtGStateNames())
             {
-                continue;
-            }
-            BlendMode blendMode = extGState.getBlendMode();
-            if (blendMode != BlendMode.NORMAL)
-            {
-                return true;
+                PDExtendedGraphicsState extGState = resources.getExtGState(name);
+                if (extGState != null && extGState.getBlendMode() != BlendMode.NORMAL)
+                {
+                    return true;
+                }
             }
-        }
-
-        // Recursively process nested transparency groups
-        for (COSName name : resources.getXObjectNames())
-        {
-            PDXObject xObject;
             try
             {
-                xObject = resources.getXObject(name);
+                for (COSName name : resources.getXObjectNames())
+                {
+                    PDXObject xObject = resources.getXObject(name);
+                    if (xObject instanceof PDFormXObject)
+                    {
+                        PDFormXObject form = (PDFormXObject) xObject;
+                        if (hasBlendMode(form.getCOSObject(), form.getResources(), done, pending))
+                        {
+                            return true;
+                        }
+                    }
+                }
+                for (COSName name : resources.getPatternNames())
+                {
+                    PDAbstractPattern pattern = resources.getPattern(name);
+                    if (pattern instanceof PDTilingPattern)
+                    {
+                        PDTilingPattern tilingPattern = (PDTilingPattern) pattern;
+                        if (hasBlendMode(tilingPattern.getCOSObject(),
+                                tilingPattern.getResources(), done, pending))
+                        {
+                            return true;
+                        }
+                    }
+                }
+                COSDictionary fonts = resources.getCOSObject().getCOSDictionary(COSName.FONT);
+                for (COSName name : resources.getFontNames())
+                {
+                    // other fonts are not loaded, only Type 3 glyphs have resources
+                    COSBase font = fonts.getDictionaryObject(name);
+                    if (!(font instanceof COSDictionary) || COSName.TYPE3.equals(
+                            ((COSDictionary) font).getCOSName(COSName.SUBTYPE)))
+                    {
+                        PDFont type3Font = resources.getFont(name);
+                        if (!(type3Font instanceof PDType3Font) ||
+                                hasBlendMode(type3Font.getCOSObject(),
+                                        ((PDType3Font) type3Font).getResources(), done, pending))
+                        {
+                            return true;
+                        }
+                    }
+                }
             }
             catch (IOException ex)
             {
-                continue;
-            }
-            if (xObject instanceof PDTransparencyGroup &&
-                hasBlendMode((PDTransparencyGroup)xObject, groupsDone))
-            {
+                LOG.debug("Resources can't be checked for blend modes", ex);
                 return true;
             }
         }
-
+        pending.remove(object);
+        done.add(object);
         return false;
     }
 
@@ -0,0 +1,683 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.rendering;
+
+import java.awt.Color;
+import java.awt.Composite;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Image;
+import java.awt.Paint;
+import java.awt.Polygon;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.Shape;
+import java.awt.Stroke;
+import java.awt.font.FontRenderContext;
+import java.awt.font.GlyphVector;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Area;
+import java.awt.geom.Line2D;
+import java.awt.geom.Path2D;
+import java.awt.geom.PathIterator;
+import java.awt.geom.RectangularShape;
+import java.awt.image.BufferedImage;
+import java.awt.image.BufferedImageOp;
+import java.awt.image.DataBuffer;
+import java.awt.image.ImageObserver;
+import java.awt.image.RenderedImage;
+import java.awt.image.renderable.RenderableImage;
+import java.text.AttributedCharacterIterator;
+import java.util.Map;
+
+/**
+ * Graphics implementation which records the drawing operations into a {@link DisplayList}
+ * instead of drawing them.
+ * <p>
+ * The graphics state is kept by a Graphics2D of the device the display list is recorded for, so
+ * that queries like {@link #getClip()} or {@link #getDeviceConfiguration()} give the same results
+ * as when drawing on that device. Shapes are copied because {@link PageDrawer} reuses its paths.
+ * {@link #copyArea(int, int, int, int, int, int)} can't be recorded, as the recorded operations
+ * don't have access to the result of the previous ones, it marks the display list as incomplete
+ * so that the page is drawn directly.
+ */
+class RecordingGraphics extends Graphics2D
+{
+    private final Graphics2D stateG2D;
+    private final DisplayList displayList;
+
+    // the state of the last recorded operation and what has been changed since then
+    private DisplayList.State state;
+    private boolean stateChanged = true;
+    private boolean transformChanged = true;
+    private boolean clipChanged = true;
+    private boolean hintsChanged = true;
+
+    /**
+     * Constructor.
+     *
+     * @param graphics the graphics which keeps the state, it isn't drawn on and is disposed
+     * together with this object
+     * @param displayList the display list to record to
+     */
+    RecordingGraphics(Graphics2D graphics, DisplayList displayList)
+    {
+        this.stateG2D = graphics;
+        this.displayList = displayList;
+    }
+
+    private void record(DisplayList.Operation operation)
+    {
+        record(operation, 0);
+    }
+
+    private void record(DisplayList.Operation operation, long operationSize)
+    {
+        if (stateChanged)
+        {
+            AffineTransform transform = transformChanged ?
+                    stateG2D.getTransform() : state.getTransform();
+            Shape clip = clipChanged ? getDeviceClip() : state.getClip();
+            RenderingHints hints = hintsChanged ?
+                    stateG2D.getRenderingHints() : state.getRenderingHints();
+            state = displayList.createState(transform, clip, hints, stateG2D.getPaint(),
+                    stateG2D.getComposite(), stateG2D.getStroke(), stateG2D.getBackground(),
+                    stateG2D.getFont(), clipChanged ? estimateSize(clip) : 0);
+            stateChanged = false;
+            transformChanged = false;
+            clipChanged = false;
+            hintsChanged = false;
+        }
+        displayList.add(state, operation, operationSize);
+    }
+
+    // the clip in device space, which doesn't change with the transform
+    private Shape getDeviceClip()
+    {
+        AffineTransform transform = stateG2D.getTransform();
+        if (transform.isIdentity())
+        {
+            return stateG2D.getClip();
+        }
+        stateG2D.setTransform(new AffineTransform());
+        Shape clip = stateG2D.getClip();
+        stateG2D.setTransform(transform);
+        return clip;
+    }
+
+    private void changeAttributes()
+    {
+        stateChanged = true;
+    }
+
+    private void changeTransform()
+    {
+        stateChanged = true;
+        transformChanged = true;
+    }
+
+    private void changeClip()
+    {
+        stateChanged = true;
+        clipChanged = true;
+    }
+
+    private void changeHints()
+    {
+        stateChanged = true;
+        hintsChanged = true;
+    }
+
+    private static Shape copy(Shape shape)
+    {
+        if (shape instanceof Path2D)
+        {
+            return (Shape) ((Path2D) shape).clone();
+        }
+        if (shape instanceof RectangularShape)
+        {
+            return (Shape) ((RectangularShape) shape).clone();
+        }
+        if (shape instanceof Area)
+        {
+            return (Shape) ((Area) shape).clone();
+        }
+        if (shape instanceof Line2D)
+        {
+            return (Shape) ((Line2D) shape).clone();
+        }
+        return new Path2D.Double(shape);
+    }
+
+    // the number of bytes used by the coordinates of a shape, roughly
+    private static long estimateSize(Shape shape)
+    {
+        if (shape == null || shape instanceof RectangularShape || shape instanceof Line2D)
+        {
+            return 0;
+        }
+        long size = 0;
+        for (PathIterator iterator = shape.getPathIterator(null); !iterator.isDone();
+                iterator.next())
+        {
+            size += 17;
+        }
+        return size;
+    }
+
+    private static long estimateSize(Image image)
+    {
+        if (image instanceof BufferedImage)
+        {
+            return estimateSize((RenderedImage) image);
+        }
+        if (image == null)
+        {
+            return 0;
+        }
+        return 4L * Math.max(image.getWidth(null), 0) * Math.max(image.getHeight(null), 0);
+    }
+
+    private static long estimateSize(RenderedImage image)
+    {
+        if (image == null)
+        {
+            return 0;
+        }
+        if (image instanceof BufferedImage)
+        {
+            DataBuffer dataBuffer = ((BufferedImage) image).getRaster().getDataBuffer();
+            return (long) dataBuffer.getSize() * dataBuffer.getNumBanks() *
+                    DataBuffer.getDataTypeSize(dataBuffer.getDataType()) / 8;
+        }
+        return 4L * image.getWidth() * image.getHeight();
+    }
+
+    private static AffineTransform copy(AffineTransform transform)
+    {
+        return transform == null ? null : new AffineTransform(transform);
+    }
+
+    @Override
+    public void clearRect(int x, int y, int width, int height)
+    {
+        record(g -> g.clearRect(x, y, width, height));
+    }
+
+    @Override
+    public void clipRect(int x, int y, int width, int height)
+    {
+        stateG2D.clipRect(x, y, width, height);
+        changeClip();
+    }
+
+    @Override
+    public void copyArea(int x, int y, int width, int height, int dx, int dy)
+    {
+        displayList.setIncomplete();
+    }
+
+    @Override
+    public Graphics create()
+    {
+        return new RecordingGraphics((Graphics2D) stateG2D.create(), displayList);
+    }
+
+    @Override
+    public void dispose()
+    {
+        stateG2D.dispose();
+    }
+
+    @Override
+    public void drawArc(int x, int y, int width, int height, int startAngle, int arcAngle)
+    {
+        record(g -> g.drawArc(x, y, width, height, startAngle, arcAngle));
+    }
+
+    @Override
+    public boolean drawImage(Image img, int x, int y, Color bgcolor, ImageObserver observer)
+    {
+        record(g -> g.drawImage(img, x, y, bgcolor, observer), estimateSize(img));
+        return true;
+    }
+
+    @Override
+    public boolean drawImage(Image img, int x, int y, ImageObserver observer)
+    {
+        record(g -> g.drawImage(img, x, y, observer), estimateSize(img));
+        return true;
+    }
+
+    @Override
+    public boolean drawImage(Image img, int x, int y, int width, int height,
+        Color bgcolor, ImageObserver observer)
+    {
+        record(g -> g.drawImage(img, x, y, width, height, bgcolor, observer), estimateSize(img));
+        return true;
+    }
+
+    @Override
+    public boolean drawImage(Image img, int x, int y, int width, int height, ImageObserver observer)
+    {
+        record(g -> g.drawImage(img, x, y, width, height, observer), estimateSize(img));
+        return true;
+    }
+
+    @Override
+    public boolean drawImage(Image img, int dx1, int dy1, int dx2, int dy2, int sx1,
+        int sy1, int sx2, int sy2, Color bgcolor, ImageObserver observer)
+    {
+        record(g -> g.drawImage(img, dx1, dy1, dx2, dy2, sx1, sy1, sx2, sy2, bgcolor, observer),
+                estimateSize(img));
+        return true;
+    }
+
+    @Override
+    public boolean drawImage(Image img, int dx1, int dy1, int dx2, int dy2, int sx1,
+            int sy1, int sx2, int sy2, ImageObserver observer)
+    {
+        record(g -> g.drawImage(img, dx1, dy1, dx2, dy2, sx1, sy1, sx2, sy2, observer),
+                estimateSize(img));
+        return true;
+    }
+
+    @Override
+    public void drawLine(int x1, int y1, int x2, int y2)
+    {
+        record(g -> g.drawLine(x1, y1, x2, y2));
+    }
+
+    @Override
+    public void drawOval(int x, int y, int width, int height)
+    {
+        record(g -> g.drawOval(x, y, width, height));
+    }
+
+    @Override
+    public void drawPolygon(int[] xPoints, int[] yPoints, int nPoints)
+    {
+        Polygon polygon = new Polygon(xPoints, yPoints, nPoints);
+        record(g -> g.drawPolygon(polygon), 8L * nPoints);
+    }
+
+    @Override
+    public void drawPolyline(int[] xPoints, int[] yPoints, int nPoints)
+    {
+        int[] x = xPoints.clone();
+        int[] y = yPoints.clone();
+        record(g -> g.drawPolyline(x, y, nPoints), 8L * nPoints);
+    }
+
+    @Override
+    public void drawRoundRect(int x, int y, int width, int height, int arcWidth, int arcHeight)
+    {
+        record(g -> g.drawRoundRect(x, y, width, height, arcWidth, arcHeight));
+    }
+
+    @Override
+    public void drawString(AttributedCharacterIterator iterator, int x, int y)
+    {
+        AttributedCharacterIterator text = (AttributedCharacterIterator) iterator.clone();
+        record(g -> g.drawString(text, x, y));
+    }
+
+    @Override
+    public void drawString(String str, int x, int y)
+    {
+        record(g -> g.drawString(str, x, y));
+    }
+
+    @Override
+    public void fillArc(int x, int y, int width, int height, int startAngle, int arcAngle)
+    {
+        record(g -> g.fillArc(x, y, width, height, startAngle, arcAngle));
+    }
+
+    @Override
+    public void fillOval(int x, int y, int width, int height)
+    {
+        record(g -> g.fillOval(x, y, width, height));
+    }
+
+    @Override
+    public void fillPolygon(int[] xPoints, int[] yPoints, int nPoints)
+    {
+        Polygon polygon = new Polygon(xPoints, yPoints, nPoints);
+        record(g -> g.fillPolygon(polygon), 8L * nPoints);
+    }
+
+    @Override
+    public void fillRect(int x, int y, int width, int height)
+    {
+        record(g -> g.fillRect(x, y, width, height));
+    }
+
+    @Override
+    public void fillRoundRect(int x, int y, int width, int height, int arcWidth, int arcHeight)
+    {
+        record(g -> g.fillRoundRect(x, y, width, height, arcWidth, arcHeight));
+    }
+
+    @Override
+    public Shape getClip()
+    {
+        return stateG2D.getClip();
+    }
+
+    @Override
+    public Rectangle getClipBounds()
+    {
+        return stateG2D.getClipBounds();
+    }
+
+    @Override
+    public Color getColor()
+    {
+        return stateG2D.getColor();
+    }
+
+    @Override
+    public Font getFont()
+    {
+        return stateG2D.getFont();
+    }
+
+    @Override
+    public FontMetrics getFontMetrics(Font f)
+    {
+        return stateG2D.getFontMetrics(f);
+    }
+
+    @Override
+    public void setClip(int x, int y, int width, int height)
+    {
+        stateG2D.setClip(x, y, width, height);
+        changeClip();
+    }
+
+    @Override
+    public void setClip(Shape clip)
+    {
+        stateG2D.setClip(clip);
+        changeClip();
+    }
+
+    @Override
+    public void setColor(Color c)
+    {
+        stateG2D.setColor(c);
+        changeAttributes();
+    }
+
+    @Override
+    public void setFont(Font font)
+    {
+        stateG2D.setFont(font);
+        changeAttributes();
+    }
+
+    @Override
+    public void setPaintMode()
+    {
+        stateG2D.setPaintMode();
+        changeAttributes();
+    }
+
+    @Override
+    public void setXORMode(Color c1)
+    {
+        stateG2D.setXORMode(c1);
+        changeAttributes();
+    }
+
+    @Override
+    public void translate(int x, int y)
+    {
+        stateG2D.translate(x, y);
+        changeTransform();
+    }
+
+    @Override
+    public void addRenderingHints(Map<?,?> hints)
+    {
+        stateG2D.addRenderingHints(hints);
+        changeHints();
+    }
+
+    @Override
+    public void clip(Shape s)
+    {
+        stateG2D.clip(s);
+        changeClip();
+    }
+
+    @Override
+    public void draw(Shape s)
+    {
+        Shape shape = copy(s);
+        record(g -> g.draw(shape), estimateSize(shape));
+    }
+
+    @Override
+    public void drawGlyphVector(GlyphVector g, float x, float y)
+    {
+        record(graphics -> graphics.drawGlyphVector(g, x, y));
+    }
+
+    @Override
+    public void drawImage(BufferedImage img, BufferedImageOp op, int x, int y)
+    {
+        record(g -> g.drawImage(img, op, x, y), estimateSize((RenderedImage) img));
+    }
+
+    @Override
+    public boolean drawImage(Image img, AffineTransform xform, ImageObserver obs)
+    {
+        AffineTransform transform = copy(xform);
+        record(g -> g.drawImage(img, transform, obs), estimateSize(img));
+        return true;
+    }
+
+    @Override
+    public void drawRenderableImage(RenderableImage img, AffineTransform xform)
+    {
+        AffineTransform transform = copy(xform);
+        record(g -> g.drawRenderableImage(img, transform));
+    }
+
+    @Override
+    public void drawRenderedImage(RenderedImage img, AffineTransform xform)
+    {
+        AffineTransform transform = copy(xform);
+        record(g -> g.drawRenderedImage(img, transform), estimateSize(img));
+    }
+
+    @Override
+    public void drawString(AttributedCharacterIterator iterator, float x, float y)
+    {
+        AttributedCharacterIterator text = (AttributedCharacterIterator) iterator.clone();
+        record(g -> g.drawString(text, x, y));
+    }
+
+    @Override
+    public void drawString(String str, float x, float y)
+    {
+        record(g -> g.drawString(str, x, y));
+    }
+
+    @Override
+    public void fill(Shape s)
+    {
+        Shape shape = copy(s);
+        record(g -> g.fill(shape), estimateSize(shape));
+    }
+
+    @Override
+    public Color getBackground()
+    {
+        return stateG2D.getBackground();
+    }
+
+    @Override
+    public Composite getComposite()
+    {
+        return stateG2D.getComposite();
+    }
+
+    @Override
+    public GraphicsConfiguration getDeviceConfiguration()
+    {
+        return stateG2D.getDeviceConfiguration();
+    }
+
+    @Override
+    public FontRenderContext getFontRenderContext()
+    {
+        return stateG2D.getFontRenderContext();
+    }
+
+    @Override
+    public Paint getPaint()
+    {
+        return stateG2D.getPaint();
+    }
+
+    @Override
+    public Object getRenderingHint(RenderingHints.Key hintKey)
+    {
+        return stateG2D.getRenderingHint(hintKey);
+    }
+
+    @Override
+    public RenderingHints getRenderingHints()
+    {
+        return stateG2D.getRenderingHints();
+    }
+
+    @Override
+    public Stroke getStroke()
+    {
+        return stateG2D.getStroke();
+    }
+
+    @Override
+    public AffineTransform getTransform()
+    {
+        return stateG2D.getTransform();
+    }
+
+    @Override
+    public boolean hit(Rectangle rect, Shape s, boolean onStroke)
+    {
+        return stateG2D.hit(rect, s, onStroke);
+    }
+
+    @Override
+    public void rotate(double theta)
+    {
+        stateG2D.rotate(theta);
+        changeTransform();
+    }
+
+    @Override
+    public void rotate(double theta, double x, double y)
+    {
+        stateG2D.rotate(theta, x, y);
+        changeTransform();
+    }
+
+    @Override
+    public void scale(double sx, double sy)
+    {
+        stateG2D.scale(sx, sy);
+        changeTransform();
+    }
+
+    @Override
+    public void setBackground(Color color)
+    {
+        stateG2D.setBackground(color);
+        changeAttributes();
+    }
+
+    @Override
+    public void setComposite(Composite comp)
+    {
+        stateG2D.setComposite(comp);
+        changeAttributes();
+    }
+
+    @Override
+    public void setPaint(Paint paint)
+    {
+        stateG2D.setPaint(paint);
+        changeAttributes();
+    }
+
+    @Override
+    public void setRenderingHint(RenderingHints.Key hintKey, Object hintValue)
+    {
+        stateG2D.setRenderingHint(hintKey, hintValue);
+        changeHints();
+    }
+
+    @Override
+    public void setRenderingHints(Map<?, ?> hints)
+    {
+        stateG2D.setRenderingHints(hints);
+        changeHints();
+    }
+
+    @Override
+    public void setStroke(Stroke s)
+    {
+        stateG2D.setStroke(s);
+        changeAttributes();
+    }
+
+    @Override
+    public void setTransform(AffineTransform tx)
+    {
+        stateG2D.setTransform(tx);
+        changeTransform();
+    }
+
+    @Override
+    public void shear(double shx, double shy)
+    {
+        stateG2D.shear(shx, shy);
+        changeTransform();
+    }
+
+    @Override
+    public void transform(AffineTransform tx)
+    {
+        stateG2D.transform(tx);
+        changeTransform();
+    }
+
+    @Override
+    public void translate(double tx, double ty)
+    {
+        stateG2D.translate(tx, ty);
+        changeTransform();
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.rendering;
+
+import java.awt.Paint;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.pdmodel.graphics.shading.PDShading;
+import org.apache.pdfbox.util.Matrix;
+
+/**
+ * The paints of the shadings of a page, so that the fills of a shading with the same matrix, e.g.
+ * a shading pattern used by many paths and glyphs, share one paint. The paints of axial and
+ * radial shadings keep the color table of their last fill, which is then calculated only once.
+ * The least recently used paints are evicted when the cache is full.
+ */
+final class ShadingPaintCache
+{
+    private static final int MAXIMUM_ENTRIES = 64;
+
+    private final Map<Key, Paint> paints = new LinkedHashMap<Key, Paint>(16, 0.75f, true)
+    {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Paint> eldest)
+        {
+            return size() > MAXIMUM_ENTRIES;
+        }
+    };
+
+    /**
+     * Returns the paint of a shading, which is created first if needed.
+     *
+     * @param shading the shading
+     * @param matrix the pattern matrix concatenated with that of the parent content stream, which
+     * may be changed afterwards
+     * @return the paint
+     */
+    Paint getPaint(PDShading shading, Matrix matrix)
+    {
+        Key key = new Key(shading.getCOSObject(), matrix);
+        Paint paint = paints.get(key);
+        if (paint == null)
+        {
+            paint = shading.toPaint(key.matrix);
+            paints.put(key, paint);
+        }
+        return paint;
+    }
+
+    private static final class Key
+    {
+        private final COSDictionary shading;
+        private final Matrix matrix;
+
+        private Key(COSDictionary shading, Matrix matrix)
+        {
+            // shadings without indirect reference are loaded again for every use
+            this.shading = shading;
+            this.matrix = matrix.clone();
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return System.identityHashCode(shading) * 31 + matrix.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (!(obj instanceof Key))
+            {
+                return false;
+            }
+            Key other = (Key) obj;
+            return shading == other.shading && matrix.equals(other.matrix);
+        }
+    }
+}
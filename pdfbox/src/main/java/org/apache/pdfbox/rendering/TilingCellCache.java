@@ -0,0 +1,202 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.rendering;
+
+import java.awt.image.BufferedImage;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.pdfbox.cos.COSDictionary;
+
+/**
+ * The rendered cells of the tiling patterns of a document, so that a pattern which is used on
+ * many pages, e.g. a hatching, is rendered once and not for every page. The cache has a fixed
+ * budget of bytes, when it is exceeded the least recently used cells are evicted.
+ * <p>
+ * A cell is identified by the pattern stream, the RGB value of the color of an uncolored pattern
+ * and the size and scale of the cell on the device. The sizes and scales are rounded to about
+ * 1/4000 of their value, cells within that tolerance are shared, as {@link TilingPaint} stretches
+ * the image to the cell anyway.
+ */
+final class TilingCellCache
+{
+    private static final Log LOG = LogFactory.getLog(TilingCellCache.class);
+
+    /**
+     * The default budget in bytes, which can be set with the system property
+     * "pdfbox.rendering.tilingpaint.cachesize", 0 disables the cache.
+     */
+    static final long DEFAULT_MAXIMUM_SIZE;
+    private static final String DEFAULT_CACHE_SIZE = "33554432";
+
+    static
+    {
+        String s = System.getProperty("pdfbox.rendering.tilingpaint.cachesize", DEFAULT_CACHE_SIZE);
+        long val;
+        try
+        {
+            val = Long.parseLong(s);
+        }
+        catch (NumberFormatException ex)
+        {
+            LOG.error("Default will be used", ex);
+            val = Long.parseLong(DEFAULT_CACHE_SIZE);
+        }
+        DEFAULT_MAXIMUM_SIZE = val;
+    }
+
+    // keeps 12 bits of the 23 bits of the mantissa
+    private static final int QUANTIZATION_MASK = ~0x7ff;
+
+    private final long maximumSize;
+    private final Map<Key, BufferedImage> cells = new LinkedHashMap<>(16, 0.75f, true);
+    private long size;
+
+    /**
+     * Constructor.
+     *
+     * @param maximumSize the maximum number of bytes used by the cells in the cache
+     */
+    TilingCellCache(long maximumSize)
+    {
+        this.maximumSize = maximumSize;
+    }
+
+    /**
+     * Returns a rendered cell.
+     *
+     * @param key the key of the cell
+     * @return the image of the cell, or null if it isn't in the cache
+     */
+    BufferedImage get(Key key)
+    {
+        return cells.get(key);
+    }
+
+    /**
+     * Puts a rendered cell in the cache, unless it is larger than the budget.
+     *
+     * @param key the key of the cell
+     * @param image the image of the cell, which must not be changed afterwards
+     */
+    void put(Key key, BufferedImage image)
+    {
+        long imageSize = (long) image.getWidth() * image.getHeight() * 4;
+        if (imageSize > maximumSize)
+        {
+            return;
+        }
+        BufferedImage previous = cells.put(key, image);
+        if (previous != null)
+        {
+            size -= (long) previous.getWidth() * previous.getHeight() * 4;
+        }
+        size += imageSize;
+
+        // the least recently used cells come first
+        Iterator<BufferedImage> iterator = cells.values().iterator();
+        while (size > maximumSize && iterator.hasNext())
+        {
+            BufferedImage eldest = iterator.next();
+            iterator.remove();
+            size -= (long) eldest.getWidth() * eldest.getHeight() * 4;
+        }
+    }
+
+    /**
+     * Returns the budget of this cache.
+     */
+    long getMaximumSize()
+    {
+        return maximumSize;
+    }
+
+    /**
+     * The identity of a rendered cell.
+     */
+    static final class Key
+    {
+        private final COSDictionary pattern;
+        private final Integer rgb;
+        private final RenderDestination destination;
+        private final int width;
+        private final int height;
+        private final int scaleX;
+        private final int scaleY;
+
+        /**
+         * Constructor.
+         *
+         * @param pattern the pattern stream
+         * @param rgb the RGB value of the color of an uncolored pattern, null for a colored one
+         * @param destination the destination the pattern is rendered for
+         * @param width the width of the cell on the device
+         * @param height the height of the cell on the device
+         * @param scaleX the horizontal scale from pattern space to the device
+         * @param scaleY the vertical scale from pattern space to the device
+         */
+        Key(COSDictionary pattern, Integer rgb, RenderDestination destination, float width,
+                float height, float scaleX, float scaleY)
+        {
+            this.pattern = pattern;
+            this.rgb = rgb;
+            this.destination = destination;
+            this.width = quantize(width);
+            this.height = quantize(height);
+            this.scaleX = quantize(scaleX);
+            this.scaleY = quantize(scaleY);
+        }
+
+        private static int quantize(float value)
+        {
+            return Float.floatToIntBits(value) & QUANTIZATION_MASK;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            int hash = System.identityHashCode(pattern);
+            hash = hash * 31 + Objects.hashCode(rgb);
+            hash = hash * 31 + Objects.hashCode(destination);
+            hash = hash * 31 + width;
+            hash = hash * 31 + height;
+            hash = hash * 31 + scaleX;
+            return hash * 31 + scaleY;
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (this == obj)
+            {
+                return true;
+            }
+            if (!(obj instanceof Key))
+            {
+                return false;
+            }
+            Key other = (Key) obj;
+            return pattern == other.pattern && Objects.equals(rgb, other.rgb) &&
+                    destination == other.destination && width == other.width &&
+                    height == other.height && scaleX == other.scaleX && scaleY == other.scaleY;
+        }
+    }
+}
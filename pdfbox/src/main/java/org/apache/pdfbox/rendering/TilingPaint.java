@@ -137,10 +137,25 @@ class TilingPaint implements Paint
         width *= xScale;
         height *= yScale;
 
+        // the same cell may have been rendered for another page
+        TilingCellCache cache = drawer.getRenderer().getTilingCellCache();
+        // an uncolored pattern is painted in the color of the underlying color space
+        Integer rgb = colorSpace == null ? null :
+                new PDColor(color.getComponents(), colorSpace).toRGB();
+        TilingCellCache.Key key = new TilingCellCache.Key(pattern.getCOSObject(), rgb,
+                drawer.getDestination(), width, height,
+                xScale * Math.abs(patternMatrix.getScalingFactorX()),
+                yScale * Math.abs(patternMatrix.getScalingFactorY()));
+        BufferedImage image = cache.get(key);
+        if (image != null)
+        {
+            return image;
+        }
+
         int rasterWidth = Math.max(1, ceiling(width));
         int rasterHeight = Math.max(1, ceiling(height));
 
-        BufferedImage image = new BufferedImage(rasterWidth, rasterHeight, BufferedImage.TYPE_INT_ARGB);
+        image = new BufferedImage(rasterWidth, rasterHeight, BufferedImage.TYPE_INT_ARGB);
 
         Graphics2D graphics = image.createGraphics();
 
@@ -175,6 +190,7 @@ class TilingPaint implements Paint
         drawer.drawTilingPattern(graphics, pattern, colorSpace, color, newPatternMatrix);
         graphics.dispose();
 
+        cache.put(key, image);
         return image;
     }
 
@@ -16,6 +16,7 @@
  */
 package org.apache.pdfbox.cos;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -25,6 +26,7 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
+import java.util.Random;
 
 import org.apache.pdfbox.filter.Filter;
 import org.apache.pdfbox.filter.FilterFactory;
@@ -161,6 +163,86 @@ class TestCOSStream
         validateEncoded(stream, testStringEncoded);
     }
 
+    /**
+     * Tests that decoding while reading gives the same result as decoding the whole stream, both
+     * for filters decoding on the fly and for filters which have to be decoded up front.
+     *
+     * @throws IOException
+     */
+    @Test
+    void testDecodingInputStream() throws IOException
+    {
+        byte[] testString = new byte[100000];
+        for (int i = 0; i < testString.length; i++)
+        {
+            testString[i] = (byte) ("TestCOSStream".charAt(i % 13) + i / 1000);
+        }
+        COSArray filters = new COSArray();
+        filters.add(COSName.ASCII85_DECODE);
+        filters.add(COSName.FLATE_DECODE);
+        filters.add(COSName.RUN_LENGTH_DECODE);
+        for (int i = 1; i <= filters.size(); i++)
+        {
+            COSArray streamFilters = new COSArray();
+            for (int j = 0; j < i; j++)
+            {
+                streamFilters.add(filters.get(j));
+            }
+            COSStream stream = new COSStream();
+            stream.setItem(COSName.FILTER, streamFilters);
+            byte[] encoded = testString;
+            for (int j = i - 1; j >= 0; j--)
+            {
+                encoded = encodeData(encoded, (COSName) streamFilters.get(j));
+            }
+            try (OutputStream output = stream.createRawOutputStream())
+            {
+                output.write(encoded);
+            }
+            try (COSInputStream input = stream.createDecodingInputStream())
+            {
+                assertTrue(Arrays.equals(testString, IOUtils.toByteArray(input)),
+                        "Decoded data doesn't match input");
+            }
+            validateDecoded(stream, testString);
+        }
+    }
+
+    /**
+     * Tests ASCII85 and Flate with data which doesn't compress, so that Flate reads many KB from
+     * the ASCII85 stream, which decodes on the fly and doesn't know how many bytes are available.
+     *
+     * @throws IOException
+     */
+    @Test
+    void testASCII85FlateDecode() throws IOException
+    {
+        byte[] testString = new byte[200000];
+        new Random(12345).nextBytes(testString);
+        COSArray filters = new COSArray();
+        filters.add(COSName.ASCII85_DECODE);
+        filters.add(COSName.FLATE_DECODE);
+        byte[] encoded = encodeData(encodeData(testString, COSName.FLATE_DECODE),
+                COSName.ASCII85_DECODE);
+        assertTrue(encoded.length > 200000);
+
+        COSStream stream = new COSStream();
+        stream.setItem(COSName.FILTER, filters);
+        try (OutputStream output = stream.createRawOutputStream())
+        {
+            output.write(encoded);
+        }
+        try (COSInputStream input = stream.createDecodingInputStream())
+        {
+            assertArrayEquals(testString, IOUtils.toByteArray(input));
+        }
+        try (COSInputStream input = stream.createInputStream())
+        {
+            assertArrayEquals(testString, IOUtils.toByteArray(input));
+        }
+        stream.close();
+    }
+
     @Test
     void testHasStreamData() throws IOException
     {
@@ -17,14 +17,25 @@
 package org.apache.pdfbox.filter;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.awt.image.WritableRaster;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 
+import java.util.Arrays;
 import java.util.Random;
 
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+
 import org.apache.pdfbox.Loader;
 import org.apache.pdfbox.cos.COSDictionary;
 import org.apache.pdfbox.cos.COSName;
@@ -176,6 +187,132 @@ class TestFilters
         checkEncodeDecode(rleFilter, input8);
     }
 
+    /**
+     * Subsampled JPEG 2000 images are decoded from a reduced resolution level, check that the
+     * region and the size are the same as with the full resolution.
+     *
+     * @throws IOException
+     */
+    @Test
+    void testJPXSubsampling() throws IOException
+    {
+        int width = 301;
+        int height = 203;
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_3BYTE_BGR);
+        for (int y = 0; y < height; y++)
+        {
+            for (int x = 0; x < width; x++)
+            {
+                image.setRGB(x, y, (x * 255 / width) << 16 | (y * 255 / height) << 8 | 128);
+            }
+        }
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("JPEG2000").next();
+        try (ImageOutputStream ios = ImageIO.createImageOutputStream(encoded))
+        {
+            writer.setOutput(ios);
+            writer.write(image);
+        }
+        finally
+        {
+            writer.dispose();
+        }
+
+        Filter jpxFilter = FilterFactory.INSTANCE.getFilter(COSName.JPX_DECODE);
+        Rectangle region = new Rectangle(10, 20, 250, 150);
+        for (int subsampling : new int[] { 1, 2, 3, 4, 8 })
+        {
+            DecodeOptions options = new DecodeOptions(subsampling);
+            options.setSourceRegion(region);
+            ByteArrayOutputStream decoded = new ByteArrayOutputStream();
+            jpxFilter.decode(new ByteArrayInputStream(encoded.toByteArray()), decoded,
+                    new COSDictionary(), 0, options);
+            assertTrue(options.isFilterSubsampled());
+
+            int decodedWidth = (region.width + subsampling - 1) / subsampling;
+            int decodedHeight = (region.height + subsampling - 1) / subsampling;
+            byte[] data = decoded.toByteArray();
+            assertEquals(decodedWidth * decodedHeight * 3, data.length, "subsampling " + subsampling);
+
+            // a smooth gradient, the low pass of the reduced resolution is close to the pixel
+            for (int y = 0; y < decodedHeight; y++)
+            {
+                for (int x = 0; x < decodedWidth; x++)
+                {
+                    int expected = image.getRGB(region.x + x * subsampling, region.y + y * subsampling);
+                    int offset = (y * decodedWidth + x) * 3;
+                    assertEquals(expected >> 16 & 0xff, data[offset] & 0xff, 8);
+                    assertEquals(expected >> 8 & 0xff, data[offset + 1] & 0xff, 8);
+                }
+            }
+        }
+    }
+
+    @Test
+    void testCCITTDecodeToRaster() throws IOException
+    {
+        int width = 1003;
+        int height = 97;
+        int rowLength = (width + 7) / 8;
+        byte[] bitmap = new byte[rowLength * height];
+        Random random = new Random(123);
+        for (int y = 0; y < height; y++)
+        {
+            // runs of all lengths, including make-up codes
+            boolean black = false;
+            int x = 0;
+            while (x < width)
+            {
+                int run = 1 + random.nextInt(y % 2 == 0 ? 8 : 400);
+                for (int i = x; black && i < Math.min(x + run, width); i++)
+                {
+                    bitmap[y * rowLength + i / 8] |= (byte) (0x80 >> (i & 7));
+                }
+                x += run;
+                black = !black;
+            }
+        }
+        COSDictionary encodeParameters = new COSDictionary();
+        encodeParameters.setInt(COSName.COLUMNS, width);
+        encodeParameters.setInt(COSName.ROWS, height);
+        Filter ccittFilter = FilterFactory.INSTANCE.getFilter(COSName.CCITTFAX_DECODE);
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+        ccittFilter.encode(new ByteArrayInputStream(bitmap), encoded, encodeParameters, 0);
+
+        COSDictionary decodeParms = new COSDictionary();
+        decodeParms.setInt(COSName.K, -1);
+        decodeParms.setInt(COSName.COLUMNS, width);
+        decodeParms.setInt(COSName.ROWS, height);
+        decodeParms.setBoolean(COSName.BLACK_IS_1, true);
+        COSDictionary parameters = new COSDictionary();
+        parameters.setItem(COSName.FILTER, COSName.CCITTFAX_DECODE);
+        parameters.setItem(COSName.DECODE_PARMS, decodeParms);
+
+        ByteArrayOutputStream decoded = new ByteArrayOutputStream();
+        ccittFilter.decode(new ByteArrayInputStream(encoded.toByteArray()), decoded, parameters, 0);
+        assertArrayEquals(bitmap, decoded.toByteArray());
+
+        WritableRaster raster = ccittFilter.decodeToRaster(
+                new ByteArrayInputStream(encoded.toByteArray()), parameters, 0);
+        assertEquals(width, raster.getWidth());
+        assertEquals(height, raster.getHeight());
+        assertEquals(1, raster.getSampleModel().getSampleSize(0));
+        assertArrayEquals(bitmap, ((DataBufferByte) raster.getDataBuffer()).getData());
+        for (int y = 0; y < height; y += 7)
+        {
+            for (int x = 0; x < width; x += 3)
+            {
+                int bit = bitmap[y * rowLength + x / 8] >> (7 - (x & 7)) & 1;
+                assertEquals(bit, raster.getSample(x, y, 0));
+            }
+        }
+
+        // the rows after the end of the data are white
+        byte[] truncated = Arrays.copyOf(encoded.toByteArray(), encoded.size() / 2);
+        raster = ccittFilter.decodeToRaster(new ByteArrayInputStream(truncated), parameters, 0);
+        assertEquals(0, raster.getSample(width - 1, height - 1, 0));
+    }
+
     private void checkEncodeDecode(Filter filter, byte[] original) throws IOException
     {
         ByteArrayOutputStream encoded = new ByteArrayOutputStream();
@@ -16,9 +16,18 @@
 package org.apache.pdfbox.pdfparser;
 
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.List;
 import org.apache.pdfbox.contentstream.operator.Operator;
 import org.apache.pdfbox.contentstream.operator.OperatorName;
+import org.apache.pdfbox.cos.COSArray;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSString;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.common.PDStream;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
@@ -103,6 +112,41 @@ class PDFStreamParserTest
         assertEquals(opName, ((Operator) tokens.get(1)).getName());
     }
 
+    /**
+     * Tests a corrupt array element which is followed by a token longer than the window of a
+     * content stream which is parsed while it is decoded, the token must be skipped instead of
+     * being rewound.
+     *
+     * @throws IOException
+     */
+    @Test
+    void testLongTokenInArray() throws IOException
+    {
+        char[] garbage = new char[20000];
+        Arrays.fill(garbage, 'x');
+        String content = "BT [(a) bad " + new String(garbage) + " (b)] TJ ET";
+        try (PDDocument document = new PDDocument())
+        {
+            PDPage page = new PDPage();
+            PDStream stream = new PDStream(document);
+            try (OutputStream out = stream.createOutputStream(COSName.FLATE_DECODE))
+            {
+                out.write(content.getBytes(StandardCharsets.US_ASCII));
+            }
+            page.setContents(stream);
+
+            List<Object> tokens = new PDFStreamParser(page).parse();
+            assertEquals(4, tokens.size());
+            assertEquals(OperatorName.BEGIN_TEXT, ((Operator) tokens.get(0)).getName());
+            COSArray array = (COSArray) tokens.get(1);
+            assertEquals(2, array.size());
+            assertEquals("a", ((COSString) array.get(0)).getString());
+            assertEquals("b", ((COSString) array.get(1)).getString());
+            assertEquals(OperatorName.SHOW_TEXT_ADJUSTED, ((Operator) tokens.get(2)).getName());
+            assertEquals(OperatorName.END_TEXT, ((Operator) tokens.get(3)).getName());
+        }
+    }
+
     // checks whether there is one operator, one inline image
     private void testInlineImage1op(String s, String imageDataString) throws IOException
     {
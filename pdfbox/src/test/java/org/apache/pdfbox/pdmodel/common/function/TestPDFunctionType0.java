@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.pdmodel.common.function;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.apache.pdfbox.cos.COSArray;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSStream;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the {@link PDFunctionType0} class.
+ */
+class TestPDFunctionType0
+{
+    private static PDFunctionType0 createFunction(float[] domain, float[] range, float[] size,
+            int[] samples) throws IOException
+    {
+        COSStream stream = new COSStream();
+        stream.setInt(COSName.FUNCTION_TYPE, 0);
+        COSArray domainArray = new COSArray();
+        domainArray.setFloatArray(domain);
+        stream.setItem(COSName.DOMAIN, domainArray);
+        COSArray rangeArray = new COSArray();
+        rangeArray.setFloatArray(range);
+        stream.setItem(COSName.RANGE, rangeArray);
+        COSArray sizeArray = new COSArray();
+        sizeArray.setFloatArray(size);
+        stream.setItem(COSName.SIZE, sizeArray);
+        stream.setInt(COSName.BITS_PER_SAMPLE, 8);
+        try (OutputStream out = stream.createOutputStream())
+        {
+            for (int sample : samples)
+            {
+                out.write(sample);
+            }
+        }
+        return new PDFunctionType0(stream);
+    }
+
+    /**
+     * Checks a function with one input and two outputs.
+     * @throws IOException if an error occurs
+     */
+    @Test
+    void testOneInput() throws IOException
+    {
+        PDFunctionType0 function = createFunction(new float[] { 0, 1 },
+                new float[] { 0, 1, 0, 1 }, new float[] { 3 },
+                new int[] { 0, 255, 51, 102, 255, 0 });
+        assertArrayEquals(new float[] { 0, 1 }, function.eval(new float[] { 0 }), 1e-6f);
+        assertArrayEquals(new float[] { 0.2f, 0.4f }, function.eval(new float[] { 0.5f }), 1e-6f);
+        assertArrayEquals(new float[] { 0.6f, 0.2f }, function.eval(new float[] { 0.75f }), 1e-6f);
+        // inputs are clipped to the domain
+        assertArrayEquals(new float[] { 1, 0 }, function.eval(new float[] { 2 }), 1e-6f);
+
+        // the changed range is used for the next evaluation
+        function.setRangeValues(createArray(0, 0.5f, 0, 0.5f));
+        assertArrayEquals(new float[] { 0.5f, 0.2f }, function.eval(new float[] { 0.75f }), 1e-6f);
+    }
+
+    /**
+     * Checks a function with two inputs, the first input varies fastest in the sample table.
+     * @throws IOException if an error occurs
+     */
+    @Test
+    void testTwoInputs() throws IOException
+    {
+        PDFunctionType0 function = createFunction(new float[] { 0, 1, 0, 1 },
+                new float[] { 0, 1 }, new float[] { 2, 2 },
+                new int[] { 0, 51, 102, 255 });
+        assertArrayEquals(new float[] { 0.2f }, function.eval(new float[] { 1, 0 }), 1e-6f);
+        assertArrayEquals(new float[] { 0.4f }, function.eval(new float[] { 0, 1 }), 1e-6f);
+        assertArrayEquals(new float[] { 0.4f }, function.eval(new float[] { 0.5f, 0.5f }),
+                1e-6f);
+        assertArrayEquals(new float[] { 0.6f }, function.eval(new float[] { 1, 0.5f }), 1e-6f);
+    }
+
+    private static COSArray createArray(float... values)
+    {
+        COSArray array = new COSArray();
+        array.setFloatArray(values);
+        return array;
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.pdmodel.common.function.type4;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests that {@link CompiledInstructionSequence} gives the same results as the interpreter.
+ */
+class TestCompiledInstructionSequence
+{
+    private static final String[] FUNCTIONS = {
+        "{ 360 mul sin 2 div exch 360 mul sin 2 div add }",
+        "{ dup 0.5 gt { 0.5 sub 2 mul } { 2 mul 1 exch sub } ifelse dup 0 }",
+        "{ 2 copy gt { exch } if pop dup mul 3 1 roll }",
+        "{ 3 1 roll 2 index add 3 -1 roll 2 copy eq not { 2 index } if }",
+        "{ 1000000 mul cvi 65535 and 8 bitshift 255 xor 3 idiv 7 mod 0.1 mul abs }",
+        "{ atan 100 div exch ln 2 exp exch 1 add log sqrt ceiling floor round truncate }",
+        "{ 2147483647 1 add -2147483648 neg 46341 46341 mul 0 1 sub cvr add }",
+        "{ true false or true xor false and not { 1 } { 2 } ifelse 1 eq 1.0 ne { 1 } { 0 } ifelse }",
+        "{ 4 copy 4 copy 4 copy 12 -5 roll 5 4 roll pop pop 0.25 lt { 1 } if }"
+    };
+
+    private static float[] interpret(String text, float[] input, int numberOfOutputs)
+    {
+        ExecutionContext context = new ExecutionContext(new Operators());
+        for (float value : input)
+        {
+            context.getStack().push(value);
+        }
+        InstructionSequenceBuilder.parse(text).execute(context);
+        float[] output = new float[numberOfOutputs];
+        for (int i = numberOfOutputs - 1; i >= 0; i--)
+        {
+            output[i] = context.popReal();
+        }
+        return output;
+    }
+
+    private static float[] executeCompiled(String text, float[] input, int numberOfOutputs)
+    {
+        CompiledInstructionSequence compiled =
+                CompiledInstructionSequence.compile(InstructionSequenceBuilder.parse(text));
+        assertNotNull(compiled);
+        float[] output = new float[numberOfOutputs];
+        assertEquals(numberOfOutputs, compiled.execute(input, output));
+        return output;
+    }
+
+    /**
+     * Compares the results of the interpreter and of the compiled functions.
+     */
+    @Test
+    void testSameResults()
+    {
+        for (String function : FUNCTIONS)
+        {
+            for (float x = 0; x <= 1; x += 0.125f)
+            {
+                float[] input = { x, 1 - x, x / 3, 0.75f };
+                int numberOfOutputs = countOutputs(function, input);
+                assertArrayEquals(interpret(function, input, numberOfOutputs),
+                        executeCompiled(function, input, numberOfOutputs), function);
+            }
+        }
+    }
+
+    /**
+     * Checks that errors are raised only when the failing instruction is reached.
+     */
+    @Test
+    void testErrors()
+    {
+        float[] output = new float[1];
+        CompiledInstructionSequence compiled = CompiledInstructionSequence.compile(
+                InstructionSequenceBuilder.parse("{ 0.5 gt { foo } { 1 } ifelse }"));
+        assertEquals(1, compiled.execute(new float[] { 0.25f }, output));
+        assertEquals(1, output[0]);
+        assertThrows(UnsupportedOperationException.class,
+                () -> compiled.execute(new float[] { 0.75f }, output));
+
+        CompiledInstructionSequence typeCheck = CompiledInstructionSequence.compile(
+                InstructionSequenceBuilder.parse("{ 0 { 2 1 add } if }"));
+        assertThrows(ClassCastException.class, () -> typeCheck.execute(new float[0], output));
+
+        // the output isn't set if there are too few results
+        CompiledInstructionSequence add = CompiledInstructionSequence.compile(
+                InstructionSequenceBuilder.parse("{ add }"));
+        assertEquals(1, add.execute(new float[] { 1, 2 }, new float[2]));
+        assertEquals(1, add.execute(new float[] { 1, 2 }, output));
+        assertEquals(3, output[0]);
+    }
+
+    /**
+     * Procs which aren't operands of "if" or "ifelse" are left to the interpreter.
+     */
+    @Test
+    void testNotCompiled()
+    {
+        assertNull(CompiledInstructionSequence.compile(
+                InstructionSequenceBuilder.parse("{ { 1 } { 2 } 3 }")));
+        assertNull(CompiledInstructionSequence.compile(
+                InstructionSequenceBuilder.parse("{ true { 1 } { 2 } { 3 } ifelse }")));
+        assertNull(CompiledInstructionSequence.compile(
+                InstructionSequenceBuilder.parse("{ true 1 if }")));
+    }
+
+    private static int countOutputs(String text, float[] input)
+    {
+        ExecutionContext context = new ExecutionContext(new Operators());
+        for (float value : input)
+        {
+            context.getStack().push(value);
+        }
+        InstructionSequenceBuilder.parse(text).execute(context);
+        return context.getStack().size();
+    }
+}
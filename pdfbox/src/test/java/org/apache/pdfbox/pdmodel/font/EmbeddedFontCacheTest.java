@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.pdmodel.font;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.Isolated;
+
+/**
+ * Tests the sharing of embedded fonts between documents. The test replaces the process-wide cache
+ * and counts its hits and misses, so it must not run concurrently with other tests loading fonts.
+ */
+@Isolated
+class EmbeddedFontCacheTest
+{
+    @AfterEach
+    void tearDown()
+    {
+        EmbeddedFontCache.setInstance(null);
+    }
+
+    @Test
+    void testSharedTrueTypeFont() throws IOException
+    {
+        byte[] pdf = createDocumentWithEmbeddedFont();
+
+        EmbeddedFontCache cache = new EmbeddedFontCache(10_000_000);
+        EmbeddedFontCache.setInstance(cache);
+        PDCIDFontType2 font1 = loadDescendantFont(pdf);
+        PDCIDFontType2 font2 = loadDescendantFont(pdf);
+        assertSame(font1.getTrueTypeFont(), font2.getTrueTypeFont());
+        assertEquals(1, cache.getMissCount());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(font1.getWidth(font1.codeToCID(1)), font2.getWidth(font2.codeToCID(1)));
+
+        // a budget smaller than the font disables caching of that font
+        cache = new EmbeddedFontCache(10);
+        EmbeddedFontCache.setInstance(cache);
+        assertNotSame(loadDescendantFont(pdf).getTrueTypeFont(),
+                loadDescendantFont(pdf).getTrueTypeFont());
+        assertEquals(0, cache.getUsedMemory());
+
+        EmbeddedFontCache.setInstance(null);
+        assertNotSame(loadDescendantFont(pdf).getTrueTypeFont(),
+                loadDescendantFont(pdf).getTrueTypeFont());
+    }
+
+    private static PDCIDFontType2 loadDescendantFont(byte[] pdf) throws IOException
+    {
+        try (PDDocument document = Loader.loadPDF(pdf))
+        {
+            PDPage page = document.getPage(0);
+            PDType0Font font = (PDType0Font) page.getResources().getFont(COSName.getPDFName("F1"));
+            return (PDCIDFontType2) font.getDescendantFont();
+        }
+    }
+
+    private static byte[] createDocumentWithEmbeddedFont() throws IOException
+    {
+        try (PDDocument document = new PDDocument();
+             InputStream input = PDFont.class.getResourceAsStream(
+                     "/org/apache/pdfbox/resources/ttf/LiberationSans-Regular.ttf"))
+        {
+            PDPage page = new PDPage();
+            document.addPage(page);
+            PDType0Font font = PDType0Font.load(document, input);
+            try (PDPageContentStream stream = new PDPageContentStream(document, page))
+            {
+                stream.beginText();
+                stream.setFont(font, 12);
+                stream.showText("Hello");
+                stream.endText();
+            }
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            document.save(baos);
+            return baos.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,370 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.pdmodel.font;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.geom.GeneralPath;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.fontbox.FontBoxFont;
+import org.apache.fontbox.util.BoundingBox;
+import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSString;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests that the memoised lookups and the fonts grouped by character collection of FontMapperImpl
+ * give the same results as scoring all fonts.
+ */
+class FontMapperImplTest
+{
+    private static final int JIS_JAPAN = 1 << 17;
+    private static final int CHINESE_SIMPLIFIED = 1 << 18;
+    private static final int KOREAN_WANSUNG = 1 << 19;
+    private static final int CHINESE_TRADITIONAL = 1 << 20;
+
+    private final TestFontInfo japaneseMincho = new TestFontInfo("JapaneseMincho", FontFormat.TTF,
+            null, JIS_JAPAN, 400, 2, 2, 5);
+    private final TestFontInfo japaneseGothic = new TestFontInfo("JapaneseGothic", FontFormat.TTF,
+            null, JIS_JAPAN, 700, 2, 11, 8);
+    private final TestFontInfo japaneseBold = new TestFontInfo("JapaneseBold", FontFormat.OTF,
+            new CIDSystemInfo("Adobe", "Japan1", 6), 0, 700);
+    private final TestFontInfo barcode = new TestFontInfo("Code128", FontFormat.TTF, null,
+            JIS_JAPAN, 400, 0, 0, 5);
+    private final TestFontInfo chineseSong = new TestFontInfo("ChineseSong", FontFormat.TTF, null,
+            CHINESE_SIMPLIFIED, 400, 2, 2, 5);
+    private final TestFontInfo chineseHei = new TestFontInfo("ChineseHei", FontFormat.TTF, null,
+            CHINESE_SIMPLIFIED | CHINESE_TRADITIONAL, 700, 2, 11, 8);
+    private final TestFontInfo koreanBatang = new TestFontInfo("KoreanBatang", FontFormat.TTF,
+            null, KOREAN_WANSUNG, 400);
+    private final TestFontInfo latinSerif = new TestFontInfo("LatinSerif", FontFormat.TTF, null,
+            0, 400, 2, 2, 5);
+
+    private FontMapperImpl fontMapper;
+
+    @BeforeEach
+    void setUp()
+    {
+        fontMapper = new FontMapperImpl();
+        fontMapper.setProvider(new TestFontProvider(latinSerif, japaneseMincho, chineseSong,
+                barcode, japaneseGothic, koreanBatang, japaneseBold, chineseHei));
+    }
+
+    /**
+     * Tests that the memoised and the indexed lookups return the same match as scoring all fonts,
+     * for all combinations of font descriptors and CIDSystemInfo, in changing order.
+     */
+    @Test
+    void testBestFontMatchSameAsUncached()
+    {
+        List<PDFontDescriptor> descriptors = Arrays.asList(
+                createFontDescriptor(null, 0, 2, 2, 5),
+                createFontDescriptor(null, 0, 2, 11, 8),
+                createFontDescriptor(null, 0, 0, 0, 5),
+                createFontDescriptor("Code39", 0, 0, 0, 5),
+                createFontDescriptor(null, 400),
+                createFontDescriptor(null, 700),
+                createFontDescriptor(null, 0));
+        List<PDCIDSystemInfo> cidSystemInfos = Arrays.asList(
+                new PDCIDSystemInfo("Adobe", "Japan1", 6),
+                new PDCIDSystemInfo("Adobe", "GB1", 5),
+                new PDCIDSystemInfo("Adobe", "CNS1", 7),
+                new PDCIDSystemInfo("Adobe", "Korea1", 2),
+                new PDCIDSystemInfo("Adobe", "Identity", 0),
+                null);
+
+        List<FontInfo> expected = new ArrayList<>();
+        for (PDCIDSystemInfo cidSystemInfo : cidSystemInfos)
+        {
+            for (PDFontDescriptor descriptor : descriptors)
+            {
+                expected.add(fontMapper.getBestFontMatchOfAllFonts(descriptor, cidSystemInfo));
+            }
+        }
+
+        // the first calls fill the memo, the following ones are served from it, alternating
+        // between the character collections for the same descriptor
+        for (int pass = 0; pass < 3; pass++)
+        {
+            for (int d = 0; d < descriptors.size(); d++)
+            {
+                for (int c = 0; c < cidSystemInfos.size(); c++)
+                {
+                    PDFontDescriptor descriptor = descriptors.get(d);
+                    PDCIDSystemInfo cidSystemInfo = cidSystemInfos.get(c);
+                    assertSame(expected.get(c * descriptors.size() + d),
+                            fontMapper.getBestFontMatch(descriptor, cidSystemInfo),
+                            "pass " + pass + ", descriptor " + d + ", " + cidSystemInfo);
+                }
+            }
+        }
+
+        // sanity checks of the expected matches themselves
+        PDFontDescriptor sansBold = descriptors.get(1);
+        assertSame(japaneseGothic, fontMapper.getBestFontMatch(sansBold, cidSystemInfos.get(0)));
+        assertSame(chineseSong,
+                fontMapper.getBestFontMatch(descriptors.get(0), cidSystemInfos.get(1)));
+        assertSame(chineseHei, fontMapper.getBestFontMatch(sansBold, cidSystemInfos.get(2)));
+        assertSame(koreanBatang, fontMapper.getBestFontMatch(sansBold, cidSystemInfos.get(3)));
+        assertNull(fontMapper.getBestFontMatch(sansBold, cidSystemInfos.get(4)));
+
+        // the barcode font is only used when looking for a barcode font
+        assertNotSame(barcode, fontMapper.getBestFontMatch(descriptors.get(2),
+                cidSystemInfos.get(0)));
+        assertSame(barcode, fontMapper.getBestFontMatch(descriptors.get(3),
+                cidSystemInfos.get(0)));
+    }
+
+    /**
+     * Tests that setting another provider discards the memoised lookups.
+     */
+    @Test
+    void testSetProviderClearsMatches()
+    {
+        PDFontDescriptor descriptor = createFontDescriptor(null, 0, 2, 2, 5);
+        PDCIDSystemInfo japan1 = new PDCIDSystemInfo("Adobe", "Japan1", 6);
+        assertSame(japaneseMincho, fontMapper.getBestFontMatch(descriptor, japan1));
+
+        fontMapper.setProvider(new TestFontProvider(latinSerif, koreanBatang, japaneseGothic));
+        assertSame(japaneseGothic, fontMapper.getBestFontMatch(descriptor, japan1));
+        assertSame(japaneseGothic, fontMapper.getBestFontMatchOfAllFonts(descriptor, japan1));
+
+        fontMapper.setProvider(new TestFontProvider(latinSerif, koreanBatang));
+        assertNull(fontMapper.getBestFontMatch(descriptor, japan1));
+    }
+
+    /**
+     * Tests that CID fonts are substituted by the best match of their character collection.
+     */
+    @Test
+    void testCIDFontSubstitution()
+    {
+        PDFontDescriptor descriptor = createFontDescriptor(null, 0, 2, 11, 8);
+        for (int i = 0; i < 2; i++)
+        {
+            CIDFontMapping mapping = fontMapper.getCIDFont("UnknownFont", descriptor,
+                    new PDCIDSystemInfo("Adobe", "CNS1", 7));
+            assertTrue(mapping.isFallback());
+            assertSame(chineseHei.getFont(), mapping.getTrueTypeFont());
+
+            mapping = fontMapper.getCIDFont("UnknownFont", descriptor,
+                    new PDCIDSystemInfo("Adobe", "Korea1", 2));
+            assertSame(koreanBatang.getFont(), mapping.getTrueTypeFont());
+        }
+
+        // an unsupported character collection gets the last resort font
+        CIDFontMapping mapping = fontMapper.getCIDFont("UnknownFont", descriptor,
+                new PDCIDSystemInfo("Adobe", "Identity", 0));
+        assertNotNull(mapping.getTrueTypeFont());
+        assertFalse(mapping.getTrueTypeFont() instanceof TestFont);
+    }
+
+    private static PDFontDescriptor createFontDescriptor(String fontFamily, float fontWeight,
+            int... panose)
+    {
+        PDFontDescriptor descriptor = new PDFontDescriptor(new COSDictionary());
+        if (fontFamily != null)
+        {
+            descriptor.setFontFamily(fontFamily);
+        }
+        descriptor.setFontWeight(fontWeight);
+        if (panose.length > 0)
+        {
+            COSDictionary style = new COSDictionary();
+            style.setItem(COSName.PANOSE, new COSString(createPanose(panose)));
+            descriptor.getCOSObject().setItem(COSName.STYLE, style);
+        }
+        return descriptor;
+    }
+
+    /**
+     * Creates the 12 bytes of a PDF panose: the family class followed by the family kind, the
+     * serif style and the weight.
+     */
+    private static byte[] createPanose(int... panose)
+    {
+        byte[] bytes = new byte[PDPanose.LENGTH];
+        for (int i = 0; i < panose.length; i++)
+        {
+            bytes[i + 2] = (byte) panose[i];
+        }
+        return bytes;
+    }
+
+    private static class TestFontProvider extends FontProvider
+    {
+        private final List<FontInfo> fontInfos;
+
+        TestFontProvider(FontInfo... fontInfos)
+        {
+            this.fontInfos = Collections.unmodifiableList(Arrays.asList(fontInfos));
+        }
+
+        @Override
+        public String toDebugString()
+        {
+            return fontInfos.toString();
+        }
+
+        @Override
+        public List<? extends FontInfo> getFontInfo()
+        {
+            return fontInfos;
+        }
+    }
+
+    private static class TestFontInfo extends FontInfo
+    {
+        private final String postScriptName;
+        private final FontFormat format;
+        private final CIDSystemInfo cidSystemInfo;
+        private final int codePageRange1;
+        private final int weightClass;
+        private final PDPanoseClassification panose;
+        private final TestFont font;
+
+        TestFontInfo(String postScriptName, FontFormat format, CIDSystemInfo cidSystemInfo,
+                int codePageRange1, int weightClass, int... panose)
+        {
+            this.postScriptName = postScriptName;
+            this.format = format;
+            this.cidSystemInfo = cidSystemInfo;
+            this.codePageRange1 = codePageRange1;
+            this.weightClass = weightClass;
+            this.panose = panose.length > 0 ? new PDPanose(createPanose(panose)).getPanose()
+                    : null;
+            this.font = new TestFont(postScriptName);
+        }
+
+        @Override
+        public String getPostScriptName()
+        {
+            return postScriptName;
+        }
+
+        @Override
+        public FontFormat getFormat()
+        {
+            return format;
+        }
+
+        @Override
+        public CIDSystemInfo getCIDSystemInfo()
+        {
+            return cidSystemInfo;
+        }
+
+        @Override
+        public FontBoxFont getFont()
+        {
+            return font;
+        }
+
+        @Override
+        public int getFamilyClass()
+        {
+            return 0;
+        }
+
+        @Override
+        public int getWeightClass()
+        {
+            return weightClass;
+        }
+
+        @Override
+        public int getCodePageRange1()
+        {
+            return codePageRange1;
+        }
+
+        @Override
+        public int getCodePageRange2()
+        {
+            return 0;
+        }
+
+        @Override
+        public int getMacStyle()
+        {
+            return 0;
+        }
+
+        @Override
+        public PDPanoseClassification getPanose()
+        {
+            return panose;
+        }
+    }
+
+    private static class TestFont implements FontBoxFont
+    {
+        private final String name;
+
+        TestFont(String name)
+        {
+            this.name = name;
+        }
+
+        @Override
+        public String getName()
+        {
+            return name;
+        }
+
+        @Override
+        public BoundingBox getFontBBox()
+        {
+            return new BoundingBox();
+        }
+
+        @Override
+        public List<Number> getFontMatrix()
+        {
+            return Arrays.asList(0.001f, 0, 0, 0.001f, 0, 0);
+        }
+
+        @Override
+        public GeneralPath getPath(String name)
+        {
+            return new GeneralPath();
+        }
+
+        @Override
+        public float getWidth(String name)
+        {
+            return 0;
+        }
+
+        @Override
+        public boolean hasGlyph(String name)
+        {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.pdmodel.graphics.color;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.color.ICC_ColorSpace;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+import java.awt.image.Raster;
+import java.awt.image.WritableRaster;
+import java.io.IOException;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class CMYKLookupTableTest
+{
+    @Test
+    void testToRGBImage() throws IOException
+    {
+        ICC_ColorSpace colorSpace = new ICC_ColorSpace(new PDDeviceCMYK().getICCProfile());
+        CMYKLookupTable lookupTable = CMYKLookupTable.getInstance(colorSpace);
+        assertSame(lookupTable,
+                CMYKLookupTable.getInstance(new ICC_ColorSpace(new PDDeviceCMYK().getICCProfile())));
+
+        // grid points and random colors, in a raster with an offset
+        int width = 64;
+        int height = 64;
+        WritableRaster raster = Raster.createBandedRaster(DataBuffer.TYPE_BYTE, width + 3,
+                height + 5, 4, null).createWritableChild(3, 5, width, height, 0, 0, null);
+        Random random = new Random(4711);
+        for (int y = 0; y < height; y++)
+        {
+            for (int x = 0; x < width; x++)
+            {
+                for (int b = 0; b < 4; b++)
+                {
+                    int value = y < height / 2 ? random.nextInt(18) * 15 : random.nextInt(256);
+                    raster.setSample(x, y, b, value);
+                }
+            }
+        }
+
+        BufferedImage expected = new PDDeviceCMYK().toRGBImageAWT(raster, colorSpace);
+        BufferedImage actual = lookupTable.toRGBImage(raster);
+        long difference = 0;
+        for (int y = 0; y < height; y++)
+        {
+            for (int x = 0; x < width; x++)
+            {
+                int expectedRGB = expected.getRGB(x, y);
+                int actualRGB = actual.getRGB(x, y);
+                if (y < height / 2)
+                {
+                    assertEquals(expectedRGB, actualRGB, "grid point at " + x + "," + y);
+                }
+                for (int shift = 0; shift < 24; shift += 8)
+                {
+                    difference += Math.abs((expectedRGB >> shift & 0xff) -
+                            (actualRGB >> shift & 0xff));
+                }
+            }
+        }
+        assertTrue(difference < width * height * 3, "mean difference too large: " + difference);
+    }
+}
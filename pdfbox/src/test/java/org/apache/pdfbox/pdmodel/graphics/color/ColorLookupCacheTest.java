@@ -0,0 +1,81 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.pdmodel.graphics.color;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.pdfbox.cos.COSArray;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.Isolated;
+
+/**
+ * Tests the process-wide color lookup cache. The tests of the color spaces add tables to the same
+ * cache, so this class must not run concurrently with other test classes.
+ */
+@Isolated
+class ColorLookupCacheTest
+{
+    /**
+     * Tables are evicted when their estimated sizes exceed the budget of 32 MB, not after a
+     * number of entries.
+     */
+    @Test
+    void testBudget() throws IOException
+    {
+        AtomicInteger created = new AtomicInteger();
+        COSArray[] colorSpaces = new COSArray[4];
+        for (int i = 0; i < colorSpaces.length; i++)
+        {
+            colorSpaces[i] = new COSArray();
+            ColorLookupCache.get(LargeTable.class, () -> new LargeTable(created),
+                    colorSpaces[i]);
+        }
+        assertEquals(4, created.get());
+
+        // the 3 most recently used tables of 10 MB fit, the first one has been evicted
+        LargeTable table = ColorLookupCache.get(LargeTable.class, () -> new LargeTable(created),
+                colorSpaces[3]);
+        assertEquals(4, created.get());
+        assertSame(table, ColorLookupCache.get(LargeTable.class, () -> new LargeTable(created),
+                colorSpaces[3]));
+        ColorLookupCache.get(LargeTable.class, () -> new LargeTable(created), colorSpaces[0]);
+        assertEquals(5, created.get());
+
+        // small tables are cached as well
+        int[] small = ColorLookupCache.get(int[].class, () -> new int[256], colorSpaces[0]);
+        assertSame(small, ColorLookupCache.get(int[].class, () -> new int[256], colorSpaces[0]));
+        assertEquals(1040, ColorLookupCache.estimateSize(small));
+    }
+
+    private static final class LargeTable implements ColorLookupCache.SizedTable
+    {
+        LargeTable(AtomicInteger created)
+        {
+            created.incrementAndGet();
+        }
+
+        @Override
+        public long getEstimatedSize()
+        {
+            return 10 << 20;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.pdmodel.graphics.color;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+import java.awt.image.Raster;
+import java.awt.image.WritableRaster;
+import java.io.IOException;
+
+import org.apache.pdfbox.cos.COSArray;
+import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.cos.COSFloat;
+import org.apache.pdfbox.cos.COSInteger;
+import org.apache.pdfbox.cos.COSName;
+import org.junit.jupiter.api.Test;
+
+class PDSeparationTest
+{
+    /**
+     * Check that the images converted with the cached lookup tables have the colors of the
+     * individual tints.
+     */
+    @Test
+    void testToRGBImage() throws IOException
+    {
+        COSArray array = createSeparation();
+        PDColorSpace colorSpace = PDColorSpace.create(array);
+
+        WritableRaster raster = Raster.createBandedRaster(DataBuffer.TYPE_BYTE, 16, 16, 1, null);
+        for (int i = 0; i < 256; i++)
+        {
+            raster.setSample(i % 16, i / 16, 0, i);
+        }
+        BufferedImage image = colorSpace.toRGBImage(raster);
+        for (int i = 0; i < 256; i++)
+        {
+            float[] rgb = colorSpace.toRGB(new float[] { i / 255f });
+            int actual = image.getRGB(i % 16, i / 16);
+            // the CMYK profile converts images and single colors slightly differently
+            assertEquals(rgb[0] * 255, actual >> 16 & 0xff, 2, "tint " + i);
+            assertEquals(rgb[1] * 255, actual >> 8 & 0xff, 2, "tint " + i);
+            assertEquals(rgb[2] * 255, actual & 0xff, 2, "tint " + i);
+        }
+
+        // a color space created again from the same array uses the same table
+        BufferedImage image2 = PDColorSpace.create(array).toRGBImage(raster);
+        for (int i = 0; i < 256; i++)
+        {
+            assertEquals(image.getRGB(i % 16, i / 16), image2.getRGB(i % 16, i / 16));
+        }
+    }
+
+    @Test
+    void testLookupCache() throws IOException
+    {
+        COSArray array = createSeparation();
+        int[] table = ColorLookupCache.get(int[].class, () -> new int[1], array);
+        assertSame(table, ColorLookupCache.get(int[].class, () -> new int[2], array));
+        assertEquals(2, ColorLookupCache.get(int[].class, () -> new int[2], createSeparation()).length);
+        assertEquals(3, ColorLookupCache.get(int[].class, () -> new int[3], array, null).length);
+    }
+
+    private static COSArray createSeparation()
+    {
+        COSDictionary function = new COSDictionary();
+        function.setInt(COSName.FUNCTION_TYPE, 2);
+        function.setItem(COSName.DOMAIN, createArray(0, 1));
+        function.setItem(COSName.C0, createArray(0, 0, 0, 0));
+        function.setItem(COSName.C1, createArray(0.1f, 0.8f, 0.2f, 0));
+        function.setItem(COSName.N, COSInteger.ONE);
+
+        COSArray array = new COSArray();
+        array.add(COSName.SEPARATION);
+        array.add(COSName.getPDFName("Spot"));
+        array.add(COSName.DEVICECMYK);
+        array.add(function);
+        return array;
+    }
+
+    private static COSArray createArray(float... values)
+    {
+        COSArray array = new COSArray();
+        for (float value : values)
+        {
+            array.add(new COSFloat(value));
+        }
+        return array;
+    }
+}
@@ -15,10 +15,14 @@
  */
 package org.apache.pdfbox.pdmodel.graphics.image;
 
+import java.awt.Color;
+import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 
 import java.nio.file.Files;
 import java.nio.file.StandardCopyOption;
@@ -32,6 +36,7 @@ import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.Loader;
 import org.apache.pdfbox.pdmodel.PDPage;
 import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.common.PDStream;
 import org.apache.pdfbox.pdmodel.PDPageContentStream;
 import org.apache.pdfbox.pdmodel.PDPageContentStream.AppendMode;
 import org.apache.pdfbox.pdmodel.graphics.color.PDDeviceGray;
@@ -273,4 +278,37 @@ class CCITTFactoryTest
             }
         }
     }
+
+    /**
+     * CCITT images are decoded straight into a raster, check that the images and stencil masks
+     * are the same as those of an image with the same decoded data and no filter.
+     */
+    @Test
+    void testDecodeToRaster() throws IOException
+    {
+        String tiffG4Path = "src/test/resources/org/apache/pdfbox/pdmodel/graphics/image/ccittg4.tif";
+        try (PDDocument document = new PDDocument())
+        {
+            PDImageXObject ccitt = CCITTFactory.createFromFile(document, new File(tiffG4Path));
+            byte[] decoded;
+            try (InputStream input = ccitt.getCOSObject().createInputStream())
+            {
+                decoded = input.readAllBytes();
+            }
+            PDImageXObject plain = new PDImageXObject(
+                    new PDStream(document, new ByteArrayInputStream(decoded)), null);
+            plain.setWidth(ccitt.getWidth());
+            plain.setHeight(ccitt.getHeight());
+            plain.setBitsPerComponent(1);
+            plain.setColorSpace(PDDeviceGray.INSTANCE);
+
+            checkIdent(plain.getImage(), ccitt.getImage());
+            Rectangle region = new Rectangle(13, 21, 200, 150);
+            checkIdent(plain.getImage(region, 3), ccitt.getImage(region, 3));
+
+            ccitt.setStencil(true);
+            plain.setStencil(true);
+            checkIdent(plain.getStencilImage(Color.RED), ccitt.getStencilImage(Color.RED));
+        }
+    }
 }
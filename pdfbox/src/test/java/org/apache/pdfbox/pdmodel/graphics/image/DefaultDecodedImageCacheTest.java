@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.pdmodel.graphics.image;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSStream;
+import org.apache.pdfbox.pdmodel.DefaultResourceCache;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDResources;
+import org.apache.pdfbox.pdmodel.common.PDStream;
+import org.apache.pdfbox.pdmodel.graphics.color.PDDeviceGray;
+import org.junit.jupiter.api.Test;
+
+class DefaultDecodedImageCacheTest
+{
+    @Test
+    void testBudget()
+    {
+        // 100 x 100 INT_RGB images have 40000 bytes
+        DefaultDecodedImageCache cache = new DefaultDecodedImageCache(100000);
+        COSStream stream1 = new COSStream();
+        COSStream stream2 = new COSStream();
+        BufferedImage image1 = new BufferedImage(100, 100, BufferedImage.TYPE_INT_RGB);
+        BufferedImage image2 = new BufferedImage(100, 100, BufferedImage.TYPE_INT_RGB);
+        BufferedImage image3 = new BufferedImage(100, 100, BufferedImage.TYPE_INT_RGB);
+
+        cache.put(stream1, null, 1, image1);
+        cache.put(stream1, new Rectangle(0, 0, 50, 50), 1, image2);
+        assertEquals(80000, cache.getSize());
+        assertSame(image1, cache.getImage(stream1, null, 1));
+        assertNull(cache.getImage(stream1, null, 2));
+        assertNull(cache.getImage(stream2, null, 1));
+        assertSame(image2, cache.getImage(stream1, new Rectangle(0, 0, 50, 50), 1));
+
+        // image1 is the least recently used one
+        cache.put(stream2, null, 1, image3);
+        assertEquals(1, cache.getEvictionCount());
+        assertEquals(80000, cache.getSize());
+        assertNull(cache.getImage(stream1, null, 1));
+        assertSame(image3, cache.getImage(stream2, null, 1));
+        assertEquals(3, cache.getHitCount());
+        assertEquals(3, cache.getMissCount());
+
+        // too large
+        cache.put(stream2, null, 2, new BufferedImage(200, 200, BufferedImage.TYPE_INT_RGB));
+        assertNull(cache.getImage(stream2, null, 2));
+        assertEquals(2, cache.getImageCount());
+
+        cache.remove(stream2);
+        assertEquals(1, cache.getImageCount());
+        assertEquals(40000, cache.getSize());
+    }
+
+    /**
+     * Check that all documents use the same cache, so that its budget limits the memory of the
+     * decoded images of the whole process.
+     */
+    @Test
+    void testSharedByDocuments() throws IOException
+    {
+        try (PDDocument document1 = new PDDocument(); PDDocument document2 = new PDDocument())
+        {
+            DefaultDecodedImageCache shared = DefaultDecodedImageCache.getSharedInstance();
+            assertNotNull(shared);
+            assertEquals(64 << 20, shared.getMaximumSize());
+            assertSame(shared, document1.getResourceCache().getDecodedImageCache());
+            assertSame(shared, document2.getResourceCache().getDecodedImageCache());
+        }
+    }
+
+    /**
+     * Check that the decoded image is found again by another XObject of the same stream, e.g. the
+     * XObject of the next page.
+     */
+    @Test
+    void testSharedByXObjects() throws IOException
+    {
+        try (PDDocument document = new PDDocument())
+        {
+            DefaultResourceCache resourceCache = (DefaultResourceCache) document.getResourceCache();
+            DefaultDecodedImageCache cache = new DefaultDecodedImageCache(1 << 20);
+            resourceCache.setDecodedImageCache(cache);
+
+            PDImageXObject image = new PDImageXObject(document);
+            COSStream stream = image.getCOSObject();
+            stream.setInt(COSName.WIDTH, 2);
+            stream.setInt(COSName.HEIGHT, 2);
+            stream.setInt(COSName.BITS_PER_COMPONENT, 8);
+            stream.setItem(COSName.COLORSPACE, COSName.DEVICEGRAY);
+            try (OutputStream out = stream.createOutputStream())
+            {
+                out.write(new byte[] { 0, 64, (byte) 128, (byte) 255 });
+            }
+
+            PDResources resources = new PDResources(new COSDictionary(), resourceCache);
+            PDImageXObject xobject1 = new PDImageXObject(new PDStream(stream), resources);
+            PDImageXObject xobject2 = new PDImageXObject(new PDStream(stream), resources);
+            BufferedImage decoded = xobject1.getImage();
+            assertSame(decoded, xobject2.getImage());
+            assertEquals(1, cache.getHitCount());
+
+            // changing the color space removes the cached images
+            xobject2.setColorSpace(PDDeviceGray.INSTANCE);
+            assertNotSame(decoded, xobject1.getImage());
+        }
+    }
+}
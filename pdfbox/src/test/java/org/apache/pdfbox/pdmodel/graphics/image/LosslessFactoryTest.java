@@ -33,8 +33,14 @@ import java.awt.image.Raster;
 import java.awt.image.WritableRaster;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.Hashtable;
 import java.util.Random;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.zip.InflaterInputStream;
 import javax.imageio.ImageIO;
 
 import org.apache.pdfbox.Loader;
@@ -52,6 +58,7 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import org.apache.pdfbox.rendering.PDFRenderer;
@@ -671,4 +678,88 @@ class LosslessFactoryTest
 
         doWritePDF(document, ximage, TESTRESULTSDIR, "png16bit.pdf");
     }
+
+    /**
+     * Tests a large INT_ARGB image, which is filtered and compressed in several bands when an
+     * executor is given. The bands must result in one valid zlib stream with the correct checksum.
+     *
+     * @throws java.io.IOException
+     */
+    @Test
+    void testCreateLosslessFromLargeImage() throws IOException
+    {
+        PDDocument document = new PDDocument();
+        int w = 1200;
+        int h = 900;
+        BufferedImage image = new BufferedImage(w, h, BufferedImage.TYPE_INT_ARGB);
+        Random random = new Random(4711);
+        for (int y = 0; y < h; y++)
+        {
+            for (int x = 0; x < w; x++)
+            {
+                int value = (x / 8 + y / 16) % 256;
+                if (random.nextInt(10) == 0)
+                {
+                    value = random.nextInt(256);
+                }
+                image.setRGB(x, y, (y % 256) << 24 | value << 16 | (255 - value) << 8 | x % 256);
+            }
+        }
+
+        PDImageXObject ximage = LosslessFactory.createFromImage(document, image);
+        validateLargeImage(image, ximage);
+
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try
+        {
+            ximage = LosslessFactory.createFromImage(document, image, executor);
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+        validateLargeImage(image, ximage);
+
+        doWritePDF(document, ximage, TESTRESULTSDIR, "largeargb.pdf");
+    }
+
+    /**
+     * Tests that an executor rejecting the bands of a large image results in an IOException.
+     */
+    @Test
+    void testCreateLosslessFromLargeImageRejected()
+    {
+        PDDocument document = new PDDocument();
+        BufferedImage image = new BufferedImage(1000, 400, BufferedImage.TYPE_INT_RGB);
+        Executor executor = command ->
+        {
+            throw new RejectedExecutionException("shut down");
+        };
+        IOException ex = assertThrows(IOException.class,
+                () -> LosslessFactory.createFromImage(document, image, executor));
+        assertTrue(ex.getCause() instanceof RejectedExecutionException);
+    }
+
+    private void validateLargeImage(BufferedImage image, PDImageXObject ximage) throws IOException
+    {
+        int w = image.getWidth();
+        int h = image.getHeight();
+        validate(ximage, 8, w, h, "png", PDDeviceRGB.INSTANCE.getName());
+        checkIdent(image, ximage.getImage());
+
+        long length = 0;
+        try (InputStream is = new InflaterInputStream(ximage.getCOSObject().createRawInputStream()))
+        {
+            byte[] buffer = new byte[8192];
+            int count;
+            while ((count = is.read(buffer)) != -1)
+            {
+                length += count;
+            }
+        }
+        assertEquals((long) h * (w * 3 + 1), length);
+
+        assertNotNull(ximage.getSoftMask());
+        assertEquals(256, colorCount(ximage.getSoftMask().getImage()));
+    }
 }
@@ -19,14 +19,27 @@ package org.apache.pdfbox.pdmodel.graphics.image;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
+import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.net.URISyntaxException;
+import java.util.Random;
+import java.util.zip.DeflaterOutputStream;
 import javax.imageio.ImageIO;
+import org.apache.pdfbox.cos.COSArray;
+import org.apache.pdfbox.cos.COSInteger;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSString;
 import org.apache.pdfbox.io.IOUtils;
 import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.graphics.color.PDColorSpace;
+import org.apache.pdfbox.pdmodel.graphics.color.PDDeviceGray;
+import org.apache.pdfbox.pdmodel.graphics.color.PDDeviceRGB;
+import org.apache.pdfbox.pdmodel.graphics.color.PDIndexed;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.parallel.Execution;
 import org.junit.jupiter.api.parallel.ExecutionMode;
@@ -124,6 +137,72 @@ class PDImageXObjectTest
         testCompareCreatedFromByteArrayWithCreatedByLosslessFactory("lzw.tif");
     }
 
+    /**
+     * Test that regions and subsampling of images with 2, 4 and 16 bits per component give the
+     * same pixels as the whole image.
+     *
+     * @throws IOException
+     */
+    @Test
+    void testGetImageRegionOfPackedSamples() throws IOException
+    {
+        byte[] lookup = new byte[4 * 3];
+        new Random(4711).nextBytes(lookup);
+        COSArray indexed = new COSArray();
+        indexed.add(COSName.INDEXED);
+        indexed.add(COSName.DEVICERGB);
+        indexed.add(COSInteger.get(3));
+        indexed.add(new COSString(lookup));
+
+        try (PDDocument doc = new PDDocument())
+        {
+            checkRegions(createImage(doc, 4, PDDeviceGray.INSTANCE));
+            checkRegions(createImage(doc, 16, PDDeviceRGB.INSTANCE));
+            checkRegions(createImage(doc, 2, new PDIndexed(indexed)));
+        }
+    }
+
+    private static PDImageXObject createImage(PDDocument doc, int bitsPerComponent, PDColorSpace colorSpace)
+            throws IOException
+    {
+        int width = 37;
+        int height = 23;
+        byte[] samples = new byte[(width * colorSpace.getNumberOfComponents() * bitsPerComponent + 7) / 8
+                * height];
+        new Random(bitsPerComponent).nextBytes(samples);
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (DeflaterOutputStream out = new DeflaterOutputStream(baos))
+        {
+            out.write(samples);
+        }
+        return new PDImageXObject(doc, new ByteArrayInputStream(baos.toByteArray()),
+                COSName.FLATE_DECODE, width, height, bitsPerComponent, colorSpace);
+    }
+
+    private static void checkRegions(PDImageXObject image) throws IOException
+    {
+        BufferedImage expectedImage = image.getImage();
+        Rectangle[] regions = { new Rectangle(3, 5, 20, 11), new Rectangle(0, 1, 36, 22) };
+        for (Rectangle region : regions)
+        {
+            for (int subsampling = 1; subsampling <= 3; subsampling++)
+            {
+                BufferedImage actualImage = image.getImage(region, subsampling);
+                // the pixels are taken from the columns and rows that are multiples of the subsampling
+                int startX = (region.x + subsampling - 1) / subsampling * subsampling;
+                int startY = (region.y + subsampling - 1) / subsampling * subsampling;
+                for (int y = startY; y < region.y + region.height; y += subsampling)
+                {
+                    for (int x = startX; x < region.x + region.width; x += subsampling)
+                    {
+                        assertEquals(expectedImage.getRGB(x, y),
+                                actualImage.getRGB((x - region.x) / subsampling, (y - region.y) / subsampling));
+                    }
+                }
+            }
+        }
+    }
+
     private void testCompareCreatedFileByExtensionWithCreatedByLosslessFactory(String filename)
             throws IOException, URISyntaxException
     {
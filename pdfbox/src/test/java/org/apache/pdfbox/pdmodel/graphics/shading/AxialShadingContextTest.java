@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.pdmodel.graphics.shading;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.awt.PaintContext;
+import java.awt.Rectangle;
+import java.awt.geom.AffineTransform;
+import java.awt.image.ColorModel;
+import java.awt.image.Raster;
+
+import org.apache.pdfbox.cos.COSArray;
+import org.apache.pdfbox.cos.COSBoolean;
+import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.cos.COSInteger;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.pdmodel.common.function.PDFunctionType2;
+import org.apache.pdfbox.pdmodel.graphics.color.PDDeviceRGB;
+import org.apache.pdfbox.util.Matrix;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the rasters of axial shadings.
+ */
+class AxialShadingContextTest
+{
+    /**
+     * An extended shading from red to blue with the domain [0.2, 0.8], the pixels beyond the
+     * axis have the colors of its ends, and not those of the domain values as input values.
+     */
+    @Test
+    void testExtendedDomain()
+    {
+        AxialShadingPaint paint = (AxialShadingPaint) createShading().toPaint(new Matrix());
+        Rectangle bounds = new Rectangle(-50, 0, 200, 1);
+        PaintContext context = paint.createContext(null, bounds, bounds, new AffineTransform(),
+                null);
+        ColorModel colorModel = context.getColorModel();
+        Raster raster = context.getRaster(-50, 0, 200, 1);
+
+        assertEquals(0xffcc0033, colorModel.getRGB(raster.getDataElements(0, 0, null)));
+        assertEquals(0xffcc0033, colorModel.getRGB(raster.getDataElements(50, 0, null)));
+        assertEquals(0xff7f007f, colorModel.getRGB(raster.getDataElements(100, 0, null)));
+        assertEquals(0xff3200cc, colorModel.getRGB(raster.getDataElements(150, 0, null)));
+        assertEquals(0xff3200cc, colorModel.getRGB(raster.getDataElements(199, 0, null)));
+        context.dispose();
+    }
+
+    /**
+     * The contexts of a paint with the same transform share the color table, whatever the area
+     * to paint is.
+     */
+    @Test
+    void testSharedColorTable()
+    {
+        AxialShadingPaint paint = (AxialShadingPaint) createShading().toPaint(new Matrix());
+        AffineTransform xform = AffineTransform.getScaleInstance(2, 2);
+        Rectangle small = new Rectangle(0, 0, 10, 10);
+        paint.createContext(null, small, small, xform, null).dispose();
+
+        // one color per device pixel of the axis
+        int[] colorTable = paint.getColorTable(201);
+        assertNotNull(colorTable);
+
+        Rectangle large = new Rectangle(0, 0, 400, 300);
+        paint.createContext(null, large, large, xform, null).dispose();
+        assertSame(colorTable, paint.getColorTable(201));
+    }
+
+    private static PDShadingType2 createShading()
+    {
+        COSDictionary function = new COSDictionary();
+        function.setInt(COSName.FUNCTION_TYPE, 2);
+        function.setItem(COSName.DOMAIN, toArray(0, 1));
+        function.setItem(COSName.C0, toArray(1, 0, 0));
+        function.setItem(COSName.C1, toArray(0, 0, 1));
+        function.setItem(COSName.N, COSInteger.ONE);
+
+        PDShadingType2 shading = new PDShadingType2(new COSDictionary());
+        shading.setShadingType(PDShading.SHADING_TYPE2);
+        shading.setColorSpace(PDDeviceRGB.INSTANCE);
+        shading.setCoords(toArray(0, 0, 100, 0));
+        shading.setDomain(toArray(0.2f, 0.8f));
+        shading.setFunction(new PDFunctionType2(function));
+        COSArray extend = new COSArray();
+        extend.add(COSBoolean.TRUE);
+        extend.add(COSBoolean.TRUE);
+        shading.setExtend(extend);
+        return shading;
+    }
+
+    private static COSArray toArray(float... values)
+    {
+        COSArray array = new COSArray();
+        array.setFloatArray(values);
+        return array;
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.rendering;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+
+/**
+ * Helpers for the tests which render a page in two ways and compare the images.
+ */
+final class RenderingTestUtils
+{
+    private RenderingTestUtils()
+    {
+    }
+
+    /**
+     * Writes the contents of a test page.
+     */
+    @FunctionalInterface
+    interface PageContents
+    {
+        void write(PDDocument document, PDPageContentStream contents) throws IOException;
+    }
+
+    /**
+     * Creates a document with one page.
+     *
+     * @param mediaBox the media box of the page, e.g. {@link PDRectangle#A6}
+     * @param pageContents writes the contents of the page
+     * @return the document, to be closed by the caller
+     * @throws IOException if the contents can't be written
+     */
+    static PDDocument createDocument(PDRectangle mediaBox, PageContents pageContents)
+            throws IOException
+    {
+        PDDocument document = new PDDocument();
+        PDPage page = new PDPage(mediaBox);
+        document.addPage(page);
+        try (PDPageContentStream contents = new PDPageContentStream(document, page))
+        {
+            pageContents.write(document, contents);
+        }
+        catch (IOException | RuntimeException ex)
+        {
+            document.close();
+            throw ex;
+        }
+        return document;
+    }
+
+    /**
+     * Asserts that two images have the same size and the same pixels.
+     *
+     * @param expected the expected image
+     * @param actual the actual image
+     */
+    static void assertSameImage(BufferedImage expected, BufferedImage actual)
+    {
+        assertSameImage(expected, actual, "pixel");
+    }
+
+    /**
+     * Asserts that two images have the same size and the same pixels.
+     *
+     * @param expected the expected image
+     * @param actual the actual image
+     * @param description describes the images in the message of a different pixel
+     */
+    static void assertSameImage(BufferedImage expected, BufferedImage actual,
+            String description)
+    {
+        assertEquals(expected.getWidth(), actual.getWidth());
+        assertEquals(expected.getHeight(), actual.getHeight());
+        for (int y = 0; y < expected.getHeight(); y++)
+        {
+            for (int x = 0; x < expected.getWidth(); x++)
+            {
+                assertEquals(expected.getRGB(x, y), actual.getRGB(x, y),
+                        description + " at " + x + ", " + y);
+            }
+        }
+    }
+
+    /**
+     * Asserts that two images have the same size and nearly the same pixels, e.g. because the
+     * anti-aliased edges differ a bit.
+     *
+     * @param expected the expected image
+     * @param actual the actual image
+     * @param maximumDifference the maximum difference of a color component of a pixel
+     * @param maximumMeanDifference the maximum mean difference of the color components
+     */
+    static void assertSimilarImage(BufferedImage expected, BufferedImage actual,
+            int maximumDifference, double maximumMeanDifference)
+    {
+        assertEquals(expected.getWidth(), actual.getWidth());
+        assertEquals(expected.getHeight(), actual.getHeight());
+        long sum = 0;
+        for (int y = 0; y < expected.getHeight(); y++)
+        {
+            for (int x = 0; x < expected.getWidth(); x++)
+            {
+                int rgb1 = expected.getRGB(x, y);
+                int rgb2 = actual.getRGB(x, y);
+                for (int shift = 0; shift < 24; shift += 8)
+                {
+                    int diff = Math.abs((rgb1 >> shift & 0xff) - (rgb2 >> shift & 0xff));
+                    assertTrue(diff <= maximumDifference, "pixel at " + x + ", " + y);
+                    sum += diff;
+                }
+            }
+        }
+        double mean = (double) sum / (3 * expected.getWidth() * expected.getHeight());
+        assertTrue(mean < maximumMeanDifference, "mean difference " + mean);
+    }
+}
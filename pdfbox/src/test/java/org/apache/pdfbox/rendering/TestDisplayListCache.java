@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.rendering;
+
+import static org.apache.pdfbox.rendering.RenderingTestUtils.assertSameImage;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts.FontName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests that pages rendered from cached display lists look like pages rendered directly.
+ */
+class TestDisplayListCache
+{
+    /**
+     * Renders a page twice at the same scale, the second time from the display list.
+     *
+     * @throws IOException if an error occurs
+     */
+    @Test
+    void testSameScale() throws IOException
+    {
+        try (PDDocument document = RenderingTestUtils.createDocument(PDRectangle.A6,
+                (doc, contents) ->
+                {
+                    contents.setLineWidth(2.5f);
+                    contents.moveTo(0, 0);
+                    contents.curveTo(100, 400, 200, 0, 297, 420);
+                    contents.stroke();
+                    contents.beginText();
+                    contents.setFont(new PDType1Font(FontName.TIMES_ITALIC), 30);
+                    contents.newLineAtOffset(20, 200);
+                    contents.showText("Zoom");
+                    contents.endText();
+                }))
+        {
+            BufferedImage expected = new PDFRenderer(document).renderImage(0, 1.5f);
+            PDFRenderer renderer = new PDFRenderer(document);
+            renderer.setDisplayListCacheSize(1 << 20);
+            DisplayListCache cache = renderer.getDisplayListCache();
+            assertSameImage(expected, renderer.renderImage(0, 1.5f));
+            long size = cache.getSize();
+            assertTrue(size > 0);
+            assertEquals(0, cache.getHitCount());
+
+            assertSameImage(expected, renderer.renderImage(0, 1.5f));
+            assertEquals(1, cache.getHitCount());
+            assertEquals(size, cache.getSize());
+        }
+    }
+
+    /**
+     * Renders a page at a smaller scale than the one it has been recorded at. The rectangles are
+     * aligned to the pixels at both scales, so the images are the same.
+     *
+     * @throws IOException if an error occurs
+     */
+    @Test
+    void testSmallerScale() throws IOException
+    {
+        try (PDDocument document = RenderingTestUtils.createDocument(new PDRectangle(200, 200),
+                (doc, contents) ->
+                {
+                    for (int i = 0; i < 10; i++)
+                    {
+                        contents.setNonStrokingColor(i / 10f, 0.5f, 1 - i / 10f);
+                        contents.addRect(i * 16, i * 12, 40, 60);
+                        contents.fill();
+                    }
+                }))
+        {
+            BufferedImage expected = new PDFRenderer(document).renderImage(0, 0.5f);
+            PDFRenderer renderer = new PDFRenderer(document);
+            renderer.setDisplayListCacheSize(1 << 20);
+            DisplayListCache cache = renderer.getDisplayListCache();
+            renderer.renderImage(0, 2);
+            long size = cache.getSize();
+            assertTrue(size > 0);
+            assertEquals(0, cache.getHitCount());
+
+            // the list recorded at scale 2 is replayed
+            assertSameImage(expected, renderer.renderImage(0, 0.5f));
+            assertEquals(1, cache.getHitCount());
+            assertEquals(size, cache.getSize());
+        }
+    }
+}
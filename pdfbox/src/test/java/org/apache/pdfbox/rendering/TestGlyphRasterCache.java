@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.rendering;
+
+import static org.apache.pdfbox.rendering.RenderingTestUtils.assertSimilarImage;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts.FontName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests that small glyphs drawn from cached images look like filled glyph outlines.
+ */
+class TestGlyphRasterCache
+{
+    /**
+     * Renders lines of small text in two colors, each glyph is placed at several positions
+     * within the pixels. The cached glyphs are placed with a precision of 1/8 pixel, so the
+     * anti-aliased edges differ a bit.
+     *
+     * @throws IOException if an error occurs
+     */
+    @Test
+    void testSmallText() throws IOException
+    {
+        try (PDDocument document = RenderingTestUtils.createDocument(PDRectangle.A6,
+                (doc, contents) ->
+                {
+                    contents.beginText();
+                    contents.setFont(new PDType1Font(FontName.HELVETICA), 9);
+                    contents.setLeading(10.3f);
+                    contents.newLineAtOffset(10, 400);
+                    for (int i = 0; i < 30; i++)
+                    {
+                        if (i % 2 == 0)
+                        {
+                            contents.setNonStrokingColor(0f, 0f, 0f);
+                        }
+                        else
+                        {
+                            contents.setNonStrokingColor(0.8f, 0.1f, 0.1f);
+                        }
+                        contents.showText("Pack my box with five dozen liquor jugs " + i);
+                        contents.newLine();
+                    }
+                    contents.endText();
+                }))
+        {
+            BufferedImage expected = new PDFRenderer(document).renderImage(0, 0.75f);
+            PDFRenderer renderer = new PDFRenderer(document);
+            renderer.setGlyphRasterThreshold(24);
+            BufferedImage actual = renderer.renderImage(0, 0.75f);
+            assertSimilarImage(expected, actual, 64, 2);
+        }
+    }
+
+    /**
+     * Tests that the masks don't use more than the budget of bytes, the least recently used ones
+     * are evicted.
+     *
+     * @throws IOException if an error occurs
+     */
+    @Test
+    void testBudget() throws IOException
+    {
+        PDType1Font font = new PDType1Font(FontName.HELVETICA);
+        BufferedImage image = new BufferedImage(100, 100, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = image.createGraphics();
+        try
+        {
+            // an em square of 20 pixels, the masks of the capital letters use 1 to 2 KB each
+            AffineTransform device = new AffineTransform(0.02, 0, 0, -0.02, 10, 50);
+            GlyphRasterCache cache = new GlyphRasterCache(24, 10000);
+            assertTrue(cache.isCacheable(device));
+            cache.drawGlyph(graphics, device, font, 'H', font.getNormalizedPath('H'), Color.BLACK);
+            long size = cache.getSize();
+            assertTrue(size > 0);
+            for (int code = 'A'; code <= 'Z'; code++)
+            {
+                cache.drawGlyph(graphics, device, font, code, font.getNormalizedPath(code),
+                        Color.BLACK);
+                assertTrue(cache.getSize() <= 10000, "size " + cache.getSize());
+            }
+
+            // a budget smaller than one mask doesn't cache anything
+            cache = new GlyphRasterCache(24, size - 1);
+            cache.drawGlyph(graphics, device, font, 'H', font.getNormalizedPath('H'), Color.BLACK);
+            assertEquals(0, cache.getSize());
+        }
+        finally
+        {
+            graphics.dispose();
+        }
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.rendering;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests that the images of the offscreen buffer pool behave like new images.
+ */
+class TestOffscreenBufferPool
+{
+    /**
+     * Tests that the pixels of a released image are given cleared to a smaller image.
+     */
+    @Test
+    void testReuse()
+    {
+        OffscreenBufferPool pool = new OffscreenBufferPool();
+        BufferedImage first = pool.getARGBImage(20, 10);
+        assertEquals(BufferedImage.TYPE_INT_ARGB, first.getType());
+        fill(first);
+        pool.release(first);
+
+        BufferedImage second = pool.getARGBImage(15, 12);
+        assertSame(getData(first), getData(second));
+        assertEquals(15, second.getWidth());
+        assertEquals(12, second.getHeight());
+        assertEquals(BufferedImage.TYPE_INT_ARGB, second.getType());
+        assertTransparent(second);
+
+        // the buffer is in use, so a new one is allocated
+        BufferedImage third = pool.getARGBImage(15, 12);
+        assertNotSame(getData(second), getData(third));
+    }
+
+    /**
+     * Tests that the images with gray and alpha are cleared too.
+     */
+    @Test
+    void testGrayAlpha()
+    {
+        OffscreenBufferPool pool = new OffscreenBufferPool();
+        BufferedImage first = pool.getGrayAlphaImage(8, 8);
+        fill(first);
+        pool.release(first);
+
+        BufferedImage second = pool.getGrayAlphaImage(8, 4);
+        assertEquals(first.getColorModel(), second.getColorModel());
+        assertTransparent(second);
+    }
+
+    private static int[] getData(BufferedImage image)
+    {
+        return ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+    }
+
+    private static void fill(BufferedImage image)
+    {
+        Graphics2D g = image.createGraphics();
+        g.setColor(Color.RED);
+        g.fillRect(0, 0, image.getWidth(), image.getHeight());
+        g.dispose();
+    }
+
+    private static void assertTransparent(BufferedImage image)
+    {
+        for (int y = 0; y < image.getHeight(); y++)
+        {
+            for (int x = 0; x < image.getWidth(); x++)
+            {
+                assertEquals(0, image.getRGB(x, y) >>> 24, "pixel at " + x + ", " + y);
+            }
+        }
+    }
+}
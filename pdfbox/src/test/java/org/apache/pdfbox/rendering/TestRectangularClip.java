@@ -0,0 +1,213 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.rendering;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Area;
+import java.awt.geom.GeneralPath;
+import java.awt.geom.Path2D;
+import java.awt.geom.Rectangle2D;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the arithmetic intersection of rectangular clipping paths in PageDrawer, which must give
+ * the same result as intersecting the clipping paths as areas.
+ */
+class TestRectangularClip
+{
+    /**
+     * Tests rectangles drawn in both directions and starting with a horizontal or a vertical edge.
+     */
+    @Test
+    void testRectangles()
+    {
+        Path2D clockwise = createPath(10, 20, 10, 80, 110, 80, 110, 20);
+        Path2D counterClockwise = createPath(50, 0, 150, 0, 150, 60, 50, 60);
+        double[] corners = new double[8];
+        assertTrue(PageDrawer.getRectangleCorners(clockwise, corners));
+        assertTrue(PageDrawer.getRectangleCorners(counterClockwise, corners));
+        assertTrue(PageDrawer.getRectangleCorners(new Path2D.Double(
+                new Rectangle2D.Double(-5, -5, 20, 30)), corners));
+
+        List<Path2D> clippingPaths = Arrays.asList(clockwise, counterClockwise);
+        Rectangle2D clip = PageDrawer.getRectangularClip(clippingPaths);
+        assertEquals(new Rectangle2D.Double(50, 20, 60, 40), clip);
+        assertEquals(intersectAreas(clippingPaths).getBounds2D(), clip);
+
+        // a path which isn't closed explicitly is closed by the clip
+        assertTrue(PageDrawer.getRectangleCorners(createOpenPath(10, 20, 10, 80, 110, 80, 110, 20),
+                corners));
+    }
+
+    /**
+     * Tests that a rotated rectangle isn't handled arithmetically, so that the clip falls back to
+     * the intersection of the areas.
+     */
+    @Test
+    void testRotatedRectangle()
+    {
+        Path2D rectangle = createPath(10, 20, 10, 80, 110, 80, 110, 20);
+        Path2D rotated = new Path2D.Double(rectangle,
+                AffineTransform.getRotateInstance(Math.toRadians(30), 60, 50));
+        assertFalse(PageDrawer.getRectangleCorners(rotated, new double[8]));
+        assertNull(PageDrawer.getRectangularClip(Arrays.asList(rectangle, rotated)));
+        assertNull(PageDrawer.getRectangularClip(Arrays.asList(rotated, rectangle)));
+
+        // a parallelogram has axis-aligned edges only at the top and at the bottom
+        Path2D parallelogram = createPath(10, 20, 30, 80, 130, 80, 110, 20);
+        assertFalse(PageDrawer.getRectangleCorners(parallelogram, new double[8]));
+
+        // as well as a rectangle with a curve
+        GeneralPath curved = new GeneralPath();
+        curved.moveTo(10, 20);
+        curved.lineTo(10, 80);
+        curved.curveTo(40, 90, 80, 90, 110, 80);
+        curved.lineTo(110, 20);
+        curved.closePath();
+        assertFalse(PageDrawer.getRectangleCorners(curved, new double[8]));
+    }
+
+    /**
+     * Tests that paths with more than one subpath aren't handled arithmetically.
+     */
+    @Test
+    void testMultipleSubpaths()
+    {
+        Path2D path = createPath(10, 20, 10, 80, 110, 80, 110, 20);
+        path.append(createPath(200, 20, 200, 80, 300, 80, 300, 20), false);
+        double[] corners = new double[8];
+        assertFalse(PageDrawer.getRectangleCorners(path, corners));
+        assertNull(PageDrawer.getRectangularClip(Arrays.asList(path)));
+
+        // a second subpath which isn't closed
+        path = createPath(10, 20, 10, 80, 110, 80, 110, 20);
+        path.moveTo(200, 20);
+        path.lineTo(200, 80);
+        assertFalse(PageDrawer.getRectangleCorners(path, corners));
+
+        // a trailing move doesn't start another subpath with an area
+        path = createPath(10, 20, 10, 80, 110, 80, 110, 20);
+        path.moveTo(200, 20);
+        assertTrue(PageDrawer.getRectangleCorners(path, corners));
+    }
+
+    /**
+     * Tests rectangles which are closed with an explicit line back to the start.
+     */
+    @Test
+    void testExplicitClosingLine()
+    {
+        Path2D path = createOpenPath(10, 20, 10, 80, 110, 80, 110, 20);
+        path.lineTo(10, 20);
+        double[] corners = new double[8];
+        assertTrue(PageDrawer.getRectangleCorners(path, corners));
+        assertEquals(new Rectangle2D.Double(10, 20, 100, 60),
+                PageDrawer.getRectangularClip(Arrays.asList(path)));
+
+        // the line back to the start followed by a close, e.g. "m l l l l h"
+        path.closePath();
+        assertTrue(PageDrawer.getRectangleCorners(path, corners));
+        assertEquals(new Rectangle2D.Double(10, 20, 100, 60),
+                PageDrawer.getRectangularClip(Arrays.asList(path)));
+
+        // but not a line after the close
+        Path2D extended = new Path2D.Double(path);
+        extended.lineTo(110, 80);
+        assertFalse(PageDrawer.getRectangleCorners(extended, corners));
+
+        // a line which doesn't go back to the start is a fifth corner
+        path = createOpenPath(10, 20, 10, 80, 110, 80, 110, 20);
+        path.lineTo(10, 30);
+        path.closePath();
+        assertFalse(PageDrawer.getRectangleCorners(path, corners));
+    }
+
+    /**
+     * Tests that disjoint rectangles result in an empty clip, like the intersection of the areas.
+     */
+    @Test
+    void testEmptyIntersection()
+    {
+        List<Path2D> clippingPaths = Arrays.asList(
+                createPath(10, 20, 10, 80, 110, 80, 110, 20),
+                createPath(200, 20, 200, 80, 300, 80, 300, 20));
+        Rectangle2D clip = PageDrawer.getRectangularClip(clippingPaths);
+        assertNotNull(clip);
+        assertTrue(clip.isEmpty());
+        assertTrue(intersectAreas(clippingPaths).isEmpty());
+
+        // rectangles which only touch each other
+        clippingPaths = Arrays.asList(
+                createPath(10, 20, 10, 80, 110, 80, 110, 20),
+                createPath(110, 20, 110, 80, 200, 80, 200, 20));
+        clip = PageDrawer.getRectangularClip(clippingPaths);
+        assertNotNull(clip);
+        assertTrue(clip.isEmpty());
+        assertTrue(intersectAreas(clippingPaths).isEmpty());
+
+        // an empty clip stays empty
+        clippingPaths = Arrays.asList(
+                createPath(10, 20, 10, 80, 110, 80, 110, 20),
+                createPath(200, 20, 200, 80, 300, 80, 300, 20),
+                createPath(0, 0, 0, 500, 500, 500, 500, 0));
+        assertTrue(PageDrawer.getRectangularClip(clippingPaths).isEmpty());
+    }
+
+    private static Path2D createPath(double... coords)
+    {
+        Path2D path = createOpenPath(coords);
+        path.closePath();
+        return path;
+    }
+
+    private static Path2D createOpenPath(double... coords)
+    {
+        Path2D path = new Path2D.Double();
+        path.moveTo(coords[0], coords[1]);
+        for (int i = 2; i < coords.length; i += 2)
+        {
+            path.lineTo(coords[i], coords[i + 1]);
+        }
+        return path;
+    }
+
+    private static Area intersectAreas(List<Path2D> clippingPaths)
+    {
+        Area area = null;
+        for (Path2D path : clippingPaths)
+        {
+            if (area == null)
+            {
+                area = new Area(path);
+            }
+            else
+            {
+                area.intersect(new Area(path));
+            }
+        }
+        return area;
+    }
+}
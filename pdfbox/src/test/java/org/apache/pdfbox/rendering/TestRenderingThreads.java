@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.rendering;
+
+import static org.apache.pdfbox.rendering.RenderingTestUtils.assertSameImage;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts.FontName;
+import org.apache.pdfbox.pdmodel.graphics.state.PDExtendedGraphicsState;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests that rendering a page with several threads gives the same result as with one thread.
+ */
+class TestRenderingThreads
+{
+    /**
+     * Renders rectangles, lines and text which cross the borders of the tiles, with rectangular
+     * clips and transparency. The page is rendered twice, so that the threads of the renderer are
+     * reused.
+     *
+     * @throws IOException if an error occurs
+     */
+    @Test
+    void testSameImage() throws IOException
+    {
+        PDExtendedGraphicsState transparent = new PDExtendedGraphicsState();
+        transparent.setNonStrokingAlphaConstant(0.5f);
+        try (PDDocument document = RenderingTestUtils.createDocument(PDRectangle.A6,
+                (doc, contents) ->
+                {
+                    for (int i = 0; i < 20; i++)
+                    {
+                        contents.saveGraphicsState();
+                        contents.addRect(10 + i * 3, 10 + i * 7, 200, 150);
+                        contents.clip();
+                        contents.setGraphicsStateParameters(transparent);
+                        contents.setNonStrokingColor(i / 20f, 0.5f, 1 - i / 20f);
+                        contents.addRect(i * 10, i * 20, 80, 170);
+                        contents.fill();
+                        contents.restoreGraphicsState();
+                    }
+                    contents.setLineWidth(2.5f);
+                    contents.moveTo(0, 0);
+                    contents.lineTo(297, 420);
+                    contents.moveTo(297, 0);
+                    contents.lineTo(0, 420);
+                    contents.stroke();
+                    contents.beginText();
+                    contents.setFont(new PDType1Font(FontName.HELVETICA), 30);
+                    contents.newLineAtOffset(20, 200);
+                    contents.showText("Tiles");
+                    contents.endText();
+                }))
+        {
+            BufferedImage expected = new PDFRenderer(document).renderImage(0, 1.5f);
+            PDFRenderer renderer = new PDFRenderer(document);
+            renderer.setRenderingThreads(4);
+            assertSameImage(expected, renderer.renderImage(0, 1.5f));
+            assertSameImage(expected, renderer.renderImage(0, 1.5f));
+
+            renderer.setRenderingThreads(3);
+            assertSameImage(expected, renderer.renderImage(0, 1.5f));
+        }
+    }
+
+    /**
+     * Tests that copying an area while recording marks the display list as incomplete, so that
+     * the page is drawn directly, and that the following operations aren't recorded.
+     */
+    @Test
+    void testCopyArea()
+    {
+        BufferedImage image = new BufferedImage(10, 10, BufferedImage.TYPE_INT_RGB);
+        DisplayList displayList = new DisplayList(1);
+        Graphics2D graphics = new RecordingGraphics(image.createGraphics(), displayList);
+        try
+        {
+            graphics.setColor(Color.RED);
+            graphics.fillRect(0, 0, 5, 5);
+            assertTrue(displayList.isComplete());
+            graphics.copyArea(0, 0, 5, 5, 5, 5);
+            assertFalse(displayList.isComplete());
+            graphics.setColor(Color.BLUE);
+            graphics.fillRect(5, 0, 5, 5);
+            assertEquals(0, displayList.getSize());
+        }
+        finally
+        {
+            graphics.dispose();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.rendering;
+
+import static org.apache.pdfbox.rendering.RenderingTestUtils.assertSameImage;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.PDPatternContentStream;
+import org.apache.pdfbox.pdmodel.PDResources;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.graphics.color.PDColor;
+import org.apache.pdfbox.pdmodel.graphics.color.PDDeviceRGB;
+import org.apache.pdfbox.pdmodel.graphics.color.PDPattern;
+import org.apache.pdfbox.pdmodel.graphics.pattern.PDTilingPattern;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests that tiling pattern cells which are shared between pages are rendered like the cells of
+ * a fresh renderer.
+ */
+class TestTilingCellCache
+{
+    /**
+     * Renders pages which share an uncolored pattern, painted in two colors and at two scales,
+     * with one renderer and with a new renderer for every page.
+     *
+     * @throws IOException if an error occurs
+     */
+    @Test
+    void testSharedUncoloredPattern() throws IOException
+    {
+        try (PDDocument document = new PDDocument())
+        {
+            PDTilingPattern pattern = new PDTilingPattern();
+            pattern.setBBox(new PDRectangle(0, 0, 10, 10));
+            pattern.setPaintType(PDTilingPattern.PAINT_UNCOLORED);
+            pattern.setTilingType(PDTilingPattern.TILING_CONSTANT_SPACING);
+            pattern.setXStep(10);
+            pattern.setYStep(10);
+            try (PDPatternContentStream contents = new PDPatternContentStream(pattern))
+            {
+                contents.moveTo(0, 0);
+                contents.lineTo(10, 10);
+                contents.moveTo(0, 5);
+                contents.lineTo(10, 5);
+                contents.stroke();
+            }
+            PDPattern patternSpace = new PDPattern(null, PDDeviceRGB.INSTANCE);
+            float[][] colors = { { 1, 0, 0 }, { 0, 0.5f, 0 }, { 1, 0, 0 } };
+            for (float[] components : colors)
+            {
+                PDPage page = new PDPage(PDRectangle.A6);
+                page.setResources(new PDResources());
+                document.addPage(page);
+                COSName name = page.getResources().add(pattern);
+                try (PDPageContentStream contents = new PDPageContentStream(document, page))
+                {
+                    contents.setNonStrokingColor(new PDColor(components, name, patternSpace));
+                    contents.addRect(20, 20, 200, 300);
+                    contents.fill();
+                }
+            }
+
+            PDFRenderer renderer = new PDFRenderer(document);
+            for (float scale : new float[] { 1, 2, 1 })
+            {
+                for (int page = 0; page < colors.length; page++)
+                {
+                    BufferedImage expected = new PDFRenderer(document).renderImage(page, scale);
+                    assertSameImage(expected, renderer.renderImage(page, scale), "page " + page);
+                }
+            }
+        }
+    }
+}
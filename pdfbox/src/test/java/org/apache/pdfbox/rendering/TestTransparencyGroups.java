@@ -0,0 +1,303 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.rendering;
+
+import static org.apache.pdfbox.rendering.RenderingTestUtils.assertSameImage;
+import static org.apache.pdfbox.rendering.RenderingTestUtils.assertSimilarImage;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+
+import org.apache.pdfbox.cos.COSBoolean;
+import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDFormContentStream;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.PDPatternContentStream;
+import org.apache.pdfbox.pdmodel.PDResources;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.graphics.blend.BlendMode;
+import org.apache.pdfbox.pdmodel.graphics.color.PDColor;
+import org.apache.pdfbox.pdmodel.graphics.color.PDPattern;
+import org.apache.pdfbox.pdmodel.graphics.form.PDFormXObject;
+import org.apache.pdfbox.pdmodel.graphics.pattern.PDTilingPattern;
+import org.apache.pdfbox.pdmodel.graphics.state.PDExtendedGraphicsState;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests that transparency groups which are drawn directly look like groups drawn into an
+ * offscreen image, and that groups which need an offscreen image aren't drawn directly.
+ */
+class TestTransparencyGroups
+{
+    /**
+     * Tests an isolated group which draws a form with the Multiply blend mode. The form has to be
+     * blended with the transparent group and not with the blue page, so it stays red.
+     *
+     * @throws IOException if an error occurs
+     */
+    @Test
+    void testIsolatedGroupWithBlendModeInForm() throws IOException
+    {
+        try (PDDocument document = RenderingTestUtils.createDocument(PDRectangle.A6,
+                (doc, contents) ->
+                {
+                    PDFormXObject form = createForm(doc, null);
+                    try (PDFormContentStream formContents = new PDFormContentStream(form))
+                    {
+                        formContents.setGraphicsStateParameters(createBlendMode());
+                        formContents.setNonStrokingColor(1f, 0f, 0f);
+                        formContents.addRect(50, 50, 150, 150);
+                        formContents.fill();
+                    }
+                    PDFormXObject group = createForm(doc, createGroup(true));
+                    try (PDFormContentStream groupContents = new PDFormContentStream(group))
+                    {
+                        groupContents.drawForm(form);
+                    }
+                    drawOnBlue(contents, group);
+                }))
+        {
+            BufferedImage image = assertSameImageWithAndWithoutDirectGroups(document);
+            assertEquals(0xffff0000, image.getRGB(100, 300));
+        }
+    }
+
+    /**
+     * Tests an isolated group which fills with a tiling pattern using the Multiply blend mode.
+     *
+     * @throws IOException if an error occurs
+     */
+    @Test
+    void testIsolatedGroupWithBlendModeInPattern() throws IOException
+    {
+        try (PDDocument document = RenderingTestUtils.createDocument(PDRectangle.A6,
+                (doc, contents) ->
+                {
+                    PDTilingPattern pattern = new PDTilingPattern();
+                    pattern.setBBox(new PDRectangle(0, 0, 10, 10));
+                    pattern.setPaintType(PDTilingPattern.PAINT_COLORED);
+                    pattern.setTilingType(PDTilingPattern.TILING_CONSTANT_SPACING);
+                    pattern.setXStep(10);
+                    pattern.setYStep(10);
+                    pattern.setResources(new PDResources());
+                    try (PDPatternContentStream patternContents =
+                            new PDPatternContentStream(pattern))
+                    {
+                        patternContents.setGraphicsStateParameters(createBlendMode());
+                        patternContents.setNonStrokingColor(1f, 0f, 0f);
+                        patternContents.addRect(0, 0, 10, 10);
+                        patternContents.fill();
+                    }
+                    PDFormXObject group = createForm(doc, createGroup(true));
+                    try (PDFormContentStream groupContents = new PDFormContentStream(group))
+                    {
+                        COSName name = group.getResources().add(pattern);
+                        groupContents.setNonStrokingColor(
+                                new PDColor(new float[0], name, new PDPattern(null)));
+                        groupContents.addRect(50, 50, 150, 150);
+                        groupContents.fill();
+                    }
+                    drawOnBlue(contents, group);
+                }))
+        {
+            BufferedImage image = assertSameImageWithAndWithoutDirectGroups(document);
+            assertEquals(0xffff0000, image.getRGB(100, 300));
+        }
+    }
+
+    /**
+     * Tests a non-isolated group with semi-transparent fills, which is drawn directly.
+     *
+     * @throws IOException if an error occurs
+     */
+    @Test
+    void testNonIsolatedGroup() throws IOException
+    {
+        try (PDDocument document = RenderingTestUtils.createDocument(PDRectangle.A6,
+                (doc, contents) ->
+                {
+                    PDFormXObject group = createForm(doc, createGroup(false));
+                    try (PDFormContentStream groupContents = new PDFormContentStream(group))
+                    {
+                        PDExtendedGraphicsState transparent = new PDExtendedGraphicsState();
+                        transparent.setNonStrokingAlphaConstant(0.5f);
+                        groupContents.setGraphicsStateParameters(transparent);
+                        drawOverlappingRectangles(groupContents);
+                    }
+                    drawOnBlue(contents, group);
+                }))
+        {
+            // the semi-transparent colors are rounded differently when they are composited twice
+            assertSimilarImage(renderImage(document, false), renderImage(document, true), 1, 0.1);
+        }
+    }
+
+    /**
+     * Tests a group which is painted with an alpha below 1, the overlapping fills of the group
+     * must not show through each other.
+     *
+     * @throws IOException if an error occurs
+     */
+    @Test
+    void testGroupWithAlpha() throws IOException
+    {
+        try (PDDocument document = RenderingTestUtils.createDocument(PDRectangle.A6,
+                (doc, contents) ->
+                {
+                    PDFormXObject group = createForm(doc, createGroup(false));
+                    try (PDFormContentStream groupContents = new PDFormContentStream(group))
+                    {
+                        drawOverlappingRectangles(groupContents);
+                    }
+                    PDExtendedGraphicsState transparent = new PDExtendedGraphicsState();
+                    transparent.setNonStrokingAlphaConstant(0.5f);
+                    contents.setGraphicsStateParameters(transparent);
+                    contents.drawForm(group);
+                }))
+        {
+            BufferedImage image = assertSameImageWithAndWithoutDirectGroups(document);
+            // the overlap looks like the green rectangle alone
+            assertEquals(image.getRGB(190, 270), image.getRGB(110, 270));
+        }
+    }
+
+    /**
+     * Tests several fills under one soft mask, each with another clip. The mask is rendered
+     * again for every clip, and the images of the mask are returned to the buffer pool.
+     *
+     * @throws IOException if an error occurs
+     */
+    @Test
+    void testSoftMaskWithChangingClip() throws IOException
+    {
+        try (PDDocument document = RenderingTestUtils.createDocument(PDRectangle.A6,
+                (doc, contents) ->
+                {
+                    PDFormXObject mask = createForm(doc, createGroup(false));
+                    try (PDFormContentStream maskContents = new PDFormContentStream(mask))
+                    {
+                        maskContents.setNonStrokingColor(0.5f);
+                        maskContents.addRect(0, 0, 297, 420);
+                        maskContents.fill();
+                    }
+                    COSDictionary softMask = new COSDictionary();
+                    softMask.setItem(COSName.TYPE, COSName.MASK);
+                    softMask.setItem(COSName.S, COSName.LUMINOSITY);
+                    softMask.setItem(COSName.G, mask);
+                    PDExtendedGraphicsState masked = new PDExtendedGraphicsState();
+                    masked.getCOSObject().setItem(COSName.SMASK, softMask);
+
+                    PDFormXObject group = createForm(doc, createGroup(false));
+                    try (PDFormContentStream groupContents = new PDFormContentStream(group))
+                    {
+                        groupContents.setGraphicsStateParameters(masked);
+                        groupContents.setNonStrokingColor(1f, 0f, 0f);
+                        for (int i = 0; i < 4; i++)
+                        {
+                            groupContents.saveGraphicsState();
+                            groupContents.addRect(20.3f + i * 60, 20.3f + i * 80, 50, 50);
+                            groupContents.clip();
+                            groupContents.addRect(0, 0, 297, 420);
+                            groupContents.fill();
+                            groupContents.restoreGraphicsState();
+                        }
+                    }
+                    contents.drawForm(group);
+                }))
+        {
+            BufferedImage image = assertSameImageWithAndWithoutDirectGroups(document);
+            int masked = image.getRGB(45, 420 - 45);
+            assertEquals(0xff, masked >> 16 & 0xff);
+            int green = masked >> 8 & 0xff;
+            assertTrue(green > 0 && green < 0xff, "masked red " + Integer.toHexString(masked));
+            for (int i = 1; i < 4; i++)
+            {
+                assertEquals(masked, image.getRGB(45 + i * 60, 420 - 45 - i * 80));
+            }
+            // outside of the clips
+            assertEquals(0xffffffff, image.getRGB(45, 420 - 125));
+        }
+    }
+
+    private static BufferedImage assertSameImageWithAndWithoutDirectGroups(PDDocument document)
+            throws IOException
+    {
+        BufferedImage actual = renderImage(document, true);
+        assertSameImage(renderImage(document, false), actual);
+        return actual;
+    }
+
+    private static BufferedImage renderImage(PDDocument document, boolean groupsDrawnDirectly)
+            throws IOException
+    {
+        PDFRenderer renderer = new PDFRenderer(document);
+        renderer.setTransparencyGroupsDrawnDirectly(groupsDrawnDirectly);
+        return renderer.renderImage(0);
+    }
+
+    private static PDFormXObject createForm(PDDocument document, COSDictionary group)
+    {
+        PDFormXObject form = new PDFormXObject(document);
+        form.setBBox(PDRectangle.A6);
+        form.setResources(new PDResources());
+        if (group != null)
+        {
+            form.getCOSObject().setItem(COSName.GROUP, group);
+        }
+        return form;
+    }
+
+    private static COSDictionary createGroup(boolean isolated)
+    {
+        COSDictionary group = new COSDictionary();
+        group.setItem(COSName.S, COSName.TRANSPARENCY);
+        group.setItem(COSName.I, COSBoolean.getBoolean(isolated));
+        return group;
+    }
+
+    private static PDExtendedGraphicsState createBlendMode()
+    {
+        PDExtendedGraphicsState blendMode = new PDExtendedGraphicsState();
+        blendMode.setBlendMode(BlendMode.MULTIPLY);
+        return blendMode;
+    }
+
+    private static void drawOnBlue(PDPageContentStream contents, PDFormXObject group)
+            throws IOException
+    {
+        contents.setNonStrokingColor(0.2f, 0.4f, 1f);
+        contents.addRect(0, 0, 297, 420);
+        contents.fill();
+        contents.drawForm(group);
+    }
+
+    // a red rectangle from 50 to 150 and a green one from 100 to 200, at y 100 to 200
+    private static void drawOverlappingRectangles(PDFormContentStream contents)
+            throws IOException
+    {
+        contents.setNonStrokingColor(1f, 0f, 0f);
+        contents.addRect(50.3f, 100.3f, 100, 100);
+        contents.fill();
+        contents.setNonStrokingColor(0f, 1f, 0f);
+        contents.addRect(100.3f, 100.3f, 100, 100);
+        contents.fill();
+    }
+}